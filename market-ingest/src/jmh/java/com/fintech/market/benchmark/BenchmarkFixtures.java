@@ -0,0 +1,91 @@
+package com.fintech.market.benchmark;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.bars.BarAggregator;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.BarProperties;
+import com.fintech.market.config.IndicatorProperties;
+import com.fintech.market.config.MetricsProperties;
+import com.fintech.market.config.PublishProperties;
+import com.fintech.market.indicators.IndicatorEngine;
+import com.fintech.market.metrics.PipelineMetrics;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Shared inputs and hand-wired components for the benchmarks
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @return symbols SYM00000, SYM00001, ...
+     */
+    static String[] symbols(int count) {
+        String[] symbols = new String[count];
+        for (int i = 0; i < count; i++) {
+            symbols[i] = String.format("SYM%05d", i);
+        }
+        return symbols;
+    }
+
+    /**
+     * @return one JSON tick per symbol, as a provider sends them
+     */
+    static String[] jsonTicks(String[] symbols) {
+        String[] ticks = new String[symbols.length];
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < symbols.length; i++) {
+            ticks[i] = String.format("{\"symbol\":\"%s\",\"price\":%.2f,\"ts\":%d}", symbols[i], 100.0 + i * 0.01, timestamp + i);
+        }
+        return ticks;
+    }
+
+    /**
+     * PricePublisher wired the way Spring would, publishing through the in-memory broker
+     */
+    static PricePublisher pricePublisher(InMemoryBroker broker, PublishProperties publishProperties,
+                                         SymbolRegistry symbolRegistry) {
+        PricePublisher publisher = new PricePublisher();
+        ReflectionTestUtils.setField(publisher, "messagingTemplate", broker.getMessagingTemplate());
+        ReflectionTestUtils.setField(publisher, "subscriptionTracker", broker.getSubscriptionTracker());
+        ReflectionTestUtils.setField(publisher, "publishProperties", publishProperties);
+        ReflectionTestUtils.setField(publisher, "symbolRegistry", symbolRegistry);
+        return publisher;
+    }
+
+    /**
+     * BarAggregator with the default intervals, publishing through the given publisher
+     */
+    static BarAggregator barAggregator(PricePublisher publisher, SymbolRegistry symbolRegistry) {
+        BarAggregator aggregator = new BarAggregator();
+        ReflectionTestUtils.setField(aggregator, "barProperties", new BarProperties());
+        ReflectionTestUtils.setField(aggregator, "pricePublisher", publisher);
+        ReflectionTestUtils.setField(aggregator, "symbolRegistry", symbolRegistry);
+        aggregator.start();
+        return aggregator;
+    }
+
+    /**
+     * IndicatorEngine with the default windows, publishing through the given publisher
+     */
+    static IndicatorEngine indicatorEngine(PricePublisher publisher, SymbolRegistry symbolRegistry) {
+        IndicatorEngine engine = new IndicatorEngine();
+        ReflectionTestUtils.setField(engine, "indicatorProperties", new IndicatorProperties());
+        ReflectionTestUtils.setField(engine, "pricePublisher", publisher);
+        ReflectionTestUtils.setField(engine, "symbolRegistry", symbolRegistry);
+        engine.start();
+        return engine;
+    }
+
+    /**
+     * PipelineMetrics with the default timers, recording into a private registry
+     */
+    static PipelineMetrics pipelineMetrics() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        ReflectionTestUtils.setField(metrics, "metricsProperties", new MetricsProperties());
+        metrics.init();
+        return metrics;
+    }
+}
@@ -0,0 +1,81 @@
+package com.fintech.market.benchmark;
+
+import com.fintech.market.pipeline.ConflationEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting cost: ConflationEngine updates on the conflate stage, and a flush of
+ * the ticks that accumulate between two flusher runs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConflationBenchmark {
+
+    private static final int TICKS_PER_FLUSH = 1000;
+
+    @Param({"10", "1000", "10000"})
+    private int symbolCount;
+
+    private String[] symbols;
+    private ConflationEngine engine;
+    private int next;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        symbols = BenchmarkFixtures.symbols(symbolCount);
+        engine = new ConflationEngine();
+        for (int i = 0; i < symbolCount; i++) {
+            engine.update(i, symbols[i], 100.0, 0L, 0L);
+        }
+        engine.flush((symbolId, symbol, price, timestamp, seq) -> { });
+    }
+
+    private int nextSymbolId() {
+        int symbolId = next;
+        next = next + 1 == symbolCount ? 0 : next + 1;
+        return symbolId;
+    }
+
+    /**
+     * Steady-state update; the symbol stays dirty, so this is the conflating path
+     */
+    @Benchmark
+    public void update() {
+        long seq = ++sequence;
+        int symbolId = nextSymbolId();
+        engine.update(symbolId, symbols[symbolId], 100.0 + (seq & 0xFF) * 0.01, seq, seq);
+    }
+
+    /**
+     * One flush interval: a burst of updates followed by a flush
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS_PER_FLUSH)
+    public int updateAndFlush(Blackhole blackhole) {
+        for (int i = 0; i < TICKS_PER_FLUSH; i++) {
+            long seq = ++sequence;
+            int symbolId = nextSymbolId();
+            engine.update(symbolId, symbols[symbolId], 100.0 + (seq & 0xFF) * 0.01, seq, seq);
+        }
+        return engine.flush((symbolId, symbol, price, timestamp, seq) -> blackhole.consume(price));
+    }
+}
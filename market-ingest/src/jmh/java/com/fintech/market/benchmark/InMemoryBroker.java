@@ -0,0 +1,68 @@
+package com.fintech.market.benchmark;
+
+import com.fintech.market.outbound.PriceMessageConverter;
+import com.fintech.market.subscription.SubscriptionTracker;
+import com.fintech.market.subscription.TrieSubscriptionRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+
+/**
+ * The STOMP simple broker and messaging template as WebSocketConfig sets them up,
+ * with synchronous channels and an outbound channel that only counts frames, so a
+ * publish runs conversion, destination matching and fan-out but no socket I/O.
+ * Subscriptions also pass through a SubscriptionTracker, as on the inbound channel.
+ */
+final class InMemoryBroker {
+
+    private final SimpleBrokerMessageHandler broker;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SubscriptionTracker subscriptionTracker = new SubscriptionTracker();
+    private long deliveredCount;
+
+    InMemoryBroker() {
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        clientOutbound.subscribe(message -> deliveredCount++);
+
+        this.broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic"));
+        this.broker.setSubscriptionRegistry(new TrieSubscriptionRegistry());
+        this.broker.start();
+
+        this.messagingTemplate = new SimpMessagingTemplate(brokerChannel);
+        this.messagingTemplate.setMessageConverter(new CompositeMessageConverter(List.of(
+            new PriceMessageConverter(), new StringMessageConverter(), new ByteArrayMessageConverter(), new MappingJackson2MessageConverter())));
+    }
+
+    /**
+     * Register a subscription as if a client had sent SUBSCRIBE
+     */
+    void subscribe(String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        subscriptionTracker.preSend(message, null);
+        broker.handleMessage(message);
+    }
+
+    void stop() {
+        broker.stop();
+    }
+
+    SimpMessagingTemplate getMessagingTemplate() { return messagingTemplate; }
+    SubscriptionTracker getSubscriptionTracker() { return subscriptionTracker; }
+    long getDeliveredCount() { return deliveredCount; }
+}
@@ -0,0 +1,125 @@
+package com.fintech.market.benchmark;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.WebSocketClientService;
+import com.fintech.market.bars.BarAggregator;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.JournalProperties;
+import com.fintech.market.config.PublishProperties;
+import com.fintech.market.history.HistoryStore;
+import com.fintech.market.indicators.IndicatorEngine;
+import com.fintech.market.pipeline.TickPipeline;
+import com.fintech.market.snapshot.LastValueCache;
+import com.fintech.market.watchlist.WatchlistManager;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocketClientService.parseTick end to end: ring buffer handoff, decode and
+ * conflate stages including bar aggregation and indicators, and publishing to the in-memory broker.
+ * The score is the feed thread's rate; ticks the pipeline could not absorb are
+ * reported as "dropped".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseTickBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int symbolCount;
+
+    @Param({"true", "false"})
+    private boolean conflation;
+
+    @Param({"sleeping", "busy-spin"})
+    private String waitStrategy;
+
+    private InMemoryBroker broker;
+    private BarAggregator barAggregator;
+    private IndicatorEngine indicatorEngine;
+    private TickPipeline tickPipeline;
+    private WebSocketClientService service;
+    private String[] ticks;
+    private int next;
+
+    /**
+     * Ticks rejected because the ring buffer was full
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Drops {
+        public long dropped;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        broker = new InMemoryBroker();
+        PublishProperties publishProperties = new PublishProperties();
+
+        SymbolRegistry symbolRegistry = new SymbolRegistry();
+        LastValueCache lastValueCache = new LastValueCache();
+        ReflectionTestUtils.setField(lastValueCache, "symbolRegistry", symbolRegistry);
+
+        PricePublisher publisher = BenchmarkFixtures.pricePublisher(broker, publishProperties, symbolRegistry);
+        barAggregator = BenchmarkFixtures.barAggregator(publisher, symbolRegistry);
+        indicatorEngine = BenchmarkFixtures.indicatorEngine(publisher, symbolRegistry);
+
+        tickPipeline = new TickPipeline();
+        ReflectionTestUtils.setField(tickPipeline, "pricePublisher", publisher);
+        ReflectionTestUtils.setField(tickPipeline, "barAggregator", barAggregator);
+        ReflectionTestUtils.setField(tickPipeline, "indicatorEngine", indicatorEngine);
+        ReflectionTestUtils.setField(tickPipeline, "historyStore", new HistoryStore());
+        ReflectionTestUtils.setField(tickPipeline, "symbolRegistry", symbolRegistry);
+        ReflectionTestUtils.setField(tickPipeline, "lastValueCache", lastValueCache);
+        ReflectionTestUtils.setField(tickPipeline, "pipelineMetrics", BenchmarkFixtures.pipelineMetrics());
+        ReflectionTestUtils.setField(tickPipeline, "watchlistManager", new WatchlistManager());
+        ReflectionTestUtils.setField(tickPipeline, "publishProperties", publishProperties);
+        ReflectionTestUtils.setField(tickPipeline, "journalProperties", new JournalProperties());
+        ReflectionTestUtils.setField(tickPipeline, "bufferSize", 65536);
+        ReflectionTestUtils.setField(tickPipeline, "waitStrategyName", waitStrategy);
+        ReflectionTestUtils.setField(tickPipeline, "conflationEnabled", conflation);
+        ReflectionTestUtils.setField(tickPipeline, "flushIntervalMs", 100L);
+        tickPipeline.start();
+
+        service = new WebSocketClientService();
+        ReflectionTestUtils.setField(service, "tickPipeline", tickPipeline);
+
+        ticks = BenchmarkFixtures.jsonTicks(BenchmarkFixtures.symbols(symbolCount));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tickPipeline.stop();
+        barAggregator.stop();
+        indicatorEngine.stop();
+        broker.stop();
+    }
+
+    @Benchmark
+    public void parseTick(Drops drops) {
+        long overflow = tickPipeline.getOverflowCount();
+        service.parseTick(ticks[next]);
+        next = next + 1 == symbolCount ? 0 : next + 1;
+        if (tickPipeline.getOverflowCount() != overflow) {
+            drops.dropped++;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.fintech.market.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.market.PricePublisher;
+import com.fintech.market.WebSocketClientService;
+import com.fintech.market.codec.BinaryTickCodec;
+import com.fintech.market.outbound.PriceJsonEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound payload encoding: a PriceMessage and a PriceBatchMessage of every symbol
+ * through Jackson, as MappingJackson2MessageConverter does, through the hand-written
+ * PriceJsonEncoder the broker uses, and the binary tick frame.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PriceMessageSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int symbolCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ByteBuffer frame = ByteBuffer.allocate(BinaryTickCodec.TICK_FRAME_LENGTH);
+    private PricePublisher.PriceMessage priceMessage;
+    private List<WebSocketClientService.PriceData> batch;
+
+    @Setup
+    public void setUp() {
+        priceMessage = new PricePublisher.PriceMessage("AAPL", 150.25, System.currentTimeMillis(), System.currentTimeMillis());
+        batch = new ArrayList<>(symbolCount);
+        long timestamp = System.currentTimeMillis();
+        for (String symbol : BenchmarkFixtures.symbols(symbolCount)) {
+            batch.add(new WebSocketClientService.PriceData(symbol, 150.25, timestamp));
+        }
+    }
+
+    @Benchmark
+    public byte[] priceMessageJson() throws Exception {
+        return objectMapper.writeValueAsBytes(priceMessage);
+    }
+
+    @Benchmark
+    public byte[] priceBatchMessageJson() throws Exception {
+        return objectMapper.writeValueAsBytes(PricePublisher.PriceBatchMessage.of(batch, System.currentTimeMillis()));
+    }
+
+    @Benchmark
+    public byte[] priceMessageEncoder() {
+        return PriceJsonEncoder.encode(priceMessage);
+    }
+
+    @Benchmark
+    public byte[] priceBatchMessageEncoder() {
+        return PriceJsonEncoder.encode(PricePublisher.PriceBatchMessage.of(batch, System.currentTimeMillis()));
+    }
+
+    @Benchmark
+    public ByteBuffer priceBinaryFrame() {
+        frame.clear();
+        BinaryTickCodec.encodeTick(frame, 1, 1L, priceMessage.getPrice(), 6,
+                                   priceMessage.getMarketTimestamp(), priceMessage.getPublishTimestamp());
+        return frame;
+    }
+}
@@ -0,0 +1,74 @@
+package com.fintech.market.benchmark;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.WebSocketClientService;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.PublishProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PricePublisher.publishPrice against the in-memory simple broker, with a number of
+ * STOMP subscribers on every symbol's topic. With no subscribers the publisher skips
+ * the tick before conversion.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PublishPriceBenchmark {
+
+    @Param({"10", "1000"})
+    private int symbolCount;
+
+    @Param({"0", "1", "10"})
+    private int subscribersPerSymbol;
+
+    private InMemoryBroker broker;
+    private PricePublisher publisher;
+    private WebSocketClientService.PriceData[] prices;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        broker = new InMemoryBroker();
+        SymbolRegistry symbolRegistry = new SymbolRegistry();
+        publisher = BenchmarkFixtures.pricePublisher(broker, new PublishProperties(), symbolRegistry);
+
+        String[] symbols = BenchmarkFixtures.symbols(symbolCount);
+        prices = new WebSocketClientService.PriceData[symbolCount];
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < symbolCount; i++) {
+            prices[i] = new WebSocketClientService.PriceData(
+                symbols[i], symbolRegistry.idOf(symbols[i]), 100.0 + i * 0.01, timestamp, 0L);
+            for (int s = 0; s < subscribersPerSymbol; s++) {
+                broker.subscribe("session-" + s, "sub-" + i, "/topic/price/" + symbols[i]);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.stop();
+    }
+
+    @Benchmark
+    public void publishPrice() {
+        publisher.publishPrice(prices[next]);
+        next = next + 1 == symbolCount ? 0 : next + 1;
+    }
+}
@@ -0,0 +1,86 @@
+package com.fintech.market.benchmark;
+
+import com.fintech.market.subscription.TrieSubscriptionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MultiValueMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriber lookup for a published price, cycling through every symbol's topic, with
+ * two subscriptions per topic and optionally a few pattern subscriptions. Compares
+ * Spring's DefaultSubscriptionRegistry with the TrieSubscriptionRegistry the broker uses.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SubscriptionRegistryBenchmark {
+
+    private static final int SUBSCRIBERS_PER_SYMBOL = 2;
+
+    @Param({"default", "trie"})
+    private String registryType;
+
+    @Param({"1000", "50000"})
+    private int symbolCount;
+
+    @Param({"0", "10"})
+    private int patternCount;
+
+    private SubscriptionRegistry registry;
+    private Message<?>[] messages;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        registry = registryType.equals("trie") ? new TrieSubscriptionRegistry() : new DefaultSubscriptionRegistry();
+        String[] symbols = BenchmarkFixtures.symbols(symbolCount);
+        messages = new Message<?>[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            String destination = "/topic/price/" + symbols[i];
+            for (int s = 0; s < SUBSCRIBERS_PER_SYMBOL; s++) {
+                registry.registerSubscription(message(SimpMessageType.SUBSCRIBE, "session-" + (i * SUBSCRIBERS_PER_SYMBOL + s) % 5000,
+                                                      "sub-" + i, destination));
+            }
+            messages[i] = message(SimpMessageType.MESSAGE, null, null, destination);
+        }
+        for (int p = 0; p < patternCount; p++) {
+            registry.registerSubscription(message(SimpMessageType.SUBSCRIBE, "pattern-" + p, "sub-0",
+                                                  p % 2 == 0 ? "/topic/price/*" : "/topic/price/SYM0000" + p + "*"));
+        }
+    }
+
+    @Benchmark
+    public MultiValueMap<String, String> findSubscriptions() {
+        MultiValueMap<String, String> subscriptions = registry.findSubscriptions(messages[next]);
+        next = next + 1 == symbolCount ? 0 : next + 1;
+        return subscriptions;
+    }
+
+    private static Message<byte[]> message(SimpMessageType type, String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
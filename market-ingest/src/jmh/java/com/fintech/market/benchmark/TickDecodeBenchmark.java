@@ -0,0 +1,97 @@
+package com.fintech.market.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.market.codec.BinaryTickCodec;
+import com.fintech.market.codec.MutableTick;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.codec.TickDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode stage cost per tick: the streaming JSON decoder, the binary codec, and the
+ * readTree parsing parseTick used before the pipeline as a baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TickDecodeBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int symbolCount;
+
+    private String[] jsonTicks;
+    private byte[][] jsonBytes;
+    private byte[][] binaryFrames;
+    private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+    private final TickDecoder decoder = new TickDecoder(symbolRegistry);
+    private final BinaryTickCodec binaryCodec = new BinaryTickCodec(symbolRegistry);
+    private final MutableTick tick = new MutableTick();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] symbols = BenchmarkFixtures.symbols(symbolCount);
+        jsonTicks = BenchmarkFixtures.jsonTicks(symbols);
+        jsonBytes = new byte[symbolCount][];
+        binaryFrames = new byte[symbolCount][];
+        ByteBuffer declarations = ByteBuffer.allocate(BinaryTickCodec.SYMBOL_HEADER_LENGTH + 255);
+        for (int i = 0; i < symbolCount; i++) {
+            jsonBytes[i] = jsonTicks[i].getBytes(StandardCharsets.UTF_8);
+            binaryFrames[i] = BinaryTickCodec.encodeTick(i, 1L, 100.0 + i * 0.01, 4, System.currentTimeMillis(), 0L);
+
+            declarations.clear();
+            BinaryTickCodec.encodeSymbol(declarations, i, symbols[i]);
+            binaryCodec.decode(declarations.array(), 0, declarations.position(), tick);
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == symbolCount ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public MutableTick decodeJsonString() {
+        decoder.decode(jsonTicks[nextIndex()], tick);
+        return tick;
+    }
+
+    @Benchmark
+    public MutableTick decodeJsonBytes() {
+        byte[] payload = jsonBytes[nextIndex()];
+        decoder.decode(payload, 0, payload.length, tick);
+        return tick;
+    }
+
+    @Benchmark
+    public MutableTick decodeBinary() {
+        byte[] frame = binaryFrames[nextIndex()];
+        binaryCodec.decode(frame, 0, frame.length, tick);
+        return tick;
+    }
+
+    @Benchmark
+    public JsonNode readTreeBaseline() throws Exception {
+        return objectMapper.readTree(jsonTicks[nextIndex()]);
+    }
+}
@@ -1,5 +1,10 @@
 package com.fintech.market;
 
+import com.fintech.market.generator.GbmPriceModel;
+import com.fintech.market.generator.SyntheticFeedGenerator;
+import com.fintech.market.pipeline.TickSink;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,8 +12,10 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 @Service
 public class MockDataService {
@@ -30,11 +37,46 @@ public class MockDataService {
     @Value("${mock.data.price-range.max:500.0}")
     private double maxPrice;
     
+    @Value("${mock.data.drift:0.05}")
+    private double drift;
+    
+    @Value("${mock.data.volatility:0.3}")
+    private double volatility;
+    
+    @Value("${mock.data.high-rate.enabled:false}")
+    private boolean highRateEnabled;
+    
+    @Value("${mock.data.high-rate.symbol-count:2000}")
+    private int highRateSymbolCount;
+    
+    @Value("${mock.data.high-rate.ticks-per-second:100000}")
+    private int highRateTicksPerSecond;
+    
+    @Value("${mock.data.high-rate.threads:4}")
+    private int highRateThreads;
+    
+    @Value("${mock.data.high-rate.batch-size:64}")
+    private int highRateBatchSize;
+    
+    @Value("${mock.data.high-rate.format:binary}")
+    private String highRateFormat;
+    
     private final Random random = new Random();
-    private final List<String> symbolList;
+    private List<String> symbolList;
+    private GbmPriceModel priceModel;
+    private SyntheticFeedGenerator highRateGenerator;
     
-    public MockDataService() {
+    @PostConstruct
+    public void init() {
+        // Injected fields are only available after construction
         this.symbolList = Arrays.asList(symbols);
+        this.priceModel = new GbmPriceModel(initialPrices(symbolList.size()), drift, volatility,
+                                            Math.max(1L, intervalMs) * symbolList.size() / 1000.0);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        stopHighRateFeed();
     }
     
     /**
@@ -42,23 +84,25 @@ public class MockDataService {
      * @return JSON string with mock tick data
      */
     public String generateMockTick() {
-        String symbol = symbolList.get(random.nextInt(symbolList.size()));
-        double price = minPrice + (maxPrice - minPrice) * random.nextDouble();
-        long timestamp = System.currentTimeMillis();
-        
-        return String.format(
-            "{\"symbol\":\"%s\",\"price\":%.2f,\"ts\":%d}",
-            symbol, price, timestamp
-        );
+        return generateMockTick(symbolList.get(random.nextInt(symbolList.size())));
     }
     
     /**
-     * Generate mock tick data for specific symbol
+     * Generate mock tick data for specific symbol. Configured symbols follow a
+     * geometric Brownian motion walk; others get a random price in range.
      * @param symbol the symbol to generate data for
      * @return JSON string with mock tick data
      */
     public String generateMockTick(String symbol) {
-        double price = minPrice + (maxPrice - minPrice) * random.nextDouble();
+        int index = symbolList.indexOf(symbol);
+        double price;
+        if (index >= 0) {
+            synchronized (priceModel) {
+                price = priceModel.step(index, random);
+            }
+        } else {
+            price = minPrice + (maxPrice - minPrice) * random.nextDouble();
+        }
         long timestamp = System.currentTimeMillis();
         
         return String.format(
@@ -67,6 +111,51 @@ public class MockDataService {
         );
     }
     
+    /**
+     * Start the high-rate synthetic feed into the given sink
+     * @param sink typically the TickPipeline
+     */
+    public synchronized void startHighRateFeed(TickSink sink) {
+        if (highRateGenerator != null) {
+            return;
+        }
+        String[] feedSymbols = highRateSymbols();
+        GbmPriceModel model = new GbmPriceModel(initialPrices(feedSymbols.length), drift, volatility,
+                                                (double) feedSymbols.length / highRateTicksPerSecond);
+        highRateGenerator = new SyntheticFeedGenerator(feedSymbols, model, highRateTicksPerSecond, highRateThreads,
+                                                       highRateBatchSize, SyntheticFeedGenerator.Format.fromName(highRateFormat), sink);
+        highRateGenerator.start();
+    }
+    
+    /**
+     * Stop the high-rate synthetic feed if running
+     */
+    public synchronized void stopHighRateFeed() {
+        if (highRateGenerator != null) {
+            highRateGenerator.stop();
+            highRateGenerator = null;
+        }
+    }
+    
+    /**
+     * Configured symbols first, padded with generated SYNnnnnn names up to the symbol count
+     */
+    private String[] highRateSymbols() {
+        Set<String> names = new LinkedHashSet<>(symbolList);
+        for (int i = 0; names.size() < highRateSymbolCount; i++) {
+            names.add(String.format("SYN%05d", i));
+        }
+        return names.toArray(new String[0]);
+    }
+    
+    private double[] initialPrices(int count) {
+        double[] prices = new double[count];
+        for (int i = 0; i < count; i++) {
+            prices[i] = minPrice + (maxPrice - minPrice) * random.nextDouble();
+        }
+        return prices;
+    }
+    
     /**
      * Check if mock data is enabled
      * @return true if mock data is enabled
@@ -75,6 +164,14 @@ public class MockDataService {
         return mockDataEnabled;
     }
     
+    /**
+     * Check if the high-rate synthetic feed replaces the interval mock ticks
+     * @return true if high-rate mode is enabled
+     */
+    public boolean isHighRateEnabled() {
+        return highRateEnabled;
+    }
+    
     /**
      * Get list of mock symbols
      * @return list of symbols
@@ -90,4 +187,12 @@ public class MockDataService {
     public long getIntervalMs() {
         return intervalMs;
     }
+    
+    /**
+     * Get the running high-rate generator
+     * @return the generator, or null when not running
+     */
+    public synchronized SyntheticFeedGenerator getHighRateGenerator() {
+        return highRateGenerator;
+    }
 }
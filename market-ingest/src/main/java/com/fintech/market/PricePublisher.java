@@ -1,39 +1,94 @@
 package com.fintech.market;
 
+import com.fintech.market.codec.BinaryTickCodec;
+import com.fintech.market.codec.SymbolDestinations;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.PublishProperties;
+import com.fintech.market.subscription.SubscriptionTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 public class PricePublisher {
 
     private static final Logger logger = LoggerFactory.getLogger(PricePublisher.class);
     
+    public static final String BATCH_TOPIC = "/topic/prices/batch";
+    public static final String PRICE_TOPIC_PREFIX = "/topic/price/";
+    public static final String BINARY_TOPIC_PREFIX = "/topic/price-bin/";
+    public static final String BARS_TOPIC_PREFIX = "/topic/bars/";
+    public static final String INDICATORS_TOPIC_PREFIX = "/topic/indicators/";
+    public static final String BOOK_TOPIC_PREFIX = "/topic/book/";
+    
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
     
+    @Autowired
+    private PublishProperties publishProperties;
+    
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+    
+    @Autowired
+    private SubscriptionTracker subscriptionTracker;
+    
+    private volatile List<WatchlistFilter> watchlistFilters;
+    
+    // Destination strings per symbol id, built on first publish
+    private final SymbolDestinations priceTopics = new SymbolDestinations(PRICE_TOPIC_PREFIX);
+    private final SymbolDestinations binaryTopics = new SymbolDestinations(BINARY_TOPIC_PREFIX);
+    
+    private volatile long skippedCount;
+    
     /**
      * Publish price data to STOMP topic
      * @param priceData the price data to publish
      */
     public void publishPrice(WebSocketClientService.PriceData priceData) {
         try {
-            String topic = "/topic/price/" + priceData.getSymbol();
+            int symbolId = priceData.getSymbolId();
+            String topic = priceTopics.get(symbolId, priceData.getSymbol());
+            boolean json = isWatched(topic);
+            boolean binary = false;
+            if (publishProperties.getBinary().isEnabled()) {
+                if (symbolId < 0) {
+                    symbolId = symbolRegistry.idOf(priceData.getSymbol());
+                }
+                binary = isWatched(binaryTopics.get(symbolId, priceData.getSymbol()));
+            }
+            if (!json && !binary) {
+                // Nobody listens: skip conversion and broker routing entirely
+                skippedCount++;
+                return;
+            }
             
             // Create price message
             PriceMessage priceMessage = new PriceMessage(
                 priceData.getSymbol(),
                 priceData.getPrice(),
                 priceData.getTimestamp(),
-                System.currentTimeMillis()
+                System.currentTimeMillis(),
+                priceData.getSequence()
             );
             
-            // Publish to STOMP topic
-            messagingTemplate.convertAndSend(topic, priceMessage);
+            if (json) {
+                // Publish to STOMP topic
+                messagingTemplate.convertAndSend(topic, priceMessage);
+                logger.debug("Published price to topic {}: {}", topic, priceMessage);
+            }
             
-            logger.debug("Published price to topic {}: {}", topic, priceMessage);
+            if (binary) {
+                publishBinaryPrice(priceMessage, symbolId, priceData.getSequence());
+            }
             
         } catch (Exception e) {
             logger.error("Error publishing price for symbol {}: {}", 
@@ -41,6 +96,26 @@ public class PricePublisher {
         }
     }
     
+    /**
+     * Publish a price as a binary tick frame. A byte[] payload gets an
+     * application/octet-stream content type, so the broker sends it to native
+     * WebSocket sessions as a binary WebSocket message.
+     * @param priceMessage the price to encode
+     * @param symbolId registry id of the symbol
+     * @param sequence the tick sequence number
+     */
+    private void publishBinaryPrice(PriceMessage priceMessage, int symbolId, long sequence) {
+        byte[] frame = BinaryTickCodec.encodeTick(
+            symbolId,
+            sequence,
+            priceMessage.getPrice(),
+            publishProperties.getBinary().getPriceScale(),
+            priceMessage.getMarketTimestamp(),
+            priceMessage.getPublishTimestamp()
+        );
+        messagingTemplate.convertAndSend(binaryTopics.get(symbolId, priceMessage.getSymbol()), frame);
+    }
+    
     /**
      * Publish price data with custom topic
      * @param topic the STOMP topic to publish to
@@ -52,7 +127,8 @@ public class PricePublisher {
                 priceData.getSymbol(),
                 priceData.getPrice(),
                 priceData.getTimestamp(),
-                System.currentTimeMillis()
+                System.currentTimeMillis(),
+                priceData.getSequence()
             );
             
             messagingTemplate.convertAndSend(topic, priceMessage);
@@ -65,6 +141,126 @@ public class PricePublisher {
         }
     }
     
+    /**
+     * Publish every price updated in a flush interval as one frame on the batch
+     * topic, plus one frame per configured watchlist containing its symbols
+     * @param prices conflated prices, at most one per symbol
+     */
+    public void publishPriceBatch(List<WebSocketClientService.PriceData> prices) {
+        if (prices.isEmpty()) {
+            return;
+        }
+        try {
+            long publishTimestamp = System.currentTimeMillis();
+            if (isWatched(BATCH_TOPIC)) {
+                PriceBatchMessage batch = PriceBatchMessage.of(prices, publishTimestamp);
+                messagingTemplate.convertAndSend(BATCH_TOPIC, batch);
+                logger.debug("Published batch of {} prices to topic {}", prices.size(), BATCH_TOPIC);
+            }
+            
+            for (WatchlistFilter watchlist : getWatchlistFilters()) {
+                if (!isWatched(watchlist.topic)) {
+                    continue;
+                }
+                List<WebSocketClientService.PriceData> matching = new ArrayList<>();
+                for (WebSocketClientService.PriceData price : prices) {
+                    if (watchlist.symbols.contains(price.getSymbol())) {
+                        matching.add(price);
+                    }
+                }
+                if (!matching.isEmpty()) {
+                    messagingTemplate.convertAndSend(watchlist.topic, PriceBatchMessage.of(matching, publishTimestamp));
+                }
+            }
+            
+        } catch (Exception e) {
+            logger.error("Error publishing price batch of {} prices: {}", 
+                        prices.size(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * @return false if unsubscribed destinations are skipped and nobody subscribes to this one
+     */
+    private boolean isWatched(String destination) {
+        return !publishProperties.isSkipUnsubscribed() || subscriptionTracker.hasSubscribers(destination);
+    }
+    
+    /**
+     * @return prices not converted or sent because no session subscribed to their topics
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+    
+    /**
+     * Build the watchlist filters from configuration on first use
+     */
+    private List<WatchlistFilter> getWatchlistFilters() {
+        List<WatchlistFilter> filters = watchlistFilters;
+        if (filters == null) {
+            filters = new ArrayList<>();
+            for (Map.Entry<String, List<String>> entry : publishProperties.getWatchlists().entrySet()) {
+                filters.add(new WatchlistFilter(BATCH_TOPIC + "/" + entry.getKey(), new HashSet<>(entry.getValue())));
+            }
+            watchlistFilters = filters;
+        }
+        return filters;
+    }
+    
+    /**
+     * Publish an OHLCV bar to /topic/bars/{interval}/{symbol}
+     * @param bar closed or in-progress bar
+     */
+    public void publishBar(BarMessage bar) {
+        try {
+            String topic = BARS_TOPIC_PREFIX + bar.getInterval() + "/" + bar.getSymbol();
+            if (!isWatched(topic)) {
+                return;
+            }
+            messagingTemplate.convertAndSend(topic, bar);
+            logger.debug("Published bar to topic {}: {}", topic, bar);
+        } catch (Exception e) {
+            logger.error("Error publishing {} bar for symbol {}: {}", 
+                        bar.getInterval(), bar.getSymbol(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Publish a symbol's indicators to /topic/indicators/{window}/{symbol}
+     * @param indicators indicators of one window
+     */
+    public void publishIndicators(IndicatorMessage indicators) {
+        try {
+            String topic = INDICATORS_TOPIC_PREFIX + indicators.getWindow() + "/" + indicators.getSymbol();
+            if (!isWatched(topic)) {
+                return;
+            }
+            messagingTemplate.convertAndSend(topic, indicators);
+            logger.debug("Published indicators to topic {}: {}", topic, indicators);
+        } catch (Exception e) {
+            logger.error("Error publishing {}-tick indicators for symbol {}: {}",
+                        indicators.getWindow(), indicators.getSymbol(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Publish the top of a symbol's order book to /topic/book/{symbol}
+     * @param book best levels of each side
+     */
+    public void publishBook(BookMessage book) {
+        try {
+            String topic = BOOK_TOPIC_PREFIX + book.getSymbol();
+            if (!isWatched(topic)) {
+                return;
+            }
+            messagingTemplate.convertAndSend(topic, book);
+            logger.debug("Published book to topic {}: {}", topic, book);
+        } catch (Exception e) {
+            logger.error("Error publishing book for symbol {}: {}", book.getSymbol(), e.getMessage(), e);
+        }
+    }
+    
     /**
      * Publish error message to error topic
      * @param symbol the symbol that had an error
@@ -112,6 +308,7 @@ public class PricePublisher {
         private double price;
         private long marketTimestamp;
         private long publishTimestamp;
+        private long sequence;
         
         public PriceMessage() {}
         
@@ -122,6 +319,11 @@ public class PricePublisher {
             this.publishTimestamp = publishTimestamp;
         }
         
+        public PriceMessage(String symbol, double price, long marketTimestamp, long publishTimestamp, long sequence) {
+            this(symbol, price, marketTimestamp, publishTimestamp);
+            this.sequence = sequence;
+        }
+        
         // Getters and setters
         public String getSymbol() { return symbol; }
         public void setSymbol(String symbol) { this.symbol = symbol; }
@@ -135,10 +337,279 @@ public class PricePublisher {
         public long getPublishTimestamp() { return publishTimestamp; }
         public void setPublishTimestamp(long publishTimestamp) { this.publishTimestamp = publishTimestamp; }
         
+        /** Per-symbol increasing; a subscriber drops any message not newer than the last one applied */
+        public long getSequence() { return sequence; }
+        public void setSequence(long sequence) { this.sequence = sequence; }
+        
+        @Override
+        public String toString() {
+            return String.format("PriceMessage{symbol='%s', price=%.2f, marketTs=%d, publishTs=%d, seq=%d}", 
+                               symbol, price, marketTimestamp, publishTimestamp, sequence);
+        }
+    }
+    
+    /**
+     * Batched price message model for STOMP. Columnar so a frame carrying hundreds
+     * of symbols does not repeat field names per price.
+     */
+    public static class PriceBatchMessage {
+        private String[] symbols;
+        private double[] prices;
+        private long[] marketTimestamps;
+        private long[] sequences;
+        private long publishTimestamp;
+        
+        public PriceBatchMessage() {}
+        
+        public PriceBatchMessage(String[] symbols, double[] prices, long[] marketTimestamps, long publishTimestamp) {
+            this.symbols = symbols;
+            this.prices = prices;
+            this.marketTimestamps = marketTimestamps;
+            this.publishTimestamp = publishTimestamp;
+        }
+        
+        public PriceBatchMessage(String[] symbols, double[] prices, long[] marketTimestamps, long[] sequences, long publishTimestamp) {
+            this(symbols, prices, marketTimestamps, publishTimestamp);
+            this.sequences = sequences;
+        }
+        
+        /**
+         * Build a batch message from price data
+         * @param priceData prices to include
+         * @param publishTimestamp publish time shared by every entry
+         * @return batch message
+         */
+        public static PriceBatchMessage of(List<WebSocketClientService.PriceData> priceData, long publishTimestamp) {
+            int size = priceData.size();
+            String[] symbols = new String[size];
+            double[] prices = new double[size];
+            long[] marketTimestamps = new long[size];
+            long[] sequences = new long[size];
+            for (int i = 0; i < size; i++) {
+                WebSocketClientService.PriceData price = priceData.get(i);
+                symbols[i] = price.getSymbol();
+                prices[i] = price.getPrice();
+                marketTimestamps[i] = price.getTimestamp();
+                sequences[i] = price.getSequence();
+            }
+            return new PriceBatchMessage(symbols, prices, marketTimestamps, sequences, publishTimestamp);
+        }
+        
+        // Getters and setters
+        public String[] getSymbols() { return symbols; }
+        public void setSymbols(String[] symbols) { this.symbols = symbols; }
+        
+        public double[] getPrices() { return prices; }
+        public void setPrices(double[] prices) { this.prices = prices; }
+        
+        public long[] getMarketTimestamps() { return marketTimestamps; }
+        public void setMarketTimestamps(long[] marketTimestamps) { this.marketTimestamps = marketTimestamps; }
+        
+        /** Per-symbol sequence of each price, as on PriceMessage */
+        public long[] getSequences() { return sequences; }
+        public void setSequences(long[] sequences) { this.sequences = sequences; }
+        
+        public long getPublishTimestamp() { return publishTimestamp; }
+        public void setPublishTimestamp(long publishTimestamp) { this.publishTimestamp = publishTimestamp; }
+        
+        @Override
+        public String toString() {
+            return String.format("PriceBatchMessage{size=%d, publishTs=%d}", 
+                               symbols == null ? 0 : symbols.length, publishTimestamp);
+        }
+    }
+    
+    /**
+     * OHLCV bar message model for STOMP and the bars REST endpoint. Volume is the
+     * number of ticks in the bar.
+     */
+    public static class BarMessage {
+        private String symbol;
+        private String interval;
+        private long openTime;
+        private long closeTime;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private long volume;
+        private boolean closed;
+        
+        public BarMessage() {}
+        
+        public BarMessage(String symbol, String interval, long openTime, long closeTime,
+                          double open, double high, double low, double close, long volume, boolean closed) {
+            this.symbol = symbol;
+            this.interval = interval;
+            this.openTime = openTime;
+            this.closeTime = closeTime;
+            this.open = open;
+            this.high = high;
+            this.low = low;
+            this.close = close;
+            this.volume = volume;
+            this.closed = closed;
+        }
+        
+        // Getters and setters
+        public String getSymbol() { return symbol; }
+        public void setSymbol(String symbol) { this.symbol = symbol; }
+        
+        public String getInterval() { return interval; }
+        public void setInterval(String interval) { this.interval = interval; }
+        
+        public long getOpenTime() { return openTime; }
+        public void setOpenTime(long openTime) { this.openTime = openTime; }
+        
+        public long getCloseTime() { return closeTime; }
+        public void setCloseTime(long closeTime) { this.closeTime = closeTime; }
+        
+        public double getOpen() { return open; }
+        public void setOpen(double open) { this.open = open; }
+        
+        public double getHigh() { return high; }
+        public void setHigh(double high) { this.high = high; }
+        
+        public double getLow() { return low; }
+        public void setLow(double low) { this.low = low; }
+        
+        public double getClose() { return close; }
+        public void setClose(double close) { this.close = close; }
+        
+        public long getVolume() { return volume; }
+        public void setVolume(long volume) { this.volume = volume; }
+        
+        public boolean isClosed() { return closed; }
+        public void setClosed(boolean closed) { this.closed = closed; }
+        
         @Override
         public String toString() {
-            return String.format("PriceMessage{symbol='%s', price=%.2f, marketTs=%d, publishTs=%d}", 
-                               symbol, price, marketTimestamp, publishTimestamp);
+            return String.format("BarMessage{symbol='%s', interval=%s, openTime=%d, o=%.2f, h=%.2f, l=%.2f, c=%.2f, v=%d, closed=%b}", 
+                               symbol, interval, openTime, open, high, low, close, volume, closed);
+        }
+    }
+    
+    /**
+     * Streaming indicators of one symbol over its last {@code window} ticks, for STOMP and
+     * the indicators REST endpoint. Ticks carry no traded size, so VWAP weights every
+     * tick equally.
+     */
+    public static class IndicatorMessage {
+        private String symbol;
+        private int window;
+        private int count;
+        private double ema;
+        private double vwap;
+        private double stddev;
+        private double min;
+        private double max;
+        private long marketTimestamp;
+        
+        public IndicatorMessage() {}
+        
+        public IndicatorMessage(String symbol, int window, int count, double ema, double vwap,
+                                double stddev, double min, double max, long marketTimestamp) {
+            this.symbol = symbol;
+            this.window = window;
+            this.count = count;
+            this.ema = ema;
+            this.vwap = vwap;
+            this.stddev = stddev;
+            this.min = min;
+            this.max = max;
+            this.marketTimestamp = marketTimestamp;
+        }
+        
+        // Getters and setters
+        public String getSymbol() { return symbol; }
+        public void setSymbol(String symbol) { this.symbol = symbol; }
+        
+        public int getWindow() { return window; }
+        public void setWindow(int window) { this.window = window; }
+        
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+        
+        public double getEma() { return ema; }
+        public void setEma(double ema) { this.ema = ema; }
+        
+        public double getVwap() { return vwap; }
+        public void setVwap(double vwap) { this.vwap = vwap; }
+        
+        public double getStddev() { return stddev; }
+        public void setStddev(double stddev) { this.stddev = stddev; }
+        
+        public double getMin() { return min; }
+        public void setMin(double min) { this.min = min; }
+        
+        public double getMax() { return max; }
+        public void setMax(double max) { this.max = max; }
+        
+        public long getMarketTimestamp() { return marketTimestamp; }
+        public void setMarketTimestamp(long marketTimestamp) { this.marketTimestamp = marketTimestamp; }
+        
+        @Override
+        public String toString() {
+            return String.format("IndicatorMessage{symbol='%s', window=%d, count=%d, ema=%.4f, vwap=%.4f, stddev=%.4f, min=%.2f, max=%.2f}", 
+                               symbol, window, count, ema, vwap, stddev, min, max);
+        }
+    }
+    
+    /**
+     * Best levels of a symbol's order book, for STOMP and the book REST endpoint. Each
+     * level is a [price, size] pair, best price first. The version counts book messages
+     * applied, so a client can tell whether it has missed changes.
+     */
+    public static class BookMessage {
+        private String symbol;
+        private double[][] bids;
+        private double[][] asks;
+        private long version;
+        private long marketTimestamp;
+        
+        public BookMessage() {}
+        
+        public BookMessage(String symbol, double[][] bids, double[][] asks, long version, long marketTimestamp) {
+            this.symbol = symbol;
+            this.bids = bids;
+            this.asks = asks;
+            this.version = version;
+            this.marketTimestamp = marketTimestamp;
+        }
+        
+        // Getters and setters
+        public String getSymbol() { return symbol; }
+        public void setSymbol(String symbol) { this.symbol = symbol; }
+        
+        public double[][] getBids() { return bids; }
+        public void setBids(double[][] bids) { this.bids = bids; }
+        
+        public double[][] getAsks() { return asks; }
+        public void setAsks(double[][] asks) { this.asks = asks; }
+        
+        public long getVersion() { return version; }
+        public void setVersion(long version) { this.version = version; }
+        
+        public long getMarketTimestamp() { return marketTimestamp; }
+        public void setMarketTimestamp(long marketTimestamp) { this.marketTimestamp = marketTimestamp; }
+        
+        @Override
+        public String toString() {
+            return String.format("BookMessage{symbol='%s', bids=%d, asks=%d, version=%d, marketTimestamp=%d}", 
+                               symbol, bids.length, asks.length, version, marketTimestamp);
+        }
+    }
+    
+    /**
+     * Watchlist batch destination and its symbols
+     */
+    private static class WatchlistFilter {
+        private final String topic;
+        private final Set<String> symbols;
+        
+        WatchlistFilter(String topic, Set<String> symbols) {
+            this.topic = topic;
+            this.symbols = symbols;
         }
     }
     
@@ -1,25 +1,28 @@
 package com.fintech.market;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.market.config.UpstreamProperties;
+import com.fintech.market.pipeline.TickPipeline;
+import com.fintech.market.replay.ReplaySpeed;
+import com.fintech.market.replay.TickReplayer;
+import com.fintech.market.upstream.UpstreamConnectionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.socket.*;
-import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 
-import java.io.IOException;
-import java.net.URI;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 @Service
-public class WebSocketClientService implements WebSocketHandler {
+public class WebSocketClientService {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketClientService.class);
     
@@ -32,16 +35,33 @@ public class WebSocketClientService implements WebSocketHandler {
     @Autowired
     private MockDataService mockDataService;
     
+    @Autowired
+    private TickPipeline tickPipeline;
+    
+    @Autowired
+    private UpstreamConnectionManager upstreamConnectionManager;
+    
+    @Autowired
+    private UpstreamProperties upstreamProperties;
+    
     @Value("${market.ws.url}")
     private String marketWsUrl;
     
     @Value("${market.ws.key:}")
     private String marketWsKey;
     
-    private WebSocketSession webSocketSession;
-    private ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-    private final ConcurrentHashMap<String, Long> lastPublishTime = new ConcurrentHashMap<>();
-    private final long RATE_LIMIT_MS = 100; // 100ms throttle per symbol
+    @Value("${market.replay.speed:realtime}")
+    private String replaySpeed;
+    
+    @Value("${market.replay.loop:false}")
+    private boolean replayLoop;
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mock-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile TickReplayer tickReplayer;
     
     // Adapter pattern implementation
     private MarketAdapter marketAdapter;
@@ -51,91 +71,44 @@ public class WebSocketClientService implements WebSocketHandler {
         this.marketAdapter = new MockMarketAdapter();
     }
     
-    @Override
-    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        logger.info("WebSocket connection established: {}", session.getId());
-        this.webSocketSession = session;
-        
-        // Initialize adapter based on URL
-        initializeAdapter();
-        
-        // Start heartbeat/ping mechanism
-        startHeartbeat();
-    }
-    
-    @Override
-    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
-        if (message instanceof TextMessage) {
-            String payload = ((TextMessage) message).getPayload();
-            logger.debug("Received message: {}", payload);
-            
-            // Parse and publish tick data
-            parseAndPublishTick(payload);
+    /**
+     * Start the configured feed once the application is ready to publish
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            connectToMarketData();
+        } catch (Exception e) {
+            logger.error("Failed to start market data feed: {}", e.getMessage(), e);
         }
     }
     
-    @Override
-    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
-        logger.error("WebSocket transport error: {}", exception.getMessage(), exception);
-        scheduleReconnection();
-    }
-    
-    @Override
-    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        logger.warn("WebSocket connection closed: {} - {}", closeStatus.getCode(), closeStatus.getReason());
-        scheduleReconnection();
-    }
-    
-    @Override
-    public boolean supportsPartialMessages() {
-        return false;
-    }
-    
     /**
      * Initialize market adapter based on URL configuration
      */
     private void initializeAdapter() {
-        if (marketWsUrl.startsWith("mock://")) {
+        if (!upstreamProperties.getSources().isEmpty()) {
+            logger.info("Using ProviderMarketAdapter for {} merged live sources", upstreamProperties.getSources().size());
+            this.marketAdapter = new ProviderMarketAdapter(marketWsKey, upstreamProperties.getSubscribeTemplate());
+        } else if (marketWsUrl.startsWith("mock://")) {
             logger.info("Using MockMarketAdapter for local testing");
             this.marketAdapter = new MockMarketAdapter();
+        } else if (marketWsUrl.startsWith(ReplayMarketAdapter.SCHEME)) {
+            logger.info("Using ReplayMarketAdapter for recorded data");
+            this.marketAdapter = new ReplayMarketAdapter(marketWsUrl);
         } else {
             logger.info("Using ProviderMarketAdapter for live data");
-            this.marketAdapter = new ProviderMarketAdapter(marketWsKey);
+            this.marketAdapter = new ProviderMarketAdapter(marketWsKey, upstreamProperties.getSubscribeTemplate());
         }
     }
     
     /**
-     * Parse tick data and publish to STOMP topic
+     * Hand tick data to the ingest pipeline, which decodes, rate limits and
+     * publishes it to the STOMP topic off the caller's thread
      * @param tickData JSON tick data
      */
     public void parseTick(String tickData) {
-        try {
-            JsonNode tick = objectMapper.readTree(tickData);
-            
-            String symbol = tick.get("symbol").asText();
-            double price = tick.get("price").asDouble();
-            long timestamp = tick.get("ts").asLong();
-            
-            // Rate limiting per symbol
-            if (isRateLimited(symbol)) {
-                logger.debug("Rate limited for symbol: {}", symbol);
-                return;
-            }
-            
-            // Create price data object
-            PriceData priceData = new PriceData(symbol, price, timestamp);
-            
-            // Publish via STOMP
-            pricePublisher.publishPrice(priceData);
-            
-            // Update rate limit timestamp
-            lastPublishTime.put(symbol, System.currentTimeMillis());
-            
-            logger.debug("Published price for {}: {}", symbol, price);
-            
-        } catch (Exception e) {
-            logger.error("Error parsing tick data: {}", e.getMessage(), e);
-        }
+        tickPipeline.submit(tickData);
     }
     
     /**
@@ -146,67 +119,28 @@ public class WebSocketClientService implements WebSocketHandler {
     }
     
     /**
-     * Check if symbol is rate limited
-     */
-    private boolean isRateLimited(String symbol) {
-        Long lastTime = lastPublishTime.get(symbol);
-        if (lastTime == null) {
-            return false;
-        }
-        return (System.currentTimeMillis() - lastTime) < RATE_LIMIT_MS;
-    }
-    
-    /**
-     * Start heartbeat mechanism
-     */
-    private void startHeartbeat() {
-        scheduler.scheduleAtFixedRate(() -> {
-            if (webSocketSession != null && webSocketSession.isOpen()) {
-                try {
-                    webSocketSession.sendMessage(new TextMessage("ping"));
-                } catch (IOException e) {
-                    logger.error("Error sending heartbeat: {}", e.getMessage());
-                }
-            }
-        }, 30, 30, TimeUnit.SECONDS);
-    }
-    
-    /**
-     * Schedule reconnection with exponential backoff
-     */
-    private void scheduleReconnection() {
-        scheduler.schedule(() -> {
-            try {
-                logger.info("Attempting to reconnect to market data feed...");
-                connectToMarketData();
-            } catch (Exception e) {
-                logger.error("Reconnection failed: {}", e.getMessage());
-                // Schedule another reconnection attempt
-                scheduleReconnection();
-            }
-        }, 5, TimeUnit.SECONDS);
-    }
-    
-    /**
-     * Connect to market data WebSocket
+     * Connect to market data: mock generation, a recording, or the live provider over
+     * market.ws.connections sharded sessions, each reconnecting on its own. Configured
+     * market.ws.sources take precedence over market.ws.url.
      */
     public void connectToMarketData() throws Exception {
+        initializeAdapter();
+        if (!upstreamProperties.getSources().isEmpty()) {
+            upstreamConnectionManager.start(marketAdapter);
+            return;
+        }
         if (marketWsUrl.startsWith("mock://")) {
             logger.info("Mock mode - starting mock data generation");
             startMockDataGeneration();
             return;
         }
-        
-        WebSocketClient client = new StandardWebSocketClient();
-        URI uri = new URI(marketWsUrl);
-        
-        // Add authentication headers if key is provided
-        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
-        if (marketWsKey != null && !marketWsKey.isEmpty()) {
-            headers.add("Authorization", "Bearer " + marketWsKey);
+        if (marketWsUrl.startsWith(ReplayMarketAdapter.SCHEME)) {
+            logger.info("Replay mode - streaming recorded ticks");
+            startReplay();
+            return;
         }
         
-        client.doHandshake(this, headers, uri).get();
+        upstreamConnectionManager.start(marketAdapter);
     }
     
     /**
@@ -218,6 +152,11 @@ public class WebSocketClientService implements WebSocketHandler {
             return;
         }
         
+        if (mockDataService.isHighRateEnabled()) {
+            mockDataService.startHighRateFeed(tickPipeline);
+            return;
+        }
+        
         scheduler.scheduleAtFixedRate(() -> {
             try {
                 String mockTick = mockDataService.generateMockTick();
@@ -230,17 +169,34 @@ public class WebSocketClientService implements WebSocketHandler {
         logger.info("Started mock data generation with interval: {}ms", mockDataService.getIntervalMs());
     }
     
+    /**
+     * Start streaming a recorded tick file through parseTick on its own thread
+     */
+    private void startReplay() {
+        ReplayMarketAdapter adapter = new ReplayMarketAdapter(marketWsUrl);
+        this.marketAdapter = adapter;
+        
+        TickReplayer previous = tickReplayer;
+        if (previous != null) {
+            previous.stop();
+        }
+        TickReplayer replayer = new TickReplayer(adapter.getPath(),
+                adapter.getSpeed(ReplaySpeed.parse(replaySpeed)), adapter.isLoop(replayLoop), this::parseTick);
+        Thread thread = new Thread(replayer, "tick-replay");
+        thread.setDaemon(true);
+        thread.start();
+        this.tickReplayer = replayer;
+    }
+    
     /**
      * Disconnect from market data
      */
     public void disconnect() {
-        if (webSocketSession != null && webSocketSession.isOpen()) {
-            try {
-                webSocketSession.close();
-            } catch (IOException e) {
-                logger.error("Error closing WebSocket connection: {}", e.getMessage());
-            }
+        TickReplayer replayer = tickReplayer;
+        if (replayer != null) {
+            replayer.stop();
         }
+        upstreamConnectionManager.stop();
     }
     
     /**
@@ -249,6 +205,14 @@ public class WebSocketClientService implements WebSocketHandler {
     public interface MarketAdapter {
         void authenticate();
         String getConnectionUrl();
+        
+        /**
+         * @param symbols symbols one upstream session should carry
+         * @return text frame sent when the session opens, or null if the provider needs none
+         */
+        default String subscribeMessage(List<String> symbols) {
+            return null;
+        }
     }
     
     /**
@@ -267,14 +231,81 @@ public class WebSocketClientService implements WebSocketHandler {
     }
     
     /**
-     * Provider market adapter for live data
+     * Replay market adapter that streams a recorded tick journal directory or JSON lines
+     * file, e.g. replay://data/journal?speed=10x&loop=true. Query parameters override
+     * market.replay.speed and market.replay.loop.
+     */
+    public static class ReplayMarketAdapter implements MarketAdapter {
+        static final String SCHEME = "replay://";
+        
+        private final String url;
+        private final Path path;
+        private String speed;
+        private String loop;
+        
+        public ReplayMarketAdapter(String url) {
+            this.url = url;
+            String location = url.substring(SCHEME.length());
+            int query = location.indexOf('?');
+            if (query >= 0) {
+                for (String param : location.substring(query + 1).split("&")) {
+                    int eq = param.indexOf('=');
+                    String name = eq < 0 ? param : param.substring(0, eq);
+                    String value = eq < 0 ? "true" : param.substring(eq + 1);
+                    if (name.equals("speed")) {
+                        this.speed = value;
+                    } else if (name.equals("loop")) {
+                        this.loop = value;
+                    }
+                }
+                location = location.substring(0, query);
+            }
+            this.path = Path.of(location);
+        }
+        
+        @Override
+        public void authenticate() {
+            // No authentication needed for a local recording
+        }
+        
+        @Override
+        public String getConnectionUrl() {
+            return url;
+        }
+        
+        public Path getPath() { return path; }
+        
+        public ReplaySpeed getSpeed(ReplaySpeed defaultSpeed) {
+            return speed != null ? ReplaySpeed.parse(speed) : defaultSpeed;
+        }
+        
+        public boolean isLoop(boolean defaultLoop) {
+            return loop != null ? Boolean.parseBoolean(loop) : defaultLoop;
+        }
+    }
+    
+    /**
+     * Provider market adapter for live data. Ticks may arrive as JSON text frames
+     * or as binary frames in the BinaryTickCodec layout.
      * TODO: Add provider-specific authentication
      */
     public static class ProviderMarketAdapter implements MarketAdapter {
+        static final String SYMBOLS_PLACEHOLDER = "{symbols}";
+        
         private final String apiKey;
+        private final String subscribeTemplate;
         
         public ProviderMarketAdapter(String apiKey) {
+            this(apiKey, "");
+        }
+        
+        /**
+         * @param subscribeTemplate subscribe frame with {symbols} standing for a JSON array of
+         *                          the session's symbols; empty to send none
+         */
+        public ProviderMarketAdapter(String apiKey, String subscribeTemplate) {
             this.apiKey = apiKey;
+            this.subscribeTemplate = subscribeTemplate;
         }
         
         @Override
@@ -292,6 +323,25 @@ public class WebSocketClientService implements WebSocketHandler {
             // TODO: Return actual provider WebSocket URL
             return "wss://api.provider.com/ws";
         }
+        
+        /**
+         * @return market.ws.subscribe-template with the symbols filled in, or null if no
+         *         template is configured or the session takes the whole feed
+         */
+        @Override
+        public String subscribeMessage(List<String> symbols) {
+            if (symbols.isEmpty() || subscribeTemplate == null || subscribeTemplate.isEmpty()) {
+                return null;
+            }
+            StringBuilder array = new StringBuilder("[");
+            for (int i = 0; i < symbols.size(); i++) {
+                if (i > 0) {
+                    array.append(',');
+                }
+                array.append('"').append(JsonStringEncoder.getInstance().quoteAsString(symbols.get(i))).append('"');
+            }
+            return subscribeTemplate.replace(SYMBOLS_PLACEHOLDER, array.append(']'));
+        }
     }
     
     /**
@@ -299,24 +349,41 @@ public class WebSocketClientService implements WebSocketHandler {
      */
     public static class PriceData {
         private final String symbol;
+        private final int symbolId;
         private final double price;
         private final long timestamp;
+        private final long sequence;
         
         public PriceData(String symbol, double price, long timestamp) {
+            this(symbol, price, timestamp, 0L);
+        }
+        
+        public PriceData(String symbol, double price, long timestamp, long sequence) {
+            this(symbol, -1, price, timestamp, sequence);
+        }
+        
+        /**
+         * @param symbolId SymbolRegistry id of the symbol, or -1 if not known
+         */
+        public PriceData(String symbol, int symbolId, double price, long timestamp, long sequence) {
             this.symbol = symbol;
+            this.symbolId = symbolId;
             this.price = price;
             this.timestamp = timestamp;
+            this.sequence = sequence;
         }
         
         // Getters
         public String getSymbol() { return symbol; }
+        public int getSymbolId() { return symbolId; }
         public double getPrice() { return price; }
         public long getTimestamp() { return timestamp; }
+        public long getSequence() { return sequence; }
         
         @Override
         public String toString() {
-            return String.format("PriceData{symbol='%s', price=%.2f, timestamp=%d}", 
-                               symbol, price, timestamp);
+            return String.format("PriceData{symbol='%s', price=%.2f, timestamp=%d, sequence=%d}", 
+                               symbol, price, timestamp, sequence);
         }
     }
 }
@@ -0,0 +1,250 @@
+package com.fintech.market.bars;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.BarProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Builds OHLCV bars for every configured interval from the full tick stream, at O(1)
+ * per tick per interval. Fed by the pipeline's conflate stage before conflation so no
+ * high or low is lost. Bars close when a tick arrives for a later bar, or when the
+ * latest market timestamp seen on any symbol passes their end, so quiet symbols close
+ * on time and replays close bars in replay time. Volume is the tick count: the feeds
+ * carry no traded size. Series are held in an array indexed by symbol id.
+ */
+@Component
+public class BarAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarAggregator.class);
+
+    @Autowired
+    private BarProperties barProperties;
+
+    @Autowired
+    private PricePublisher pricePublisher;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    private long[] intervalMillis;
+    private String[] intervalNames;
+    // Replaced by a filled copy under this lock, read without it by the publish thread and queries
+    private volatile BarSeries[][] seriesById = new BarSeries[64][];
+    private final Queue<PricePublisher.BarMessage> closedBars = new ConcurrentLinkedQueue<>();
+    private volatile long watermark = Long.MIN_VALUE;
+    private volatile long lateTickCount;
+    private ScheduledExecutorService publisher;
+
+    @PostConstruct
+    public void start() {
+        List<Duration> intervals = barProperties.getIntervals();
+        intervalMillis = new long[intervals.size()];
+        intervalNames = new String[intervals.size()];
+        for (int i = 0; i < intervals.size(); i++) {
+            intervalMillis[i] = intervals.get(i).toMillis();
+            if (intervalMillis[i] <= 0) {
+                throw new IllegalArgumentException("Bar interval must be at least 1ms: " + intervals.get(i));
+            }
+            intervalNames[i] = intervalName(intervals.get(i));
+        }
+        if (!barProperties.isEnabled()) {
+            return;
+        }
+        long periodMillis = barProperties.getPublishInterval().toMillis();
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bar-publish");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleAtFixedRate(this::publishBars, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        logger.info("Started bar aggregation for intervals {}", String.join(", ", intervalNames));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+    /**
+     * Apply a tick to every interval of its symbol. Called from a single pipeline stage.
+     */
+    public void onTick(int symbolId, String symbol, double price, long timestamp) {
+        if (!barProperties.isEnabled()) {
+            return;
+        }
+        if (timestamp > watermark) {
+            watermark = timestamp;
+        }
+        BarSeries[] series = seriesFor(symbolId >= 0 ? symbolId : symbolRegistry.idOf(symbol));
+        for (int i = 0; i < series.length; i++) {
+            synchronized (series[i]) {
+                int result = series[i].update(price, timestamp);
+                if (result == BarSeries.CLOSED_PREVIOUS) {
+                    closedBars.add(series[i].lastClosed(symbol, intervalNames[i]));
+                } else if (result == BarSeries.LATE) {
+                    lateTickCount++;
+                }
+            }
+        }
+    }
+
+    private BarSeries[] seriesFor(int symbolId) {
+        BarSeries[][] all = seriesById;
+        BarSeries[] series = symbolId < all.length ? all[symbolId] : null;
+        return series != null ? series : createSeries(symbolId);
+    }
+
+    private synchronized BarSeries[] createSeries(int symbolId) {
+        BarSeries[][] all = seriesById;
+        BarSeries[] series = symbolId < all.length ? all[symbolId] : null;
+        if (series != null) {
+            return series;
+        }
+        // Store into a copy, never the published array, so the volatile write below is
+        // what publishes the new series to readers
+        int length = symbolId < all.length ? all.length : Math.max(all.length * 2, symbolId + 1);
+        all = Arrays.copyOf(all, length);
+        series = new BarSeries[intervalMillis.length];
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new BarSeries(intervalMillis[i], barProperties.getHistory());
+        }
+        all[symbolId] = series;
+        seriesById = all;
+        return series;
+    }
+
+    private void publishBars() {
+        try {
+            drain(pricePublisher::publishBar);
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic publish
+            logger.error("Error publishing bars: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Close bars that ended before the watermark, then hand over every newly closed
+     * bar followed by every bar in progress that changed since the last drain
+     * @param sink receives the bars
+     */
+    void drain(Consumer<PricePublisher.BarMessage> sink) {
+        long now = watermark;
+        BarSeries[][] all = seriesById;
+        for (int id = 0; id < all.length; id++) {
+            BarSeries[] series = all[id];
+            if (series == null) {
+                continue;
+            }
+            String symbol = symbolRegistry.symbolOf(id);
+            for (int i = 0; i < series.length; i++) {
+                synchronized (series[i]) {
+                    if (series[i].closeThrough(now)) {
+                        closedBars.add(series[i].lastClosed(symbol, intervalNames[i]));
+                    }
+                }
+            }
+        }
+
+        PricePublisher.BarMessage bar;
+        while ((bar = closedBars.poll()) != null) {
+            sink.accept(bar);
+        }
+
+        for (int id = 0; id < all.length; id++) {
+            BarSeries[] series = all[id];
+            if (series == null) {
+                continue;
+            }
+            String symbol = symbolRegistry.symbolOf(id);
+            for (int i = 0; i < series.length; i++) {
+                synchronized (series[i]) {
+                    bar = series[i].takeDirty() ? series[i].current(symbol, intervalNames[i]) : null;
+                }
+                if (bar != null) {
+                    sink.accept(bar);
+                }
+            }
+        }
+    }
+
+    /**
+     * Most recent bars of a symbol
+     * @param symbol the symbol
+     * @param interval interval name such as 1m
+     * @param limit maximum number of closed bars
+     * @param includeCurrent also return the bar in progress, last
+     * @return bars oldest first, or null if the interval is not configured
+     */
+    public List<PricePublisher.BarMessage> getBars(String symbol, String interval, int limit, boolean includeCurrent) {
+        int index = List.of(intervalNames).indexOf(interval);
+        if (index < 0) {
+            return null;
+        }
+        int symbolId = symbolRegistry.find(symbol);
+        BarSeries[][] all = seriesById;
+        BarSeries[] series = symbolId >= 0 && symbolId < all.length ? all[symbolId] : null;
+        if (series == null) {
+            return List.of();
+        }
+        synchronized (series[index]) {
+            List<PricePublisher.BarMessage> bars = series[index].closed(symbol, interval, limit);
+            PricePublisher.BarMessage current = includeCurrent ? series[index].current(symbol, interval) : null;
+            if (current != null) {
+                bars.add(current);
+            }
+            return bars;
+        }
+    }
+
+    /**
+     * @return configured interval names, e.g. 1s, 1m, 5m, 1h
+     */
+    public List<String> getIntervalNames() {
+        return List.of(intervalNames);
+    }
+
+    /**
+     * @return ticks ignored because their bar had already closed
+     */
+    public long getLateTickCount() {
+        return lateTickCount;
+    }
+
+    /**
+     * Short name of an interval as used in topics: 500ms, 1s, 5m, 1h, 1d
+     */
+    static String intervalName(Duration interval) {
+        long millis = interval.toMillis();
+        if (millis % TimeUnit.DAYS.toMillis(1) == 0) {
+            return millis / TimeUnit.DAYS.toMillis(1) + "d";
+        }
+        if (millis % TimeUnit.HOURS.toMillis(1) == 0) {
+            return millis / TimeUnit.HOURS.toMillis(1) + "h";
+        }
+        if (millis % TimeUnit.MINUTES.toMillis(1) == 0) {
+            return millis / TimeUnit.MINUTES.toMillis(1) + "m";
+        }
+        if (millis % 1000 == 0) {
+            return millis / 1000 + "s";
+        }
+        return millis + "ms";
+    }
+}
@@ -0,0 +1,44 @@
+package com.fintech.market.bars;
+
+import com.fintech.market.PricePublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST access to recent OHLCV bars, for charts to backfill before subscribing to
+ * /topic/bars/{interval}/{symbol}
+ */
+@RestController
+@RequestMapping("/api/bars")
+public class BarController {
+
+    @Autowired
+    private BarAggregator barAggregator;
+
+    /**
+     * Last N bars of a symbol
+     * @param interval interval name, e.g. 1m
+     * @param symbol the symbol
+     * @param limit maximum number of closed bars
+     * @param current also return the bar in progress, last
+     * @return bars oldest first; 404 if the interval is not configured
+     */
+    @GetMapping("/{interval}/{symbol}")
+    public ResponseEntity<List<PricePublisher.BarMessage>> getBars(@PathVariable("interval") String interval,
+                                                                   @PathVariable("symbol") String symbol,
+                                                                   @RequestParam(name = "limit", defaultValue = "100") int limit,
+                                                                   @RequestParam(name = "current", defaultValue = "true") boolean current) {
+        List<PricePublisher.BarMessage> bars = barAggregator.getBars(symbol, interval, Math.max(0, limit), current);
+        if (bars == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(bars);
+    }
+}
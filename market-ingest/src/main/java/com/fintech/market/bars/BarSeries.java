@@ -0,0 +1,187 @@
+package com.fintech.market.bars;
+
+import com.fintech.market.PricePublisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bars of one symbol and interval: the bar in progress plus a ring of the most recent
+ * closed bars held column-wise in primitive arrays, which grow on demand up to the
+ * history size. Not thread-safe; {@link BarAggregator} synchronizes on the series.
+ */
+final class BarSeries {
+
+    static final int UPDATED = 0;
+    static final int CLOSED_PREVIOUS = 1;
+    static final int LATE = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final long intervalMillis;
+    private final int history;
+
+    // Closed bars, oldest at head
+    private long[] openTimes;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] closes;
+    private long[] volumes;
+    private int head;
+    private int size;
+
+    // Bar in progress, absent while openTime is NONE
+    private long openTime = NONE;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private long volume;
+    private long lastClosedOpenTime = NONE;
+    private boolean dirty;
+
+    BarSeries(long intervalMillis, int history) {
+        this.intervalMillis = intervalMillis;
+        this.history = history;
+        int capacity = Math.min(INITIAL_CAPACITY, history);
+        this.openTimes = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.volumes = new long[capacity];
+    }
+
+    /**
+     * Apply a tick
+     * @param price tick price
+     * @param timestamp market timestamp, millis
+     * @return {@link #UPDATED}, {@link #CLOSED_PREVIOUS} if the tick started a new bar and
+     *         closed the one before, or {@link #LATE} if it belongs to an already closed bar
+     */
+    int update(double price, long timestamp) {
+        long barOpenTime = timestamp - Math.floorMod(timestamp, intervalMillis);
+        if (barOpenTime == openTime) {
+            if (price > high) {
+                high = price;
+            }
+            if (price < low) {
+                low = price;
+            }
+            close = price;
+            volume++;
+            dirty = true;
+            return UPDATED;
+        }
+        if (barOpenTime < openTime || barOpenTime <= lastClosedOpenTime) {
+            return LATE;
+        }
+        boolean closed = closeCurrent();
+        openTime = barOpenTime;
+        open = high = low = close = price;
+        volume = 1L;
+        dirty = true;
+        return closed ? CLOSED_PREVIOUS : UPDATED;
+    }
+
+    /**
+     * Close the bar in progress if its interval ended at or before the given time
+     * @param watermark latest market timestamp seen on any symbol
+     * @return true if a bar was closed
+     */
+    boolean closeThrough(long watermark) {
+        return openTime != NONE && openTime + intervalMillis <= watermark && closeCurrent();
+    }
+
+    private boolean closeCurrent() {
+        if (openTime == NONE) {
+            return false;
+        }
+        int index;
+        if (size < history) {
+            if (size == openTimes.length) {
+                grow();
+            }
+            index = size++;
+        } else {
+            index = head;
+            head = head + 1 == history ? 0 : head + 1;
+        }
+        openTimes[index] = openTime;
+        opens[index] = open;
+        highs[index] = high;
+        lows[index] = low;
+        closes[index] = close;
+        volumes[index] = volume;
+        lastClosedOpenTime = openTime;
+        openTime = NONE;
+        dirty = false;
+        return true;
+    }
+
+    /**
+     * The ring only wraps once full, so while growing the bars start at index 0
+     */
+    private void grow() {
+        int capacity = Math.min(history, openTimes.length * 2);
+        openTimes = Arrays.copyOf(openTimes, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+    }
+
+    /**
+     * @return the most recently closed bar, or null if none
+     */
+    PricePublisher.BarMessage lastClosed(String symbol, String interval) {
+        return size == 0 ? null : closedBar(symbol, interval, size - 1);
+    }
+
+    /**
+     * @return the bar in progress, or null if none
+     */
+    PricePublisher.BarMessage current(String symbol, String interval) {
+        if (openTime == NONE) {
+            return null;
+        }
+        return new PricePublisher.BarMessage(symbol, interval, openTime, openTime + intervalMillis,
+                                             open, high, low, close, volume, false);
+    }
+
+    /**
+     * @param limit maximum number of bars
+     * @return up to limit of the most recent closed bars, oldest first
+     */
+    List<PricePublisher.BarMessage> closed(String symbol, String interval, int limit) {
+        int count = Math.min(limit, size);
+        List<PricePublisher.BarMessage> bars = new ArrayList<>(count);
+        for (int i = size - count; i < size; i++) {
+            bars.add(closedBar(symbol, interval, i));
+        }
+        return bars;
+    }
+
+    private PricePublisher.BarMessage closedBar(String symbol, String interval, int position) {
+        int index = (head + position) % openTimes.length;
+        return new PricePublisher.BarMessage(symbol, interval, openTimes[index], openTimes[index] + intervalMillis,
+                                             opens[index], highs[index], lows[index], closes[index], volumes[index], true);
+    }
+
+    /**
+     * @return true if the bar in progress changed since the last call
+     */
+    boolean takeDirty() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
+    }
+
+    int size() {
+        return size;
+    }
+}
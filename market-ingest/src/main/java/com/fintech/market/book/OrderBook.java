@@ -0,0 +1,167 @@
+package com.fintech.market.book;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.codec.MutableBookUpdate;
+
+import java.util.Arrays;
+
+/**
+ * Price levels of one symbol. Each side is a pair of primitive arrays kept sorted best
+ * price first, so a level is found by binary search and the top N levels are the first N
+ * entries. Updates cluster near the top of the book, so inserts and removals shift only a
+ * few entries. Not thread-safe; {@link OrderBookManager} synchronizes on the book.
+ */
+final class OrderBook {
+
+    private final Side bids;
+    private final Side asks;
+    private final int depth;
+    private long version;
+    private long timestamp;
+    private boolean dirty;
+
+    /**
+     * @param maxLevels levels kept per side; levels beyond the deepest are ignored
+     * @param depth levels per side that are published; changes below them leave the book clean
+     */
+    OrderBook(int maxLevels, int depth) {
+        this.bids = new Side(true, maxLevels);
+        this.asks = new Side(false, maxLevels);
+        this.depth = depth;
+    }
+
+    /**
+     * Apply a decoded book message: a snapshot replaces both sides, an update sets each
+     * listed level to its size and removes levels with size 0. The book only becomes dirty
+     * if the message changed one of the top depth levels of a side.
+     */
+    void apply(MutableBookUpdate update) {
+        boolean topChanged = update.isSnapshot();
+        if (update.isSnapshot()) {
+            bids.clear();
+            asks.clear();
+        }
+        for (int i = 0; i < update.getBidCount(); i++) {
+            topChanged |= bids.set(update.getBidPrice(i), update.getBidSize(i)) < depth;
+        }
+        for (int i = 0; i < update.getAskCount(); i++) {
+            topChanged |= asks.set(update.getAskPrice(i), update.getAskSize(i)) < depth;
+        }
+        version++;
+        timestamp = update.getTimestamp();
+        dirty |= topChanged;
+    }
+
+    /**
+     * @return true if the top depth levels changed since the last call
+     */
+    boolean takeDirty() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
+    }
+
+    /**
+     * @param depth levels per side
+     * @return the best {@code depth} levels of each side
+     */
+    PricePublisher.BookMessage top(String symbol, int depth) {
+        return new PricePublisher.BookMessage(symbol, bids.top(depth), asks.top(depth), version, timestamp);
+    }
+
+    int bidLevels() {
+        return bids.count;
+    }
+
+    int askLevels() {
+        return asks.count;
+    }
+
+    /**
+     * One side of the book, best price at index 0: highest first for bids, lowest for asks
+     */
+    private static final class Side {
+        private final boolean descending;
+        private final int maxLevels;
+        private double[] prices = new double[64];
+        private double[] sizes = new double[64];
+        private int count;
+
+        Side(boolean descending, int maxLevels) {
+            this.descending = descending;
+            this.maxLevels = maxLevels;
+        }
+
+        void clear() {
+            count = 0;
+        }
+
+        /**
+         * @return index of the level that changed, or Integer.MAX_VALUE if nothing changed
+         */
+        int set(double price, double size) {
+            int index = search(price);
+            if (index >= 0) {
+                if (size > 0) {
+                    if (sizes[index] == size) {
+                        return Integer.MAX_VALUE;
+                    }
+                    sizes[index] = size;
+                } else {
+                    System.arraycopy(prices, index + 1, prices, index, count - index - 1);
+                    System.arraycopy(sizes, index + 1, sizes, index, count - index - 1);
+                    count--;
+                }
+                return index;
+            }
+            int insert = -index - 1;
+            if (size <= 0 || insert >= maxLevels) {
+                return Integer.MAX_VALUE;
+            }
+            if (count == maxLevels) {
+                // Make room by dropping the deepest level
+                count--;
+            }
+            if (count == prices.length) {
+                int capacity = Math.min(maxLevels, count * 2);
+                prices = Arrays.copyOf(prices, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+            System.arraycopy(prices, insert, prices, insert + 1, count - insert);
+            System.arraycopy(sizes, insert, sizes, insert + 1, count - insert);
+            prices[insert] = price;
+            sizes[insert] = size;
+            count++;
+            return insert;
+        }
+
+        /**
+         * @return index of the price, or -(insertion point) - 1 if it has no level
+         */
+        private int search(double price) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = descending ? Double.compare(price, prices[mid]) : Double.compare(prices[mid], price);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        double[][] top(int depth) {
+            int levels = Math.min(depth, count);
+            double[][] top = new double[levels][];
+            for (int i = 0; i < levels; i++) {
+                top[i] = new double[] {prices[i], sizes[i]};
+            }
+            return top;
+        }
+    }
+}
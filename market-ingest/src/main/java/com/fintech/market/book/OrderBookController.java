@@ -0,0 +1,40 @@
+package com.fintech.market.book;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.config.BookProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST access to the current order book of a symbol, so a client can take the book
+ * before following /topic/book/{symbol}
+ */
+@RestController
+@RequestMapping("/api/book")
+public class OrderBookController {
+
+    @Autowired
+    private OrderBookManager orderBookManager;
+
+    @Autowired
+    private BookProperties bookProperties;
+
+    /**
+     * Current top of a symbol's book
+     * @param symbol the symbol
+     * @param depth levels per side; market.book.depth if omitted
+     * @return best levels of each side; 404 if no book has been received for the symbol
+     */
+    @GetMapping("/{symbol}")
+    public ResponseEntity<PricePublisher.BookMessage> getBook(@PathVariable("symbol") String symbol,
+                                                              @RequestParam(name = "depth", required = false) Integer depth) {
+        int levels = depth != null ? Math.max(0, depth) : bookProperties.getDepth();
+        PricePublisher.BookMessage book = orderBookManager.getBook(symbol, levels);
+        return book != null ? ResponseEntity.ok(book) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.fintech.market.book;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.codec.MutableBookUpdate;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.BookProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a level-2 order book per symbol, built from a snapshot and then changed in place
+ * by incremental updates, so no update rebuilds a book. Book messages are applied on the
+ * decode thread that read them; books are held in an array indexed by symbol id. The top
+ * levels of books that changed are published on a fixed cadence, so a burst of updates
+ * to one symbol costs one message per interval.
+ */
+@Component
+public class OrderBookManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBookManager.class);
+
+    @Autowired
+    private BookProperties bookProperties;
+
+    @Autowired
+    private PricePublisher pricePublisher;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Replaced by a filled copy under this lock, read without it; decode threads of all sessions apply updates
+    private volatile OrderBook[] booksById = new OrderBook[64];
+    private ScheduledExecutorService publisher;
+    private final LongAdder updateCount = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (!bookProperties.isEnabled()) {
+            return;
+        }
+        long periodMillis = bookProperties.getPublishInterval().toMillis();
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-publish");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleAtFixedRate(this::publishBooks, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        if (meterRegistry != null) {
+            Gauge.builder("market.book.updates", this, OrderBookManager::getUpdateCount)
+                .description("Order book snapshots and updates applied")
+                .register(meterRegistry);
+        }
+        logger.info("Started order books, publishing {} levels every {}ms", bookProperties.getDepth(), periodMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return bookProperties.isEnabled();
+    }
+
+    /**
+     * Apply a decoded snapshot or incremental update to its symbol's book
+     */
+    public void apply(MutableBookUpdate update) {
+        if (!bookProperties.isEnabled()) {
+            return;
+        }
+        int symbolId = update.getSymbolId();
+        OrderBook book = bookFor(symbolId >= 0 ? symbolId : symbolRegistry.idOf(update.getSymbol()));
+        synchronized (book) {
+            book.apply(update);
+        }
+        updateCount.increment();
+    }
+
+    private OrderBook bookFor(int symbolId) {
+        OrderBook[] all = booksById;
+        OrderBook book = symbolId < all.length ? all[symbolId] : null;
+        return book != null ? book : createBook(symbolId);
+    }
+
+    private synchronized OrderBook createBook(int symbolId) {
+        OrderBook[] all = booksById;
+        OrderBook book = symbolId < all.length ? all[symbolId] : null;
+        if (book != null) {
+            return book;
+        }
+        // Store into a copy, never the published array, so the volatile write below is
+        // what publishes the new book to readers
+        int length = symbolId < all.length ? all.length : Math.max(all.length * 2, symbolId + 1);
+        all = Arrays.copyOf(all, length);
+        book = new OrderBook(bookProperties.getMaxLevels(), bookProperties.getDepth());
+        all[symbolId] = book;
+        booksById = all;
+        return book;
+    }
+
+    private void publishBooks() {
+        try {
+            drain(pricePublisher::publishBook);
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic publish
+            logger.error("Error publishing order books: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hand over the top levels of every book whose top levels changed since the last drain
+     * @param sink receives the book tops
+     */
+    void drain(Consumer<PricePublisher.BookMessage> sink) {
+        OrderBook[] all = booksById;
+        int depth = bookProperties.getDepth();
+        for (int id = 0; id < all.length; id++) {
+            OrderBook book = all[id];
+            if (book == null) {
+                continue;
+            }
+            PricePublisher.BookMessage top;
+            synchronized (book) {
+                top = book.takeDirty() ? book.top(symbolRegistry.symbolOf(id), depth) : null;
+            }
+            if (top != null) {
+                sink.accept(top);
+            }
+        }
+    }
+
+    /**
+     * Current top of a symbol's book
+     * @param symbol the symbol
+     * @param depth levels per side
+     * @return the best levels of each side, or null if no book message has been seen for the symbol
+     */
+    public PricePublisher.BookMessage getBook(String symbol, int depth) {
+        int symbolId = symbolRegistry.find(symbol);
+        OrderBook[] all = booksById;
+        OrderBook book = symbolId >= 0 && symbolId < all.length ? all[symbolId] : null;
+        if (book == null) {
+            return null;
+        }
+        synchronized (book) {
+            return book.top(symbol, depth);
+        }
+    }
+
+    public long getUpdateCount() {
+        return updateCount.sum();
+    }
+}
@@ -0,0 +1,224 @@
+package com.fintech.market.codec;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact fixed-layout binary tick protocol, big-endian.
+ * <pre>
+ * TICK frame (36 bytes)
+ *   0  u8   type = 0x01
+ *   1  u8   price scale, decimal places of the fixed-point price (0-18)
+ *   2  u16  reserved, 0
+ *   4  i32  symbol id
+ *   8  i64  sequence number
+ *   16 i64  price mantissa, price = mantissa / 10^scale
+ *   24 i64  market timestamp, epoch millis
+ *   32 i32  publish delay, millis after the market timestamp (0 upstream)
+ *
+ * SYMBOL frame (8 + n bytes), binds a symbol id to its name
+ *   0  u8   type = 0x02
+ *   1  u8   name length n
+ *   2  u16  reserved, 0
+ *   4  i32  symbol id
+ *   8  n    symbol, UTF-8
+ * </pre>
+ * A single WebSocket message may carry several frames back to back. Symbol ids are
+ * scoped to the sender: upstream providers announce theirs with SYMBOL frames before
+ * their first tick, downstream frames use {@link SymbolRegistry} ids.
+ * <p>
+ * Decoding keeps the upstream symbol table and is not thread-safe; use one instance
+ * per decode thread.
+ */
+public final class BinaryTickCodec {
+
+    public static final byte TYPE_TICK = 0x01;
+    public static final byte TYPE_SYMBOL = 0x02;
+    public static final int TICK_FRAME_LENGTH = 36;
+    public static final int SYMBOL_HEADER_LENGTH = 8;
+    public static final int MAX_PRICE_SCALE = 18;
+
+    public static final String ERROR_TRUNCATED = "Truncated binary frame";
+    public static final String ERROR_UNKNOWN_TYPE = "Unknown binary frame type";
+    public static final String ERROR_UNKNOWN_SYMBOL = "Tick for undeclared symbol id";
+    public static final String ERROR_BAD_SCALE = "Price scale out of range";
+
+    // Upper bound on upstream ids so a corrupt frame cannot force a huge table
+    private static final int MAX_UPSTREAM_SYMBOL_ID = 1 << 22;
+
+    private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_PRICE_SCALE + 1];
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
+    private final SymbolRegistry registry;
+    private String[] upstreamSymbols = new String[1024];
+    private int[] upstreamToLocalIds = new int[1024];
+    private String lastError;
+
+    /**
+     * Create a codec that leaves decoded symbol ids unset
+     */
+    public BinaryTickCodec() {
+        this(null);
+    }
+
+    /**
+     * @param registry registry that upstream symbols are mapped into when declared,
+     *                 or null to leave decoded symbol ids unset
+     */
+    public BinaryTickCodec(SymbolRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Length of the frame starting at the given offset
+     * @param buffer buffer holding the frame, read with absolute gets
+     * @param offset frame start
+     * @return frame length, or -1 if the header is truncated or the type is unknown
+     */
+    public static int frameLength(ByteBuffer buffer, int offset) {
+        int remaining = buffer.limit() - offset;
+        if (remaining < 2) {
+            return -1;
+        }
+        byte type = buffer.get(offset);
+        if (type == TYPE_TICK) {
+            return TICK_FRAME_LENGTH;
+        }
+        if (type == TYPE_SYMBOL) {
+            return SYMBOL_HEADER_LENGTH + (buffer.get(offset + 1) & 0xFF);
+        }
+        return -1;
+    }
+
+    /**
+     * Write a TICK frame at the buffer's position
+     */
+    public static void encodeTick(ByteBuffer out, int symbolId, long sequence, double price, int priceScale,
+                                  long marketTimestamp, long publishTimestamp) {
+        if (priceScale < 0 || priceScale > MAX_PRICE_SCALE) {
+            throw new IllegalArgumentException("Price scale out of range: " + priceScale);
+        }
+        long delay = publishTimestamp == 0L ? 0L : publishTimestamp - marketTimestamp;
+        out.put(TYPE_TICK)
+           .put((byte) priceScale)
+           .putShort((short) 0)
+           .putInt(symbolId)
+           .putLong(sequence)
+           .putLong(Math.round(price * POWERS_OF_TEN[priceScale]))
+           .putLong(marketTimestamp)
+           .putInt((int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, delay)));
+    }
+
+    /**
+     * Encode a single TICK frame into a new array
+     * @return 36-byte frame
+     */
+    public static byte[] encodeTick(int symbolId, long sequence, double price, int priceScale,
+                                    long marketTimestamp, long publishTimestamp) {
+        byte[] frame = new byte[TICK_FRAME_LENGTH];
+        encodeTick(ByteBuffer.wrap(frame), symbolId, sequence, price, priceScale, marketTimestamp, publishTimestamp);
+        return frame;
+    }
+
+    /**
+     * Write a SYMBOL frame at the buffer's position
+     */
+    public static void encodeSymbol(ByteBuffer out, int symbolId, String symbol) {
+        byte[] name = symbol.getBytes(StandardCharsets.UTF_8);
+        if (name.length > 255) {
+            throw new IllegalArgumentException("Symbol too long for binary protocol: " + symbol);
+        }
+        out.put(TYPE_SYMBOL)
+           .put((byte) name.length)
+           .putShort((short) 0)
+           .putInt(symbolId)
+           .put(name);
+    }
+
+    /**
+     * Decode one frame. A SYMBOL frame updates the upstream symbol table and
+     * produces no tick.
+     * @param frame bytes holding exactly one frame
+     * @param offset frame start
+     * @param length frame length
+     * @param tick holder filled for TICK frames
+     * @return true if a tick was decoded; false for SYMBOL frames and errors,
+     *         which are told apart by {@link #getLastError()}
+     */
+    public boolean decode(byte[] frame, int offset, int length, MutableTick tick) {
+        tick.clear();
+        lastError = null;
+        if (length < 2) {
+            return fail(ERROR_TRUNCATED);
+        }
+        byte type = frame[offset];
+        if (type == TYPE_SYMBOL) {
+            int nameLength = frame[offset + 1] & 0xFF;
+            if (length < SYMBOL_HEADER_LENGTH + nameLength) {
+                return fail(ERROR_TRUNCATED);
+            }
+            int symbolId = (int) INT_VIEW.get(frame, offset + 4);
+            if (symbolId < 0 || symbolId > MAX_UPSTREAM_SYMBOL_ID) {
+                return fail(ERROR_UNKNOWN_SYMBOL);
+            }
+            defineUpstreamSymbol(symbolId,
+                new String(frame, offset + SYMBOL_HEADER_LENGTH, nameLength, StandardCharsets.UTF_8));
+            return false;
+        }
+        if (type != TYPE_TICK) {
+            return fail(ERROR_UNKNOWN_TYPE);
+        }
+        if (length < TICK_FRAME_LENGTH) {
+            return fail(ERROR_TRUNCATED);
+        }
+        int scale = frame[offset + 1] & 0xFF;
+        if (scale > MAX_PRICE_SCALE) {
+            return fail(ERROR_BAD_SCALE);
+        }
+        int symbolId = (int) INT_VIEW.get(frame, offset + 4);
+        String symbol = symbolId >= 0 && symbolId < upstreamSymbols.length ? upstreamSymbols[symbolId] : null;
+        if (symbol == null) {
+            return fail(ERROR_UNKNOWN_SYMBOL);
+        }
+        long mantissa = (long) LONG_VIEW.get(frame, offset + 16);
+        tick.set(symbol, (double) mantissa / POWERS_OF_TEN[scale], (long) LONG_VIEW.get(frame, offset + 24));
+        tick.setSymbolId(upstreamToLocalIds[symbolId]);
+        tick.setSequence((long) LONG_VIEW.get(frame, offset + 8));
+        return true;
+    }
+
+    /**
+     * @return reason for the last failed decode, or null if it succeeded or
+     *         consumed a SYMBOL frame
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    private void defineUpstreamSymbol(int symbolId, String symbol) {
+        if (symbolId >= upstreamSymbols.length) {
+            int capacity = Math.max(symbolId + 1, upstreamSymbols.length * 2);
+            upstreamSymbols = Arrays.copyOf(upstreamSymbols, capacity);
+            upstreamToLocalIds = Arrays.copyOf(upstreamToLocalIds, capacity);
+        }
+        upstreamSymbols[symbolId] = symbol;
+        upstreamToLocalIds[symbolId] = registry != null ? registry.idOf(symbol) : -1;
+    }
+
+    private boolean fail(String error) {
+        lastError = error;
+        return false;
+    }
+}
@@ -0,0 +1,166 @@
+package com.fintech.market.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Streaming decoder for JSON order book messages of the form
+ * {@code {"type":"book","symbol":"AAPL","ts":1703123456789,"snapshot":false,
+ * "bids":[[150.24,300],[150.23,0]],"asks":[[150.26,200]]}}.
+ * <p>
+ * A snapshot replaces the whole book; otherwise each listed level is set to the given
+ * size, and a size of 0 removes the level. Prices and sizes may also be JSON strings.
+ * Levels are decoded into a reusable {@link MutableBookUpdate}. The {@code type} field
+ * must come first, so {@link #isBook} can tell book messages from ticks without parsing.
+ * <p>
+ * Instances are not thread-safe; use one per decode thread.
+ */
+public final class BookDecoder {
+
+    public static final String ERROR_MALFORMED = "Malformed book JSON";
+    public static final String ERROR_MISSING_SYMBOL = "Missing or non-string symbol field";
+    public static final String ERROR_MALFORMED_LEVEL = "Book level is not a [price, size] array";
+
+    private static final String TYPE_KEY = "\"type\"";
+    private static final String BOOK_TYPE = "\"book\"";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final SymbolRegistry registry;
+    private String lastError;
+
+    /**
+     * @param registry registry resolving symbol ids, or null to leave them unset
+     */
+    public BookDecoder(SymbolRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param payload JSON text frame
+     * @return true if the payload starts with {@code "type":"book"}; ticks never do
+     */
+    public static boolean isBook(String payload) {
+        int pos = skipWhitespace(payload, 0);
+        if (pos >= payload.length() || payload.charAt(pos) != '{') {
+            return false;
+        }
+        pos = skipWhitespace(payload, pos + 1);
+        if (!payload.startsWith(TYPE_KEY, pos)) {
+            return false;
+        }
+        pos = skipWhitespace(payload, pos + TYPE_KEY.length());
+        if (pos >= payload.length() || payload.charAt(pos) != ':') {
+            return false;
+        }
+        return payload.startsWith(BOOK_TYPE, skipWhitespace(payload, pos + 1));
+    }
+
+    private static int skipWhitespace(String payload, int pos) {
+        while (pos < payload.length() && payload.charAt(pos) <= ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Decode a book message
+     * @param text JSON book message
+     * @param update holder to fill
+     * @return true on success; on failure see {@link #getLastError()}
+     */
+    public boolean decode(String text, MutableBookUpdate update) {
+        update.clear();
+        lastError = null;
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return fail(update, ERROR_MALFORMED);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "symbol":
+                        if (value != JsonToken.VALUE_STRING) {
+                            return fail(update, ERROR_MISSING_SYMBOL);
+                        }
+                        update.setSymbol(parser.getText());
+                        break;
+                    case "ts":
+                        update.setTimestamp(value == JsonToken.VALUE_STRING
+                            ? Long.parseLong(parser.getText()) : parser.getValueAsLong());
+                        break;
+                    case "snapshot":
+                        update.setSnapshot(value == JsonToken.VALUE_TRUE);
+                        break;
+                    case "bids":
+                    case "asks":
+                        if (!readLevels(parser, value, field.equals("bids"), update)) {
+                            return fail(update, ERROR_MALFORMED_LEVEL);
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            if (token != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                return fail(update, ERROR_MALFORMED);
+            }
+        } catch (IOException | NumberFormatException e) {
+            return fail(update, ERROR_MALFORMED);
+        }
+        if (update.getSymbol() == null || update.getSymbol().isEmpty()) {
+            return fail(update, ERROR_MISSING_SYMBOL);
+        }
+        update.setSymbolId(registry != null ? registry.idOf(update.getSymbol()) : -1);
+        return true;
+    }
+
+    private static boolean readLevels(JsonParser parser, JsonToken value, boolean bids, MutableBookUpdate update)
+            throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            return false;
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_ARRAY) {
+            parser.nextToken();
+            double price = readNumber(parser);
+            parser.nextToken();
+            double size = readNumber(parser);
+            if (Double.isNaN(price) || Double.isNaN(size) || parser.nextToken() != JsonToken.END_ARRAY) {
+                return false;
+            }
+            if (bids) {
+                update.addBid(price, size);
+            } else {
+                update.addAsk(price, size);
+            }
+        }
+        return token == JsonToken.END_ARRAY;
+    }
+
+    private static double readNumber(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != null && token.isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        return token == JsonToken.VALUE_STRING ? Double.parseDouble(parser.getText()) : Double.NaN;
+    }
+
+    /**
+     * @return reason for the last failed decode, or null if it succeeded
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    private boolean fail(MutableBookUpdate update, String error) {
+        update.clear();
+        lastError = error;
+        return false;
+    }
+}
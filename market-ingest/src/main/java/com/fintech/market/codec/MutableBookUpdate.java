@@ -0,0 +1,85 @@
+package com.fintech.market.codec;
+
+import java.util.Arrays;
+
+/**
+ * Reusable holder for one order book message, filled in place by {@link BookDecoder}.
+ * Levels are kept in primitive arrays that grow as needed and are reused across messages.
+ * Not thread-safe; each decode thread owns its own instances.
+ */
+public final class MutableBookUpdate {
+
+    private String symbol;
+    private int symbolId = -1;
+    private long timestamp;
+    private boolean snapshot;
+
+    private double[] bidPrices = new double[32];
+    private double[] bidSizes = new double[32];
+    private int bidCount;
+    private double[] askPrices = new double[32];
+    private double[] askSizes = new double[32];
+    private int askCount;
+
+    /**
+     * Reset all fields so a previous message cannot leak into the next decode
+     */
+    public void clear() {
+        symbol = null;
+        symbolId = -1;
+        timestamp = 0L;
+        snapshot = false;
+        bidCount = 0;
+        askCount = 0;
+    }
+
+    public void addBid(double price, double size) {
+        if (bidCount == bidPrices.length) {
+            bidPrices = Arrays.copyOf(bidPrices, bidCount * 2);
+            bidSizes = Arrays.copyOf(bidSizes, bidCount * 2);
+        }
+        bidPrices[bidCount] = price;
+        bidSizes[bidCount++] = size;
+    }
+
+    public void addAsk(double price, double size) {
+        if (askCount == askPrices.length) {
+            askPrices = Arrays.copyOf(askPrices, askCount * 2);
+            askSizes = Arrays.copyOf(askSizes, askCount * 2);
+        }
+        askPrices[askCount] = price;
+        askSizes[askCount++] = size;
+    }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    /**
+     * @return the symbol's {@link SymbolRegistry} id, or -1 if the decoder has no registry
+     */
+    public int getSymbolId() { return symbolId; }
+    public void setSymbolId(int symbolId) { this.symbolId = symbolId; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    /**
+     * @return true if the message replaces the whole book, false if it changes the levels it lists
+     */
+    public boolean isSnapshot() { return snapshot; }
+    public void setSnapshot(boolean snapshot) { this.snapshot = snapshot; }
+
+    public int getBidCount() { return bidCount; }
+    public double getBidPrice(int index) { return bidPrices[index]; }
+    public double getBidSize(int index) { return bidSizes[index]; }
+
+    public int getAskCount() { return askCount; }
+    public double getAskPrice(int index) { return askPrices[index]; }
+    public double getAskSize(int index) { return askSizes[index]; }
+
+    @Override
+    public String toString() {
+        return String.format("MutableBookUpdate{symbol='%s', snapshot=%b, bids=%d, asks=%d, timestamp=%d}",
+                           symbol, snapshot, bidCount, askCount, timestamp);
+    }
+}
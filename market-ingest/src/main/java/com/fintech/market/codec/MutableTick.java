@@ -0,0 +1,58 @@
+package com.fintech.market.codec;
+
+/**
+ * Reusable tick holder filled in place by {@link TickDecoder} and {@link BinaryTickCodec}.
+ * Not thread-safe; each decode thread owns its own instances.
+ */
+public final class MutableTick {
+
+    private String symbol;
+    private int symbolId = -1;
+    private double price;
+    private long timestamp;
+    private long sequence;
+
+    /**
+     * Set the tick fields; the symbol id and sequence are left unchanged
+     */
+    public void set(String symbol, double price, long timestamp) {
+        this.symbol = symbol;
+        this.price = price;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Reset all fields so a stale tick cannot leak into the next decode
+     */
+    public void clear() {
+        this.symbol = null;
+        this.symbolId = -1;
+        this.price = 0.0;
+        this.timestamp = 0L;
+        this.sequence = 0L;
+    }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    /**
+     * @return the symbol's {@link SymbolRegistry} id, or -1 if the decoder has no registry
+     */
+    public int getSymbolId() { return symbolId; }
+    public void setSymbolId(int symbolId) { this.symbolId = symbolId; }
+
+    public double getPrice() { return price; }
+    public void setPrice(double price) { this.price = price; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+
+    @Override
+    public String toString() {
+        return String.format("MutableTick{symbol='%s', price=%.2f, timestamp=%d, sequence=%d}",
+                           symbol, price, timestamp, sequence);
+    }
+}
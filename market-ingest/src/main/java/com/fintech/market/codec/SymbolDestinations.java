@@ -0,0 +1,54 @@
+package com.fintech.market.codec;
+
+import java.util.Arrays;
+
+/**
+ * STOMP destinations of the form prefix + symbol, built once per {@link SymbolRegistry}
+ * id and then served from an array, so publishing does not concatenate per tick.
+ * Safe for concurrent use.
+ */
+public final class SymbolDestinations {
+
+    private final String prefix;
+    private volatile String[] destinations = new String[1024];
+
+    /**
+     * @param prefix destination prefix, e.g. /topic/price/
+     */
+    public SymbolDestinations(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * @param symbolId registry id of the symbol, or -1 if not known
+     * @param symbol the symbol
+     * @return prefix + symbol
+     */
+    public String get(int symbolId, String symbol) {
+        if (symbolId < 0) {
+            return prefix + symbol;
+        }
+        String[] current = destinations;
+        if (symbolId < current.length) {
+            String destination = current[symbolId];
+            if (destination != null) {
+                return destination;
+            }
+        }
+        return build(symbolId, symbol);
+    }
+
+    private synchronized String build(int symbolId, String symbol) {
+        String[] current = destinations;
+        if (symbolId >= current.length) {
+            current = Arrays.copyOf(current, Math.max(symbolId + 1, current.length * 2));
+        }
+        String destination = current[symbolId];
+        if (destination == null) {
+            destination = prefix + symbol;
+            current[symbolId] = destination;
+        }
+        destinations = current;
+        return destination;
+    }
+}
@@ -0,0 +1,73 @@
+package com.fintech.market.codec;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense integer ids to symbols. Ids start at 0, are never reused and stay
+ * stable for the lifetime of the process. Lookups are lock-free; only the first
+ * sighting of a symbol takes a lock.
+ */
+@Component
+public class SymbolRegistry {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] symbols = new String[1024];
+    private volatile int size;
+
+    /**
+     * Get the id of a symbol, registering it on first use
+     * @param symbol the symbol
+     * @return dense symbol id
+     */
+    public int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : register(symbol);
+    }
+
+    /**
+     * Get the id of a symbol without registering it
+     * @param symbol the symbol
+     * @return symbol id, or -1 if unknown
+     */
+    public int find(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Get the symbol for an id
+     * @param id symbol id
+     * @return the symbol, or null if the id is unknown
+     */
+    public String symbolOf(int id) {
+        String[] current = symbols;
+        return id >= 0 && id < size && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * @return number of registered symbols; valid ids are 0 to size - 1
+     */
+    public int size() {
+        return size;
+    }
+
+    private synchronized int register(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size;
+        String[] current = symbols;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = symbol;
+        symbols = current;
+        size = id + 1;
+        ids.put(symbol, id);
+        return id;
+    }
+}
@@ -0,0 +1,597 @@
+package com.fintech.market.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming decoder for flat JSON ticks of the form
+ * {@code {"symbol":"AAPL","price":150.25,"ts":1703123456789}}.
+ * <p>
+ * The common case is handled by a hand-rolled byte scanner that decodes straight into
+ * a reusable {@link MutableTick}: no JsonNode tree, no exceptions, and symbol strings
+ * are interned so steady-state decoding allocates nothing. Payloads the scanner does
+ * not handle (escaped strings, nested values, non-ASCII text) fall back to Jackson's
+ * streaming {@link JsonParser}.
+ * <p>
+ * With a {@link SymbolRegistry} the decoder also fills the tick's symbol id. The id is
+ * cached next to the interned symbol, so it costs no extra lookup per tick.
+ * <p>
+ * Instances keep scratch state and are not thread-safe; use one per decode thread.
+ */
+public final class TickDecoder {
+
+    public static final String ERROR_EMPTY = "Empty tick payload";
+    public static final String ERROR_MALFORMED = "Malformed tick JSON";
+    public static final String ERROR_TRUNCATED = "Truncated tick JSON";
+    public static final String ERROR_MISSING_SYMBOL = "Missing or non-string symbol field";
+    public static final String ERROR_MISSING_PRICE = "Missing or non-numeric price field";
+    public static final String ERROR_MISSING_TIMESTAMP = "Missing or non-numeric ts field";
+
+    private static final int OK = 0;
+    private static final int FAILED = 1;
+    private static final int FALLBACK = 2;
+
+    private static final int FIELD_OTHER = 0;
+    private static final int FIELD_SYMBOL = 1;
+    private static final int FIELD_PRICE = 2;
+    private static final int FIELD_TS = 3;
+
+    private static final byte[] SYMBOL_KEY = "symbol".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PRICE_KEY = "price".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TS_KEY = "ts".getBytes(StandardCharsets.US_ASCII);
+
+    // 10^0 .. 10^22, all exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final SymbolRegistry registry;
+    private final SymbolCache symbols;
+    private byte[] scratch = new byte[256];
+    private String lastError;
+
+    // Scanner state for the payload currently being decoded
+    private byte[] buf;
+    private int pos;
+    private int end;
+    private long numberMantissa;
+    private boolean numberIsInteger;
+    private double numberValue;
+
+    /**
+     * Create a decoder that leaves symbol ids unset
+     */
+    public TickDecoder() {
+        this(null);
+    }
+
+    /**
+     * @param registry registry resolving symbol ids, or null to leave them unset
+     */
+    public TickDecoder(SymbolRegistry registry) {
+        this.registry = registry;
+        this.symbols = new SymbolCache(registry);
+    }
+
+    /**
+     * Decode a text tick
+     * @param text JSON tick
+     * @param tick holder to fill
+     * @return true on success; on failure see {@link #getLastError()}
+     */
+    public boolean decode(String text, MutableTick tick) {
+        if (text == null || text.isEmpty()) {
+            return fail(tick, ERROR_EMPTY);
+        }
+        int length = text.length();
+        byte[] bytes = scratch(length);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c > 0x7F) {
+                return decodeWithParser(text, null, 0, 0, tick);
+            }
+            bytes[i] = (byte) c;
+        }
+        return decode(bytes, 0, length, tick);
+    }
+
+    /**
+     * Decode a UTF-8 tick from a buffer. Reads from the buffer's position to its
+     * limit without changing either.
+     * @param buffer UTF-8 JSON tick
+     * @param tick holder to fill
+     * @return true on success; on failure see {@link #getLastError()}
+     */
+    public boolean decode(ByteBuffer buffer, MutableTick tick) {
+        if (buffer == null || !buffer.hasRemaining()) {
+            return fail(tick, ERROR_EMPTY);
+        }
+        if (buffer.hasArray()) {
+            return decode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), tick);
+        }
+        int length = buffer.remaining();
+        byte[] bytes = scratch(length);
+        buffer.get(buffer.position(), bytes, 0, length);
+        return decode(bytes, 0, length, tick);
+    }
+
+    /**
+     * Decode a UTF-8 tick from a byte range
+     * @param bytes UTF-8 JSON tick
+     * @param offset start offset
+     * @param length number of bytes
+     * @param tick holder to fill
+     * @return true on success; on failure see {@link #getLastError()}
+     */
+    public boolean decode(byte[] bytes, int offset, int length, MutableTick tick) {
+        if (length <= 0) {
+            return fail(tick, ERROR_EMPTY);
+        }
+        tick.clear();
+        lastError = null;
+        buf = bytes;
+        pos = offset;
+        end = offset + length;
+        try {
+            int result = scanObject(tick);
+            if (result == FALLBACK) {
+                return decodeWithParser(null, bytes, offset, length, tick);
+            }
+            return result == OK;
+        } finally {
+            buf = null;
+        }
+    }
+
+    /**
+     * @return reason for the last failed decode, or null if it succeeded
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    private int scanObject(MutableTick tick) {
+        String symbol = null;
+        int symbolId = -1;
+        boolean havePrice = false;
+        boolean haveTimestamp = false;
+        double price = 0.0;
+        long timestamp = 0L;
+
+        skipWhitespace();
+        if (!consume('{')) {
+            return failScan(ERROR_MALFORMED);
+        }
+        skipWhitespace();
+        if (!consume('}')) {
+            while (true) {
+                skipWhitespace();
+                if (!consume('"')) {
+                    return failScan(ERROR_MALFORMED);
+                }
+                int keyStart = pos;
+                int keyEnd = scanStringEnd();
+                if (keyEnd < 0) {
+                    return keyEnd == -2 ? FALLBACK : failScan(ERROR_TRUNCATED);
+                }
+                skipWhitespace();
+                if (!consume(':')) {
+                    return failScan(ERROR_MALFORMED);
+                }
+                skipWhitespace();
+                if (pos >= end) {
+                    return failScan(ERROR_TRUNCATED);
+                }
+
+                switch (matchField(keyStart, keyEnd)) {
+                    case FIELD_SYMBOL:
+                        if (!consume('"')) {
+                            return failScan(ERROR_MISSING_SYMBOL);
+                        }
+                        int valueStart = pos;
+                        int valueEnd = scanStringEnd();
+                        if (valueEnd < 0) {
+                            return valueEnd == -2 ? FALLBACK : failScan(ERROR_TRUNCATED);
+                        }
+                        symbol = symbols.intern(buf, valueStart, valueEnd - valueStart);
+                        symbolId = symbols.lastId;
+                        break;
+                    case FIELD_PRICE:
+                        if (!scanNumberValue()) {
+                            return failScan(ERROR_MISSING_PRICE);
+                        }
+                        price = numberValue;
+                        havePrice = true;
+                        break;
+                    case FIELD_TS:
+                        if (!scanNumberValue()) {
+                            return failScan(ERROR_MISSING_TIMESTAMP);
+                        }
+                        timestamp = numberIsInteger ? numberMantissa : (long) numberValue;
+                        haveTimestamp = true;
+                        break;
+                    default:
+                        int skipped = skipValue();
+                        if (skipped != OK) {
+                            return skipped;
+                        }
+                        break;
+                }
+
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                if (consume('}')) {
+                    break;
+                }
+                return failScan(pos >= end ? ERROR_TRUNCATED : ERROR_MALFORMED);
+            }
+        }
+        skipWhitespace();
+        if (pos != end) {
+            return failScan(ERROR_MALFORMED);
+        }
+        return complete(tick, symbol, symbolId, havePrice, price, haveTimestamp, timestamp) ? OK : FAILED;
+    }
+
+    private boolean complete(MutableTick tick, String symbol, int symbolId, boolean havePrice, double price,
+                             boolean haveTimestamp, long timestamp) {
+        if (symbol == null || symbol.isEmpty()) {
+            return fail(tick, ERROR_MISSING_SYMBOL);
+        }
+        if (!havePrice) {
+            return fail(tick, ERROR_MISSING_PRICE);
+        }
+        if (!haveTimestamp) {
+            return fail(tick, ERROR_MISSING_TIMESTAMP);
+        }
+        tick.set(symbol, price, timestamp);
+        tick.setSymbolId(symbolId);
+        return true;
+    }
+
+    /**
+     * Advance past a string body whose opening quote was consumed
+     * @return index of the closing quote, -1 if truncated, -2 if it contains escapes
+     */
+    private int scanStringEnd() {
+        while (pos < end) {
+            byte b = buf[pos];
+            if (b == '"') {
+                return pos++;
+            }
+            if (b == '\\') {
+                return -2;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private int matchField(int start, int stop) {
+        int length = stop - start;
+        if (length == SYMBOL_KEY.length && Arrays.equals(buf, start, stop, SYMBOL_KEY, 0, length)) {
+            return FIELD_SYMBOL;
+        }
+        if (length == PRICE_KEY.length && Arrays.equals(buf, start, stop, PRICE_KEY, 0, length)) {
+            return FIELD_PRICE;
+        }
+        if (length == TS_KEY.length && Arrays.equals(buf, start, stop, TS_KEY, 0, length)) {
+            return FIELD_TS;
+        }
+        return FIELD_OTHER;
+    }
+
+    /**
+     * Scan a number, optionally quoted as some providers send prices as strings
+     */
+    private boolean scanNumberValue() {
+        if (consume('"')) {
+            return scanNumber() && consume('"');
+        }
+        return scanNumber();
+    }
+
+    /**
+     * Scan a JSON number into numberValue / numberMantissa. Uses the exact fast path
+     * for up to 15 significant digits and falls back to Double.parseDouble otherwise.
+     */
+    private boolean scanNumber() {
+        int start = pos;
+        boolean negative = consume('-');
+        long mantissa = 0L;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        boolean sawDigit = false;
+        boolean integer = true;
+
+        while (pos < end && isDigit(buf[pos])) {
+            sawDigit = true;
+            if (significantDigits < 18) {
+                mantissa = mantissa * 10 + (buf[pos] - '0');
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+            } else {
+                exponent++;
+                truncated = true;
+            }
+            pos++;
+        }
+        if (pos < end && buf[pos] == '.') {
+            integer = false;
+            pos++;
+            boolean sawFraction = false;
+            while (pos < end && isDigit(buf[pos])) {
+                sawFraction = true;
+                if (significantDigits < 18) {
+                    mantissa = mantissa * 10 + (buf[pos] - '0');
+                    if (mantissa != 0) {
+                        significantDigits++;
+                    }
+                    exponent--;
+                } else {
+                    truncated = true;
+                }
+                pos++;
+            }
+            if (!sawFraction) {
+                return false;
+            }
+        }
+        if (!sawDigit) {
+            return false;
+        }
+        if (pos < end && (buf[pos] == 'e' || buf[pos] == 'E')) {
+            integer = false;
+            pos++;
+            boolean negativeExponent = consume('-');
+            if (!negativeExponent) {
+                consume('+');
+            }
+            int exponentValue = 0;
+            boolean sawExponent = false;
+            while (pos < end && isDigit(buf[pos])) {
+                sawExponent = true;
+                if (exponentValue < 10000) {
+                    exponentValue = exponentValue * 10 + (buf[pos] - '0');
+                }
+                pos++;
+            }
+            if (!sawExponent) {
+                return false;
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+
+        numberIsInteger = integer && !truncated;
+        numberMantissa = negative ? -mantissa : mantissa;
+        if (!truncated && significantDigits <= 15 && exponent >= -22 && exponent <= 22) {
+            double value = exponent < 0
+                ? mantissa / POWERS_OF_TEN[-exponent]
+                : mantissa * POWERS_OF_TEN[exponent];
+            numberValue = negative ? -value : value;
+        } else {
+            numberValue = Double.parseDouble(new String(buf, start, pos - start, StandardCharsets.US_ASCII));
+        }
+        return true;
+    }
+
+    /**
+     * Skip a value of a field we do not care about
+     */
+    private int skipValue() {
+        byte b = buf[pos];
+        if (b == '"') {
+            pos++;
+            int stringEnd = scanStringEnd();
+            if (stringEnd < 0) {
+                return stringEnd == -2 ? FALLBACK : failScan(ERROR_TRUNCATED);
+            }
+            return OK;
+        }
+        if (b == '{' || b == '[') {
+            return FALLBACK;
+        }
+        int start = pos;
+        while (pos < end && buf[pos] != ',' && buf[pos] != '}' && !isWhitespace(buf[pos])) {
+            pos++;
+        }
+        return pos > start ? OK : failScan(ERROR_MALFORMED);
+    }
+
+    /**
+     * Slow path for payloads the scanner does not handle
+     */
+    private boolean decodeWithParser(String text, byte[] bytes, int offset, int length, MutableTick tick) {
+        tick.clear();
+        lastError = null;
+        String symbol = null;
+        boolean havePrice = false;
+        boolean haveTimestamp = false;
+        double price = 0.0;
+        long timestamp = 0L;
+
+        try (JsonParser parser = text != null
+                ? jsonFactory.createParser(text)
+                : jsonFactory.createParser(bytes, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return fail(tick, ERROR_MALFORMED);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "symbol":
+                        if (value != JsonToken.VALUE_STRING) {
+                            return fail(tick, ERROR_MISSING_SYMBOL);
+                        }
+                        symbol = parser.getText();
+                        break;
+                    case "price":
+                        if (value.isNumeric()) {
+                            price = parser.getDoubleValue();
+                        } else if (value == JsonToken.VALUE_STRING) {
+                            price = Double.parseDouble(parser.getText());
+                        } else {
+                            return fail(tick, ERROR_MISSING_PRICE);
+                        }
+                        havePrice = true;
+                        break;
+                    case "ts":
+                        if (value == JsonToken.VALUE_NUMBER_INT) {
+                            timestamp = parser.getLongValue();
+                        } else if (value == JsonToken.VALUE_NUMBER_FLOAT) {
+                            timestamp = (long) parser.getDoubleValue();
+                        } else if (value == JsonToken.VALUE_STRING) {
+                            timestamp = Long.parseLong(parser.getText());
+                        } else {
+                            return fail(tick, ERROR_MISSING_TIMESTAMP);
+                        }
+                        haveTimestamp = true;
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            if (token != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                return fail(tick, ERROR_MALFORMED);
+            }
+        } catch (IOException | NumberFormatException e) {
+            return fail(tick, ERROR_MALFORMED);
+        }
+        int symbolId = symbol != null && registry != null ? registry.idOf(symbol) : -1;
+        return complete(tick, symbol, symbolId, havePrice, price, haveTimestamp, timestamp);
+    }
+
+    private boolean consume(char expected) {
+        if (pos < end && buf[pos] == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && isWhitespace(buf[pos])) {
+            pos++;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+
+    private int failScan(String error) {
+        lastError = error;
+        return FAILED;
+    }
+
+    private boolean fail(MutableTick tick, String error) {
+        tick.clear();
+        lastError = error;
+        return false;
+    }
+
+    /**
+     * Open-addressing cache from symbol bytes to interned String and registry id, so
+     * repeated symbols neither allocate a new String nor hash one per tick.
+     */
+    private static final class SymbolCache {
+        private static final int MAX_SIZE = 1 << 18;
+
+        private final SymbolRegistry registry;
+        private byte[][] keys = new byte[1024][];
+        private String[] values = new String[1024];
+        private int[] ids = new int[1024];
+        private int size;
+
+        /** Registry id of the symbol returned by the last {@link #intern} call, -1 without a registry */
+        int lastId = -1;
+
+        SymbolCache(SymbolRegistry registry) {
+            this.registry = registry;
+        }
+
+        String intern(byte[] bytes, int offset, int length) {
+            int mask = keys.length - 1;
+            int index = hash(bytes, offset, length) & mask;
+            byte[] key;
+            while ((key = keys[index]) != null) {
+                if (Arrays.equals(key, 0, key.length, bytes, offset, offset + length)) {
+                    lastId = ids[index];
+                    return values[index];
+                }
+                index = (index + 1) & mask;
+            }
+
+            String symbol = new String(bytes, offset, length, StandardCharsets.UTF_8);
+            lastId = registry != null ? registry.idOf(symbol) : -1;
+            if (size >= MAX_SIZE) {
+                return symbol;
+            }
+            keys[index] = Arrays.copyOfRange(bytes, offset, offset + length);
+            values[index] = symbol;
+            ids[index] = lastId;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+            return symbol;
+        }
+
+        private void resize() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            int[] oldIds = ids;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldValues.length * 2];
+            ids = new int[oldIds.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int index = hash(oldKeys[i], 0, oldKeys[i].length) & mask;
+                    while (keys[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                    ids[index] = oldIds[i];
+                }
+            }
+        }
+
+        private static int hash(byte[] bytes, int offset, int length) {
+            int h = 1;
+            for (int i = offset; i < offset + length; i++) {
+                h = 31 * h + bytes[i];
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
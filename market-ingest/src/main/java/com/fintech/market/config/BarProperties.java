@@ -0,0 +1,46 @@
+package com.fintech.market.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OHLCV bar aggregation configuration (market.bars.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "market.bars")
+public class BarProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Bar lengths; each is published on /topic/bars/{interval}/{symbol}
+     */
+    private List<Duration> intervals = new ArrayList<>(List.of(
+        Duration.ofSeconds(1), Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofHours(1)));
+
+    /**
+     * Closed bars kept per symbol and interval for the REST endpoint
+     */
+    private int history = 500;
+
+    /**
+     * How often in-progress and newly closed bars are published
+     */
+    private Duration publishInterval = Duration.ofSeconds(1);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public List<Duration> getIntervals() { return intervals; }
+    public void setIntervals(List<Duration> intervals) { this.intervals = intervals; }
+
+    public int getHistory() { return history; }
+    public void setHistory(int history) { this.history = history; }
+
+    public Duration getPublishInterval() { return publishInterval; }
+    public void setPublishInterval(Duration publishInterval) { this.publishInterval = publishInterval; }
+}
@@ -0,0 +1,43 @@
+package com.fintech.market.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Level-2 order book configuration (market.book.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "market.book")
+public class BookProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Price levels per side published on /topic/book/{symbol}
+     */
+    private int depth = 10;
+
+    /**
+     * Price levels kept per side; updates deeper than this are ignored
+     */
+    private int maxLevels = 1000;
+
+    /**
+     * How often the top of books that changed is published; updates in between are conflated
+     */
+    private Duration publishInterval = Duration.ofMillis(100);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+
+    public int getMaxLevels() { return maxLevels; }
+    public void setMaxLevels(int maxLevels) { this.maxLevels = maxLevels; }
+
+    public Duration getPublishInterval() { return publishInterval; }
+    public void setPublishInterval(Duration publishInterval) { this.publishInterval = publishInterval; }
+}
@@ -0,0 +1,51 @@
+package com.fintech.market.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Compressed tick history configuration (market.history.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "market.history")
+public class HistoryProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the daily chunk files
+     */
+    private String directory = "data/history";
+
+    /**
+     * Ticks per chunk before it is sealed and written
+     */
+    private int chunkPoints = 2048;
+
+    /**
+     * Oldest age of an open chunk before it is sealed and written, bounding what a crash can lose
+     */
+    private Duration chunkDuration = Duration.ofMinutes(15);
+
+    /**
+     * Daily chunk files older than this are deleted
+     */
+    private Duration retentionTime = Duration.ofDays(90);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+
+    public int getChunkPoints() { return chunkPoints; }
+    public void setChunkPoints(int chunkPoints) { this.chunkPoints = chunkPoints; }
+
+    public Duration getChunkDuration() { return chunkDuration; }
+    public void setChunkDuration(Duration chunkDuration) { this.chunkDuration = chunkDuration; }
+
+    public Duration getRetentionTime() { return retentionTime; }
+    public void setRetentionTime(Duration retentionTime) { this.retentionTime = retentionTime; }
+}
@@ -0,0 +1,37 @@
+package com.fintech.market.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming indicator configuration (market.indicators.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "market.indicators")
+public class IndicatorProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Window lengths in ticks; each is published on /topic/indicators/{window}/{symbol}
+     */
+    private List<Integer> windows = new ArrayList<>(List.of(20, 100));
+
+    /**
+     * How often indicators that changed are published
+     */
+    private Duration publishInterval = Duration.ofSeconds(1);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public List<Integer> getWindows() { return windows; }
+    public void setWindows(List<Integer> windows) { this.windows = windows; }
+
+    public Duration getPublishInterval() { return publishInterval; }
+    public void setPublishInterval(Duration publishInterval) { this.publishInterval = publishInterval; }
+}
@@ -0,0 +1,60 @@
+package com.fintech.market.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Tick journal configuration (market.journal.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "market.journal")
+public class JournalProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the segment files
+     */
+    private String directory = "data/journal";
+
+    /**
+     * Size of each memory-mapped segment file
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Maximum age of the active segment before it rolls
+     */
+    private Duration rollInterval = Duration.ofHours(1);
+
+    /**
+     * Oldest segments are deleted once all segments together exceed this size
+     */
+    private DataSize retentionSize = DataSize.ofGigabytes(10);
+
+    /**
+     * Segments older than this are deleted
+     */
+    private Duration retentionTime = Duration.ofDays(7);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+
+    public DataSize getSegmentSize() { return segmentSize; }
+    public void setSegmentSize(DataSize segmentSize) { this.segmentSize = segmentSize; }
+
+    public Duration getRollInterval() { return rollInterval; }
+    public void setRollInterval(Duration rollInterval) { this.rollInterval = rollInterval; }
+
+    public DataSize getRetentionSize() { return retentionSize; }
+    public void setRetentionSize(DataSize retentionSize) { this.retentionSize = retentionSize; }
+
+    public Duration getRetentionTime() { return retentionTime; }
+    public void setRetentionTime(Duration retentionTime) { this.retentionTime = retentionTime; }
+}
@@ -0,0 +1,40 @@
+package com.fintech.market.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feed latency and throughput metrics configuration (market.metrics.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "market.metrics")
+public class MetricsProperties {
+
+    /**
+     * Symbol groups that tick counters are tagged with; other symbols count as "other"
+     */
+    private Map<String, List<String>> groups = new LinkedHashMap<>();
+
+    /**
+     * Latency percentiles computed in process and published with every timer
+     */
+    private double[] percentiles = {0.5, 0.99, 0.999};
+
+    /**
+     * Publish latency histogram buckets, so percentiles can be aggregated across instances
+     */
+    private boolean histogram = true;
+
+    public Map<String, List<String>> getGroups() { return groups; }
+    public void setGroups(Map<String, List<String>> groups) { this.groups = groups; }
+
+    public double[] getPercentiles() { return percentiles; }
+    public void setPercentiles(double[] percentiles) { this.percentiles = percentiles; }
+
+    public boolean isHistogram() { return histogram; }
+    public void setHistogram(boolean histogram) { this.histogram = histogram; }
+}
@@ -0,0 +1,57 @@
+package com.fintech.market.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-session outbound limits for STOMP subscribers (market.outbound.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "market.outbound")
+public class OutboundProperties {
+
+    /**
+     * Longest a single send to one session may take before the session is closed
+     */
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+    /**
+     * Bytes buffered for one session while a send to it is in progress before it is closed
+     */
+    private int sendBufferSizeLimit = 512 * 1024;
+
+    /**
+     * Messages queued for one session beyond which conflatable messages are held back
+     * and only the latest per subscription is sent once the session catches up
+     */
+    private int maxBacklog = 64;
+
+    /**
+     * Disconnect a session that has been conflating for this long; 0 never disconnects
+     */
+    private Duration laggardTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Destination prefixes whose messages supersede earlier ones on the same subscription
+     */
+    private List<String> conflatedDestinations = new ArrayList<>(List.of("/topic/price/", "/topic/price-bin/"));
+
+    public Duration getSendTimeLimit() { return sendTimeLimit; }
+    public void setSendTimeLimit(Duration sendTimeLimit) { this.sendTimeLimit = sendTimeLimit; }
+
+    public int getSendBufferSizeLimit() { return sendBufferSizeLimit; }
+    public void setSendBufferSizeLimit(int sendBufferSizeLimit) { this.sendBufferSizeLimit = sendBufferSizeLimit; }
+
+    public int getMaxBacklog() { return maxBacklog; }
+    public void setMaxBacklog(int maxBacklog) { this.maxBacklog = maxBacklog; }
+
+    public Duration getLaggardTimeout() { return laggardTimeout; }
+    public void setLaggardTimeout(Duration laggardTimeout) { this.laggardTimeout = laggardTimeout; }
+
+    public List<String> getConflatedDestinations() { return conflatedDestinations; }
+    public void setConflatedDestinations(List<String> conflatedDestinations) { this.conflatedDestinations = conflatedDestinations; }
+}
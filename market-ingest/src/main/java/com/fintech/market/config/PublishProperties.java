@@ -0,0 +1,95 @@
+package com.fintech.market.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbound price publishing configuration (market.publish.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "market.publish")
+public class PublishProperties {
+
+    /**
+     * How conflated prices are sent to STOMP subscribers
+     */
+    public enum PublishMode {
+        /** One frame per symbol on /topic/price/{symbol} */
+        SINGLE,
+        /** One frame per flush on /topic/prices/batch and each watchlist topic */
+        BATCH,
+        /** Both of the above */
+        BOTH
+    }
+
+    private PublishMode mode = PublishMode.SINGLE;
+
+    /**
+     * Named watchlists, each published as its own batch on /topic/prices/batch/{name}
+     */
+    private Map<String, List<String>> watchlists = new LinkedHashMap<>();
+
+    /**
+     * Send the last cached price to each new /topic/price/{symbol} subscription
+     */
+    private boolean snapshotOnSubscribe = true;
+
+    /**
+     * Skip conversion and broker routing for destinations without subscribers
+     */
+    private boolean skipUnsubscribed = true;
+
+    /**
+     * Most symbols one session watchlist may hold; further symbols are ignored
+     */
+    private int maxWatchlistSymbols = 1000;
+
+    private final Binary binary = new Binary();
+
+    public PublishMode getMode() { return mode; }
+    public void setMode(PublishMode mode) { this.mode = mode; }
+
+    public Map<String, List<String>> getWatchlists() { return watchlists; }
+    public void setWatchlists(Map<String, List<String>> watchlists) { this.watchlists = watchlists; }
+
+    public boolean isSnapshotOnSubscribe() { return snapshotOnSubscribe; }
+    public void setSnapshotOnSubscribe(boolean snapshotOnSubscribe) { this.snapshotOnSubscribe = snapshotOnSubscribe; }
+
+    public boolean isSkipUnsubscribed() { return skipUnsubscribed; }
+    public void setSkipUnsubscribed(boolean skipUnsubscribed) { this.skipUnsubscribed = skipUnsubscribed; }
+
+    public int getMaxWatchlistSymbols() { return maxWatchlistSymbols; }
+    public void setMaxWatchlistSymbols(int maxWatchlistSymbols) { this.maxWatchlistSymbols = maxWatchlistSymbols; }
+
+    public Binary getBinary() { return binary; }
+
+    public boolean isSinglePublishing() {
+        return mode != PublishMode.BATCH;
+    }
+
+    public boolean isBatchPublishing() {
+        return mode != PublishMode.SINGLE;
+    }
+
+    /**
+     * Binary tick frames on /topic/price-bin/{symbol} for native WebSocket subscribers
+     */
+    public static class Binary {
+        private boolean enabled = false;
+
+        /**
+         * Decimal places of the fixed-point price
+         */
+        private int priceScale = 6;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getPriceScale() { return priceScale; }
+        public void setPriceScale(int priceScale) { this.priceScale = priceScale; }
+    }
+}
@@ -0,0 +1,180 @@
+package com.fintech.market.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upstream market data feed connections (market.ws.*)
+ */
+@Component
+@ConfigurationProperties(prefix = "market.ws")
+public class UpstreamProperties {
+
+    private String url = "mock://localhost";
+
+    private String key = "";
+
+    /**
+     * Upstream sessions the subscribed symbols are split across
+     */
+    private int connections = 1;
+
+    /**
+     * Symbols subscribed upstream; empty to take whatever the provider sends on a single session
+     */
+    private List<String> symbols = new ArrayList<>();
+
+    /**
+     * Text frame each session sends when it opens, with {symbols} replaced by a JSON array of
+     * the session's symbols, e.g. {"action":"subscribe","symbols":{symbols}}; empty to send none
+     */
+    private String subscribeTemplate = "";
+
+    /**
+     * Ring buffer slots between each session's socket reads and its decode thread, a power of 2
+     */
+    private int decodeBufferSize = 8192;
+
+    /**
+     * Feeds connected at once and merged per symbol, the first arrival of each update winning;
+     * empty for the single feed at url. Each source opens its own connections sessions.
+     */
+    private List<Source> sources = new ArrayList<>();
+
+    private final Arbitration arbitration = new Arbitration();
+
+    private final Reconnect reconnect = new Reconnect();
+
+    private final Heartbeat heartbeat = new Heartbeat();
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public int getConnections() { return connections; }
+    public void setConnections(int connections) { this.connections = connections; }
+
+    public List<String> getSymbols() { return symbols; }
+    public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+
+    public String getSubscribeTemplate() { return subscribeTemplate; }
+    public void setSubscribeTemplate(String subscribeTemplate) { this.subscribeTemplate = subscribeTemplate; }
+
+    public int getDecodeBufferSize() { return decodeBufferSize; }
+    public void setDecodeBufferSize(int decodeBufferSize) { this.decodeBufferSize = decodeBufferSize; }
+
+    public List<Source> getSources() { return sources; }
+    public void setSources(List<Source> sources) { this.sources = sources; }
+
+    public Arbitration getArbitration() { return arbitration; }
+
+    public Reconnect getReconnect() { return reconnect; }
+
+    public Heartbeat getHeartbeat() { return heartbeat; }
+
+    /**
+     * One upstream feed of several
+     */
+    public static class Source {
+        /**
+         * Name used in logs, metric tags and /api/upstream
+         */
+        private String name;
+        private String url;
+
+        /**
+         * Bearer key of this feed; market.ws.key if empty
+         */
+        private String key = "";
+
+        public Source() {
+        }
+
+        public Source(String name, String url, String key) {
+            this.name = name;
+            this.url = url;
+            this.key = key;
+        }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getKey() { return key; }
+        public void setKey(String key) { this.key = key; }
+    }
+
+    /**
+     * Merging of several sources, in millis
+     */
+    public static class Arbitration {
+        /**
+         * Silence of a source, across all its symbols, after which another source taking over
+         * one of its symbols counts as a failover; older ticks are dropped regardless
+         */
+        private long staleAfter = 2000;
+
+        public long getStaleAfter() { return staleAfter; }
+        public void setStaleAfter(long staleAfter) { this.staleAfter = staleAfter; }
+    }
+
+    /**
+     * Capped exponential backoff between reconnection attempts, in millis
+     */
+    public static class Reconnect {
+        private boolean enabled = true;
+        private long initialDelay = 5000;
+        private long maxDelay = 30000;
+        private double multiplier = 2.0;
+
+        /**
+         * Fraction of each delay that is randomized, so sessions dropped together do not
+         * reconnect together (0 = none, 1 = anywhere between zero and the full delay)
+         */
+        private double jitter = 0.5;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public long getInitialDelay() { return initialDelay; }
+        public void setInitialDelay(long initialDelay) { this.initialDelay = initialDelay; }
+
+        public long getMaxDelay() { return maxDelay; }
+        public void setMaxDelay(long maxDelay) { this.maxDelay = maxDelay; }
+
+        public double getMultiplier() { return multiplier; }
+        public void setMultiplier(double multiplier) { this.multiplier = multiplier; }
+
+        public double getJitter() { return jitter; }
+        public void setJitter(double jitter) { this.jitter = jitter; }
+    }
+
+    /**
+     * Keep-alive pings on each upstream session, in millis
+     */
+    public static class Heartbeat {
+        private boolean enabled = true;
+        private long interval = 30000;
+
+        /**
+         * Reconnect a session that has received nothing for this long; 0 disables the check
+         */
+        private long timeout = 0;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public long getInterval() { return interval; }
+        public void setInterval(long interval) { this.interval = interval; }
+
+        public long getTimeout() { return timeout; }
+        public void setTimeout(long timeout) { this.timeout = timeout; }
+    }
+}
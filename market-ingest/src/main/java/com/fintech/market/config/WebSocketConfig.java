@@ -1,20 +1,75 @@
 package com.fintech.market.config;
 
+import com.fintech.market.metrics.BrokerMetrics;
+import com.fintech.market.outbound.PriceMessageConverter;
+import com.fintech.market.outbound.SlowConsumerGuard;
+import com.fintech.market.snapshot.SnapshotOnSubscribeInterceptor;
+import com.fintech.market.subscription.SubscriptionTracker;
+import com.fintech.market.subscription.TrieSubscriptionRegistry;
+import com.fintech.market.watchlist.WatchlistManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private SnapshotOnSubscribeInterceptor snapshotOnSubscribeInterceptor;
+
+    @Autowired
+    private SubscriptionTracker subscriptionTracker;
+
+    @Autowired
+    private WatchlistManager watchlistManager;
+
+    @Autowired
+    private BrokerMetrics brokerMetrics;
+
+    @Autowired
+    private SlowConsumerGuard slowConsumerGuard;
+
+    @Autowired
+    private OutboundProperties outboundProperties;
+
+    /**
+     * Swaps the simple broker's subscription registry for one whose lookups stay constant
+     * time with tens of thousands of destinations. Static so it does not pull this
+     * configuration's dependencies into the post-processor phase.
+     */
+    @Bean
+    public static BeanPostProcessor subscriptionRegistryPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof SimpleBrokerMessageHandler broker) {
+                    broker.setSubscriptionRegistry(new TrieSubscriptionRegistry());
+                }
+                return bean;
+            }
+        };
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable simple broker for topics
         config.enableSimpleBroker("/topic");
         
+        // Time how long the broker takes to route each published message
+        config.configureBrokerChannel().interceptors(brokerMetrics);
+        
         // Set application destination prefix
         config.setApplicationDestinationPrefixes("/app");
         
@@ -33,4 +88,32 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws-native")
                 .setAllowedOriginPatterns("*"); // REVIEW: production hardening required - configure specific origins
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Count subscribers before the broker registers them, then send the cached price
+        // to new price subscriptions once it has. Watchlists are served outside the broker.
+        registration.interceptors(subscriptionTracker, watchlistManager, snapshotOnSubscribeInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Hold back superseded prices for sessions that cannot keep up
+        registration.interceptors(slowConsumerGuard);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Encode the published message types without Jackson; the defaults handle the rest
+        messageConverters.add(new PriceMessageConverter());
+        return true;
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session over either limit is closed rather than buffered without bound
+        registration.setSendTimeLimit((int) outboundProperties.getSendTimeLimit().toMillis())
+                    .setSendBufferSizeLimit(outboundProperties.getSendBufferSizeLimit())
+                    .addDecoratorFactory(slowConsumerGuard);
+    }
 }
@@ -0,0 +1,49 @@
+package com.fintech.market.generator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Geometric Brownian motion price paths, one per symbol index, held in a primitive
+ * array: {@code S' = S * exp((mu - sigma^2 / 2) dt + sigma sqrt(dt) Z)}.
+ * A path may only be stepped by one thread at a time.
+ */
+public final class GbmPriceModel {
+
+    /** Trading seconds per year (252 sessions of 6.5 hours), the unit of drift and volatility */
+    public static final double SECONDS_PER_TRADING_YEAR = 252 * 6.5 * 3600;
+
+    private final double[] prices;
+    private final double driftTerm;
+    private final double volatilityTerm;
+
+    /**
+     * @param initialPrices starting price per symbol index, copied
+     * @param drift annualized drift (mu)
+     * @param volatility annualized volatility (sigma)
+     * @param stepSeconds market time covered by one step
+     */
+    public GbmPriceModel(double[] initialPrices, double drift, double volatility, double stepSeconds) {
+        if (volatility < 0.0 || stepSeconds <= 0.0) {
+            throw new IllegalArgumentException("Volatility must be non-negative and step positive");
+        }
+        double dt = stepSeconds / SECONDS_PER_TRADING_YEAR;
+        this.prices = initialPrices.clone();
+        this.driftTerm = (drift - 0.5 * volatility * volatility) * dt;
+        this.volatilityTerm = volatility * Math.sqrt(dt);
+    }
+
+    /**
+     * Advance one path by a single step
+     * @param index symbol index
+     * @param random source of the standard normal shock
+     * @return the new price
+     */
+    public double step(int index, RandomGenerator random) {
+        double price = prices[index] * Math.exp(driftTerm + volatilityTerm * random.nextGaussian());
+        prices[index] = price;
+        return price;
+    }
+
+    public double getPrice(int index) { return prices[index]; }
+    public int size() { return prices.length; }
+}
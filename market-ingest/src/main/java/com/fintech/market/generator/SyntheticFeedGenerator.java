@@ -0,0 +1,292 @@
+package com.fintech.market.generator;
+
+import com.fintech.market.codec.BinaryTickCodec;
+import com.fintech.market.pipeline.TickSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator that drives a {@link TickSink} at a fixed aggregate rate from several
+ * producer threads. Each thread owns a disjoint share of the symbols, so price paths and
+ * sequence numbers are single-writer, and emits ticks from per-symbol templates encoded
+ * once at startup: binary ticks only patch sequence, price and timestamp into a copy of
+ * the template, JSON ticks append digits to a pre-encoded prefix.
+ */
+public class SyntheticFeedGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticFeedGenerator.class);
+
+    /** Decimal places of generated prices in binary frames */
+    public static final int BINARY_PRICE_SCALE = 4;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int MANTISSA_OFFSET = 16;
+    private static final int TIMESTAMP_OFFSET = 24;
+    private static final long MAX_LAG_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final byte[] JSON_TS = ",\"ts\":".getBytes(StandardCharsets.US_ASCII);
+
+    public enum Format {
+        BINARY, JSON;
+
+        public static Format fromName(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final String[] symbols;
+    private final GbmPriceModel model;
+    private final int ticksPerSecond;
+    private final int threadCount;
+    private final int batchSize;
+    private final Format format;
+    private final TickSink sink;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private final LongAdder generatedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private volatile boolean running;
+
+    /**
+     * @param symbols symbol per model index; the index doubles as binary symbol id
+     * @param model price paths for the symbols
+     * @param ticksPerSecond aggregate target rate across all threads
+     * @param threadCount producer threads
+     * @param batchSize ticks per binary message, and per pacing check
+     * @param format wire format of generated ticks
+     * @param sink receives the ticks
+     */
+    public SyntheticFeedGenerator(String[] symbols, GbmPriceModel model, int ticksPerSecond, int threadCount,
+                                  int batchSize, Format format, TickSink sink) {
+        if (symbols.length != model.size()) {
+            throw new IllegalArgumentException("Model has " + model.size() + " paths for " + symbols.length + " symbols");
+        }
+        if (ticksPerSecond <= 0 || threadCount <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Rate, thread count and batch size must be positive");
+        }
+        this.symbols = symbols;
+        this.model = model;
+        this.ticksPerSecond = ticksPerSecond;
+        this.threadCount = Math.min(threadCount, symbols.length);
+        this.batchSize = batchSize;
+        this.format = format;
+        this.sink = sink;
+    }
+
+    /**
+     * Start the producer threads
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int t = 0; t < threadCount; t++) {
+            int rate = ticksPerSecond / threadCount + (t < ticksPerSecond % threadCount ? 1 : 0);
+            Thread thread = new Thread(new Producer(t, rate), "mock-feed-" + t);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        logger.info("Started synthetic feed: {} symbols, {} ticks/s, {} threads, {} format",
+                   symbols.length, ticksPerSecond, threadCount, format);
+    }
+
+    /**
+     * Stop the producer threads and wait for them to exit
+     */
+    public synchronized void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+        logger.info("Stopped synthetic feed after {} ticks ({} rejected submissions)",
+                   generatedCount.sum(), rejectedCount.sum());
+    }
+
+    public boolean isRunning() { return running; }
+    public long getGeneratedCount() { return generatedCount.sum(); }
+    public long getRejectedCount() { return rejectedCount.sum(); }
+
+    /**
+     * One producer thread and the symbols it owns
+     */
+    private final class Producer implements Runnable {
+        private final int[] owned;
+        private final long[] sequences;
+        private final long nanosPerTick;
+        private final SplittableRandom random;
+
+        Producer(int thread, int rate) {
+            this.owned = new int[(symbols.length - thread + threadCount - 1) / threadCount];
+            for (int i = 0; i < owned.length; i++) {
+                owned[i] = thread + i * threadCount;
+            }
+            this.sequences = new long[owned.length];
+            this.nanosPerTick = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+            this.random = new SplittableRandom(System.nanoTime() ^ ((long) thread << 32));
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (format == Format.BINARY) {
+                    if (declareSymbols()) {
+                        runBinary();
+                    }
+                } else {
+                    runJson();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Synthetic feed producer failed: {}", e.getMessage(), e);
+            }
+        }
+
+        /**
+         * SYMBOL frames must reach the pipeline before any tick for the id, so retry until accepted
+         */
+        private boolean declareSymbols() {
+            ByteBuffer frame = ByteBuffer.allocate(BinaryTickCodec.SYMBOL_HEADER_LENGTH + 255);
+            for (int index : owned) {
+                frame.clear();
+                BinaryTickCodec.encodeSymbol(frame, index, symbols[index]);
+                frame.flip();
+                while (!sink.submit(frame)) {
+                    if (!running) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+            return true;
+        }
+
+        private void runBinary() {
+            int frameLength = BinaryTickCodec.TICK_FRAME_LENGTH;
+            byte[] templates = new byte[owned.length * frameLength];
+            ByteBuffer templateBuffer = ByteBuffer.wrap(templates);
+            for (int index : owned) {
+                BinaryTickCodec.encodeTick(templateBuffer, index, 0L, 0.0, BINARY_PRICE_SCALE, 0L, 0L);
+            }
+            double scale = Math.pow(10, BINARY_PRICE_SCALE);
+
+            byte[] batch = new byte[batchSize * frameLength];
+            ByteBuffer batchBuffer = ByteBuffer.wrap(batch);
+            long startNanos = System.nanoTime();
+            long emitted = 0L;
+            while (running) {
+                long timestamp = System.currentTimeMillis();
+                for (int i = 0; i < batchSize; i++) {
+                    int slot = random.nextInt(owned.length);
+                    int offset = i * frameLength;
+                    System.arraycopy(templates, slot * frameLength, batch, offset, frameLength);
+                    LONG_VIEW.set(batch, offset + SEQUENCE_OFFSET, ++sequences[slot]);
+                    LONG_VIEW.set(batch, offset + MANTISSA_OFFSET, Math.round(model.step(owned[slot], random) * scale));
+                    LONG_VIEW.set(batch, offset + TIMESTAMP_OFFSET, timestamp);
+                }
+                batchBuffer.clear();
+                if (!sink.submit(batchBuffer)) {
+                    rejectedCount.increment();
+                }
+                generatedCount.add(batchSize);
+                emitted += batchSize;
+                startNanos = pace(startNanos, emitted);
+            }
+        }
+
+        private void runJson() {
+            byte[][] prefixes = new byte[owned.length][];
+            for (int i = 0; i < owned.length; i++) {
+                prefixes[i] = ("{\"symbol\":\"" + symbols[owned[i]] + "\",\"price\":").getBytes(StandardCharsets.UTF_8);
+            }
+            byte[] scratch = new byte[512];
+
+            long startNanos = System.nanoTime();
+            long emitted = 0L;
+            while (running) {
+                long timestamp = System.currentTimeMillis();
+                for (int i = 0; i < batchSize; i++) {
+                    int slot = random.nextInt(owned.length);
+                    byte[] prefix = prefixes[slot];
+                    System.arraycopy(prefix, 0, scratch, 0, prefix.length);
+                    int length = writeCents(scratch, prefix.length, Math.round(model.step(owned[slot], random) * 100.0));
+                    System.arraycopy(JSON_TS, 0, scratch, length, JSON_TS.length);
+                    length = writeLong(scratch, length + JSON_TS.length, timestamp);
+                    scratch[length++] = '}';
+                    if (!sink.submit(new String(scratch, 0, length, StandardCharsets.UTF_8))) {
+                        rejectedCount.increment();
+                    }
+                }
+                generatedCount.add(batchSize);
+                emitted += batchSize;
+                startNanos = pace(startNanos, emitted);
+            }
+        }
+
+        /**
+         * Park until the emitted count is due. A producer more than a second behind
+         * re-anchors rather than bursting to catch up.
+         * @return the possibly re-anchored start
+         */
+        private long pace(long startNanos, long emitted) {
+            long due = startNanos + emitted * nanosPerTick;
+            long now = System.nanoTime();
+            if (now - due > MAX_LAG_NANOS) {
+                return now - emitted * nanosPerTick;
+            }
+            while (running && due - now > 0) {
+                LockSupport.parkNanos(due - now);
+                now = System.nanoTime();
+            }
+            return startNanos;
+        }
+    }
+
+    /**
+     * Write a non-negative fixed-point value with two decimals
+     * @return offset after the last digit
+     */
+    static int writeCents(byte[] out, int offset, long cents) {
+        offset = writeLong(out, offset, cents / 100);
+        long fraction = cents % 100;
+        out[offset++] = '.';
+        out[offset++] = (byte) ('0' + fraction / 10);
+        out[offset++] = (byte) ('0' + fraction % 10);
+        return offset;
+    }
+
+    /**
+     * Write a non-negative decimal integer
+     * @return offset after the last digit
+     */
+    static int writeLong(byte[] out, int offset, long value) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = offset + digits;
+        for (int i = end - 1; i >= offset; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+}
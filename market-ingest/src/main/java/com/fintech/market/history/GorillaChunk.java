@@ -0,0 +1,208 @@
+package com.fintech.market.history;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * One chunk of a symbol's ticks compressed the Gorilla way: the first timestamp and
+ * price are stored whole; each later timestamp as the zigzag delta-of-delta from the
+ * previous one in a 1 to 68 bit prefix code, and each later price as the XOR with the
+ * previous price's bits, reusing the previous leading/trailing zero window when the
+ * meaningful bits fit in it. Regular ticks with small moves cost a few bits each.
+ * Not thread-safe; {@link HistoryStore} synchronizes on the series holding the chunk.
+ */
+final class GorillaChunk {
+
+    private byte[] bytes = new byte[64];
+    private int byteCount;
+    // Bits not yet making up a whole byte, right-aligned
+    private long pending;
+    private int pendingBits;
+
+    private int count;
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private long previousTimestamp;
+    private long previousDelta;
+    private long previousBits;
+    private int previousLeading = -1;
+    private int previousTrailing;
+
+    /**
+     * Append a point
+     * @param timestamp market timestamp, millis; need not be increasing
+     * @param price the price
+     */
+    void add(long timestamp, double price) {
+        long bits = Double.doubleToRawLongBits(price);
+        if (count == 0) {
+            write(timestamp, 64);
+            write(bits, 64);
+        } else {
+            long delta = timestamp - previousTimestamp;
+            writeDeltaOfDelta(delta - previousDelta);
+            previousDelta = delta;
+            writeXor(bits ^ previousBits);
+        }
+        previousTimestamp = timestamp;
+        previousBits = bits;
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        count++;
+    }
+
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        long zigzag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+        if (zigzag == 0) {
+            write(0b0, 1);
+        } else if (zigzag < (1L << 7)) {
+            write(0b10, 2);
+            write(zigzag, 7);
+        } else if (zigzag < (1L << 9)) {
+            write(0b110, 3);
+            write(zigzag, 9);
+        } else if (zigzag < (1L << 12)) {
+            write(0b1110, 4);
+            write(zigzag, 12);
+        } else {
+            write(0b1111, 4);
+            write(zigzag, 64);
+        }
+    }
+
+    private void writeXor(long xor) {
+        if (xor == 0) {
+            write(0b0, 1);
+            return;
+        }
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+            write(0b10, 2);
+            write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            return;
+        }
+        int meaningful = 64 - leading - trailing;
+        write(0b11, 2);
+        write(leading, 5);
+        write(meaningful - 1, 6);
+        write(xor >>> trailing, meaningful);
+        previousLeading = leading;
+        previousTrailing = trailing;
+    }
+
+    private void write(long value, int bitCount) {
+        if (bitCount > 32) {
+            write(value >>> 32, bitCount - 32);
+            write(value, 32);
+            return;
+        }
+        pending = (pending << bitCount) | (value & ((1L << bitCount) - 1));
+        pendingBits += bitCount;
+        while (pendingBits >= 8) {
+            pendingBits -= 8;
+            if (byteCount == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[byteCount++] = (byte) (pending >>> pendingBits);
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    long minTimestamp() {
+        return minTimestamp;
+    }
+
+    long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    /**
+     * @return the compressed points, the last byte padded with zero bits
+     */
+    byte[] toByteArray() {
+        byte[] copy = Arrays.copyOf(bytes, byteCount + (pendingBits > 0 ? 1 : 0));
+        if (pendingBits > 0) {
+            copy[byteCount] = (byte) (pending << (8 - pendingBits));
+        }
+        return copy;
+    }
+
+    /**
+     * Decode the points of a chunk, in the order they were added
+     * @param data bytes from {@link #toByteArray()}
+     * @param count number of points in the chunk
+     * @param sink receives each point
+     */
+    static void decode(byte[] data, int count, HistoryStore.PointSink sink) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        BitReader in = new BitReader(data);
+        long timestamp = in.read(64);
+        long bits = in.read(64);
+        sink.accept(timestamp, Double.longBitsToDouble(bits));
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            delta += readDeltaOfDelta(in);
+            timestamp += delta;
+            if (in.read(1) == 1) {
+                if (in.read(1) == 1) {
+                    leading = (int) in.read(5);
+                    int meaningful = (int) in.read(6) + 1;
+                    trailing = 64 - leading - meaningful;
+                }
+                bits ^= in.read(64 - leading - trailing) << trailing;
+            }
+            sink.accept(timestamp, Double.longBitsToDouble(bits));
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        long zigzag;
+        if (in.read(1) == 0) {
+            return 0;
+        } else if (in.read(1) == 0) {
+            zigzag = in.read(7);
+        } else if (in.read(1) == 0) {
+            zigzag = in.read(9);
+        } else if (in.read(1) == 0) {
+            zigzag = in.read(12);
+        } else {
+            zigzag = in.read(64);
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Reads bit fields written by {@link #write}
+     */
+    private static final class BitReader {
+        private final byte[] data;
+        private int position;
+        private long buffered;
+        private int bufferedBits;
+
+        BitReader(byte[] data) {
+            this.data = data;
+        }
+
+        long read(int bitCount) {
+            if (bitCount > 32) {
+                long high = read(bitCount - 32);
+                return (high << 32) | read(32);
+            }
+            while (bufferedBits < bitCount) {
+                buffered = (buffered << 8) | (data[position++] & 0xFF);
+                bufferedBits += 8;
+            }
+            bufferedBits -= bitCount;
+            return (buffered >>> bufferedBits) & ((1L << bitCount) - 1);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.fintech.market.history;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST access to recorded tick history, for charts and backtests that would otherwise
+ * record ticks themselves
+ */
+@RestController
+@RequestMapping("/api/prices")
+public class HistoryController {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    private HistoryStore historyStore;
+
+    /**
+     * Ticks of a symbol in a time range, streamed from the history store as they are decoded
+     * @param symbol the symbol
+     * @param from earliest market timestamp, epoch millis, inclusive; an hour before to if omitted
+     * @param to latest market timestamp, epoch millis, exclusive; now if omitted
+     * @param step bucket length in millis; when above 0 only the last tick of each bucket
+     *             is returned, stamped with the bucket start
+     * @return {"symbol":..., "from":..., "to":..., "step":..., "points":[[timestamp, price], ...]};
+     *         404 if history is disabled
+     */
+    @GetMapping("/{symbol}/history")
+    public ResponseEntity<StreamingResponseBody> getHistory(@PathVariable("symbol") String symbol,
+                                                            @RequestParam(name = "from", required = false) Long from,
+                                                            @RequestParam(name = "to", required = false) Long to,
+                                                            @RequestParam(name = "step", defaultValue = "0") long step) {
+        if (!historyStore.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - TimeUnit.HOURS.toMillis(1);
+        StreamingResponseBody body = out -> writeHistory(symbol, start, end, Math.max(0, step), out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    void writeHistory(String symbol, long from, long to, long step, OutputStream out) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("symbol", symbol);
+            json.writeNumberField("from", from);
+            json.writeNumberField("to", to);
+            json.writeNumberField("step", step);
+            json.writeArrayFieldStart("points");
+            if (step == 0) {
+                historyStore.query(symbol, from, to, (timestamp, price) -> writePoint(json, timestamp, price));
+            } else {
+                // Bucket start and last price of the bucket being filled
+                long[] bucket = {Long.MIN_VALUE};
+                double[] last = new double[1];
+                historyStore.query(symbol, from, to, (timestamp, price) -> {
+                    long start = from + Math.floorDiv(timestamp - from, step) * step;
+                    if (start != bucket[0] && bucket[0] != Long.MIN_VALUE) {
+                        writePoint(json, bucket[0], last[0]);
+                    }
+                    bucket[0] = start;
+                    last[0] = price;
+                });
+                if (bucket[0] != Long.MIN_VALUE) {
+                    writePoint(json, bucket[0], last[0]);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private static void writePoint(JsonGenerator json, long timestamp, double price) throws IOException {
+        json.writeStartArray();
+        json.writeNumber(timestamp);
+        json.writeNumber(price);
+        json.writeEndArray();
+    }
+}
@@ -0,0 +1,610 @@
+package com.fintech.market.history;
+
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.HistoryProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-disk tick history for range queries. Each symbol's ticks are compressed into
+ * {@link GorillaChunk}s; a chunk is sealed and appended to the day's chunk file once it
+ * holds chunk-points ticks or is chunk-duration old. Sealed chunks are indexed per
+ * symbol in memory, column-wise in primitive arrays, so a range read seeks straight
+ * to the chunks it needs and reads only those. Files older than the retention time
+ * are deleted whole.
+ * <p>
+ * Open chunks live in memory until sealed, so a crash loses at most chunk-duration of
+ * history; the tick journal is the durable record of every tick.
+ * <pre>
+ * Chunk file history-{yyyyMMdd}.chunks, little-endian
+ *   0  i32  magic "TKH1"
+ *   4  i32  format version
+ *   8       first chunk
+ *
+ * Chunk
+ *   0  i32  chunk length including this header
+ *   4  u16  symbol length n
+ *   6  n    symbol, UTF-8
+ *   +0 i32  number of ticks
+ *   +4 i64  earliest market timestamp, epoch millis
+ *   +12 i64 latest market timestamp, epoch millis
+ *   +20     compressed ticks
+ * </pre>
+ * Appends come from one pipeline stage and the sealing thread; queries may run on any
+ * thread.
+ */
+@Component
+public class HistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryStore.class);
+
+    static final int MAGIC = 0x31484B54; // "TKH1" little-endian
+    static final int VERSION = 1;
+    static final int FILE_HEADER_LENGTH = 8;
+    static final int MAX_SYMBOL_LENGTH = 255;
+    private static final int CHUNK_FIXED_LENGTH = 26;
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Autowired
+    private HistoryProperties historyProperties;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Path directory;
+    private long chunkDurationMs;
+    // Replaced by a filled copy under this lock, read without it by queries and the seal thread
+    private volatile Series[] seriesById = new Series[64];
+    private final Map<Integer, ChunkFile> files = new ConcurrentHashMap<>();
+    // Guards appends to chunk files; taken while holding a series lock, never the reverse
+    private final Object writeLock = new Object();
+    private ChunkFile current;
+    private int nextFileId;
+    private ScheduledExecutorService sealer;
+
+    private volatile long chunkCount;
+    private volatile long diskBytes;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!historyProperties.isEnabled()) {
+            return;
+        }
+        directory = Paths.get(historyProperties.getDirectory());
+        chunkDurationMs = historyProperties.getChunkDuration().toMillis();
+        Files.createDirectories(directory);
+        recover();
+
+        sealer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-seal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = Math.max(1000L, chunkDurationMs / 4);
+        sealer.scheduleWithFixedDelay(this::maintain, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+
+        if (meterRegistry != null) {
+            Gauge.builder("market.history.chunks", this, HistoryStore::getChunkCount)
+                .description("Sealed tick history chunks on disk")
+                .register(meterRegistry);
+            Gauge.builder("market.history.bytes", this, HistoryStore::getDiskBytes)
+                .description("Size of the tick history files")
+                .register(meterRegistry);
+        }
+        logger.info("Started tick history in {} with {} chunks, retention {}",
+                   directory, chunkCount, historyProperties.getRetentionTime());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sealer != null) {
+            sealer.shutdown();
+        }
+        if (directory == null) {
+            return;
+        }
+        try {
+            sealOpenChunks(Long.MAX_VALUE);
+        } catch (UncheckedIOException e) {
+            logger.error("Failed to write open history chunks on shutdown: {}", e.getMessage(), e);
+        }
+        for (ChunkFile file : files.values()) {
+            file.close();
+        }
+        files.clear();
+        logger.info("Closed tick history {}", directory);
+    }
+
+    /**
+     * @return true if history is recorded
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Record a tick. Always called from the same thread.
+     * @param symbolId registry id of the symbol, or -1 to look it up
+     * @throws UncheckedIOException if a sealed chunk could not be written
+     */
+    public void append(int symbolId, String symbol, double price, long timestamp) {
+        Series series = seriesFor(symbolId >= 0 ? symbolId : symbolRegistry.idOf(symbol), symbol);
+        synchronized (series) {
+            if (series.open == null) {
+                series.open = new GorillaChunk();
+                series.openedMillis = System.currentTimeMillis();
+            }
+            series.open.add(timestamp, price);
+            if (series.open.count() >= historyProperties.getChunkPoints()) {
+                seal(series);
+            }
+        }
+    }
+
+    /**
+     * Stream the recorded ticks of a symbol in a time range, sealed chunks first in the
+     * order they were written, then the open chunk
+     * @param symbol the symbol
+     * @param from earliest market timestamp, inclusive
+     * @param to latest market timestamp, exclusive
+     * @param sink receives each tick in the range
+     */
+    public void query(String symbol, long from, long to, PointSink sink) throws IOException {
+        int symbolId = symbolRegistry.find(symbol);
+        Series[] all = seriesById;
+        Series series = symbolId >= 0 && symbolId < all.length ? all[symbolId] : null;
+        if (series == null || from >= to) {
+            return;
+        }
+        List<long[]> chunks = new ArrayList<>();
+        byte[] openBytes = null;
+        int openCount = 0;
+        synchronized (series) {
+            for (int i = series.firstEndingAtOrAfter(from); i < series.size; i++) {
+                if (series.minTimestamps[i] < to && series.maxTimestamps[i] >= from) {
+                    chunks.add(new long[] {series.fileIds[i], series.offsets[i], series.lengths[i], series.counts[i]});
+                }
+            }
+            GorillaChunk open = series.open;
+            if (open != null && open.minTimestamp() < to && open.maxTimestamp() >= from) {
+                openBytes = open.toByteArray();
+                openCount = open.count();
+            }
+        }
+        PointSink inRange = (timestamp, price) -> {
+            if (timestamp >= from && timestamp < to) {
+                sink.accept(timestamp, price);
+            }
+        };
+        for (long[] chunk : chunks) {
+            ChunkFile file = files.get((int) chunk[0]);
+            byte[] data = file == null ? null : file.read(chunk[1], (int) chunk[2]);
+            if (data != null) {
+                GorillaChunk.decode(data, (int) chunk[3], inRange);
+            }
+        }
+        if (openBytes != null) {
+            GorillaChunk.decode(openBytes, openCount, inRange);
+        }
+    }
+
+    public long getChunkCount() {
+        return chunkCount;
+    }
+
+    public long getDiskBytes() {
+        return diskBytes;
+    }
+
+    private Series seriesFor(int symbolId, String symbol) {
+        Series[] all = seriesById;
+        Series series = symbolId < all.length ? all[symbolId] : null;
+        return series != null ? series : createSeries(symbolId, symbol);
+    }
+
+    private synchronized Series createSeries(int symbolId, String symbol) {
+        Series[] all = seriesById;
+        Series series = symbolId < all.length ? all[symbolId] : null;
+        if (series != null) {
+            return series;
+        }
+        // Store into a copy, never the published array, so the volatile write below is
+        // what publishes the new series to readers
+        int length = symbolId < all.length ? all.length : Math.max(all.length * 2, symbolId + 1);
+        all = Arrays.copyOf(all, length);
+        series = new Series(symbol);
+        all[symbolId] = series;
+        seriesById = all;
+        return series;
+    }
+
+    /**
+     * Seal open chunks older than the chunk duration, then apply retention
+     */
+    private void maintain() {
+        try {
+            long now = System.currentTimeMillis();
+            sealOpenChunks(now - chunkDurationMs);
+            applyRetention(LocalDate.now(ZoneOffset.UTC).minusDays(historyProperties.getRetentionTime().toDays()));
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic maintenance
+            logger.error("Error maintaining tick history: {}", e.getMessage(), e);
+        }
+    }
+
+    private void sealOpenChunks(long openedBefore) {
+        for (Series series : seriesById) {
+            if (series == null) {
+                continue;
+            }
+            synchronized (series) {
+                if (series.open != null && series.openedMillis <= openedBefore) {
+                    seal(series);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the open chunk of a series to today's file and index it. Holds the series lock.
+     */
+    private void seal(Series series) {
+        GorillaChunk chunk = series.open;
+        byte[] symbol = series.encodedSymbol;
+        byte[] data = chunk.toByteArray();
+        int headerLength = CHUNK_FIXED_LENGTH + symbol.length;
+        ByteBuffer buffer = ByteBuffer.allocate(headerLength + data.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(headerLength + data.length)
+              .putShort((short) symbol.length)
+              .put(symbol)
+              .putInt(chunk.count())
+              .putLong(chunk.minTimestamp())
+              .putLong(chunk.maxTimestamp())
+              .put(data)
+              .flip();
+        try {
+            ChunkFile file;
+            long offset;
+            synchronized (writeLock) {
+                file = currentFile(LocalDate.now(ZoneOffset.UTC));
+                offset = file.append(buffer);
+                diskBytes += buffer.limit();
+                chunkCount++;
+            }
+            series.add(file.id, offset + headerLength, data.length, chunk.count(), chunk.minTimestamp(), chunk.maxTimestamp());
+            series.open = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write history chunk for " + series.symbol + " to " + directory, e);
+        }
+    }
+
+    private ChunkFile currentFile(LocalDate day) throws IOException {
+        if (current == null || !current.day.equals(day)) {
+            current = files.values().stream().filter(file -> file.day.equals(day)).findFirst().orElse(null);
+            if (current == null) {
+                current = ChunkFile.open(nextFileId++, day, directory.resolve(fileName(day)));
+                files.put(current.id, current);
+                diskBytes += current.size;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Delete files of days before the cutoff and drop their chunks from the index
+     */
+    private void applyRetention(LocalDate cutoff) {
+        for (ChunkFile file : files.values()) {
+            if (!file.day.isBefore(cutoff)) {
+                continue;
+            }
+            int removed = 0;
+            for (Series series : seriesById) {
+                if (series != null) {
+                    synchronized (series) {
+                        removed += series.removeFile(file.id);
+                    }
+                }
+            }
+            synchronized (writeLock) {
+                files.remove(file.id);
+                if (current == file) {
+                    current = null;
+                }
+                chunkCount -= removed;
+                diskBytes -= file.size;
+            }
+            file.close();
+            try {
+                Files.deleteIfExists(file.path);
+                logger.info("Deleted tick history file {}", file.path.getFileName());
+            } catch (IOException e) {
+                logger.warn("Failed to delete tick history file {}: {}", file.path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Index the chunks of existing files, truncating any chunk cut short by a crash
+     */
+    private void recover() throws IOException {
+        TreeMap<LocalDate, Path> existing = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "history-*.chunks")) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    existing.put(LocalDate.parse(name.substring("history-".length(), name.length() - ".chunks".length()), DAY), path);
+                } catch (DateTimeParseException e) {
+                    logger.warn("Ignoring unexpected file in tick history directory: {}", name);
+                }
+            }
+        }
+        for (Map.Entry<LocalDate, Path> entry : existing.entrySet()) {
+            ChunkFile file = ChunkFile.open(nextFileId++, entry.getKey(), entry.getValue());
+            files.put(file.id, file);
+            file.scan((symbol, offset, length, count, minTimestamp, maxTimestamp) -> {
+                Series series = seriesFor(symbolRegistry.idOf(symbol), symbol);
+                series.add(file.id, offset, length, count, minTimestamp, maxTimestamp);
+                chunkCount++;
+            });
+            diskBytes += file.size;
+        }
+        if (!existing.isEmpty()) {
+            logger.info("Recovered tick history {}: {} files, {} chunks", directory, existing.size(), chunkCount);
+        }
+    }
+
+    /**
+     * Receives ticks read from history
+     */
+    @FunctionalInterface
+    public interface PointSink {
+        void accept(long timestamp, double price) throws IOException;
+    }
+
+    static String fileName(LocalDate day) {
+        return "history-" + DAY.format(day) + ".chunks";
+    }
+
+    /**
+     * One day's chunk file, appended to by one thread at a time and read by any
+     */
+    private static final class ChunkFile {
+
+        @FunctionalInterface
+        interface ChunkVisitor {
+            void visit(String symbol, long offset, int length, int count, long minTimestamp, long maxTimestamp);
+        }
+
+        private final int id;
+        private final LocalDate day;
+        private final Path path;
+        private final FileChannel channel;
+        private volatile long size;
+
+        private ChunkFile(int id, LocalDate day, Path path, FileChannel channel, long size) {
+            this.id = id;
+            this.day = day;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+
+        static ChunkFile open(int id, LocalDate day, Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size < FILE_HEADER_LENGTH) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                channel.truncate(0);
+                writeFully(channel, header, 0);
+                size = FILE_HEADER_LENGTH;
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, header, 0);
+                if (header.getInt(0) != MAGIC) {
+                    channel.close();
+                    throw new IOException("Not a tick history file: " + path);
+                }
+            }
+            return new ChunkFile(id, day, path, channel, size);
+        }
+
+        /**
+         * @return offset the buffer was written at
+         */
+        long append(ByteBuffer buffer) throws IOException {
+            long offset = size;
+            writeFully(channel, buffer, offset);
+            size = offset + buffer.limit();
+            return offset;
+        }
+
+        /**
+         * @return the bytes, or null if the file was deleted by retention meanwhile
+         */
+        byte[] read(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            try {
+                readFully(channel, buffer, offset);
+            } catch (ClosedChannelException e) {
+                return null;
+            }
+            return buffer.array();
+        }
+
+        void scan(ChunkVisitor visitor) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(CHUNK_FIXED_LENGTH + MAX_SYMBOL_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            long position = FILE_HEADER_LENGTH;
+            while (position < size) {
+                header.clear().limit((int) Math.min(header.capacity(), size - position));
+                readFully(channel, header, position);
+                int length = header.limit() >= 6 ? header.getInt(0) : -1;
+                int symbolLength = header.limit() >= 6 ? header.getShort(4) & 0xFFFF : -1;
+                int headerLength = CHUNK_FIXED_LENGTH + symbolLength;
+                if (symbolLength < 0 || header.limit() < headerLength || length < headerLength || position + length > size) {
+                    logger.warn("Truncating tick history file {} at {}: incomplete chunk", path.getFileName(), position);
+                    channel.truncate(position);
+                    size = position;
+                    break;
+                }
+                byte[] symbol = new byte[symbolLength];
+                header.get(6, symbol);
+                int fields = 6 + symbolLength;
+                visitor.visit(new String(symbol, StandardCharsets.UTF_8), position + headerLength, length - headerLength,
+                              header.getInt(fields), header.getLong(fields + 4), header.getLong(fields + 12));
+                position += length;
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close tick history file {}: {}", path, e.getMessage());
+            }
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of tick history file");
+                }
+                position += read;
+            }
+        }
+    }
+
+    /**
+     * History of one symbol: the open chunk plus an index of its sealed chunks, held
+     * column-wise in the order they were written. Guarded by its own monitor.
+     */
+    private static final class Series {
+        private final String symbol;
+        private final byte[] encodedSymbol;
+        private GorillaChunk open;
+        private long openedMillis;
+
+        private int size;
+        private int[] fileIds = new int[16];
+        private long[] offsets = new long[16];
+        private int[] lengths = new int[16];
+        private int[] counts = new int[16];
+        private long[] minTimestamps = new long[16];
+        private long[] maxTimestamps = new long[16];
+        // Running maximum of maxTimestamps, so a range start can be found by binary search
+        private long[] latestSoFar = new long[16];
+
+        Series(String symbol) {
+            this.symbol = symbol;
+            this.encodedSymbol = symbol.getBytes(StandardCharsets.UTF_8);
+            if (encodedSymbol.length > MAX_SYMBOL_LENGTH) {
+                throw new IllegalArgumentException("Symbol too long for tick history: " + symbol);
+            }
+        }
+
+        void add(int fileId, long offset, int length, int count, long minTimestamp, long maxTimestamp) {
+            if (size == offsets.length) {
+                int capacity = size * 2;
+                fileIds = Arrays.copyOf(fileIds, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                minTimestamps = Arrays.copyOf(minTimestamps, capacity);
+                maxTimestamps = Arrays.copyOf(maxTimestamps, capacity);
+                latestSoFar = Arrays.copyOf(latestSoFar, capacity);
+            }
+            fileIds[size] = fileId;
+            offsets[size] = offset;
+            lengths[size] = length;
+            counts[size] = count;
+            minTimestamps[size] = minTimestamp;
+            maxTimestamps[size] = maxTimestamp;
+            latestSoFar[size] = size == 0 ? maxTimestamp : Math.max(latestSoFar[size - 1], maxTimestamp);
+            size++;
+        }
+
+        /**
+         * @return index of the first chunk that may hold ticks at or after the timestamp
+         */
+        int firstEndingAtOrAfter(long timestamp) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (latestSoFar[middle] < timestamp) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return number of chunks removed
+         */
+        int removeFile(int fileId) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (fileIds[i] == fileId) {
+                    continue;
+                }
+                fileIds[kept] = fileIds[i];
+                offsets[kept] = offsets[i];
+                lengths[kept] = lengths[i];
+                counts[kept] = counts[i];
+                minTimestamps[kept] = minTimestamps[i];
+                maxTimestamps[kept] = maxTimestamps[i];
+                latestSoFar[kept] = kept == 0 ? maxTimestamps[i] : Math.max(latestSoFar[kept - 1], maxTimestamps[i]);
+                kept++;
+            }
+            int removed = size - kept;
+            size = kept;
+            return removed;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.fintech.market.indicators;
+
+import com.fintech.market.PricePublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST access to the current streaming indicators of a symbol, the same values
+ * published on /topic/indicators/{window}/{symbol}
+ */
+@RestController
+@RequestMapping("/api/indicators")
+public class IndicatorController {
+
+    @Autowired
+    private IndicatorEngine indicatorEngine;
+
+    /**
+     * Current indicators of a symbol
+     * @param symbol the symbol
+     * @return one entry per configured window; empty if the symbol has had no ticks
+     */
+    @GetMapping("/{symbol}")
+    public List<PricePublisher.IndicatorMessage> getIndicators(@PathVariable("symbol") String symbol) {
+        return indicatorEngine.getIndicators(symbol);
+    }
+}
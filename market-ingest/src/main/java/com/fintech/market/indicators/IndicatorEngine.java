@@ -0,0 +1,173 @@
+package com.fintech.market.indicators;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.IndicatorProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Computes EMA, VWAP, standard deviation, minimum and maximum over the last N ticks of
+ * every symbol for each configured window, once for all consumers. Fed by the pipeline's
+ * conflate stage before conflation, like {@link com.fintech.market.bars.BarAggregator},
+ * so every tick counts. Windows are held in an array indexed by symbol id; indicators
+ * that changed are published on a fixed cadence.
+ */
+@Component
+public class IndicatorEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndicatorEngine.class);
+
+    @Autowired
+    private IndicatorProperties indicatorProperties;
+
+    @Autowired
+    private PricePublisher pricePublisher;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    private int[] windowLengths;
+    // Replaced by a filled copy under this lock, read without it by the publish thread and queries
+    private volatile IndicatorWindow[][] windowsById = new IndicatorWindow[64][];
+    private ScheduledExecutorService publisher;
+
+    @PostConstruct
+    public void start() {
+        List<Integer> windows = indicatorProperties.getWindows();
+        windowLengths = new int[windows.size()];
+        for (int i = 0; i < windows.size(); i++) {
+            windowLengths[i] = windows.get(i);
+            if (windowLengths[i] <= 0) {
+                throw new IllegalArgumentException("Indicator window must be at least 1 tick: " + windows.get(i));
+            }
+        }
+        if (!indicatorProperties.isEnabled()) {
+            return;
+        }
+        long periodMillis = indicatorProperties.getPublishInterval().toMillis();
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "indicator-publish");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleAtFixedRate(this::publishIndicators, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        logger.info("Started indicators for windows of {} ticks", windows);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+    /**
+     * Apply a tick to every window of its symbol. Called from a single pipeline stage.
+     */
+    public void onTick(int symbolId, String symbol, double price, long timestamp) {
+        if (!indicatorProperties.isEnabled()) {
+            return;
+        }
+        IndicatorWindow[] windows = windowsFor(symbolId >= 0 ? symbolId : symbolRegistry.idOf(symbol));
+        for (IndicatorWindow window : windows) {
+            synchronized (window) {
+                window.update(price, timestamp);
+            }
+        }
+    }
+
+    private IndicatorWindow[] windowsFor(int symbolId) {
+        IndicatorWindow[][] all = windowsById;
+        IndicatorWindow[] windows = symbolId < all.length ? all[symbolId] : null;
+        return windows != null ? windows : createWindows(symbolId);
+    }
+
+    private synchronized IndicatorWindow[] createWindows(int symbolId) {
+        IndicatorWindow[][] all = windowsById;
+        IndicatorWindow[] windows = symbolId < all.length ? all[symbolId] : null;
+        if (windows != null) {
+            return windows;
+        }
+        // Store into a copy, never the published array, so the volatile write below is
+        // what publishes the new windows to readers
+        int length = symbolId < all.length ? all.length : Math.max(all.length * 2, symbolId + 1);
+        all = Arrays.copyOf(all, length);
+        windows = new IndicatorWindow[windowLengths.length];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new IndicatorWindow(windowLengths[i]);
+        }
+        all[symbolId] = windows;
+        windowsById = all;
+        return windows;
+    }
+
+    private void publishIndicators() {
+        try {
+            drain(pricePublisher::publishIndicators);
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic publish
+            logger.error("Error publishing indicators: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hand over the indicators of every window that changed since the last drain
+     * @param sink receives the indicators
+     */
+    void drain(Consumer<PricePublisher.IndicatorMessage> sink) {
+        IndicatorWindow[][] all = windowsById;
+        for (int id = 0; id < all.length; id++) {
+            IndicatorWindow[] windows = all[id];
+            if (windows == null) {
+                continue;
+            }
+            String symbol = symbolRegistry.symbolOf(id);
+            for (IndicatorWindow window : windows) {
+                PricePublisher.IndicatorMessage indicators;
+                synchronized (window) {
+                    indicators = window.takeDirty() ? window.current(symbol) : null;
+                }
+                if (indicators != null) {
+                    sink.accept(indicators);
+                }
+            }
+        }
+    }
+
+    /**
+     * Current indicators of a symbol
+     * @param symbol the symbol
+     * @return one entry per configured window, empty if the symbol has had no ticks
+     */
+    public List<PricePublisher.IndicatorMessage> getIndicators(String symbol) {
+        int symbolId = symbolRegistry.find(symbol);
+        IndicatorWindow[][] all = windowsById;
+        IndicatorWindow[] windows = symbolId >= 0 && symbolId < all.length ? all[symbolId] : null;
+        List<PricePublisher.IndicatorMessage> indicators = new ArrayList<>();
+        if (windows == null) {
+            return indicators;
+        }
+        for (IndicatorWindow window : windows) {
+            synchronized (window) {
+                PricePublisher.IndicatorMessage current = window.current(symbol);
+                if (current != null) {
+                    indicators.add(current);
+                }
+            }
+        }
+        return indicators;
+    }
+}
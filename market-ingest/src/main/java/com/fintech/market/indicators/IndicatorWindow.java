@@ -0,0 +1,143 @@
+package com.fintech.market.indicators;
+
+import com.fintech.market.PricePublisher;
+
+/**
+ * Indicators of one symbol over its last N ticks, updated in O(1) per tick from a
+ * primitive ring of the window's prices.
+ * <p>
+ * The mean and standard deviation come from running sums of the prices less a recent
+ * price, which keeps the squares small; once per window the sums are rebuilt from the
+ * ring around the latest price, so rounding error cannot accumulate. Minimum and
+ * maximum are the heads of two monotonic queues of tick numbers, amortized O(1). The
+ * EMA uses the usual smoothing factor 2 / (N + 1). Not thread-safe;
+ * {@link IndicatorEngine} synchronizes on the window.
+ */
+final class IndicatorWindow {
+
+    private final int length;
+    private final double alpha;
+
+    // Prices of the last length ticks; tick t is at t % length
+    private final double[] prices;
+    private long ticks;
+    private double shift;
+    private double sum;
+    private double sumOfSquares;
+    private double ema;
+    private long lastTimestamp;
+    private boolean dirty;
+
+    // Tick numbers with increasing prices (min) and decreasing prices (max), oldest at head
+    private final long[] minQueue;
+    private int minHead;
+    private int minSize;
+    private final long[] maxQueue;
+    private int maxHead;
+    private int maxSize;
+
+    IndicatorWindow(int length) {
+        this.length = length;
+        this.alpha = 2.0 / (length + 1);
+        this.prices = new double[length];
+        this.minQueue = new long[length];
+        this.maxQueue = new long[length];
+    }
+
+    /**
+     * Apply a tick
+     * @param price tick price
+     * @param timestamp market timestamp, millis
+     */
+    void update(double price, long timestamp) {
+        int slot = (int) (ticks % length);
+        if (ticks == 0) {
+            shift = price;
+            ema = price;
+        } else {
+            ema += alpha * (price - ema);
+        }
+        if (ticks >= length) {
+            double evicted = prices[slot] - shift;
+            sum -= evicted;
+            sumOfSquares -= evicted * evicted;
+        }
+        prices[slot] = price;
+        double shifted = price - shift;
+        sum += shifted;
+        sumOfSquares += shifted * shifted;
+
+        long expired = ticks - length;
+        if (minSize > 0 && minQueue[minHead] == expired) {
+            minHead = (minHead + 1) % length;
+            minSize--;
+        }
+        while (minSize > 0 && priceOf(minQueue[(minHead + minSize - 1) % length]) >= price) {
+            minSize--;
+        }
+        minQueue[(minHead + minSize++) % length] = ticks;
+
+        if (maxSize > 0 && maxQueue[maxHead] == expired) {
+            maxHead = (maxHead + 1) % length;
+            maxSize--;
+        }
+        while (maxSize > 0 && priceOf(maxQueue[(maxHead + maxSize - 1) % length]) <= price) {
+            maxSize--;
+        }
+        maxQueue[(maxHead + maxSize++) % length] = ticks;
+
+        ticks++;
+        if (ticks % length == 0) {
+            resum();
+        }
+        lastTimestamp = timestamp;
+        dirty = true;
+    }
+
+    private double priceOf(long tick) {
+        return prices[(int) (tick % length)];
+    }
+
+    private void resum() {
+        shift = priceOf(ticks - 1);
+        sum = 0;
+        sumOfSquares = 0;
+        for (double price : prices) {
+            double shifted = price - shift;
+            sum += shifted;
+            sumOfSquares += shifted * shifted;
+        }
+    }
+
+    /**
+     * @return true once if the window changed since the last call
+     */
+    boolean takeDirty() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
+    }
+
+    /**
+     * @return the current indicators, or null before the first tick
+     */
+    PricePublisher.IndicatorMessage current(String symbol) {
+        if (ticks == 0) {
+            return null;
+        }
+        int count = (int) Math.min(ticks, length);
+        double mean = sum / count;
+        double variance = Math.max(0.0, sumOfSquares / count - mean * mean);
+        return new PricePublisher.IndicatorMessage(
+            symbol,
+            length,
+            count,
+            ema,
+            shift + mean,
+            Math.sqrt(variance),
+            priceOf(minQueue[minHead]),
+            priceOf(maxQueue[maxHead]),
+            lastTimestamp
+        );
+    }
+}
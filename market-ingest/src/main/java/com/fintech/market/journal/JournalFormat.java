@@ -0,0 +1,78 @@
+package com.fintech.market.journal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * On-disk layout of the tick journal, little-endian.
+ * <pre>
+ * Segment file ticks-{index}.journal
+ *   0  i32  magic "TKJ1"
+ *   4  i32  format version
+ *   8  i64  segment creation time, epoch millis
+ *   16..63  reserved
+ *   64      first record
+ *
+ * Record, padded to a multiple of 8 bytes
+ *   0  i32  record length including padding; 0 marks the end of written data
+ *   4  i64  per-symbol sequence number
+ *   12 i64  market timestamp, epoch millis
+ *   20 i64  recorded timestamp, epoch millis
+ *   28 f64  price
+ *   36 u16  symbol length n
+ *   38 n    symbol, UTF-8
+ * </pre>
+ * The writer fills in the record body before storing its length with release
+ * semantics, so a reader that sees a non-zero length sees the whole record.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x314A4B54; // "TKJ1" little-endian
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_LENGTH = 64;
+    static final int RECORD_HEADER_LENGTH = 38;
+    static final int MAX_SYMBOL_LENGTH = 255;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int OFFSET_SEQUENCE = 4;
+    static final int OFFSET_MARKET_TIMESTAMP = 12;
+    static final int OFFSET_RECORDED_TIMESTAMP = 20;
+    static final int OFFSET_PRICE = 28;
+    static final int OFFSET_SYMBOL_LENGTH = 36;
+    static final int OFFSET_SYMBOL = 38;
+
+    static final String SEGMENT_PREFIX = "ticks-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    /** Ordered access to the record length word of a mapped segment */
+    static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, BYTE_ORDER);
+
+    private JournalFormat() {
+    }
+
+    static int recordLength(int symbolLength) {
+        return (RECORD_HEADER_LENGTH + symbolLength + 7) & ~7;
+    }
+
+    static String segmentName(long index) {
+        return String.format(Locale.ROOT, "%s%012d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * @return the segment index encoded in a file name, or -1 if it is not a segment
+     */
+    static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
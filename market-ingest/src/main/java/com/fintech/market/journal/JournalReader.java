@@ -0,0 +1,162 @@
+package com.fintech.market.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Sequential reader over the segments of a {@link TickJournal}, oldest first.
+ * May run while the journal is being written: {@link #next} returns false at the
+ * current end of data and picks up newly written records and segments on the next
+ * call. Not thread-safe.
+ */
+public class JournalReader implements Closeable {
+
+    private final Path directory;
+    private final List<Path> segmentFiles = new ArrayList<>();
+    private int segmentIndex = -1;
+    private long lastSegmentNumber = -1L;
+    private MappedByteBuffer buffer;
+    private int position;
+
+    /**
+     * @param directory journal directory
+     */
+    public JournalReader(Path directory) throws IOException {
+        this.directory = directory;
+        refreshSegments();
+    }
+
+    /**
+     * Read the next record
+     * @param record holder to fill
+     * @return true if a record was read, false at the current end of the journal
+     */
+    public boolean next(JournalRecord record) throws IOException {
+        while (true) {
+            if (buffer == null && !openNextSegment()) {
+                return false;
+            }
+            if (position + JournalFormat.RECORD_HEADER_LENGTH <= buffer.limit()) {
+                int length = (int) JournalFormat.LENGTH.getAcquire(buffer, position);
+                if (length > 0 && position + length <= buffer.limit()) {
+                    readRecord(record);
+                    position += length;
+                    return true;
+                }
+            }
+            // End of written data in this segment; move on only if a newer segment exists
+            if (segmentIndex + 1 >= segmentFiles.size()) {
+                refreshSegments();
+                if (segmentIndex + 1 >= segmentFiles.size()) {
+                    return false;
+                }
+            }
+            buffer = null;
+        }
+    }
+
+    /**
+     * Skip records until the next one has a market timestamp at or after the given time
+     * @param timestampMillis epoch millis
+     * @param record holder filled with the first matching record
+     * @return true if such a record was found
+     */
+    public boolean seek(long timestampMillis, JournalRecord record) throws IOException {
+        while (next(record)) {
+            if (record.getMarketTimestamp() >= timestampMillis) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return segment files currently known to the reader, oldest first
+     */
+    public List<Path> getSegmentFiles() {
+        return segmentFiles;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    /**
+     * Read the creation time stored in a segment header
+     * @param file segment file
+     * @return creation time, epoch millis
+     */
+    static long readCreatedMillis(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16).order(JournalFormat.BYTE_ORDER);
+            channel.read(header, 0);
+            return header.getLong(8);
+        }
+    }
+
+    private void readRecord(JournalRecord record) {
+        int symbolLength = buffer.getShort(position + JournalFormat.OFFSET_SYMBOL_LENGTH) & 0xFFFF;
+        byte[] name = new byte[symbolLength];
+        buffer.get(position + JournalFormat.OFFSET_SYMBOL, name);
+        record.set(
+            new String(name, StandardCharsets.UTF_8),
+            buffer.getLong(position + JournalFormat.OFFSET_SEQUENCE),
+            buffer.getDouble(position + JournalFormat.OFFSET_PRICE),
+            buffer.getLong(position + JournalFormat.OFFSET_MARKET_TIMESTAMP),
+            buffer.getLong(position + JournalFormat.OFFSET_RECORDED_TIMESTAMP)
+        );
+    }
+
+    private boolean openNextSegment() throws IOException {
+        while (segmentIndex + 1 < segmentFiles.size()) {
+            segmentIndex++;
+            Path file = segmentFiles.get(segmentIndex);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                mapped.order(JournalFormat.BYTE_ORDER);
+                if (mapped.limit() < JournalFormat.SEGMENT_HEADER_LENGTH || mapped.getInt(0) != JournalFormat.MAGIC) {
+                    continue;
+                }
+                buffer = mapped;
+                position = JournalFormat.SEGMENT_HEADER_LENGTH;
+                return true;
+            } catch (NoSuchFileException e) {
+                // Deleted by retention since we listed it
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pick up segments created since the last listing
+     */
+    private void refreshSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> found;
+        try (Stream<Path> files = Files.list(directory)) {
+            found = files
+                .filter(file -> JournalFormat.segmentIndex(file) > lastSegmentNumber)
+                .sorted(Comparator.comparingLong(JournalFormat::segmentIndex))
+                .toList();
+        }
+        for (Path file : found) {
+            segmentFiles.add(file);
+            lastSegmentNumber = JournalFormat.segmentIndex(file);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.fintech.market.journal;
+
+/**
+ * Reusable holder for one journal record, filled by {@link JournalReader}
+ */
+public final class JournalRecord {
+
+    private String symbol;
+    private long sequence;
+    private double price;
+    private long marketTimestamp;
+    private long recordedTimestamp;
+
+    void set(String symbol, long sequence, double price, long marketTimestamp, long recordedTimestamp) {
+        this.symbol = symbol;
+        this.sequence = sequence;
+        this.price = price;
+        this.marketTimestamp = marketTimestamp;
+        this.recordedTimestamp = recordedTimestamp;
+    }
+
+    public String getSymbol() { return symbol; }
+
+    public long getSequence() { return sequence; }
+
+    public double getPrice() { return price; }
+
+    public long getMarketTimestamp() { return marketTimestamp; }
+
+    public long getRecordedTimestamp() { return recordedTimestamp; }
+
+    @Override
+    public String toString() {
+        return String.format("JournalRecord{symbol='%s', sequence=%d, price=%.2f, marketTs=%d, recordedTs=%d}",
+                           symbol, sequence, price, marketTimestamp, recordedTimestamp);
+    }
+}
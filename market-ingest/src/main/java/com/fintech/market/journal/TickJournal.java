@@ -0,0 +1,260 @@
+package com.fintech.market.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only tick journal written to memory-mapped segment files. Appending is a
+ * copy into the mapped page cache, so the writer never waits on disk I/O; the OS
+ * writes pages back in the background and {@link #force()} makes them durable.
+ * <p>
+ * Segments roll when full or older than the roll interval, and the oldest
+ * segments are deleted once the journal exceeds its retention size or age. Each
+ * record carries a per-symbol sequence number that continues across restarts.
+ * <p>
+ * Single writer: {@link #append} must always be called from the same thread.
+ */
+public class TickJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickJournal.class);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long rollIntervalMs;
+    private final long retentionBytes;
+    private final long retentionMs;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<String, long[]> lastSequences = new HashMap<>();
+    private final Map<String, byte[]> encodedSymbols = new HashMap<>();
+
+    private Segment current;
+    private long nextIndex;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long recordCount;
+
+    /**
+     * Open a journal, restoring per-symbol sequences from existing segments.
+     * Appends always start in a new segment.
+     * @param directory segment directory, created if missing
+     * @param segmentSize bytes per segment file
+     * @param rollInterval maximum age of the active segment
+     * @param retentionBytes maximum total size of all segments
+     * @param retentionTime maximum age of a closed segment
+     */
+    public TickJournal(Path directory, long segmentSize, Duration rollInterval,
+                       long retentionBytes, Duration retentionTime) throws IOException {
+        if (segmentSize < 4096 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal segment size must be between 4KB and 2GB: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize;
+        this.rollIntervalMs = rollInterval.toMillis();
+        this.retentionBytes = retentionBytes;
+        this.retentionMs = retentionTime.toMillis();
+
+        Files.createDirectories(directory);
+        recover();
+        roll(System.currentTimeMillis());
+    }
+
+    /**
+     * Append a tick
+     * @param symbol the symbol
+     * @param price the price
+     * @param marketTimestamp market timestamp of the tick
+     * @return the per-symbol sequence number assigned to the record
+     */
+    public long append(String symbol, double price, long marketTimestamp) {
+        long[] lastSequence = lastSequences.computeIfAbsent(symbol, s -> new long[1]);
+        long sequence = lastSequence[0] + 1;
+        write(symbol, sequence, price, marketTimestamp);
+        lastSequence[0] = sequence;
+        return sequence;
+    }
+
+    /**
+     * Append a tick that was already assigned its per-symbol sequence number
+     * @param symbol the symbol
+     * @param sequence per-symbol sequence number of the tick
+     * @param price the price
+     * @param marketTimestamp market timestamp of the tick
+     */
+    public void append(String symbol, long sequence, double price, long marketTimestamp) {
+        long[] lastSequence = lastSequences.computeIfAbsent(symbol, s -> new long[1]);
+        write(symbol, sequence, price, marketTimestamp);
+        lastSequence[0] = Math.max(lastSequence[0], sequence);
+    }
+
+    private void write(String symbol, long sequence, double price, long marketTimestamp) {
+        byte[] name = encodedSymbols.computeIfAbsent(symbol, s -> s.getBytes(StandardCharsets.UTF_8));
+        if (name.length > JournalFormat.MAX_SYMBOL_LENGTH) {
+            throw new IllegalArgumentException("Symbol too long for journal: " + symbol);
+        }
+        int length = JournalFormat.recordLength(name.length);
+        long now = System.currentTimeMillis();
+        if (position + length > segmentSize || now - current.createdMillis >= rollIntervalMs) {
+            roll(now);
+        }
+
+        buffer.putLong(position + JournalFormat.OFFSET_SEQUENCE, sequence);
+        buffer.putLong(position + JournalFormat.OFFSET_MARKET_TIMESTAMP, marketTimestamp);
+        buffer.putLong(position + JournalFormat.OFFSET_RECORDED_TIMESTAMP, now);
+        buffer.putDouble(position + JournalFormat.OFFSET_PRICE, price);
+        buffer.putShort(position + JournalFormat.OFFSET_SYMBOL_LENGTH, (short) name.length);
+        buffer.put(position + JournalFormat.OFFSET_SYMBOL, name);
+        // Publish the record: readers only trust records with a non-zero length
+        JournalFormat.LENGTH.setRelease(buffer, position, length);
+
+        position += length;
+        recordCount++;
+    }
+
+    /**
+     * Get the last sequence number written for a symbol
+     * @param symbol the symbol
+     * @return last sequence number, or 0 if the symbol was never journaled
+     */
+    public long getLastSequence(String symbol) {
+        long[] lastSequence = lastSequences.get(symbol);
+        return lastSequence == null ? 0L : lastSequence[0];
+    }
+
+    /**
+     * @return last sequence number written for every journaled symbol
+     */
+    public Map<String, Long> getLastSequences() {
+        Map<String, Long> copy = new HashMap<>();
+        lastSequences.forEach((symbol, lastSequence) -> copy.put(symbol, lastSequence[0]));
+        return copy;
+    }
+
+    /**
+     * Flush written pages of the active segment to disk
+     */
+    public void force() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        buffer = null;
+        logger.info("Closed tick journal {} after {} records", directory, recordCount);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Load existing segments and rebuild the per-symbol sequences from them
+     */
+    private void recover() throws IOException {
+        long maxIndex = -1L;
+        try (JournalReader reader = new JournalReader(directory)) {
+            for (Path file : reader.getSegmentFiles()) {
+                long index = JournalFormat.segmentIndex(file);
+                segments.addLast(new Segment(file, JournalReader.readCreatedMillis(file), Files.size(file)));
+                maxIndex = Math.max(maxIndex, index);
+            }
+            JournalRecord record = new JournalRecord();
+            while (reader.next(record)) {
+                long[] lastSequence = lastSequences.computeIfAbsent(record.getSymbol(), s -> new long[1]);
+                lastSequence[0] = Math.max(lastSequence[0], record.getSequence());
+            }
+        }
+        nextIndex = maxIndex + 1;
+        if (!segments.isEmpty()) {
+            logger.info("Recovered tick journal {}: {} segments, {} symbols",
+                       directory, segments.size(), lastSequences.size());
+        }
+    }
+
+    /**
+     * Start a new segment and apply retention to closed ones
+     */
+    private void roll(long now) {
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            Path file = directory.resolve(JournalFormat.segmentName(nextIndex));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            }
+            buffer.order(JournalFormat.BYTE_ORDER);
+            buffer.putInt(0, JournalFormat.MAGIC);
+            buffer.putInt(4, JournalFormat.VERSION);
+            buffer.putLong(8, now);
+            position = JournalFormat.SEGMENT_HEADER_LENGTH;
+
+            current = new Segment(file, now, segmentSize);
+            segments.addLast(current);
+            nextIndex++;
+            logger.debug("Rolled tick journal to segment {}", file.getFileName());
+
+            applyRetention(now);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll tick journal segment in " + directory, e);
+        }
+    }
+
+    private void applyRetention(long now) throws IOException {
+        long totalBytes = 0L;
+        for (Segment segment : segments) {
+            totalBytes += segment.size;
+        }
+        while (segments.size() > 1) {
+            Segment oldest = segments.peekFirst();
+            boolean tooBig = totalBytes > retentionBytes;
+            boolean tooOld = now - oldest.createdMillis > retentionMs;
+            if (!tooBig && !tooOld) {
+                break;
+            }
+            segments.removeFirst();
+            totalBytes -= oldest.size;
+            Files.deleteIfExists(oldest.file);
+            logger.info("Deleted tick journal segment {} ({})", oldest.file.getFileName(), tooBig ? "size" : "age");
+        }
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final long createdMillis;
+        private final long size;
+
+        Segment(Path file, long createdMillis, long size) {
+            this.file = file;
+            this.createdMillis = createdMillis;
+            this.size = size;
+        }
+    }
+}
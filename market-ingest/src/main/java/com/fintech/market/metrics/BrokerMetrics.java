@@ -0,0 +1,85 @@
+package com.fintech.market.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broker side of the feed metrics: times how long the broker takes to route each
+ * published message to its subscribers' outbound queues, and exposes how many
+ * messages wait in the client outbound channel for a send thread
+ */
+@Component
+public class BrokerMetrics implements ExecutorChannelInterceptor {
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Created by the broker configuration that registers this interceptor
+    @Lazy
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private ExecutorSubscribableChannel clientOutboundChannel;
+
+    // The broker handles a message on the sending thread unless the broker channel has an executor
+    private final ThreadLocal<long[]> handleStart = ThreadLocal.withInitial(() -> new long[1]);
+
+    private Timer dispatch;
+
+    @PostConstruct
+    public void init() {
+        dispatch = pipelineMetrics.latencyTimer("dispatch");
+        if (meterRegistry != null) {
+            Gauge.builder("market.outbound.queue.depth", this, BrokerMetrics::getOutboundQueueDepth)
+                .description("Messages waiting in the client outbound channel for a send thread")
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (handler instanceof AbstractBrokerMessageHandler) {
+            handleStart.get()[0] = System.nanoTime();
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (!(handler instanceof AbstractBrokerMessageHandler)) {
+            return;
+        }
+        long[] start = handleStart.get();
+        if (start[0] != 0) {
+            dispatch.record(System.nanoTime() - start[0], TimeUnit.NANOSECONDS);
+            start[0] = 0;
+        }
+    }
+
+    /**
+     * @return messages queued on the client outbound channel, 0 if it sends on the caller's thread
+     */
+    public long getOutboundQueueDepth() {
+        if (clientOutboundChannel.getExecutor() instanceof ThreadPoolTaskExecutor executor) {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        }
+        return 0;
+    }
+}
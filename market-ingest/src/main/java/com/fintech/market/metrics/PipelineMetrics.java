@@ -0,0 +1,204 @@
+package com.fintech.market.metrics;
+
+import com.fintech.market.config.MetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage tick latency timers and per-symbol-group tick counters.
+ * <p>
+ * Latency is recorded as market.latency, tagged by stage:
+ * <ul>
+ *   <li>receive - market timestamp to receipt by the pipeline (wall clock, so it includes clock skew)</li>
+ *   <li>decode - receipt to decoded, including time queued in the ring buffer</li>
+ *   <li>conflate - decoded to handled by the conflate stage</li>
+ *   <li>publish - conversion and broker hand-off of one price or batch</li>
+ *   <li>dispatch - broker routing of one message to subscriber queues, see {@link BrokerMetrics}</li>
+ *   <li>end-to-end - market timestamp to publish, the gap between a price message's two timestamps</li>
+ * </ul>
+ * Timers compute percentiles with HdrHistogram and, when enabled, publish histogram
+ * buckets for Prometheus. Ticks dropped or undecodable before their symbol is known
+ * are counted in the "unknown" group.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String LATENCY = "market.latency";
+    public static final String OTHER_GROUP = "other";
+    public static final String UNKNOWN_GROUP = "unknown";
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MetricsProperties metricsProperties;
+
+    private MeterRegistry registry;
+    private Timer receive;
+    private Timer decode;
+    private Timer conflate;
+    private Timer publish;
+    private Timer endToEnd;
+
+    private final Map<String, Group> groupsBySymbol = new HashMap<>();
+    private Group otherGroup;
+    private Group unknownGroup;
+
+    // Symbol id -> group cache, filled by whichever thread sees the id first. A lost
+    // write only means the group is looked up again.
+    private volatile Group[] groupsById = new Group[1024];
+
+    @PostConstruct
+    public void init() {
+        // Without a registry, e.g. in benchmarks, still pay the recording cost
+        registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        receive = latencyTimer("receive");
+        decode = latencyTimer("decode");
+        conflate = latencyTimer("conflate");
+        publish = latencyTimer("publish");
+        endToEnd = latencyTimer("end-to-end");
+
+        otherGroup = new Group(OTHER_GROUP);
+        unknownGroup = new Group(UNKNOWN_GROUP);
+        for (Map.Entry<String, List<String>> entry : metricsProperties.getGroups().entrySet()) {
+            Group group = new Group(entry.getKey());
+            for (String symbol : entry.getValue()) {
+                groupsBySymbol.putIfAbsent(symbol, group);
+            }
+        }
+    }
+
+    /**
+     * @param stage stage tag value
+     * @return a latency timer for the stage, configured like every other stage
+     */
+    public Timer latencyTimer(String stage) {
+        Timer.Builder builder = Timer.builder(LATENCY)
+            .description("Tick latency by pipeline stage")
+            .tag("stage", stage)
+            .publishPercentiles(metricsProperties.getPercentiles())
+            .minimumExpectedValue(Duration.ofNanos(1000))
+            .maximumExpectedValue(Duration.ofSeconds(10));
+        if (metricsProperties.isHistogram()) {
+            builder.publishPercentileHistogram();
+        }
+        return builder.register(registry);
+    }
+
+    /**
+     * A tick was decoded
+     * @param receivedNanos System.nanoTime() at receipt
+     * @param decodedNanos System.nanoTime() once decoded
+     */
+    public void onDecoded(int symbolId, String symbol, long marketTimestamp, long receivedNanos, long decodedNanos) {
+        groupOf(symbolId, symbol).in.increment();
+        decode.record(decodedNanos - receivedNanos, TimeUnit.NANOSECONDS);
+        // Wall clock time of receipt, from the monotonic receipt time
+        long receivedMillis = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedNanos);
+        receive.record(receivedMillis - marketTimestamp, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A payload could not be decoded
+     */
+    public void onDecodeFailed() {
+        unknownGroup.failed.increment();
+    }
+
+    /**
+     * A tick was dropped because the ring buffer was full
+     * @param symbolId registry id, or -1 if the tick was not decoded yet
+     * @param symbol the symbol, or null if the tick was not decoded yet
+     */
+    public void onDropped(int symbolId, String symbol) {
+        groupOf(symbolId, symbol).dropped.increment();
+    }
+
+    /**
+     * The conflate stage handled a tick
+     * @param decodedNanos System.nanoTime() once decoded
+     * @param replaced true if the tick replaced one not yet published
+     */
+    public void onConflated(int symbolId, String symbol, long decodedNanos, boolean replaced) {
+        conflate.record(System.nanoTime() - decodedNanos, TimeUnit.NANOSECONDS);
+        if (replaced) {
+            groupOf(symbolId, symbol).conflated.increment();
+        }
+    }
+
+    /**
+     * A price was handed to the broker
+     * @param marketTimestamp market timestamp of the price
+     * @param startNanos System.nanoTime() when publishing started
+     */
+    public void onPublished(long marketTimestamp, long startNanos) {
+        publish.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        endToEnd.record(System.currentTimeMillis() - marketTimestamp, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A batch of prices was handed to the broker
+     * @param startNanos System.nanoTime() when publishing started
+     */
+    public void onBatchPublished(long startNanos) {
+        publish.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Group groupOf(int symbolId, String symbol) {
+        if (symbol == null) {
+            return unknownGroup;
+        }
+        Group[] cache = groupsById;
+        if (symbolId >= 0 && symbolId < cache.length) {
+            Group group = cache[symbolId];
+            if (group != null) {
+                return group;
+            }
+        }
+        Group group = groupsBySymbol.getOrDefault(symbol, otherGroup);
+        if (symbolId >= 0) {
+            if (symbolId >= cache.length) {
+                cache = Arrays.copyOf(cache, Math.max(symbolId + 1, cache.length * 2));
+                groupsById = cache;
+            }
+            cache[symbolId] = group;
+        }
+        return group;
+    }
+
+    /**
+     * Tick counters of one symbol group
+     */
+    private final class Group {
+        private final Counter in;
+        private final Counter conflated;
+        private final Counter dropped;
+        private final Counter failed;
+
+        Group(String name) {
+            this.in = counter("market.ticks.in", "Ticks decoded", name);
+            this.conflated = counter("market.ticks.conflated", "Ticks replaced by a newer tick before they were published", name);
+            this.dropped = counter("market.ticks.dropped", "Ticks dropped because the ring buffer was full", name);
+            this.failed = counter("market.ticks.failed", "Payloads that could not be decoded", name);
+        }
+
+        private Counter counter(String metric, String description, String group) {
+            return Counter.builder(metric)
+                .description(description)
+                .tag("group", group)
+                .register(registry);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.fintech.market.outbound;
+
+import com.fintech.market.PricePublisher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Hand-written JSON encoding of the price, batch, error and status messages, producing
+ * the same bytes as Jackson's default ObjectMapper without reflection: properties in
+ * declaration order, doubles as Double.toString, NaN and infinities as strings.
+ * <p>
+ * Messages are written into a scratch buffer kept per thread, so the only allocation
+ * is the exact-size payload handed to the broker and the text of each double.
+ */
+public final class PriceJsonEncoder {
+
+    private static final ThreadLocal<JsonOutput> SCRATCH = ThreadLocal.withInitial(() -> new JsonOutput(1024));
+
+    private static final byte[] PRICE_SYMBOL = ascii("{\"symbol\":");
+    private static final byte[] PRICE_PRICE = ascii(",\"price\":");
+    private static final byte[] PRICE_MARKET_TS = ascii(",\"marketTimestamp\":");
+    private static final byte[] PRICE_PUBLISH_TS = ascii(",\"publishTimestamp\":");
+    private static final byte[] PRICE_SEQUENCE = ascii(",\"sequence\":");
+
+    private static final byte[] BATCH_SYMBOLS = ascii("{\"symbols\":");
+    private static final byte[] BATCH_PRICES = ascii(",\"prices\":");
+    private static final byte[] BATCH_MARKET_TS = ascii(",\"marketTimestamps\":");
+    private static final byte[] BATCH_SEQUENCES = ascii(",\"sequences\":");
+    private static final byte[] BATCH_PUBLISH_TS = ascii(",\"publishTimestamp\":");
+
+    private static final byte[] ERROR_ERROR_MESSAGE = ascii(",\"errorMessage\":");
+    private static final byte[] STATUS_STATUS = ascii("{\"status\":");
+    private static final byte[] STATUS_MESSAGE = ascii(",\"message\":");
+    private static final byte[] TIMESTAMP = ascii(",\"timestamp\":");
+    private static final byte[] NULL = ascii("null");
+
+    private PriceJsonEncoder() {
+    }
+
+    /**
+     * @return true if the type has a hand-written encoding
+     */
+    public static boolean supports(Class<?> type) {
+        return type == PricePublisher.PriceMessage.class
+            || type == PricePublisher.PriceBatchMessage.class
+            || type == PricePublisher.ErrorMessage.class
+            || type == PricePublisher.StatusMessage.class;
+    }
+
+    /**
+     * @param message an instance of a {@link #supports supported} type
+     * @return UTF-8 JSON
+     */
+    public static byte[] encode(Object message) {
+        if (message instanceof PricePublisher.PriceMessage price) {
+            return encode(price);
+        }
+        if (message instanceof PricePublisher.PriceBatchMessage batch) {
+            return encode(batch);
+        }
+        if (message instanceof PricePublisher.ErrorMessage error) {
+            return encode(error);
+        }
+        if (message instanceof PricePublisher.StatusMessage status) {
+            return encode(status);
+        }
+        throw new IllegalArgumentException("No JSON encoding for " + message.getClass().getName());
+    }
+
+    public static byte[] encode(PricePublisher.PriceMessage message) {
+        JsonOutput out = scratch();
+        out.raw(PRICE_SYMBOL);
+        out.string(message.getSymbol());
+        out.raw(PRICE_PRICE);
+        out.number(message.getPrice());
+        out.raw(PRICE_MARKET_TS);
+        out.number(message.getMarketTimestamp());
+        out.raw(PRICE_PUBLISH_TS);
+        out.number(message.getPublishTimestamp());
+        out.raw(PRICE_SEQUENCE);
+        out.number(message.getSequence());
+        out.ascii('}');
+        return out.toByteArray();
+    }
+
+    public static byte[] encode(PricePublisher.PriceBatchMessage message) {
+        JsonOutput out = scratch();
+        out.raw(BATCH_SYMBOLS);
+        String[] symbols = message.getSymbols();
+        if (symbols == null) {
+            out.raw(NULL);
+        } else {
+            out.ascii('[');
+            for (int i = 0; i < symbols.length; i++) {
+                if (i > 0) {
+                    out.ascii(',');
+                }
+                out.string(symbols[i]);
+            }
+            out.ascii(']');
+        }
+        out.raw(BATCH_PRICES);
+        double[] prices = message.getPrices();
+        if (prices == null) {
+            out.raw(NULL);
+        } else {
+            out.ascii('[');
+            for (int i = 0; i < prices.length; i++) {
+                if (i > 0) {
+                    out.ascii(',');
+                }
+                out.number(prices[i]);
+            }
+            out.ascii(']');
+        }
+        out.raw(BATCH_MARKET_TS);
+        out.numbers(message.getMarketTimestamps());
+        out.raw(BATCH_SEQUENCES);
+        out.numbers(message.getSequences());
+        out.raw(BATCH_PUBLISH_TS);
+        out.number(message.getPublishTimestamp());
+        out.ascii('}');
+        return out.toByteArray();
+    }
+
+    public static byte[] encode(PricePublisher.ErrorMessage message) {
+        JsonOutput out = scratch();
+        out.raw(PRICE_SYMBOL);
+        out.string(message.getSymbol());
+        out.raw(ERROR_ERROR_MESSAGE);
+        out.string(message.getErrorMessage());
+        out.raw(TIMESTAMP);
+        out.number(message.getTimestamp());
+        out.ascii('}');
+        return out.toByteArray();
+    }
+
+    public static byte[] encode(PricePublisher.StatusMessage message) {
+        JsonOutput out = scratch();
+        out.raw(STATUS_STATUS);
+        out.string(message.getStatus());
+        out.raw(STATUS_MESSAGE);
+        out.string(message.getMessage());
+        out.raw(TIMESTAMP);
+        out.number(message.getTimestamp());
+        out.ascii('}');
+        return out.toByteArray();
+    }
+
+    private static JsonOutput scratch() {
+        JsonOutput out = SCRATCH.get();
+        out.reset();
+        return out;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Prices encoded once each, from which batch frames holding any subset of them are
+     * assembled by copying bytes. Used where one flush sends the same price in many
+     * frames, e.g. session watchlists. Not thread-safe.
+     */
+    public static final class Fragments {
+        // Per fragment: start of symbol, price, market timestamp and sequence, end of sequence
+        private static final int STRIDE = 5;
+
+        private final JsonOutput bytes = new JsonOutput(4096);
+        private int[] bounds = new int[STRIDE * 256];
+        private int count;
+
+        /**
+         * Forget every fragment, keeping the buffers
+         */
+        public void clear() {
+            bytes.reset();
+            count = 0;
+        }
+
+        /**
+         * Encode one price
+         * @return the fragment's index, for {@link #batch}
+         */
+        public int add(String symbol, double price, long marketTimestamp, long sequence) {
+            if ((count + 1) * STRIDE > bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            int base = count * STRIDE;
+            bounds[base] = bytes.length();
+            bytes.string(symbol);
+            bounds[base + 1] = bytes.length();
+            bytes.number(price);
+            bounds[base + 2] = bytes.length();
+            bytes.number(marketTimestamp);
+            bounds[base + 3] = bytes.length();
+            bytes.number(sequence);
+            bounds[base + 4] = bytes.length();
+            return count++;
+        }
+
+        /**
+         * @param indexes fragment indexes, in frame order
+         * @param size number of indexes used
+         * @return the JSON of a PriceBatchMessage holding the given prices
+         */
+        public byte[] batch(int[] indexes, int size, long publishTimestamp) {
+            JsonOutput out = scratch();
+            out.raw(BATCH_SYMBOLS);
+            column(out, indexes, size, 0);
+            out.raw(BATCH_PRICES);
+            column(out, indexes, size, 1);
+            out.raw(BATCH_MARKET_TS);
+            column(out, indexes, size, 2);
+            out.raw(BATCH_SEQUENCES);
+            column(out, indexes, size, 3);
+            out.raw(BATCH_PUBLISH_TS);
+            out.number(publishTimestamp);
+            out.ascii('}');
+            return out.toByteArray();
+        }
+
+        private void column(JsonOutput out, int[] indexes, int size, int field) {
+            out.ascii('[');
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    out.ascii(',');
+                }
+                int base = indexes[i] * STRIDE + field;
+                out.raw(bytes.buffer(), bounds[base], bounds[base + 1] - bounds[base]);
+            }
+            out.ascii(']');
+        }
+    }
+
+    /**
+     * Growable byte buffer with the JSON primitives
+     */
+    private static final class JsonOutput {
+        private static final byte[] HEX = PriceJsonEncoder.ascii("0123456789ABCDEF");
+
+        private byte[] buf;
+        private int pos;
+
+        JsonOutput(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        void reset() {
+            pos = 0;
+        }
+
+        int length() {
+            return pos;
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        void ascii(char c) {
+            ensure(1);
+            buf[pos++] = (byte) c;
+        }
+
+        void raw(byte[] bytes) {
+            raw(bytes, 0, bytes.length);
+        }
+
+        void raw(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buf, pos, length);
+            pos += length;
+        }
+
+        void number(long value) {
+            if (value == Long.MIN_VALUE) {
+                asciiText(Long.toString(value));
+                return;
+            }
+            ensure(20);
+            if (value < 0) {
+                buf[pos++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest != 0; rest /= 10) {
+                digits++;
+            }
+            int end = pos + digits;
+            for (int i = end - 1; i >= pos; i--) {
+                buf[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            pos = end;
+        }
+
+        void number(double value) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                string(Double.toString(value));
+            } else {
+                asciiText(Double.toString(value));
+            }
+        }
+
+        void numbers(long[] values) {
+            if (values == null) {
+                raw(NULL);
+                return;
+            }
+            ascii('[');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    ascii(',');
+                }
+                number(values[i]);
+            }
+            ascii(']');
+        }
+
+        void string(String value) {
+            if (value == null) {
+                raw(NULL);
+                return;
+            }
+            int length = value.length();
+            // Worst case: every char escaped as \\u00XX, or 3 UTF-8 bytes
+            ensure(length * 6 + 2);
+            buf[pos++] = '"';
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                    buf[pos++] = (byte) c;
+                } else if (c < 0x80) {
+                    escape(c);
+                } else if (c < 0x800) {
+                    buf[pos++] = (byte) (0xC0 | (c >> 6));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                    buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    buf[pos++] = (byte) (0xE0 | (c >> 12));
+                    buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            buf[pos++] = '"';
+        }
+
+        private void escape(char c) {
+            buf[pos++] = '\\';
+            switch (c) {
+                case '"' -> buf[pos++] = '"';
+                case '\\' -> buf[pos++] = '\\';
+                case '\b' -> buf[pos++] = 'b';
+                case '\f' -> buf[pos++] = 'f';
+                case '\n' -> buf[pos++] = 'n';
+                case '\r' -> buf[pos++] = 'r';
+                case '\t' -> buf[pos++] = 't';
+                default -> {
+                    buf[pos++] = 'u';
+                    buf[pos++] = '0';
+                    buf[pos++] = '0';
+                    buf[pos++] = HEX[c >> 4];
+                    buf[pos++] = HEX[c & 0xF];
+                }
+            }
+        }
+
+        private void asciiText(String text) {
+            int length = text.length();
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                buf[pos++] = (byte) text.charAt(i);
+            }
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.fintech.market.outbound;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Broker message converter for the outbound price, batch, error and status messages,
+ * ahead of the Jackson converter. Encodes with {@link PriceJsonEncoder}, so publishing
+ * does no reflection; the simple broker then hands the same payload to every
+ * subscriber of the destination. Other payloads, and every inbound message, are left
+ * to the default converters.
+ */
+public class PriceMessageConverter extends AbstractMessageConverter {
+
+    public PriceMessageConverter() {
+        super(MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PriceJsonEncoder.supports(clazz);
+    }
+
+    @Override
+    protected boolean canConvertFrom(Message<?> message, Class<?> targetClass) {
+        return false;
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        return PriceJsonEncoder.encode(payload);
+    }
+}
@@ -0,0 +1,343 @@
+package com.fintech.market.outbound;
+
+import com.fintech.market.config.OutboundProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a slow STOMP subscriber from building an unbounded backlog.
+ * <p>
+ * Every message for a session counts towards its backlog when it enters the client
+ * outbound channel, and leaves it once written to the socket. While a session's backlog
+ * is at market.outbound.max-backlog, messages on conflated destinations are held back
+ * instead, keeping only the latest per subscription. They are sent once the backlog
+ * has halved, so a lagging client gets the current price of each symbol rather than
+ * every price it missed. A session that keeps lagging for the laggard timeout is sent
+ * a STOMP ERROR frame, which closes it, and is closed outright if it cannot take even
+ * that within another timeout. The send time and buffer limits of the WebSocket
+ * transport remain the hard limit for anything that is not conflated.
+ */
+@Component
+public class SlowConsumerGuard implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowConsumerGuard.class);
+
+    @Autowired
+    private OutboundProperties outboundProperties;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Created by the broker configuration that registers this interceptor
+    @Lazy
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    private final ConcurrentHashMap<String, SessionState> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong conflatedCount = new AtomicLong();
+    private final AtomicLong disconnectedCount = new AtomicLong();
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void start() {
+        long timeoutMs = outboundProperties.getLaggardTimeout().toMillis();
+        if (timeoutMs > 0) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "slow-consumer-sweep");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.min(1000, timeoutMs);
+            sweeper.scheduleAtFixedRate(this::sweep, period, period, TimeUnit.MILLISECONDS);
+        }
+        if (meterRegistry != null) {
+            Gauge.builder("market.outbound.lagging", this, SlowConsumerGuard::getLaggingCount)
+                .description("Sessions currently receiving only the latest message per subscription")
+                .register(meterRegistry);
+            Gauge.builder("market.outbound.conflated", conflatedCount, AtomicLong::get)
+                .description("Messages to lagging sessions replaced by a newer one before they were sent")
+                .register(meterRegistry);
+            Gauge.builder("market.outbound.disconnected", disconnectedCount, AtomicLong::get)
+                .description("Sessions disconnected for lagging longer than the laggard timeout")
+                .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new GuardedHandler(handler);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SessionState state = sessionId == null ? null : sessions.get(sessionId);
+        if (state == null) {
+            return message;
+        }
+        if (state.backlog.get() >= outboundProperties.getMaxBacklog() && isConflated(message)) {
+            String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+            String key = subscriptionId != null ? subscriptionId : SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            if (state.hold(key, message)) {
+                conflatedCount.incrementAndGet();
+            }
+            // The session may have caught up while the message was being held
+            if (state.backlog.get() < resumeBacklog()) {
+                release(state);
+            }
+            return null;
+        }
+        state.backlog.incrementAndGet();
+        return message;
+    }
+
+    private boolean isConflated(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return false;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return false;
+        }
+        for (String prefix : outboundProperties.getConflatedDestinations()) {
+            if (destination.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int resumeBacklog() {
+        return Math.max(1, outboundProperties.getMaxBacklog() / 2);
+    }
+
+    /**
+     * A message was written to the session's socket
+     */
+    private void onSent(SessionState state) {
+        int backlog = state.backlog.updateAndGet(count -> count > 0 ? count - 1 : 0);
+        if (backlog < resumeBacklog()) {
+            release(state);
+        }
+    }
+
+    /**
+     * Send the messages held back while the session lagged
+     */
+    private void release(SessionState state) {
+        List<Message<?>> held = state.drain();
+        for (Message<?> message : held) {
+            clientOutboundChannel.send(message);
+        }
+    }
+
+    private void sweep() {
+        try {
+            long now = System.currentTimeMillis();
+            long timeoutMs = outboundProperties.getLaggardTimeout().toMillis();
+            for (SessionState state : sessions.values()) {
+                long since = state.laggingSince;
+                if (since == 0 || now - since < timeoutMs) {
+                    continue;
+                }
+                if (!state.disconnecting) {
+                    disconnect(state, now - since);
+                } else {
+                    // The ERROR frame did not get through either
+                    close(state.session, CloseStatus.SESSION_NOT_RELIABLE);
+                }
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic sweep
+            logger.error("Error checking for slow consumers: {}", e.getMessage(), e);
+        }
+    }
+
+    private void disconnect(SessionState state, long laggingMs) {
+        state.disconnecting = true;
+        state.laggingSince = System.currentTimeMillis();
+        disconnectedCount.incrementAndGet();
+        logger.warn("Disconnecting session {}: lagging for {}ms with {} messages queued",
+                   state.session.getId(), laggingMs, state.backlog.get());
+
+        StompHeaderAccessor error = StompHeaderAccessor.create(StompCommand.ERROR);
+        error.setSessionId(state.session.getId());
+        error.setMessage("Slow consumer: could not keep up for " + laggingMs + "ms");
+        error.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(new byte[0], error.getMessageHeaders()));
+    }
+
+    private static void close(WebSocketSession session, CloseStatus status) {
+        try {
+            if (session.isOpen()) {
+                session.close(status);
+            }
+        } catch (IOException e) {
+            logger.debug("Error closing session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return sessions currently lagging
+     */
+    public int getLaggingCount() {
+        int lagging = 0;
+        for (SessionState state : sessions.values()) {
+            if (state.laggingSince != 0) {
+                lagging++;
+            }
+        }
+        return lagging;
+    }
+
+    /**
+     * @return messages replaced by a newer one while their session lagged
+     */
+    public long getConflatedCount() {
+        return conflatedCount.get();
+    }
+
+    /**
+     * @return sessions disconnected for lagging
+     */
+    public long getDisconnectedCount() {
+        return disconnectedCount.get();
+    }
+
+    /**
+     * Outbound state of one WebSocket session
+     */
+    private static final class SessionState {
+        // Set once, before the state is registered
+        private WebSocketSession session;
+        private final AtomicInteger backlog = new AtomicInteger();
+        // Subscription id -> latest held message; guarded by this
+        private final Map<String, Message<?>> held = new LinkedHashMap<>();
+        private volatile long laggingSince;
+        private volatile boolean disconnecting;
+
+        /**
+         * @return true if an earlier held message was replaced
+         */
+        synchronized boolean hold(String key, Message<?> message) {
+            if (laggingSince == 0) {
+                laggingSince = System.currentTimeMillis();
+            }
+            return held.put(key, message) != null;
+        }
+
+        /**
+         * Take the held messages; the session has caught up
+         */
+        synchronized List<Message<?>> drain() {
+            laggingSince = 0;
+            if (held.isEmpty()) {
+                return List.of();
+            }
+            List<Message<?>> messages = new ArrayList<>(held.values());
+            held.clear();
+            return messages;
+        }
+    }
+
+    /**
+     * Registers each session and hands the broker a session that reports every
+     * message written to the socket
+     */
+    private final class GuardedHandler extends WebSocketHandlerDecorator {
+
+        GuardedHandler(WebSocketHandler delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+            SessionState state = new SessionState();
+            state.session = new GuardedSession(session, state);
+            sessions.put(session.getId(), state);
+            super.afterConnectionEstablished(state.session);
+        }
+
+        @Override
+        public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+            super.handleMessage(guarded(session), message);
+        }
+
+        @Override
+        public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+            super.handleTransportError(guarded(session), exception);
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+            SessionState state = sessions.remove(session.getId());
+            super.afterConnectionClosed(state != null ? state.session : session, closeStatus);
+        }
+
+        private WebSocketSession guarded(WebSocketSession session) {
+            SessionState state = sessions.get(session.getId());
+            return state != null ? state.session : session;
+        }
+    }
+
+    private final class GuardedSession extends WebSocketSessionDecorator {
+        private final SessionState state;
+
+        GuardedSession(WebSocketSession delegate, SessionState state) {
+            super(delegate);
+            this.state = state;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                onSent(state);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.fintech.market.pipeline;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the newest tick per symbol in a slot and hands dirty slots to a flusher.
+ * Unlike a drop-based throttle, the last price of a burst is always published on
+ * the next flush, so subscribers converge to the true last price while outbound
+ * volume stays bounded to one message per symbol per flush.
+ * <p>
+ * Slots are held in an array indexed by {@link com.fintech.market.codec.SymbolRegistry}
+ * id, so an update costs no hashing. Safe for one writer thread and one flushing thread.
+ */
+public class ConflationEngine {
+
+    // Only touched by the writer thread
+    private Slot[] slots = new Slot[1024];
+    private final ConcurrentLinkedQueue<Slot> dirtySlots = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+    private volatile long updateCount;
+    private volatile long conflatedCount;
+
+    /**
+     * Record the latest tick for a symbol
+     * @param symbolId registry id of the symbol
+     * @param symbol the symbol
+     * @param price latest price
+     * @param timestamp market timestamp of the tick
+     * @param sequence sequence number of the tick
+     * @return true if the tick replaced one not yet flushed
+     */
+    public boolean update(int symbolId, String symbol, double price, long timestamp, long sequence) {
+        Slot[] current = slots;
+        if (symbolId >= current.length) {
+            current = Arrays.copyOf(current, Math.max(symbolId + 1, current.length * 2));
+            slots = current;
+        }
+        Slot slot = current[symbolId];
+        if (slot == null) {
+            slot = new Slot(symbolId, symbol);
+            current[symbolId] = slot;
+        }
+        boolean wasDirty;
+        synchronized (slot) {
+            slot.price = price;
+            slot.timestamp = timestamp;
+            slot.sequence = sequence;
+            wasDirty = slot.dirty;
+            slot.dirty = true;
+        }
+        updateCount++;
+        if (wasDirty) {
+            // An unflushed value was overwritten
+            conflatedCount++;
+            return true;
+        }
+        dirtySlots.offer(slot);
+        dirtyCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Hand every symbol updated since the last flush to the handler. Symbols that
+     * become dirty while the flush runs are left for the next one, so a busy writer
+     * cannot keep the flusher spinning.
+     * @param handler receives the newest tick per dirty symbol
+     * @return number of symbols flushed
+     */
+    public int flush(FlushHandler handler) {
+        int pending = dirtyCount.get();
+        int flushed = 0;
+        Slot slot;
+        while (flushed < pending && (slot = dirtySlots.poll()) != null) {
+            dirtyCount.decrementAndGet();
+            double price;
+            long timestamp;
+            long sequence;
+            // Clear together with the read: an update before it is flushed now, one after
+            // it re-queues the slot, and no value is flushed twice
+            synchronized (slot) {
+                slot.dirty = false;
+                price = slot.price;
+                timestamp = slot.timestamp;
+                sequence = slot.sequence;
+            }
+            handler.onFlush(slot.symbolId, slot.symbol, price, timestamp, sequence);
+            flushed++;
+        }
+        return flushed;
+    }
+
+    /**
+     * @return number of symbols waiting for the next flush
+     */
+    public int getDirtyCount() {
+        return dirtyCount.get();
+    }
+
+    /**
+     * @return total updates recorded
+     */
+    public long getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * @return updates that replaced a value before it was flushed
+     */
+    public long getConflatedCount() {
+        return conflatedCount;
+    }
+
+    /**
+     * Receives conflated ticks on flush
+     */
+    @FunctionalInterface
+    public interface FlushHandler {
+        void onFlush(int symbolId, String symbol, double price, long timestamp, long sequence);
+    }
+
+    private static final class Slot {
+        private final int symbolId;
+        private final String symbol;
+        // Value fields and dirty are guarded by the slot
+        private boolean dirty;
+        private double price;
+        private long timestamp;
+        private long sequence;
+
+        Slot(int symbolId, String symbol) {
+            this.symbolId = symbolId;
+            this.symbol = symbol;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.fintech.market.pipeline;
+
+/**
+ * Callback invoked by a {@link StageProcessor} for every event it consumes.
+ */
+@FunctionalInterface
+public interface EventHandler<E> {
+
+    /**
+     * Handle one event
+     * @param event the ring buffer slot, only valid for the duration of the call
+     * @param sequence the event sequence
+     * @param endOfBatch true for the last event currently available to this stage
+     */
+    void onEvent(E event, long sequence, boolean endOfBatch) throws Exception;
+}
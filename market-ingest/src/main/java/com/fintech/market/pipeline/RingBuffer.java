@@ -0,0 +1,105 @@
+package com.fintech.market.pipeline;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Pre-allocated single-producer ring buffer. Slots are created once up front and
+ * reused, so the steady-state hand-off between the feed thread and the stage
+ * processors allocates nothing.
+ * <p>
+ * Only one thread may claim and publish at a time; callers with several writers
+ * must serialize around {@link #tryNext()} / {@link #publish(long)}.
+ */
+public final class RingBuffer<E> {
+
+    private final Object[] entries;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final Sequence cursor = new Sequence();
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    // Producer-side state, only touched by the publishing thread
+    private long nextValue = Sequence.INITIAL_VALUE;
+    private long cachedGatingSequence = Sequence.INITIAL_VALUE;
+
+    public RingBuffer(int bufferSize, Supplier<E> factory, WaitStrategy waitStrategy) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2: " + bufferSize);
+        }
+        this.entries = new Object[bufferSize];
+        this.mask = bufferSize - 1;
+        this.waitStrategy = waitStrategy;
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = factory.get();
+        }
+    }
+
+    /**
+     * Register sequences the producer must not overtake (normally the last stage)
+     * @param sequences consumer sequences
+     */
+    public synchronized void addGatingSequences(Sequence... sequences) {
+        Sequence[] updated = Arrays.copyOf(gatingSequences, gatingSequences.length + sequences.length);
+        System.arraycopy(sequences, 0, updated, gatingSequences.length, sequences.length);
+        gatingSequences = updated;
+    }
+
+    /**
+     * Claim the next slot without waiting
+     * @return the claimed sequence, or -1 if the buffer is full
+     */
+    public long tryNext() {
+        long next = nextValue + 1;
+        long wrapPoint = next - entries.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long minimum = Sequence.minimum(gatingSequences, nextValue);
+            cachedGatingSequence = minimum;
+            if (wrapPoint > minimum) {
+                return -1L;
+            }
+        }
+        nextValue = next;
+        return next;
+    }
+
+    /**
+     * Make a claimed slot visible to the stage processors
+     * @param sequence the sequence returned by {@link #tryNext()}
+     */
+    public void publish(long sequence) {
+        cursor.set(sequence);
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * Get the slot for a sequence
+     * @param sequence the sequence
+     * @return the pre-allocated event in that slot
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    public Sequence getCursor() {
+        return cursor;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public int getBufferSize() {
+        return entries.length;
+    }
+
+    /**
+     * Number of published events not yet consumed by every gating sequence
+     * @return queue depth
+     */
+    public long getDepth() {
+        long produced = cursor.get();
+        return produced - Sequence.minimum(gatingSequences, produced);
+    }
+}
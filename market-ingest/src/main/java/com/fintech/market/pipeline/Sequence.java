@@ -0,0 +1,79 @@
+package com.fintech.market.pipeline;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Cache-line padded sequence counter shared between the ring buffer producer
+ * and its stage processors. Padding keeps hot cursors of different threads on
+ * separate cache lines so they do not false-share.
+ */
+public class Sequence extends SequenceRhsPadding {
+
+    public static final long INITIAL_VALUE = -1L;
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public Sequence() {
+        this(INITIAL_VALUE);
+    }
+
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * Read the sequence with acquire semantics
+     * @return current value
+     */
+    public long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Store the sequence with release semantics, publishing every write made before it
+     * @param value new value
+     */
+    public void set(long value) {
+        VALUE.setRelease(this, value);
+    }
+
+    /**
+     * Find the smallest value among the given sequences
+     * @param sequences sequences to inspect
+     * @param defaultValue value returned when there are no sequences or all are ahead of it
+     * @return minimum sequence value
+     */
+    public static long minimum(Sequence[] sequences, long defaultValue) {
+        long minimum = defaultValue;
+        for (Sequence sequence : sequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
+
+class SequenceLhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+class SequenceValue extends SequenceLhsPadding {
+    protected volatile long value;
+}
+
+class SequenceRhsPadding extends SequenceValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
@@ -0,0 +1,85 @@
+package com.fintech.market.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs one pipeline stage on its own thread. The stage consumes every event
+ * published to the ring buffer once its upstream dependency has processed it,
+ * and advances its own sequence in batches.
+ */
+public final class StageProcessor<E> implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StageProcessor.class);
+
+    private final String name;
+    private final RingBuffer<E> ringBuffer;
+    private final Sequence dependency;
+    private final EventHandler<E> handler;
+    private final Sequence sequence = new Sequence();
+    private volatile boolean running = true;
+
+    /**
+     * @param name stage name, used for logging
+     * @param ringBuffer the ring buffer to consume
+     * @param dependency sequence of the upstream stage, or the ring buffer cursor for the first stage
+     * @param handler event handler
+     */
+    public StageProcessor(String name, RingBuffer<E> ringBuffer, Sequence dependency, EventHandler<E> handler) {
+        this.name = name;
+        this.ringBuffer = ringBuffer;
+        this.dependency = dependency;
+        this.handler = handler;
+    }
+
+    @Override
+    public void run() {
+        WaitStrategy waitStrategy = ringBuffer.getWaitStrategy();
+        long next = sequence.get() + 1;
+
+        while (running) {
+            long available;
+            try {
+                available = waitStrategy.waitFor(next, ringBuffer.getCursor(), dependency, this::isRunning);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            while (next <= available) {
+                try {
+                    handler.onEvent(ringBuffer.get(next), next, next == available);
+                } catch (Exception e) {
+                    // One bad event must not stall the stage
+                    logger.error("Stage {} failed on sequence {}: {}", name, next, e.getMessage(), e);
+                }
+                next++;
+            }
+            if (next - 1 > sequence.get()) {
+                sequence.set(next - 1);
+            }
+        }
+
+        logger.info("Stage {} stopped at sequence {}", name, sequence.get());
+    }
+
+    /**
+     * Ask the stage to stop after its current batch
+     */
+    public void halt() {
+        running = false;
+        ringBuffer.getWaitStrategy().signalAllWhenBlocking();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Sequence getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,111 @@
+package com.fintech.market.pipeline;
+
+import com.fintech.market.codec.MutableTick;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Mutable ring buffer slot carrying one tick through the pipeline stages.
+ * Each stage writes the fields it owns; the slot is reused once the last stage
+ * has consumed it.
+ */
+public final class TickEvent {
+
+    // Written by the feed thread
+    private String payload;
+    private byte[] binaryPayload = new byte[64];
+    private int binaryLength = -1;
+    private boolean decoded;
+    private long receivedNanos;
+
+    // Written by the decode stage
+    private final MutableTick tick = new MutableTick();
+    private boolean valid;
+    private long decodedNanos;
+
+    /**
+     * Reset the slot for a new raw payload
+     * @param payload raw tick payload
+     * @param receivedNanos System.nanoTime() at receipt
+     */
+    public void reset(String payload, long receivedNanos) {
+        this.payload = payload;
+        this.binaryLength = -1;
+        this.decoded = false;
+        this.receivedNanos = receivedNanos;
+        this.valid = false;
+        this.tick.clear();
+    }
+
+    /**
+     * Reset the slot for a binary frame, copying it into the slot's own buffer
+     * so the caller may reuse its buffer as soon as this returns
+     * @param source buffer holding the frame, read with absolute gets
+     * @param offset frame start
+     * @param length frame length
+     * @param receivedNanos System.nanoTime() at receipt
+     */
+    public void reset(ByteBuffer source, int offset, int length, long receivedNanos) {
+        if (binaryPayload.length < length) {
+            binaryPayload = new byte[Math.max(length, binaryPayload.length * 2)];
+        }
+        source.get(offset, binaryPayload, 0, length);
+        this.payload = null;
+        this.binaryLength = length;
+        this.decoded = false;
+        this.receivedNanos = receivedNanos;
+        this.valid = false;
+        this.tick.clear();
+    }
+
+    /**
+     * Reset the slot for a tick already decoded by the feed, copying its fields
+     * @param source decoded tick; its sequence is replaced by the decode stage
+     * @param receivedNanos System.nanoTime() at receipt
+     */
+    public void reset(MutableTick source, long receivedNanos) {
+        this.payload = null;
+        this.binaryLength = -1;
+        this.decoded = true;
+        this.receivedNanos = receivedNanos;
+        this.valid = false;
+        this.tick.set(source.getSymbol(), source.getPrice(), source.getTimestamp());
+        this.tick.setSymbolId(source.getSymbolId());
+    }
+
+    public String getPayload() { return payload; }
+
+    public boolean isBinary() { return binaryLength >= 0; }
+
+    public boolean isDecoded() { return decoded; }
+
+    public byte[] getBinaryPayload() { return binaryPayload; }
+
+    public int getBinaryLength() { return binaryLength; }
+
+    public long getReceivedNanos() { return receivedNanos; }
+
+    public MutableTick getTick() { return tick; }
+
+    public boolean isValid() { return valid; }
+    public void setValid(boolean valid) { this.valid = valid; }
+
+    public long getDecodedNanos() { return decodedNanos; }
+    public void setDecodedNanos(long decodedNanos) { this.decodedNanos = decodedNanos; }
+
+    public String getSymbol() { return tick.getSymbol(); }
+
+    public int getSymbolId() { return tick.getSymbolId(); }
+
+    public double getPrice() { return tick.getPrice(); }
+
+    public long getTimestamp() { return tick.getTimestamp(); }
+
+    public long getSequence() { return tick.getSequence(); }
+
+    @Override
+    public String toString() {
+        return String.format("TickEvent{symbol='%s', price=%.2f, timestamp=%d, valid=%s}",
+                           tick.getSymbol(), tick.getPrice(), tick.getTimestamp(), valid);
+    }
+}
@@ -0,0 +1,500 @@
+package com.fintech.market.pipeline;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.WebSocketClientService;
+import com.fintech.market.bars.BarAggregator;
+import com.fintech.market.book.OrderBookManager;
+import com.fintech.market.codec.BinaryTickCodec;
+import com.fintech.market.codec.BookDecoder;
+import com.fintech.market.codec.MutableBookUpdate;
+import com.fintech.market.codec.MutableTick;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.codec.TickDecoder;
+import com.fintech.market.config.JournalProperties;
+import com.fintech.market.config.PublishProperties;
+import com.fintech.market.history.HistoryStore;
+import com.fintech.market.indicators.IndicatorEngine;
+import com.fintech.market.journal.TickJournal;
+import com.fintech.market.metrics.PipelineMetrics;
+import com.fintech.market.snapshot.LastValueCache;
+import com.fintech.market.watchlist.WatchlistManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decouples the upstream feed from STOMP fan-out. The feed thread only copies the
+ * raw payload into a pre-allocated ring buffer slot; decode and conflate run on
+ * their own stage threads and a flusher publishes the newest tick per symbol on a
+ * fixed cadence, so a slow broker never blocks socket reads. When enabled, the
+ * tick journal and tick history are each written by a further stage that runs
+ * alongside conflate. Order book messages are applied to their book by the decode
+ * stage and go no further.
+ */
+@Component
+public class TickPipeline implements TickSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickPipeline.class);
+
+    @Autowired
+    private PricePublisher pricePublisher;
+
+    @Autowired
+    private PublishProperties publishProperties;
+
+    @Autowired
+    private JournalProperties journalProperties;
+
+    @Autowired
+    private BarAggregator barAggregator;
+
+    @Autowired
+    private IndicatorEngine indicatorEngine;
+
+    @Autowired
+    private HistoryStore historyStore;
+
+    @Autowired
+    private OrderBookManager orderBookManager;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Autowired
+    private LastValueCache lastValueCache;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private WatchlistManager watchlistManager;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${market.pipeline.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${market.pipeline.wait-strategy:sleeping}")
+    private String waitStrategyName;
+
+    @Value("${market.ws.rate-limit.enabled:true}")
+    private boolean conflationEnabled;
+
+    @Value("${market.ws.rate-limit.per-symbol-ms:100}")
+    private long flushIntervalMs;
+
+    private RingBuffer<TickEvent> ringBuffer;
+    private final List<StageProcessor<TickEvent>> stages = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final ConflationEngine conflationEngine = new ConflationEngine();
+    private ScheduledExecutorService flusher;
+
+    // Only touched by the flusher thread
+    private final List<WebSocketClientService.PriceData> batch = new ArrayList<>();
+
+    // Only touched by the decode stage thread; both resolve symbol ids while decoding
+    private TickDecoder decoder;
+    private BinaryTickCodec binaryDecoder;
+    private BookDecoder bookDecoder;
+    private final MutableBookUpdate bookUpdate = new MutableBookUpdate();
+    // Last sequence assigned per symbol id
+    private long[] symbolSequences = new long[1024];
+
+    // Only touched by the journal stage thread
+    private TickJournal journal;
+    private boolean journalFailed;
+
+    // Only touched by the history stage thread
+    private boolean historyFailed;
+
+    private volatile long overflowCount;
+    private volatile long decodeErrorCount;
+
+    @PostConstruct
+    public void start() throws IOException {
+        decoder = new TickDecoder(symbolRegistry);
+        binaryDecoder = new BinaryTickCodec(symbolRegistry);
+        bookDecoder = new BookDecoder(symbolRegistry);
+        ringBuffer = new RingBuffer<>(bufferSize, TickEvent::new, WaitStrategy.fromName(waitStrategyName));
+
+        StageProcessor<TickEvent> decode =
+            new StageProcessor<>("decode", ringBuffer, ringBuffer.getCursor(), this::decode);
+        StageProcessor<TickEvent> conflate =
+            new StageProcessor<>("conflate", ringBuffer, decode.getSequence(), this::conflate);
+        ringBuffer.addGatingSequences(conflate.getSequence());
+        stages.add(decode);
+        stages.add(conflate);
+
+        if (journalProperties.isEnabled()) {
+            journal = new TickJournal(
+                Paths.get(journalProperties.getDirectory()),
+                journalProperties.getSegmentSize().toBytes(),
+                journalProperties.getRollInterval(),
+                journalProperties.getRetentionSize().toBytes(),
+                journalProperties.getRetentionTime()
+            );
+            // Runs alongside conflate, so journaling never delays publishing
+            StageProcessor<TickEvent> journalStage =
+                new StageProcessor<>("journal", ringBuffer, decode.getSequence(), this::journal);
+            ringBuffer.addGatingSequences(journalStage.getSequence());
+            stages.add(journalStage);
+            // Continue each symbol's sequence from the journal, so resuming clients survive a restart
+            journal.getLastSequences().forEach((symbol, lastSequence) -> {
+                int symbolId = symbolRegistry.idOf(symbol);
+                ensureSequenceCapacity(symbolId);
+                symbolSequences[symbolId] = lastSequence;
+            });
+        }
+
+        if (historyStore.isEnabled()) {
+            StageProcessor<TickEvent> historyStage =
+                new StageProcessor<>("history", ringBuffer, decode.getSequence(), this::history);
+            ringBuffer.addGatingSequences(historyStage.getSequence());
+            stages.add(historyStage);
+        }
+
+        for (StageProcessor<TickEvent> stage : stages) {
+            Thread thread = new Thread(stage, "tick-" + stage.getName());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        if (!conflationEnabled && publishProperties.isBatchPublishing()) {
+            logger.warn("Batch publishing requires conflation (market.ws.rate-limit.enabled); publishing per symbol");
+        }
+        if (!conflationEnabled) {
+            logger.warn("Session watchlists are sent per flush and need conflation (market.ws.rate-limit.enabled)");
+        }
+        if (conflationEnabled) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "tick-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleAtFixedRate(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+
+        if (meterRegistry != null) {
+            Gauge.builder("market.pipeline.queue.depth", this, TickPipeline::getQueueDepth)
+                .description("Ticks received but not yet conflated")
+                .register(meterRegistry);
+            Gauge.builder("market.pipeline.overflow", this, TickPipeline::getOverflowCount)
+                .description("Ticks dropped because the ring buffer was full")
+                .register(meterRegistry);
+            Gauge.builder("market.pipeline.decode.errors", this, TickPipeline::getDecodeErrorCount)
+                .description("Ticks that could not be decoded")
+                .register(meterRegistry);
+            Gauge.builder("market.pipeline.conflated", conflationEngine, ConflationEngine::getConflatedCount)
+                .description("Ticks replaced by a newer tick before they were published")
+                .register(meterRegistry);
+            Gauge.builder("market.publish.skipped", pricePublisher, PricePublisher::getSkippedCount)
+                .description("Prices not sent because no session subscribed to their topics")
+                .register(meterRegistry);
+            if (journal != null) {
+                Gauge.builder("market.journal.records", journal, TickJournal::getRecordCount)
+                    .description("Ticks written to the journal since startup")
+                    .register(meterRegistry);
+            }
+        }
+
+        logger.info("Started tick pipeline with buffer size {}, {} wait strategy, conflation {}",
+                   bufferSize, waitStrategyName, conflationEnabled ? "every " + flushIntervalMs + "ms" : "disabled");
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (StageProcessor<TickEvent> stage : stages) {
+            stage.halt();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        logger.info("Stopped tick pipeline");
+    }
+
+    /**
+     * Hand a raw tick payload to the pipeline. Never blocks: when the ring buffer
+     * is full the tick is dropped and counted.
+     * @param payload raw JSON tick
+     * @return true if the tick was accepted
+     */
+    @Override
+    public synchronized boolean submit(String payload) {
+        long sequence = ringBuffer.tryNext();
+        if (sequence < 0) {
+            overflowCount++;
+            pipelineMetrics.onDropped(-1, null);
+            logger.debug("Tick pipeline full, dropped tick ({} total)", overflowCount);
+            return false;
+        }
+        ringBuffer.get(sequence).reset(payload, System.nanoTime());
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Hand a binary payload to the pipeline, one ring buffer slot per frame.
+     * The frames are copied, so the caller may reuse the buffer afterwards.
+     * @param payload one or more binary frames, see {@link BinaryTickCodec}
+     * @return true if every frame was accepted
+     */
+    @Override
+    public synchronized boolean submit(ByteBuffer payload) {
+        long receivedNanos = System.nanoTime();
+        int offset = payload.position();
+        while (offset < payload.limit()) {
+            int length = BinaryTickCodec.frameLength(payload, offset);
+            if (length < 0 || offset + length > payload.limit()) {
+                decodeErrorCount++;
+                pipelineMetrics.onDecodeFailed();
+                logger.debug("Dropped malformed binary payload at offset {}", offset);
+                return false;
+            }
+            long sequence = ringBuffer.tryNext();
+            if (sequence < 0) {
+                overflowCount++;
+                pipelineMetrics.onDropped(-1, null);
+                logger.debug("Tick pipeline full, dropped binary frame ({} total)", overflowCount);
+                return false;
+            }
+            ringBuffer.get(sequence).reset(payload, offset, length, receivedNanos);
+            ringBuffer.publish(sequence);
+            offset += length;
+        }
+        return true;
+    }
+
+    /**
+     * Hand a tick already decoded on the caller's thread to the pipeline, for feeds
+     * that decode on their own threads. Never blocks: when the ring buffer is full the
+     * tick is dropped and counted.
+     * @param tick decoded tick with its symbol id resolved; copied, so the caller may reuse it
+     * @return true if the tick was accepted
+     */
+    public synchronized boolean submit(MutableTick tick) {
+        long sequence = ringBuffer.tryNext();
+        if (sequence < 0) {
+            overflowCount++;
+            pipelineMetrics.onDropped(tick.getSymbolId(), tick.getSymbol());
+            logger.debug("Tick pipeline full, dropped decoded tick ({} total)", overflowCount);
+            return false;
+        }
+        ringBuffer.get(sequence).reset(tick, System.nanoTime());
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Decode stage: parse the raw payload into tick fields, then stamp the tick with
+     * the next sequence of its symbol. JSON ticks carry no sequence and binary sequences
+     * are scoped to the sender, so this is what subscribers order, dedupe and resume by.
+     */
+    private void decode(TickEvent event, long sequence, boolean endOfBatch) {
+        boolean valid;
+        if (event.isDecoded()) {
+            valid = true;
+        } else if (event.isBinary()) {
+            valid = binaryDecoder.decode(event.getBinaryPayload(), 0, event.getBinaryLength(), event.getTick());
+            if (!valid && binaryDecoder.getLastError() != null) {
+                decodeErrorCount++;
+                pipelineMetrics.onDecodeFailed();
+                logger.debug("Dropped undecodable binary frame: {}", binaryDecoder.getLastError());
+            }
+        } else if (BookDecoder.isBook(event.getPayload())) {
+            valid = false;
+            decodeBook(event.getPayload());
+        } else {
+            valid = decoder.decode(event.getPayload(), event.getTick());
+            if (!valid) {
+                decodeErrorCount++;
+                pipelineMetrics.onDecodeFailed();
+                logger.debug("Dropped undecodable tick ({}): {}", decoder.getLastError(), event.getPayload());
+            }
+        }
+        event.setValid(valid);
+        if (valid) {
+            int symbolId = event.getSymbolId();
+            ensureSequenceCapacity(symbolId);
+            event.getTick().setSequence(++symbolSequences[symbolId]);
+            long decodedNanos = System.nanoTime();
+            event.setDecodedNanos(decodedNanos);
+            pipelineMetrics.onDecoded(event.getSymbolId(), event.getSymbol(), event.getTimestamp(),
+                                      event.getReceivedNanos(), decodedNanos);
+        }
+    }
+
+    private void decodeBook(String payload) {
+        if (!orderBookManager.isEnabled()) {
+            return;
+        }
+        if (bookDecoder.decode(payload, bookUpdate)) {
+            orderBookManager.apply(bookUpdate);
+        } else {
+            decodeErrorCount++;
+            pipelineMetrics.onDecodeFailed();
+            logger.debug("Dropped undecodable book message ({}): {}", bookDecoder.getLastError(), payload);
+        }
+    }
+
+    /**
+     * Conflate stage: feed every tick to the bar aggregator and indicators, then keep the newest
+     * tick per symbol for the next flush, or publish straight away when conflation
+     * is disabled
+     */
+    private void conflate(TickEvent event, long sequence, boolean endOfBatch) {
+        if (!event.isValid()) {
+            return;
+        }
+        int symbolId = event.getSymbolId();
+        barAggregator.onTick(symbolId, event.getSymbol(), event.getPrice(), event.getTimestamp());
+        indicatorEngine.onTick(symbolId, event.getSymbol(), event.getPrice(), event.getTimestamp());
+        boolean replaced = false;
+        if (conflationEnabled) {
+            replaced = conflationEngine.update(symbolId, event.getSymbol(), event.getPrice(), event.getTimestamp(), event.getSequence());
+        }
+        pipelineMetrics.onConflated(symbolId, event.getSymbol(), event.getDecodedNanos(), replaced);
+        if (!conflationEnabled) {
+            publish(symbolId, event.getSymbol(), event.getPrice(), event.getTimestamp(), event.getSequence());
+        }
+    }
+
+    /**
+     * Journal stage: append every decoded tick to the tick journal
+     */
+    private void journal(TickEvent event, long sequence, boolean endOfBatch) {
+        if (!event.isValid() || journalFailed) {
+            return;
+        }
+        try {
+            journal.append(event.getSymbol(), event.getSequence(), event.getPrice(), event.getTimestamp());
+        } catch (UncheckedIOException e) {
+            // Typically a full disk; stop journaling rather than failing every tick
+            journalFailed = true;
+            logger.error("Tick journal disabled after write failure: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * History stage: append every decoded tick to the compressed tick history
+     */
+    private void history(TickEvent event, long sequence, boolean endOfBatch) {
+        if (!event.isValid() || historyFailed) {
+            return;
+        }
+        try {
+            historyStore.append(event.getSymbolId(), event.getSymbol(), event.getPrice(), event.getTimestamp());
+        } catch (UncheckedIOException e) {
+            historyFailed = true;
+            logger.error("Tick history disabled after write failure: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Flush the newest tick of every symbol updated since the last flush, as
+     * individual frames, one batch frame, or both depending on the publish mode,
+     * plus one frame per session watchlist
+     */
+    private void flush() {
+        try {
+            int flushed;
+            if (publishProperties.isBatchPublishing() || watchlistManager.hasWatchlists()) {
+                flushed = conflationEngine.flush(this::addToBatch);
+                if (publishProperties.isBatchPublishing()) {
+                    long startNanos = System.nanoTime();
+                    pricePublisher.publishPriceBatch(batch);
+                    pipelineMetrics.onBatchPublished(startNanos);
+                }
+                watchlistManager.publish(batch);
+            } else {
+                flushed = conflationEngine.flush(this::publish);
+            }
+            if (flushed > 0) {
+                logger.debug("Flushed {} conflated symbols", flushed);
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic flush
+            logger.error("Error flushing conflated ticks: {}", e.getMessage(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void ensureSequenceCapacity(int symbolId) {
+        if (symbolId >= symbolSequences.length) {
+            symbolSequences = Arrays.copyOf(symbolSequences, Math.max(symbolId + 1, symbolSequences.length * 2));
+        }
+    }
+
+    private void addToBatch(int symbolId, String symbol, double price, long timestamp, long sequence) {
+        WebSocketClientService.PriceData priceData =
+            new WebSocketClientService.PriceData(symbol, symbolId, price, timestamp, sequence);
+        lastValueCache.update(symbolId, symbol, price, timestamp, sequence);
+        batch.add(priceData);
+        if (publishProperties.isSinglePublishing()) {
+            long startNanos = System.nanoTime();
+            pricePublisher.publishPrice(priceData);
+            pipelineMetrics.onPublished(timestamp, startNanos);
+        }
+    }
+
+    private void publish(int symbolId, String symbol, double price, long timestamp, long sequence) {
+        lastValueCache.update(symbolId, symbol, price, timestamp, sequence);
+        long startNanos = System.nanoTime();
+        pricePublisher.publishPrice(new WebSocketClientService.PriceData(symbol, symbolId, price, timestamp, sequence));
+        pipelineMetrics.onPublished(timestamp, startNanos);
+    }
+
+    /**
+     * @return ticks accepted but not yet through the conflate stage
+     */
+    public long getQueueDepth() {
+        return ringBuffer == null ? 0 : ringBuffer.getDepth();
+    }
+
+    /**
+     * @return ticks dropped because the ring buffer was full
+     */
+    public long getOverflowCount() {
+        return overflowCount;
+    }
+
+    /**
+     * @return ticks that could not be decoded
+     */
+    public long getDecodeErrorCount() {
+        return decodeErrorCount;
+    }
+
+    public ConflationEngine getConflationEngine() {
+        return conflationEngine;
+    }
+}
@@ -0,0 +1,22 @@
+package com.fintech.market.pipeline;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Accepts raw ticks exactly as an upstream provider sends them.
+ */
+public interface TickSink {
+
+    /**
+     * @param payload JSON tick
+     * @return true if the tick was accepted
+     */
+    boolean submit(String payload);
+
+    /**
+     * @param payload one or more binary frames, see {@link com.fintech.market.codec.BinaryTickCodec};
+     *                may be reused by the caller once this returns
+     * @return true if every frame was accepted
+     */
+    boolean submit(ByteBuffer payload);
+}
@@ -0,0 +1,187 @@
+package com.fintech.market.pipeline;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Strategy used by stage processors to wait for the next available sequence.
+ * Trades CPU usage against hand-off latency.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Wait until the given sequence is available from the upstream dependency
+     * @param sequence the sequence the caller wants to consume
+     * @param cursor the ring buffer producer cursor
+     * @param dependency the sequence of the upstream stage (the cursor for the first stage)
+     * @param running returns false once the caller has been halted
+     * @return the highest available sequence, or a value below {@code sequence} when halted
+     */
+    long waitFor(long sequence, Sequence cursor, Sequence dependency, BooleanSupplier running)
+            throws InterruptedException;
+
+    /**
+     * Wake up any stage blocked in {@link #waitFor}. Called by the producer after each publish.
+     */
+    void signalAllWhenBlocking();
+
+    /**
+     * Resolve a wait strategy from its configuration name
+     * @param name one of busy-spin, yielding, sleeping, blocking
+     * @return wait strategy instance
+     */
+    static WaitStrategy fromName(String name) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "busy-spin":
+                return new BusySpinWaitStrategy();
+            case "yielding":
+                return new YieldingWaitStrategy();
+            case "sleeping":
+                return new SleepingWaitStrategy();
+            case "blocking":
+                return new BlockingWaitStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        }
+    }
+
+    /**
+     * Spins on the dependency. Lowest latency, burns a full core per stage.
+     */
+    class BusySpinWaitStrategy implements WaitStrategy {
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence dependency, BooleanSupplier running) {
+            long available;
+            while ((available = dependency.get()) < sequence) {
+                if (!running.getAsBoolean()) {
+                    return available;
+                }
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            // Nothing to signal
+        }
+    }
+
+    /**
+     * Spins briefly, then yields the CPU to other threads between checks.
+     */
+    class YieldingWaitStrategy implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence dependency, BooleanSupplier running) {
+            int counter = SPIN_TRIES;
+            long available;
+            while ((available = dependency.get()) < sequence) {
+                if (!running.getAsBoolean()) {
+                    return available;
+                }
+                if (counter > 0) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            // Nothing to signal
+        }
+    }
+
+    /**
+     * Spins, then yields, then parks for a short period. Good default for a
+     * shared host: near-zero CPU when idle, tens of microseconds of wake-up latency.
+     */
+    class SleepingWaitStrategy implements WaitStrategy {
+        private static final int RETRIES = 200;
+        private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence dependency, BooleanSupplier running) {
+            int counter = RETRIES;
+            long available;
+            while ((available = dependency.get()) < sequence) {
+                if (!running.getAsBoolean()) {
+                    return available;
+                }
+                if (counter > 100) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else if (counter > 0) {
+                    counter--;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            // Sleepers wake up on their own
+        }
+    }
+
+    /**
+     * Blocks on a condition until the producer publishes. Lowest CPU usage,
+     * highest hand-off latency since every publish takes a lock.
+     */
+    class BlockingWaitStrategy implements WaitStrategy {
+        private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence dependency, BooleanSupplier running)
+                throws InterruptedException {
+            if (cursor.get() < sequence) {
+                lock.lock();
+                try {
+                    while (cursor.get() < sequence) {
+                        if (!running.getAsBoolean()) {
+                            return dependency.get();
+                        }
+                        published.awaitNanos(MAX_WAIT_NANOS);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            // The producer has published; upstream stages are only ever briefly behind it
+            long available;
+            while ((available = dependency.get()) < sequence) {
+                if (!running.getAsBoolean()) {
+                    return available;
+                }
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.fintech.market.replay;
+
+import com.fintech.market.codec.MutableTick;
+import com.fintech.market.codec.TickDecoder;
+import com.fintech.market.journal.JournalReader;
+import com.fintech.market.journal.JournalRecord;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Recorded ticks in file order, each rendered as the JSON text a provider would send
+ */
+interface ReplaySource extends Closeable {
+
+    /**
+     * @return the next tick as JSON, or null at the end of the recording
+     */
+    String next() throws IOException;
+
+    /**
+     * @return market timestamp of the tick last returned by {@link #next}
+     */
+    long timestamp();
+
+    /**
+     * Open a recording: a {@link com.fintech.market.journal.TickJournal} directory or
+     * a file with one JSON tick per line
+     * @param path recording location
+     */
+    static ReplaySource open(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            return new JournalSource(path);
+        }
+        return new JsonLinesSource(path);
+    }
+
+    /**
+     * Reads the segments of a tick journal
+     */
+    final class JournalSource implements ReplaySource {
+        private final JournalReader reader;
+        private final JournalRecord record = new JournalRecord();
+        private final StringBuilder json = new StringBuilder(96);
+
+        JournalSource(Path directory) throws IOException {
+            this.reader = new JournalReader(directory);
+        }
+
+        @Override
+        public String next() throws IOException {
+            if (!reader.next(record)) {
+                return null;
+            }
+            json.setLength(0);
+            json.append("{\"symbol\":\"");
+            String symbol = record.getSymbol();
+            for (int i = 0; i < symbol.length(); i++) {
+                char c = symbol.charAt(i);
+                if (c == '"' || c == '\\') {
+                    json.append('\\');
+                }
+                json.append(c);
+            }
+            json.append("\",\"price\":").append(record.getPrice())
+                .append(",\"ts\":").append(record.getMarketTimestamp()).append('}');
+            return json.toString();
+        }
+
+        @Override
+        public long timestamp() {
+            return record.getMarketTimestamp();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads a JSON lines capture; lines that do not decode are still replayed, keeping
+     * the previous timestamp, so the pipeline sees exactly what was recorded
+     */
+    final class JsonLinesSource implements ReplaySource {
+        private final BufferedReader reader;
+        private final TickDecoder decoder = new TickDecoder();
+        private final MutableTick tick = new MutableTick();
+        private long timestamp;
+
+        JsonLinesSource(Path file) throws IOException {
+            this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            if (decoder.decode(line, tick)) {
+                timestamp = tick.getTimestamp();
+            }
+            return line;
+        }
+
+        @Override
+        public long timestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.fintech.market.replay;
+
+import java.util.Locale;
+
+/**
+ * Pacing of a tick replay relative to the recorded market timestamps:
+ * {@code realtime}, an accelerated factor such as {@code 10x}, or {@code max}
+ * for as fast as the pipeline accepts ticks.
+ */
+public final class ReplaySpeed {
+
+    public static final ReplaySpeed REALTIME = new ReplaySpeed(1.0);
+    public static final ReplaySpeed MAX = new ReplaySpeed(Double.POSITIVE_INFINITY);
+
+    private final double factor;
+
+    private ReplaySpeed(double factor) {
+        this.factor = factor;
+    }
+
+    /**
+     * Create an accelerated speed
+     * @param factor replay time divisor, must be positive
+     */
+    public static ReplaySpeed of(double factor) {
+        if (!(factor > 0.0)) {
+            throw new IllegalArgumentException("Replay speed factor must be positive: " + factor);
+        }
+        return factor == 1.0 ? REALTIME : new ReplaySpeed(factor);
+    }
+
+    /**
+     * Parse a configured speed
+     * @param value realtime, max, or a factor such as 10x or 0.5
+     */
+    public static ReplaySpeed parse(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        switch (normalized) {
+            case "realtime":
+                return REALTIME;
+            case "max":
+                return MAX;
+            default:
+                if (normalized.endsWith("x")) {
+                    normalized = normalized.substring(0, normalized.length() - 1);
+                }
+                try {
+                    return of(Double.parseDouble(normalized));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Unknown replay speed: " + value);
+                }
+        }
+    }
+
+    /**
+     * Wall-clock nanos at which a tick recorded the given millis after the first one is due
+     * @param elapsedMillis market time since the first replayed tick
+     */
+    long delayNanos(long elapsedMillis) {
+        return (long) (elapsedMillis * 1_000_000.0 / factor);
+    }
+
+    public boolean isUnbounded() { return factor == Double.POSITIVE_INFINITY; }
+    public double getFactor() { return factor; }
+
+    @Override
+    public String toString() {
+        return isUnbounded() ? "max" : factor == 1.0 ? "realtime" : factor + "x";
+    }
+}
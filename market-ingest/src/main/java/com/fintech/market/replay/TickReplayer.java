@@ -0,0 +1,113 @@
+package com.fintech.market.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Streams a recorded tick file into a sink, paced by the recorded market timestamps.
+ * The schedule is anchored at the first tick, so a sink that falls behind catches up
+ * at full speed instead of drifting; out-of-order timestamps are replayed immediately.
+ */
+public class TickReplayer implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickReplayer.class);
+
+    /** Upper bound of a single park so {@link #stop()} is seen promptly during long gaps */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Path path;
+    private final ReplaySpeed speed;
+    private final boolean loop;
+    private final Consumer<String> sink;
+
+    private volatile boolean running = true;
+    private volatile long replayedCount;
+    private volatile int passCount;
+
+    /**
+     * @param path tick journal directory or JSON lines file
+     * @param speed pacing relative to the recording
+     * @param loop restart from the beginning at the end of the recording
+     * @param sink receives each tick as JSON
+     */
+    public TickReplayer(Path path, ReplaySpeed speed, boolean loop, Consumer<String> sink) {
+        this.path = path;
+        this.speed = speed;
+        this.loop = loop;
+        this.sink = sink;
+    }
+
+    @Override
+    public void run() {
+        logger.info("Replaying {} at {} speed{}", path, speed, loop ? ", looping" : "");
+        try {
+            do {
+                long startNanos = System.nanoTime();
+                long count = replayOnce();
+                passCount++;
+                long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                logger.info("Replayed {} ticks from {} in {} ms ({} ticks/s)",
+                           count, path, elapsedMillis, count * 1000L / elapsedMillis);
+                if (count == 0) {
+                    break;
+                }
+            } while (loop && running);
+        } catch (IOException e) {
+            logger.error("Replay of {} failed: {}", path, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replay the recording once from the beginning
+     * @return number of ticks handed to the sink
+     */
+    private long replayOnce() throws IOException {
+        long count = 0L;
+        try (ReplaySource source = ReplaySource.open(path)) {
+            long baseNanos = System.nanoTime();
+            long baseTimestamp = Long.MIN_VALUE;
+            long latestTimestamp = Long.MIN_VALUE;
+            String tick;
+            while (running && (tick = source.next()) != null) {
+                if (!speed.isUnbounded()) {
+                    long timestamp = source.timestamp();
+                    if (baseTimestamp == Long.MIN_VALUE) {
+                        baseTimestamp = timestamp;
+                    }
+                    if (timestamp > latestTimestamp) {
+                        latestTimestamp = timestamp;
+                    }
+                    awaitUntil(baseNanos + speed.delayNanos(latestTimestamp - baseTimestamp));
+                }
+                sink.accept(tick);
+                replayedCount++;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void awaitUntil(long deadlineNanos) {
+        long remaining;
+        while (running && (remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+        }
+    }
+
+    /**
+     * Stop after the current tick
+     */
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() { return running; }
+    public long getReplayedCount() { return replayedCount; }
+    public int getPassCount() { return passCount; }
+}
@@ -0,0 +1,152 @@
+package com.fintech.market.snapshot;
+
+import com.fintech.market.codec.SymbolRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Latest published price of every symbol, held in primitive arrays indexed by
+ * {@link SymbolRegistry} id. Each slot is a seqlock: the writer makes the slot
+ * version odd, writes the fields, then makes it even again; a reader retries while
+ * the version is odd or changed under it. Reads never block the writer and allocate
+ * nothing. Safe for one writer thread and any number of readers.
+ */
+@Component
+public class LastValueCache {
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle VERSION = MethodHandles.arrayElementVarHandle(long[].class);
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    // Slots live in fixed-size chunks so growing never moves a slot a reader may be on
+    private volatile Chunk[] chunks = new Chunk[16];
+
+    /**
+     * Record the latest published tick of a symbol. Called from a single thread.
+     * @param symbolId registry id of the symbol, or -1 to look it up
+     * @param symbol the symbol
+     * @param price published price
+     * @param timestamp market timestamp of the tick
+     * @param sequence sequence number of the tick
+     */
+    public void update(int symbolId, String symbol, double price, long timestamp, long sequence) {
+        if (symbolId < 0) {
+            symbolId = symbolRegistry.idOf(symbol);
+        }
+        Chunk chunk = chunkFor(symbolId);
+        int slot = symbolId & CHUNK_MASK;
+        long version = chunk.versions[slot];
+        VERSION.setOpaque(chunk.versions, slot, version + 1);
+        VarHandle.storeStoreFence();
+        chunk.prices[slot] = price;
+        chunk.timestamps[slot] = timestamp;
+        chunk.sequences[slot] = sequence;
+        VERSION.setRelease(chunk.versions, slot, version + 2);
+    }
+
+    /**
+     * Read the latest price of a symbol
+     * @param symbol the symbol
+     * @param entry filled with the latest values
+     * @return false if no price has been published for the symbol
+     */
+    public boolean read(String symbol, Entry entry) {
+        int symbolId = symbolRegistry.find(symbol);
+        return symbolId >= 0 && read(symbolId, symbol, entry);
+    }
+
+    /**
+     * Read the latest price of a symbol for a resuming client, unless the client already
+     * applied it. Any other sequence counts as missed: a lower one means updates were
+     * missed, a higher one that sequences restarted with the service.
+     * @param symbol the symbol
+     * @param lastSequence sequence of the last message the client applied for the symbol
+     * @param entry filled with the latest values
+     * @return false if no price has been published for the symbol or the client is up to date
+     */
+    public boolean readChanged(String symbol, long lastSequence, Entry entry) {
+        return read(symbol, entry) && entry.sequence != lastSequence;
+    }
+
+    /**
+     * Read the latest price of a symbol
+     * @param symbolId registry id of the symbol
+     * @param symbol the symbol, copied into the entry
+     * @param entry filled with the latest values
+     * @return false if no price has been published for the symbol
+     */
+    public boolean read(int symbolId, String symbol, Entry entry) {
+        Chunk[] all = chunks;
+        int index = symbolId >>> CHUNK_SHIFT;
+        if (symbolId < 0 || index >= all.length || all[index] == null) {
+            return false;
+        }
+        Chunk chunk = all[index];
+        int slot = symbolId & CHUNK_MASK;
+        while (true) {
+            long before = (long) VERSION.getAcquire(chunk.versions, slot);
+            if (before == 0) {
+                return false;
+            }
+            if ((before & 1) == 0) {
+                double price = chunk.prices[slot];
+                long timestamp = chunk.timestamps[slot];
+                long sequence = chunk.sequences[slot];
+                VarHandle.loadLoadFence();
+                if ((long) VERSION.getOpaque(chunk.versions, slot) == before) {
+                    entry.symbol = symbol;
+                    entry.price = price;
+                    entry.marketTimestamp = timestamp;
+                    entry.sequence = sequence;
+                    return true;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private Chunk chunkFor(int symbolId) {
+        int index = symbolId >>> CHUNK_SHIFT;
+        Chunk[] all = chunks;
+        if (index < all.length && all[index] != null) {
+            return all[index];
+        }
+        if (index >= all.length) {
+            all = Arrays.copyOf(all, Math.max(index + 1, all.length * 2));
+        }
+        Chunk chunk = new Chunk();
+        all[index] = chunk;
+        chunks = all;
+        return chunk;
+    }
+
+    private static final class Chunk {
+        final long[] versions = new long[CHUNK_SIZE];
+        final double[] prices = new double[CHUNK_SIZE];
+        final long[] timestamps = new long[CHUNK_SIZE];
+        final long[] sequences = new long[CHUNK_SIZE];
+    }
+
+    /**
+     * Reusable holder for one cached price
+     */
+    public static class Entry {
+        private String symbol;
+        private double price;
+        private long marketTimestamp;
+        private long sequence;
+
+        public String getSymbol() { return symbol; }
+        public double getPrice() { return price; }
+        public long getMarketTimestamp() { return marketTimestamp; }
+        public long getSequence() { return sequence; }
+    }
+}
@@ -0,0 +1,133 @@
+package com.fintech.market.snapshot;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fintech.market.codec.SymbolRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST access to the last published price of many symbols in one call, for clients
+ * that need current prices without waiting for the next tick on every symbol
+ */
+@RestController
+@RequestMapping("/api/prices")
+public class PriceSnapshotController {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    private LastValueCache lastValueCache;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    /**
+     * Latest prices, streamed straight from the cache to the response
+     * @param symbols comma-separated symbols; every known symbol if omitted
+     * @return {"timestamp":..., "prices":[...], "missing":[...]} where missing lists
+     *         requested symbols that have no price yet
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<StreamingResponseBody> getSnapshot(@RequestParam(name = "symbols", required = false) List<String> symbols) {
+        StreamingResponseBody body = out -> writeSnapshot(symbols, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Catch-up for a reconnecting client: the latest price of each symbol it missed
+     * updates for, and nothing for symbols it is up to date on
+     * @param lastSequences sequence of the last message the client applied per symbol
+     * @return {"timestamp":..., "prices":[...], "missing":[...]} as for the snapshot
+     */
+    @PostMapping("/resume")
+    public ResponseEntity<StreamingResponseBody> resume(@RequestBody Map<String, Long> lastSequences) {
+        StreamingResponseBody body = out -> writeResume(lastSequences, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    void writeResume(Map<String, Long> lastSequences, OutputStream out) throws IOException {
+        LastValueCache.Entry entry = new LastValueCache.Entry();
+        List<String> missing = new ArrayList<>();
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("timestamp", System.currentTimeMillis());
+            json.writeArrayFieldStart("prices");
+            for (Map.Entry<String, Long> last : lastSequences.entrySet()) {
+                String symbol = last.getKey().trim();
+                if (!lastValueCache.read(symbol, entry)) {
+                    if (!symbol.isEmpty()) {
+                        missing.add(symbol);
+                    }
+                } else if (last.getValue() == null || last.getValue() != entry.getSequence()) {
+                    writeEntry(json, entry);
+                }
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("missing");
+            for (String symbol : missing) {
+                json.writeString(symbol);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    void writeSnapshot(List<String> symbols, OutputStream out) throws IOException {
+        LastValueCache.Entry entry = new LastValueCache.Entry();
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("timestamp", System.currentTimeMillis());
+            json.writeArrayFieldStart("prices");
+            if (symbols == null) {
+                int count = symbolRegistry.size();
+                for (int id = 0; id < count; id++) {
+                    if (lastValueCache.read(id, symbolRegistry.symbolOf(id), entry)) {
+                        writeEntry(json, entry);
+                    }
+                }
+                json.writeEndArray();
+            } else {
+                List<String> missing = new ArrayList<>();
+                for (String symbol : symbols) {
+                    symbol = symbol.trim();
+                    if (lastValueCache.read(symbol, entry)) {
+                        writeEntry(json, entry);
+                    } else if (!symbol.isEmpty()) {
+                        missing.add(symbol);
+                    }
+                }
+                json.writeEndArray();
+                json.writeArrayFieldStart("missing");
+                for (String symbol : missing) {
+                    json.writeString(symbol);
+                }
+                json.writeEndArray();
+            }
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeEntry(JsonGenerator json, LastValueCache.Entry entry) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("symbol", entry.getSymbol());
+        json.writeNumberField("price", entry.getPrice());
+        json.writeNumberField("marketTimestamp", entry.getMarketTimestamp());
+        json.writeNumberField("sequence", entry.getSequence());
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,143 @@
+package com.fintech.market.snapshot;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.config.PublishProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the cached last price to every new /topic/price/{symbol} subscription, so a
+ * client sees a price one round-trip after subscribing instead of at the next tick.
+ * <p>
+ * The snapshot is read only after the broker has registered the subscription. The
+ * cache is updated before a tick is published, so any tick missing from the snapshot
+ * reaches the subscriber live: there is no gap. A live message may still arrive
+ * alongside the snapshot with the same or a newer sequence, and subscribers drop any
+ * message whose sequence is not newer than the last one they applied.
+ * SessionSubscribeEvent is not used as the trigger because it fires once the SUBSCRIBE
+ * frame is queued, before the broker has handled it.
+ * <p>
+ * A reconnecting client resumes by sending the sequence of the last message it applied
+ * in a last-sequence header. It then gets the cached price only if it missed updates,
+ * whether or not snapshot-on-subscribe is enabled.
+ */
+@Component
+public class SnapshotOnSubscribeInterceptor implements ExecutorChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotOnSubscribeInterceptor.class);
+
+    public static final String LAST_SEQUENCE_HEADER = "last-sequence";
+
+    @Autowired
+    private LastValueCache lastValueCache;
+
+    @Autowired
+    private PublishProperties publishProperties;
+
+    // Both are created by the broker configuration that registers this interceptor
+    @Lazy
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    @Lazy
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private volatile long snapshotCount;
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof AbstractBrokerMessageHandler)) {
+            return;
+        }
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) {
+            return;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !destination.startsWith(PricePublisher.PRICE_TOPIC_PREFIX)) {
+            return;
+        }
+        Long lastSequence = parseSequence(SimpMessageHeaderAccessor.wrap(message).getFirstNativeHeader(LAST_SEQUENCE_HEADER));
+        if (lastSequence == null && !publishProperties.isSnapshotOnSubscribe()) {
+            return;
+        }
+        try {
+            sendSnapshot(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()),
+                         SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()),
+                         destination, lastSequence);
+        } catch (Exception e) {
+            logger.error("Error sending snapshot for {}: {}", destination, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse a sequence header
+     * @return the sequence, or null if the header is missing or not a number
+     */
+    public static Long parseSequence(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring invalid sequence header: {}", header);
+            return null;
+        }
+    }
+
+    /**
+     * Send the cached price of the destination's symbol to one subscription only,
+     * bypassing the broker so other subscribers do not see it again
+     * @param lastSequence sequence the resuming client last applied, or null for a new client
+     */
+    private void sendSnapshot(String sessionId, String subscriptionId, String destination, Long lastSequence) {
+        String symbol = destination.substring(PricePublisher.PRICE_TOPIC_PREFIX.length());
+        LastValueCache.Entry entry = new LastValueCache.Entry();
+        boolean missed = lastSequence == null
+            ? lastValueCache.read(symbol, entry)
+            : lastValueCache.readChanged(symbol, lastSequence, entry);
+        if (!missed) {
+            return;
+        }
+        PricePublisher.PriceMessage snapshot = new PricePublisher.PriceMessage(
+            symbol,
+            entry.getPrice(),
+            entry.getMarketTimestamp(),
+            System.currentTimeMillis(),
+            entry.getSequence()
+        );
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(subscriptionId);
+        headers.setDestination(destination);
+        headers.setLeaveMutable(true);
+        Message<?> frame = messagingTemplate.getMessageConverter().toMessage(snapshot, headers.getMessageHeaders());
+        if (frame != null) {
+            clientOutboundChannel.send(frame);
+            snapshotCount++;
+            logger.debug("Sent snapshot to session {} for {}: {}", sessionId, destination, snapshot);
+        }
+    }
+
+    /**
+     * @return snapshots sent to new subscriptions
+     */
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+}
@@ -0,0 +1,140 @@
+package com.fintech.market.subscription;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live STOMP subscriber count per destination, so publishers can skip destinations
+ * nobody is listening to before converting a message.
+ * <p>
+ * Counts follow the SUBSCRIBE, UNSUBSCRIBE and DISCONNECT messages on the client
+ * inbound channel, and are updated before the broker sees them. A destination is
+ * therefore counted no later than the broker starts delivering to it, and a tick is
+ * never skipped for a subscription the broker already holds. Pattern subscriptions
+ * such as /topic/price/* cannot be matched by a plain lookup; while any exist every
+ * destination reports subscribers.
+ */
+@Component
+public class SubscriptionTracker implements ChannelInterceptor {
+
+    private final ConcurrentHashMap<String, Integer> counts = new ConcurrentHashMap<>();
+    // Session id -> subscription id -> destination, needed to undo unsubscribe and disconnect
+    private final ConcurrentHashMap<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger patternSubscriptions = new AtomicInteger();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == null) {
+            return message;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        switch (type) {
+            case SUBSCRIBE -> subscribe(sessionId,
+                                        SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()),
+                                        SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+            case UNSUBSCRIBE -> unsubscribe(sessionId, SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()));
+            case DISCONNECT -> disconnect(sessionId);
+            default -> { }
+        }
+        return message;
+    }
+
+    /**
+     * @param destination a concrete destination, e.g. /topic/price/AAPL
+     * @return true if at least one subscription may match the destination
+     */
+    public boolean hasSubscribers(String destination) {
+        return counts.containsKey(destination) || patternSubscriptions.get() > 0;
+    }
+
+    /**
+     * @param destination a destination exactly as subscribed
+     * @return number of subscriptions to exactly this destination
+     */
+    public int getSubscriberCount(String destination) {
+        return counts.getOrDefault(destination, 0);
+    }
+
+    /**
+     * @return number of distinct destinations with at least one subscription
+     */
+    public int getDestinationCount() {
+        return counts.size();
+    }
+
+    void subscribe(String sessionId, String subscriptionId, String destination) {
+        if (sessionId == null || subscriptionId == null || destination == null) {
+            return;
+        }
+        Map<String, String> subscriptions = sessions.computeIfAbsent(sessionId, id -> new HashMap<>());
+        String previous;
+        synchronized (subscriptions) {
+            previous = subscriptions.put(subscriptionId, destination);
+        }
+        if (previous != null) {
+            // Subscription id reused without an UNSUBSCRIBE; the broker replaces it too
+            release(previous);
+        }
+        if (isPattern(destination)) {
+            patternSubscriptions.incrementAndGet();
+        } else {
+            counts.merge(destination, 1, Integer::sum);
+        }
+    }
+
+    void unsubscribe(String sessionId, String subscriptionId) {
+        if (sessionId == null || subscriptionId == null) {
+            return;
+        }
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        String destination;
+        synchronized (subscriptions) {
+            destination = subscriptions.remove(subscriptionId);
+        }
+        if (destination != null) {
+            release(destination);
+        }
+    }
+
+    void disconnect(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        // Removing the session first makes a repeated DISCONNECT a no-op
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        synchronized (subscriptions) {
+            for (String destination : subscriptions.values()) {
+                release(destination);
+            }
+            subscriptions.clear();
+        }
+    }
+
+    private void release(String destination) {
+        if (isPattern(destination)) {
+            patternSubscriptions.decrementAndGet();
+        } else {
+            counts.computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static boolean isPattern(String destination) {
+        return destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0;
+    }
+}
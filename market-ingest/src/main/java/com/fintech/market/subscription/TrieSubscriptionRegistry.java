@@ -0,0 +1,310 @@
+package com.fintech.market.subscription;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.broker.AbstractSubscriptionRegistry;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Simple broker subscription registry for tens of thousands of destinations.
+ * <p>
+ * Subscriptions to exact destinations such as /topic/price/AAPL are kept in a hash map.
+ * Pattern subscriptions such as /topic/price/* are kept in a trie of destination segments,
+ * so resolving a destination only visits the patterns that can match it. The subscribers
+ * of each published destination are resolved once into a read-only map that every later
+ * message to it reuses; a subscription change discards only the entries it affects, and
+ * those are resolved again on their next message. Unlike DefaultSubscriptionRegistry there
+ * is no cache limit to thrash against with a large symbol universe, and a subscription
+ * change does not rematch every cached destination.
+ * <p>
+ * Destinations are matched with AntPathMatcher, as by the default registry. Selector
+ * headers are not supported.
+ */
+public class TrieSubscriptionRegistry extends AbstractSubscriptionRegistry {
+
+    private static final MultiValueMap<String, String> EMPTY =
+        CollectionUtils.unmodifiableMultiValueMap(new LinkedMultiValueMap<>());
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    // Read without locking on every message; everything else is guarded by this
+    private final ConcurrentHashMap<String, MultiValueMap<String, String>> resolved = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Subscribers> exact = new ConcurrentHashMap<>();
+    private volatile int patternCount;
+
+    private final Node root = new Node();
+    // Session id -> subscription id -> destination, needed to unsubscribe and disconnect
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+
+    @Override
+    protected synchronized void addSubscriptionInternal(String sessionId, String subscriptionId,
+                                                        String destination, Message<?> message) {
+        Map<String, String> subscriptions = sessions.computeIfAbsent(sessionId, id -> new HashMap<>());
+        String previous = subscriptions.put(subscriptionId, destination);
+        if (previous != null) {
+            // Subscription id reused without an UNSUBSCRIBE replaces the subscription
+            remove(sessionId, subscriptionId, previous);
+        }
+        if (pathMatcher.isPattern(destination)) {
+            Node node = root;
+            for (String segment : segments(destination)) {
+                node = node.child(segment);
+            }
+            node.patterns.computeIfAbsent(destination, pattern -> new Subscribers()).add(sessionId, subscriptionId);
+            patternCount++;
+            resolved.clear();
+        } else {
+            exact.computeIfAbsent(destination, key -> new Subscribers()).add(sessionId, subscriptionId);
+            resolved.remove(destination);
+        }
+    }
+
+    @Override
+    protected synchronized void removeSubscriptionInternal(String sessionId, String subscriptionId, Message<?> message) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        String destination = subscriptions.remove(subscriptionId);
+        if (subscriptions.isEmpty()) {
+            sessions.remove(sessionId);
+        }
+        if (destination != null) {
+            remove(sessionId, subscriptionId, destination);
+        }
+    }
+
+    @Override
+    public synchronized void unregisterAllSubscriptions(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : subscriptions.entrySet()) {
+            remove(sessionId, entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
+        MultiValueMap<String, String> subscribers = resolved.get(destination);
+        if (subscribers != null) {
+            return subscribers;
+        }
+        if (patternCount == 0 && !exact.containsKey(destination)) {
+            // Not cached, so publishing to destinations nobody watches cannot grow the cache
+            return EMPTY;
+        }
+        synchronized (this) {
+            return resolved.computeIfAbsent(destination, this::resolve);
+        }
+    }
+
+    /**
+     * @return number of exact destinations with at least one subscription
+     */
+    public int getDestinationCount() {
+        return exact.size();
+    }
+
+    /**
+     * @return number of pattern subscriptions
+     */
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    private void remove(String sessionId, String subscriptionId, String destination) {
+        if (pathMatcher.isPattern(destination)) {
+            if (removePattern(root, segments(destination), 0, destination, sessionId, subscriptionId)) {
+                patternCount--;
+                resolved.clear();
+            }
+        } else {
+            Subscribers subscribers = exact.get(destination);
+            if (subscribers != null && subscribers.remove(sessionId, subscriptionId)) {
+                if (subscribers.isEmpty()) {
+                    exact.remove(destination);
+                }
+                resolved.remove(destination);
+            }
+        }
+    }
+
+    /**
+     * @return true if the subscription was found, pruning nodes left without patterns
+     */
+    private static boolean removePattern(Node node, String[] segments, int index, String pattern,
+                                         String sessionId, String subscriptionId) {
+        if (index == segments.length) {
+            Subscribers subscribers = node.patterns.get(pattern);
+            if (subscribers == null || !subscribers.remove(sessionId, subscriptionId)) {
+                return false;
+            }
+            if (subscribers.isEmpty()) {
+                node.patterns.remove(pattern);
+            }
+            return true;
+        }
+        Node child = node.get(segments[index]);
+        if (child == null || !removePattern(child, segments, index + 1, pattern, sessionId, subscriptionId)) {
+            return false;
+        }
+        if (child.isEmpty()) {
+            node.prune(segments[index]);
+        }
+        return true;
+    }
+
+    /**
+     * Collect every subscription matching a destination; called holding the lock
+     */
+    private MultiValueMap<String, String> resolve(String destination) {
+        LinkedMultiValueMap<String, String> subscribers = new LinkedMultiValueMap<>();
+        Subscribers direct = exact.get(destination);
+        if (direct != null) {
+            direct.addTo(subscribers);
+        }
+        if (patternCount > 0) {
+            Set<Node> candidates = new LinkedHashSet<>();
+            collect(root, segments(destination), 0, candidates);
+            for (Node node : candidates) {
+                for (Map.Entry<String, Subscribers> entry : node.patterns.entrySet()) {
+                    // The trie only narrows the candidates; the matcher has the final say
+                    if (pathMatcher.match(entry.getKey(), destination)) {
+                        entry.getValue().addTo(subscribers);
+                    }
+                }
+            }
+        }
+        return subscribers.isEmpty() ? EMPTY : CollectionUtils.unmodifiableMultiValueMap(subscribers);
+    }
+
+    /**
+     * Collect the nodes whose patterns can match the segments from index onwards
+     */
+    private void collect(Node node, String[] segments, int index, Set<Node> candidates) {
+        if (node.deep != null) {
+            // ** matches zero or more segments
+            for (int next = index; next <= segments.length; next++) {
+                collect(node.deep, segments, next, candidates);
+            }
+        }
+        if (index == segments.length) {
+            if (!node.patterns.isEmpty()) {
+                candidates.add(node);
+            }
+            return;
+        }
+        Node literal = node.literals.get(segments[index]);
+        if (literal != null) {
+            collect(literal, segments, index + 1, candidates);
+        }
+        for (Map.Entry<String, Node> entry : node.wildcards.entrySet()) {
+            if (pathMatcher.match(entry.getKey(), segments[index])) {
+                collect(entry.getValue(), segments, index + 1, candidates);
+            }
+        }
+    }
+
+    private static String[] segments(String destination) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        while (start <= destination.length()) {
+            int end = destination.indexOf('/', start);
+            if (end < 0) {
+                end = destination.length();
+            }
+            if (end > start) {
+                segments.add(destination.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * Subscription ids per session on one destination or pattern
+     */
+    private static final class Subscribers {
+        private final Map<String, List<String>> bySession = new LinkedHashMap<>();
+
+        void add(String sessionId, String subscriptionId) {
+            bySession.computeIfAbsent(sessionId, id -> new ArrayList<>(1)).add(subscriptionId);
+        }
+
+        boolean remove(String sessionId, String subscriptionId) {
+            List<String> ids = bySession.get(sessionId);
+            if (ids == null || !ids.remove(subscriptionId)) {
+                return false;
+            }
+            if (ids.isEmpty()) {
+                bySession.remove(sessionId);
+            }
+            return true;
+        }
+
+        boolean isEmpty() {
+            return bySession.isEmpty();
+        }
+
+        void addTo(MultiValueMap<String, String> subscribers) {
+            for (Map.Entry<String, List<String>> entry : bySession.entrySet()) {
+                subscribers.addAll(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * One destination segment of the pattern trie
+     */
+    private final class Node {
+        private final Map<String, Node> literals = new HashMap<>(4);
+        // Segments with wildcards or variables, e.g. * or {symbol}
+        private final Map<String, Node> wildcards = new HashMap<>(2);
+        private Node deep;
+        // Pattern -> subscribers, for patterns ending at this node
+        private final Map<String, Subscribers> patterns = new HashMap<>(2);
+
+        Node get(String segment) {
+            if (segment.equals("**")) {
+                return deep;
+            }
+            return (pathMatcher.isPattern(segment) ? wildcards : literals).get(segment);
+        }
+
+        Node child(String segment) {
+            if (segment.equals("**")) {
+                if (deep == null) {
+                    deep = new Node();
+                }
+                return deep;
+            }
+            return (pathMatcher.isPattern(segment) ? wildcards : literals).computeIfAbsent(segment, key -> new Node());
+        }
+
+        void prune(String segment) {
+            if (segment.equals("**")) {
+                deep = null;
+            } else {
+                (pathMatcher.isPattern(segment) ? wildcards : literals).remove(segment);
+            }
+        }
+
+        boolean isEmpty() {
+            return patterns.isEmpty() && literals.isEmpty() && wildcards.isEmpty() && deep == null;
+        }
+    }
+}
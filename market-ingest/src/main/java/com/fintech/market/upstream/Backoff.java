@@ -0,0 +1,44 @@
+package com.fintech.market.upstream;
+
+import com.fintech.market.config.UpstreamProperties;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Capped exponential reconnection delay with jitter. The nth attempt waits
+ * min(maxDelay, initialDelay * multiplier^n), less a random share of up to
+ * jitter of that, so sessions dropped by the same outage spread their retries.
+ */
+final class Backoff {
+
+    private final long initialDelay;
+    private final long maxDelay;
+    private final double multiplier;
+    private final double jitter;
+    private final RandomGenerator random;
+
+    Backoff(UpstreamProperties.Reconnect reconnect, RandomGenerator random) {
+        this(reconnect.getInitialDelay(), reconnect.getMaxDelay(), reconnect.getMultiplier(), reconnect.getJitter(), random);
+    }
+
+    Backoff(long initialDelay, long maxDelay, double multiplier, double jitter, RandomGenerator random) {
+        if (initialDelay < 0 || maxDelay < initialDelay || multiplier < 1.0 || jitter < 0.0 || jitter > 1.0) {
+            throw new IllegalArgumentException("Invalid reconnect settings: initial-delay=" + initialDelay
+                + ", max-delay=" + maxDelay + ", multiplier=" + multiplier + ", jitter=" + jitter);
+        }
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+        this.random = random;
+    }
+
+    /**
+     * @param attempt reconnection attempts already made since the last successful connect
+     * @return millis to wait before the next attempt
+     */
+    long delayMillis(int attempt) {
+        double delay = Math.min((double) maxDelay, initialDelay * Math.pow(multiplier, attempt));
+        return (long) (delay * (1.0 - jitter * random.nextDouble()));
+    }
+}
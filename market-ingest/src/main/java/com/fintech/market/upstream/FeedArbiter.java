@@ -0,0 +1,229 @@
+package com.fintech.market.upstream;
+
+import com.fintech.market.codec.MutableTick;
+import com.fintech.market.pipeline.TickPipeline;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Merges the ticks of several upstream sources carrying the same symbols into one stream.
+ * Per symbol the first arrival of each update wins: a tick passes if its market timestamp
+ * is newer than the last one passed, and the copies other sources deliver later are dropped
+ * as duplicates, recording how far behind the winner they arrived. A source keeps winning
+ * only while it is fastest, so a stalled provider costs nothing once another delivers.
+ * Timestamps of a symbol never go backwards: a tick older than the last one passed is
+ * dropped, however late or stalled its competitors. A newer tick that takes a symbol over
+ * from a source that has delivered nothing at all for the stale-after time is counted as
+ * a failover rather than a win.
+ * <p>
+ * Called from every session's decode thread. Each symbol is decided and handed to the
+ * pipeline under its own lock, so the ticks of a symbol enter the pipeline in the order
+ * they were passed.
+ */
+public class FeedArbiter {
+
+    private final TickPipeline tickPipeline;
+    private final long staleAfterNanos;
+    private final Source[] sources;
+
+    // Symbol id -> state; grown and filled under the arbiter lock, read without it
+    private volatile SymbolState[] symbols = new SymbolState[1024];
+
+    /**
+     * @param names source names, indexed by the source numbers passed to {@link #submit}
+     * @param staleAfterMillis silence of a source after which taking over its symbols counts as a failover
+     * @param behindTimers per-source timers of how far behind the winner duplicates arrive,
+     *                     or null to keep only the counters
+     */
+    public FeedArbiter(TickPipeline tickPipeline, List<String> names, long staleAfterMillis, List<Timer> behindTimers) {
+        this.tickPipeline = tickPipeline;
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(staleAfterMillis);
+        this.sources = new Source[names.size()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = new Source(names.get(i), behindTimers != null ? behindTimers.get(i) : null);
+        }
+    }
+
+    /**
+     * Pass the tick on to the pipeline if it is the first arrival of its update
+     * @param source number of the source that delivered the tick
+     * @param tick decoded tick with its registry symbol id
+     * @return true if the tick was passed on and accepted by the pipeline
+     */
+    public boolean submit(int source, MutableTick tick) {
+        Source stats = sources[source];
+        long now = System.nanoTime();
+        stats.lastDeliveredAt = now;
+        int symbolId = tick.getSymbolId();
+        if (symbolId < 0) {
+            // Cannot be matched across sources without an id
+            stats.wins.increment();
+            return tickPipeline.submit(tick);
+        }
+        SymbolState state = stateOf(symbolId);
+        long timestamp = tick.getTimestamp();
+        long behindNanos;
+        synchronized (state) {
+            boolean newer = state.source < 0 || timestamp > state.timestamp
+                || (timestamp == state.timestamp && source == state.source
+                    && (tick.getSequence() == 0 || tick.getSequence() > state.sequence));
+            if (newer) {
+                boolean failover = state.source >= 0 && source != state.source
+                    && now - sources[state.source].lastDeliveredAt > staleAfterNanos;
+                state.source = source;
+                state.timestamp = timestamp;
+                state.sequence = tick.getSequence();
+                state.passedAt = now;
+                if (failover) {
+                    stats.failovers.increment();
+                } else {
+                    stats.wins.increment();
+                }
+                return tickPipeline.submit(tick);
+            }
+            if (timestamp < state.timestamp) {
+                stats.stale.increment();
+                return false;
+            }
+            behindNanos = source == state.source ? -1 : now - state.passedAt;
+        }
+        stats.duplicates.increment();
+        if (behindNanos >= 0) {
+            stats.onBehind(behindNanos);
+        }
+        return false;
+    }
+
+    private SymbolState stateOf(int symbolId) {
+        SymbolState[] current = symbols;
+        SymbolState state = symbolId < current.length ? current[symbolId] : null;
+        return state != null ? state : createState(symbolId);
+    }
+
+    private synchronized SymbolState createState(int symbolId) {
+        SymbolState[] current = symbols;
+        SymbolState state = symbolId < current.length ? current[symbolId] : null;
+        if (state != null) {
+            return state;
+        }
+        // Store into a copy, never the published array, so the volatile write below is
+        // what publishes the new state to readers
+        int length = symbolId < current.length ? current.length : Math.max(symbolId + 1, current.length * 2);
+        current = Arrays.copyOf(current, length);
+        state = new SymbolState();
+        current[symbolId] = state;
+        symbols = current;
+        return state;
+    }
+
+    /**
+     * @return per-source arbitration counters and latency behind the winner, in source order
+     */
+    public List<SourceStats> getStats() {
+        long total = 0;
+        for (Source source : sources) {
+            total += source.wins.sum() + source.failovers.sum();
+        }
+        List<SourceStats> stats = new ArrayList<>(sources.length);
+        for (Source source : sources) {
+            stats.add(new SourceStats(source, total));
+        }
+        return stats;
+    }
+
+    public long getWins(int source) { return sources[source].wins.sum(); }
+
+    public long getDuplicates(int source) { return sources[source].duplicates.sum(); }
+
+    public long getFailovers(int source) { return sources[source].failovers.sum(); }
+
+    /**
+     * Last tick passed for one symbol; guarded by itself
+     */
+    private static final class SymbolState {
+        private int source = -1;
+        private long timestamp;
+        private long sequence;
+        private long passedAt;
+    }
+
+    /**
+     * Counters of one source, updated by all of its sessions' decode threads
+     */
+    private static final class Source {
+        private final String name;
+        private final Timer behindTimer;
+        private final LongAdder wins = new LongAdder();
+        private final LongAdder failovers = new LongAdder();
+        private final LongAdder duplicates = new LongAdder();
+        private final LongAdder stale = new LongAdder();
+        private final LongAdder behindCount = new LongAdder();
+        private final LongAdder behindNanos = new LongAdder();
+        private final AtomicLong maxBehindNanos = new AtomicLong();
+        // System.nanoTime() of the last tick of any symbol, from any of the source's sessions
+        private volatile long lastDeliveredAt = System.nanoTime();
+
+        Source(String name, Timer behindTimer) {
+            this.name = name;
+            this.behindTimer = behindTimer;
+        }
+
+        void onBehind(long nanos) {
+            behindCount.increment();
+            behindNanos.add(nanos);
+            if (nanos > maxBehindNanos.get()) {
+                maxBehindNanos.accumulateAndGet(nanos, Math::max);
+            }
+            if (behindTimer != null) {
+                behindTimer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Point-in-time arbitration statistics of one source
+     */
+    public static class SourceStats {
+        private final String source;
+        private final long wins;
+        private final long failovers;
+        private final long duplicates;
+        private final long stale;
+        private final double winShare;
+        private final double meanBehindMillis;
+        private final double maxBehindMillis;
+
+        SourceStats(Source source, long totalPassed) {
+            this.source = source.name;
+            this.wins = source.wins.sum();
+            this.failovers = source.failovers.sum();
+            this.duplicates = source.duplicates.sum();
+            this.stale = source.stale.sum();
+            this.winShare = totalPassed == 0 ? 0.0 : (double) (wins + failovers) / totalPassed;
+            long behindCount = source.behindCount.sum();
+            this.meanBehindMillis = behindCount == 0 ? 0.0 : source.behindNanos.sum() / 1e6 / behindCount;
+            this.maxBehindMillis = source.maxBehindNanos.get() / 1e6;
+        }
+
+        public String getSource() { return source; }
+        /** Ticks passed on because this source delivered them first */
+        public long getWins() { return wins; }
+        /** Ticks passed on that took a symbol over from a source silent for the stale-after time */
+        public long getFailovers() { return failovers; }
+        /** Ticks dropped because another source delivered the update first */
+        public long getDuplicates() { return duplicates; }
+        /** Ticks dropped because a newer update had already passed */
+        public long getStale() { return stale; }
+        /** Share of all passed ticks that came from this source */
+        public double getWinShare() { return winShare; }
+        /** Mean time duplicates arrived after the winning copy */
+        public double getMeanBehindMillis() { return meanBehindMillis; }
+        public double getMaxBehindMillis() { return maxBehindMillis; }
+    }
+}
@@ -0,0 +1,516 @@
+package com.fintech.market.upstream;
+
+import com.fintech.market.WebSocketClientService;
+import com.fintech.market.book.OrderBookManager;
+import com.fintech.market.codec.BinaryTickCodec;
+import com.fintech.market.codec.BookDecoder;
+import com.fintech.market.codec.MutableBookUpdate;
+import com.fintech.market.codec.MutableTick;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.codec.TickDecoder;
+import com.fintech.market.config.UpstreamProperties;
+import com.fintech.market.pipeline.RingBuffer;
+import com.fintech.market.pipeline.StageProcessor;
+import com.fintech.market.pipeline.TickEvent;
+import com.fintech.market.pipeline.TickPipeline;
+import com.fintech.market.pipeline.WaitStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.WebSocketClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One upstream WebSocket session carrying a shard of the subscribed symbols. The
+ * socket thread only copies each message into the session's own ring buffer; a
+ * decode thread per session parses it and hands the decoded tick to the
+ * {@link TickPipeline}, so one busy or stalled session never delays the others.
+ * Each session keeps its own heartbeat and reconnects on its own backoff schedule.
+ * When several sources are configured, decoded ticks go through the {@link FeedArbiter}
+ * instead, which passes on only the first arrival of each update. Order book messages
+ * are applied to their book on the decode thread.
+ */
+public class UpstreamConnection implements WebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamConnection.class);
+
+    /**
+     * Connection lifecycle
+     */
+    public enum State {
+        /** Handshake in progress */
+        CONNECTING,
+        /** Session open and subscribed */
+        CONNECTED,
+        /** Waiting to reconnect */
+        BACKOFF,
+        /** Closed and reconnection disabled */
+        DISCONNECTED,
+        /** Stopped by the application */
+        STOPPED
+    }
+
+    private final int index;
+    private final int sourceIndex;
+    private final String source;
+    private final List<String> symbols;
+    private final URI uri;
+    private final String key;
+    private final WebSocketClientService.MarketAdapter adapter;
+    private final WebSocketClient client;
+    private final TickPipeline tickPipeline;
+    private final FeedArbiter arbiter;
+    private final OrderBookManager orderBooks;
+    private final UpstreamProperties properties;
+    private final Backoff backoff;
+    private final ScheduledExecutorService scheduler;
+
+    private final RingBuffer<TickEvent> ringBuffer;
+    private final StageProcessor<TickEvent> decodeStage;
+    private Thread decodeThread;
+
+    // Only touched by the decode thread; binary symbol ids are scoped to this session
+    private final TickDecoder decoder;
+    private final BinaryTickCodec binaryDecoder;
+    private final BookDecoder bookDecoder;
+    private final MutableBookUpdate bookUpdate = new MutableBookUpdate();
+
+    private final Object sendLock = new Object();
+
+    // Guarded by this
+    private WebSocketSession session;
+    private int attempt;
+
+    private volatile State state = State.STOPPED;
+    private volatile long connectedAt;
+    private volatile long lastMessageAt;
+    private volatile long nextAttemptAt;
+    private volatile long lagMillis;
+    private volatile String lastError;
+
+    private volatile long messageCount;
+    private volatile long tickCount;
+    private volatile long decodeErrorCount;
+    private volatile long overflowCount;
+    private volatile long reconnectCount;
+
+    /**
+     * @param index connection number across all sources, used for thread names and metric tags
+     * @param sourceIndex number of the feed this session belongs to, passed to the arbiter
+     * @param source the feed this session connects to
+     * @param symbols symbols subscribed on this session; empty to take whatever the provider sends
+     * @param arbiter merges several sources, or null to hand ticks straight to the pipeline
+     * @param orderBooks receives this session's order book messages, or null to ignore them
+     */
+    public UpstreamConnection(int index, int sourceIndex, UpstreamProperties.Source source, List<String> symbols,
+                              WebSocketClientService.MarketAdapter adapter, WebSocketClient client,
+                              TickPipeline tickPipeline, FeedArbiter arbiter, OrderBookManager orderBooks,
+                              SymbolRegistry symbolRegistry, UpstreamProperties properties) {
+        this.index = index;
+        this.sourceIndex = sourceIndex;
+        this.source = source.getName();
+        this.symbols = List.copyOf(symbols);
+        this.uri = URI.create(source.getUrl());
+        this.key = source.getKey() == null || source.getKey().isEmpty() ? properties.getKey() : source.getKey();
+        this.adapter = adapter;
+        this.client = client;
+        this.tickPipeline = tickPipeline;
+        this.arbiter = arbiter;
+        this.orderBooks = orderBooks;
+        this.properties = properties;
+        this.backoff = new Backoff(properties.getReconnect(), new Random());
+        this.decoder = new TickDecoder(symbolRegistry);
+        this.binaryDecoder = new BinaryTickCodec(symbolRegistry);
+        this.bookDecoder = new BookDecoder(symbolRegistry);
+
+        this.ringBuffer = new RingBuffer<>(properties.getDecodeBufferSize(), TickEvent::new, WaitStrategy.fromName("sleeping"));
+        this.decodeStage = new StageProcessor<>("upstream-" + index + "-decode", ringBuffer, ringBuffer.getCursor(), this::decode);
+        ringBuffer.addGatingSequences(decodeStage.getSequence());
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upstream-" + index);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start the decode thread and heartbeat, then connect
+     */
+    public synchronized void start() {
+        decodeThread = new Thread(decodeStage, decodeStage.getName());
+        decodeThread.setDaemon(true);
+        decodeThread.start();
+
+        UpstreamProperties.Heartbeat heartbeat = properties.getHeartbeat();
+        if (heartbeat.isEnabled()) {
+            scheduler.scheduleAtFixedRate(this::heartbeat, heartbeat.getInterval(), heartbeat.getInterval(), TimeUnit.MILLISECONDS);
+        }
+        state = State.CONNECTING;
+        scheduler.execute(this::connect);
+    }
+
+    /**
+     * Close the session and stop reconnecting
+     */
+    public void stop() {
+        WebSocketSession current;
+        synchronized (this) {
+            state = State.STOPPED;
+            current = session;
+            session = null;
+        }
+        if (current != null) {
+            close(current, CloseStatus.GOING_AWAY);
+        }
+        scheduler.shutdownNow();
+        decodeStage.halt();
+        if (decodeThread != null) {
+            try {
+                decodeThread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void connect() {
+        synchronized (this) {
+            if (state == State.STOPPED) {
+                return;
+            }
+            state = State.CONNECTING;
+        }
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        if (key != null && !key.isEmpty()) {
+            headers.add("Authorization", "Bearer " + key);
+        }
+        logger.info("Upstream {} ({}) connecting to {} for {} symbols", index, source, uri, symbols.size());
+        try {
+            client.execute(this, headers, uri).whenComplete((connected, error) -> {
+                if (error != null) {
+                    onConnectFailed(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            onConnectFailed(e);
+        }
+    }
+
+    private void onConnectFailed(Throwable error) {
+        lastError = error.getMessage();
+        logger.warn("Upstream {} failed to connect: {}", index, error.getMessage());
+        synchronized (this) {
+            if (state == State.CONNECTING) {
+                scheduleReconnect();
+            }
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        synchronized (this) {
+            if (state == State.STOPPED) {
+                close(session, CloseStatus.GOING_AWAY);
+                return;
+            }
+            this.session = session;
+            this.state = State.CONNECTED;
+            this.attempt = 0;
+            this.connectedAt = System.currentTimeMillis();
+            this.lastMessageAt = connectedAt;
+        }
+        logger.info("Upstream {} connected: session {}", index, session.getId());
+
+        String subscribe = adapter.subscribeMessage(symbols);
+        if (subscribe != null) {
+            send(session, subscribe);
+        }
+    }
+
+    /**
+     * Copy the message into this session's ring buffer. Text frames that are not JSON
+     * objects, such as heartbeat replies, only refresh the session's liveness.
+     */
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        lastMessageAt = System.currentTimeMillis();
+        messageCount++;
+        if (message instanceof TextMessage) {
+            String payload = ((TextMessage) message).getPayload();
+            if (!payload.isEmpty() && payload.charAt(0) == '{') {
+                submit(payload);
+            }
+        } else if (message instanceof BinaryMessage) {
+            submit(((BinaryMessage) message).getPayload());
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        lastError = exception.getMessage();
+        logger.error("Upstream {} transport error: {}", index, exception.getMessage(), exception);
+        close(session, CloseStatus.SERVER_ERROR);
+        onDisconnected(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        logger.warn("Upstream {} closed: {} - {}", index, closeStatus.getCode(), closeStatus.getReason());
+        onDisconnected(session);
+    }
+
+    @Override
+    public boolean supportsPartialMessages() {
+        return false;
+    }
+
+    /**
+     * Reconnect once per lost session, however many callbacks report the loss
+     */
+    private synchronized void onDisconnected(WebSocketSession closed) {
+        if (closed != session) {
+            return;
+        }
+        session = null;
+        if (state != State.STOPPED) {
+            scheduleReconnect();
+        }
+    }
+
+    // Called holding the lock
+    private void scheduleReconnect() {
+        if (!properties.getReconnect().isEnabled()) {
+            state = State.DISCONNECTED;
+            logger.warn("Upstream {} disconnected; reconnection is disabled", index);
+            return;
+        }
+        long delay = backoff.delayMillis(attempt++);
+        reconnectCount++;
+        state = State.BACKOFF;
+        nextAttemptAt = System.currentTimeMillis() + delay;
+        logger.info("Upstream {} reconnecting in {}ms (attempt {})", index, delay, attempt);
+        scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ping the provider, and drop a session that has gone silent for longer than the
+     * heartbeat timeout so it is reconnected
+     */
+    private void heartbeat() {
+        WebSocketSession current;
+        synchronized (this) {
+            current = session;
+        }
+        if (current == null || !current.isOpen()) {
+            return;
+        }
+        long timeout = properties.getHeartbeat().getTimeout();
+        long silence = System.currentTimeMillis() - lastMessageAt;
+        if (timeout > 0 && silence > timeout) {
+            lastError = "No message for " + silence + "ms";
+            logger.warn("Upstream {} silent for {}ms, reconnecting", index, silence);
+            close(current, CloseStatus.SESSION_NOT_RELIABLE);
+            onDisconnected(current);
+            return;
+        }
+        send(current, "ping");
+    }
+
+    private void send(WebSocketSession target, String text) {
+        // Heartbeats and the subscribe message come from different threads
+        synchronized (sendLock) {
+            try {
+                target.sendMessage(new TextMessage(text));
+            } catch (IOException | IllegalStateException e) {
+                logger.error("Upstream {} failed to send: {}", index, e.getMessage());
+            }
+        }
+    }
+
+    private void close(WebSocketSession target, CloseStatus status) {
+        try {
+            if (target.isOpen()) {
+                target.close(status);
+            }
+        } catch (IOException e) {
+            logger.debug("Upstream {} error closing session: {}", index, e.getMessage());
+        }
+    }
+
+    private synchronized void submit(String payload) {
+        long sequence = ringBuffer.tryNext();
+        if (sequence < 0) {
+            overflowCount++;
+            return;
+        }
+        ringBuffer.get(sequence).reset(payload, System.nanoTime());
+        ringBuffer.publish(sequence);
+    }
+
+    private synchronized void submit(ByteBuffer payload) {
+        long receivedNanos = System.nanoTime();
+        int offset = payload.position();
+        while (offset < payload.limit()) {
+            int length = BinaryTickCodec.frameLength(payload, offset);
+            if (length < 0 || offset + length > payload.limit()) {
+                decodeErrorCount++;
+                logger.debug("Upstream {} dropped malformed binary payload at offset {}", index, offset);
+                return;
+            }
+            long sequence = ringBuffer.tryNext();
+            if (sequence < 0) {
+                overflowCount++;
+                return;
+            }
+            ringBuffer.get(sequence).reset(payload, offset, length, receivedNanos);
+            ringBuffer.publish(sequence);
+            offset += length;
+        }
+    }
+
+    /**
+     * Decode thread: parse the payload and pass the tick on to the shared pipeline
+     */
+    private void decode(TickEvent event, long sequence, boolean endOfBatch) {
+        MutableTick tick = event.getTick();
+        boolean valid;
+        if (event.isBinary()) {
+            valid = binaryDecoder.decode(event.getBinaryPayload(), 0, event.getBinaryLength(), tick);
+            if (!valid && binaryDecoder.getLastError() != null) {
+                decodeErrorCount++;
+                logger.debug("Upstream {} dropped undecodable binary frame: {}", index, binaryDecoder.getLastError());
+            }
+        } else if (BookDecoder.isBook(event.getPayload())) {
+            decodeBook(event.getPayload());
+            return;
+        } else {
+            valid = decoder.decode(event.getPayload(), tick);
+            if (!valid) {
+                decodeErrorCount++;
+                logger.debug("Upstream {} dropped undecodable tick ({}): {}", index, decoder.getLastError(), event.getPayload());
+            }
+        }
+        if (!valid) {
+            return;
+        }
+        tickCount++;
+        lagMillis = System.currentTimeMillis() - tick.getTimestamp();
+        if (arbiter != null) {
+            arbiter.submit(sourceIndex, tick);
+        } else {
+            tickPipeline.submit(tick);
+        }
+    }
+
+    private void decodeBook(String payload) {
+        if (orderBooks == null || !orderBooks.isEnabled()) {
+            return;
+        }
+        if (bookDecoder.decode(payload, bookUpdate)) {
+            orderBooks.apply(bookUpdate);
+        } else {
+            decodeErrorCount++;
+            logger.debug("Upstream {} dropped undecodable book message ({}): {}", index, bookDecoder.getLastError(), payload);
+        }
+    }
+
+    public int getIndex() { return index; }
+
+    public String getSource() { return source; }
+
+    public List<String> getSymbols() { return symbols; }
+
+    public State getState() { return state; }
+
+    public boolean isConnected() { return state == State.CONNECTED; }
+
+    /**
+     * @return millis between the market timestamp of the last decoded tick and its decode
+     */
+    public long getLagMillis() { return lagMillis; }
+
+    /**
+     * @return messages received but not yet decoded
+     */
+    public long getQueueDepth() { return ringBuffer.getDepth(); }
+
+    public long getDecodeErrorCount() { return decodeErrorCount; }
+
+    public long getOverflowCount() { return overflowCount; }
+
+    public long getReconnectCount() { return reconnectCount; }
+
+    public Health getHealth() {
+        return new Health(this, System.currentTimeMillis());
+    }
+
+    /**
+     * Point-in-time health of one upstream connection
+     */
+    public static class Health {
+        private final int connection;
+        private final String source;
+        private final State state;
+        private final int symbolCount;
+        private final long connectedAt;
+        private final long lastMessageAgeMillis;
+        private final long lagMillis;
+        private final long queueDepth;
+        private final long messages;
+        private final long ticks;
+        private final long decodeErrors;
+        private final long overflow;
+        private final long reconnects;
+        private final long nextAttemptAt;
+        private final String lastError;
+
+        Health(UpstreamConnection source, long now) {
+            this.connection = source.index;
+            this.source = source.source;
+            this.state = source.state;
+            this.symbolCount = source.symbols.size();
+            this.connectedAt = source.connectedAt;
+            this.lastMessageAgeMillis = source.lastMessageAt == 0 ? -1 : now - source.lastMessageAt;
+            this.lagMillis = source.lagMillis;
+            this.queueDepth = source.getQueueDepth();
+            this.messages = source.messageCount;
+            this.ticks = source.tickCount;
+            this.decodeErrors = source.decodeErrorCount;
+            this.overflow = source.overflowCount;
+            this.reconnects = source.reconnectCount;
+            this.nextAttemptAt = state == State.BACKOFF ? source.nextAttemptAt : 0;
+            this.lastError = source.lastError;
+        }
+
+        public int getConnection() { return connection; }
+        public String getSource() { return source; }
+        public State getState() { return state; }
+        public int getSymbolCount() { return symbolCount; }
+        public long getConnectedAt() { return connectedAt; }
+        public long getLastMessageAgeMillis() { return lastMessageAgeMillis; }
+        public long getLagMillis() { return lagMillis; }
+        public long getQueueDepth() { return queueDepth; }
+        public long getMessages() { return messages; }
+        public long getTicks() { return ticks; }
+        public long getDecodeErrors() { return decodeErrors; }
+        public long getOverflow() { return overflow; }
+        public long getReconnects() { return reconnects; }
+        public long getNextAttemptAt() { return nextAttemptAt; }
+        public String getLastError() { return lastError; }
+    }
+}
@@ -0,0 +1,249 @@
+package com.fintech.market.upstream;
+
+import com.fintech.market.WebSocketClientService;
+import com.fintech.market.book.OrderBookManager;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.MetricsProperties;
+import com.fintech.market.config.UpstreamProperties;
+import com.fintech.market.pipeline.TickPipeline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Splits the subscribed symbols across market.ws.connections upstream sessions, so
+ * socket reads and decoding scale past one thread and one dropped session only
+ * interrupts its share of the symbols. With market.ws.sources several feeds are
+ * connected this way at once and merged by a {@link FeedArbiter}; order books are
+ * taken from the first source only, as books of different providers do not merge level by level.
+ */
+@Component
+public class UpstreamConnectionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamConnectionManager.class);
+
+    @Autowired
+    private UpstreamProperties properties;
+
+    @Autowired
+    private TickPipeline tickPipeline;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Autowired
+    private OrderBookManager orderBookManager;
+
+    @Autowired
+    private MetricsProperties metricsProperties;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final List<UpstreamConnection> connections = new CopyOnWriteArrayList<>();
+    private final List<Meter> meters = new ArrayList<>();
+    private volatile FeedArbiter arbiter;
+
+    /**
+     * Open one session per shard of every source; does nothing if already started
+     * @param adapter provider adapter, supplies the subscribe message of each session
+     */
+    public synchronized void start(WebSocketClientService.MarketAdapter adapter) {
+        if (!connections.isEmpty()) {
+            logger.warn("Upstream connections already started");
+            return;
+        }
+        List<List<String>> shards = shard(properties.getSymbols(), properties.getConnections());
+        if (shards.size() < properties.getConnections()) {
+            logger.warn("Opening {} upstream connections instead of {}: one per symbol at most, one without symbols",
+                       shards.size(), properties.getConnections());
+        }
+        List<UpstreamProperties.Source> sources = sources(properties);
+        FeedArbiter feedArbiter = null;
+        if (sources.size() > 1) {
+            feedArbiter = createArbiter(sources);
+        }
+        this.arbiter = feedArbiter;
+        adapter.authenticate();
+        WebSocketClient client = new StandardWebSocketClient();
+        for (int s = 0; s < sources.size(); s++) {
+            OrderBookManager orderBooks = s == 0 ? orderBookManager : null;
+            for (List<String> shard : shards) {
+                UpstreamConnection connection = new UpstreamConnection(connections.size(), s, sources.get(s), shard,
+                    adapter, client, tickPipeline, feedArbiter, orderBooks, symbolRegistry, properties);
+                connections.add(connection);
+                registerGauges(connection);
+                connection.start();
+            }
+            logger.info("Started {} upstream connections to {} ({}) for {} symbols",
+                       shards.size(), sources.get(s).getUrl(), sources.get(s).getName(), properties.getSymbols().size());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        for (UpstreamConnection connection : connections) {
+            connection.stop();
+        }
+        connections.clear();
+        arbiter = null;
+        if (meterRegistry != null) {
+            meters.forEach(meterRegistry::remove);
+        }
+        meters.clear();
+    }
+
+    /**
+     * @return health of every upstream connection, in connection order
+     */
+    public List<UpstreamConnection.Health> getHealth() {
+        List<UpstreamConnection.Health> health = new ArrayList<>(connections.size());
+        for (UpstreamConnection connection : connections) {
+            health.add(connection.getHealth());
+        }
+        return health;
+    }
+
+    public List<UpstreamConnection> getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return arbitration statistics of every source, or an empty list with a single source
+     */
+    public List<FeedArbiter.SourceStats> getSourceStats() {
+        FeedArbiter current = arbiter;
+        return current != null ? current.getStats() : List.of();
+    }
+
+    /**
+     * @return the configured sources, or the single feed at market.ws.url named "default";
+     *         sources without a name are named after their position
+     */
+    static List<UpstreamProperties.Source> sources(UpstreamProperties properties) {
+        if (properties.getSources().isEmpty()) {
+            return List.of(new UpstreamProperties.Source("default", properties.getUrl(), properties.getKey()));
+        }
+        List<UpstreamProperties.Source> sources = new ArrayList<>(properties.getSources().size());
+        for (UpstreamProperties.Source source : properties.getSources()) {
+            String name = source.getName() == null || source.getName().isEmpty()
+                ? "source-" + sources.size() : source.getName();
+            sources.add(new UpstreamProperties.Source(name, source.getUrl(), source.getKey()));
+        }
+        return sources;
+    }
+
+    private FeedArbiter createArbiter(List<UpstreamProperties.Source> sources) {
+        List<String> names = new ArrayList<>(sources.size());
+        List<Timer> behindTimers = meterRegistry != null ? new ArrayList<>(sources.size()) : null;
+        for (UpstreamProperties.Source source : sources) {
+            names.add(source.getName());
+            if (behindTimers != null) {
+                Timer.Builder builder = Timer.builder("market.upstream.source.behind")
+                    .description("Time a source's copy of a tick arrived after the first copy from another source")
+                    .tag("source", source.getName())
+                    .publishPercentiles(metricsProperties.getPercentiles())
+                    .minimumExpectedValue(Duration.ofNanos(1000))
+                    .maximumExpectedValue(Duration.ofSeconds(10));
+                if (metricsProperties.isHistogram()) {
+                    builder.publishPercentileHistogram();
+                }
+                Timer timer = builder.register(meterRegistry);
+                meters.add(timer);
+                behindTimers.add(timer);
+            }
+        }
+        FeedArbiter feedArbiter =
+            new FeedArbiter(tickPipeline, names, properties.getArbitration().getStaleAfter(), behindTimers);
+        if (meterRegistry != null) {
+            for (int i = 0; i < names.size(); i++) {
+                int source = i;
+                meters.add(Gauge.builder("market.upstream.source.wins", feedArbiter, a -> a.getWins(source))
+                    .description("Ticks passed on because the source delivered them first")
+                    .tag("source", names.get(i))
+                    .register(meterRegistry));
+                meters.add(Gauge.builder("market.upstream.source.duplicates", feedArbiter, a -> a.getDuplicates(source))
+                    .description("Ticks dropped because another source delivered them first")
+                    .tag("source", names.get(i))
+                    .register(meterRegistry));
+                meters.add(Gauge.builder("market.upstream.source.failovers", feedArbiter, a -> a.getFailovers(source))
+                    .description("Ticks passed on that took a symbol over from a silent source")
+                    .tag("source", names.get(i))
+                    .register(meterRegistry));
+            }
+        }
+        return feedArbiter;
+    }
+
+    /**
+     * Deal the distinct symbols round-robin across the connections, so every shard gets
+     * the same number of symbols to within one
+     * @param symbols configured symbols; empty for a single unfiltered session
+     * @param connections configured connection count
+     * @return one symbol list per connection to open, never empty
+     */
+    static List<List<String>> shard(List<String> symbols, int connections) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(symbols));
+        int count = distinct.isEmpty() ? 1 : Math.max(1, Math.min(connections, distinct.size()));
+        List<List<String>> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (int i = 0; i < distinct.size(); i++) {
+            shards.get(i % count).add(distinct.get(i));
+        }
+        return shards;
+    }
+
+    private void registerGauges(UpstreamConnection connection) {
+        if (meterRegistry == null) {
+            return;
+        }
+        String tag = String.valueOf(connection.getIndex());
+        String source = connection.getSource();
+        meters.add(Gauge.builder("market.upstream.connected", connection, c -> c.isConnected() ? 1 : 0)
+            .description("1 while the upstream session is open")
+            .tag("connection", tag)
+            .tag("source", source)
+            .register(meterRegistry));
+        meters.add(Gauge.builder("market.upstream.lag", connection, UpstreamConnection::getLagMillis)
+            .description("Millis between the market timestamp of the last tick and its decode")
+            .tag("connection", tag)
+            .tag("source", source)
+            .register(meterRegistry));
+        meters.add(Gauge.builder("market.upstream.queue.depth", connection, UpstreamConnection::getQueueDepth)
+            .description("Upstream messages received but not yet decoded")
+            .tag("connection", tag)
+            .tag("source", source)
+            .register(meterRegistry));
+        meters.add(Gauge.builder("market.upstream.reconnects", connection, UpstreamConnection::getReconnectCount)
+            .description("Reconnection attempts scheduled for the upstream session")
+            .tag("connection", tag)
+            .tag("source", source)
+            .register(meterRegistry));
+        meters.add(Gauge.builder("market.upstream.decode.errors", connection, UpstreamConnection::getDecodeErrorCount)
+            .description("Upstream messages that could not be decoded")
+            .tag("connection", tag)
+            .tag("source", source)
+            .register(meterRegistry));
+        meters.add(Gauge.builder("market.upstream.overflow", connection, UpstreamConnection::getOverflowCount)
+            .description("Upstream messages dropped because the decode buffer was full")
+            .tag("connection", tag)
+            .tag("source", source)
+            .register(meterRegistry));
+    }
+}
@@ -0,0 +1,37 @@
+package com.fintech.market.upstream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST view of the upstream feed sessions, for operators checking which shard is
+ * down or falling behind
+ */
+@RestController
+@RequestMapping("/api/upstream")
+public class UpstreamController {
+
+    @Autowired
+    private UpstreamConnectionManager connectionManager;
+
+    /**
+     * @return state, lag, queue depth and counters of every upstream connection
+     */
+    @GetMapping("/connections")
+    public List<UpstreamConnection.Health> getConnections() {
+        return connectionManager.getHealth();
+    }
+
+    /**
+     * @return wins, duplicates and latency behind the fastest source of every merged source;
+     *         empty with a single source
+     */
+    @GetMapping("/sources")
+    public List<FeedArbiter.SourceStats> getSources() {
+        return connectionManager.getSourceStats();
+    }
+}
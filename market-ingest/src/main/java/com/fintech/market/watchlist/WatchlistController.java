@@ -0,0 +1,49 @@
+package com.fintech.market.watchlist;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+
+/**
+ * STOMP endpoint for changing the symbols of a session watchlist without resubscribing
+ */
+@Controller
+public class WatchlistController {
+
+    @Autowired
+    private WatchlistManager watchlistManager;
+
+    /**
+     * Replace the symbols of the sending session's watchlist at /app/watchlist
+     * @param request new symbols, and the watchlist subscription id if the session has several
+     * @param sessionId the sending session
+     */
+    @MessageMapping("/watchlist")
+    public void updateWatchlist(@Payload WatchlistRequest request,
+                                @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        if (request.getSymbols() != null) {
+            watchlistManager.update(sessionId, request.getSubscription(), request.getSymbols());
+        }
+    }
+
+    /**
+     * Watchlist change sent by a client
+     */
+    public static class WatchlistRequest {
+        private String subscription;
+        private List<String> symbols;
+
+        public WatchlistRequest() {}
+
+        public String getSubscription() { return subscription; }
+        public void setSubscription(String subscription) { this.subscription = subscription; }
+
+        public List<String> getSymbols() { return symbols; }
+        public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+    }
+}
@@ -0,0 +1,412 @@
+package com.fintech.market.watchlist;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.WebSocketClientService;
+import com.fintech.market.config.PublishProperties;
+import com.fintech.market.outbound.PriceJsonEncoder;
+import com.fintech.market.snapshot.LastValueCache;
+import com.fintech.market.snapshot.SnapshotOnSubscribeInterceptor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session watchlists: one subscription per session covering many symbols, instead of
+ * one /topic/price/{symbol} subscription each.
+ * <p>
+ * A client subscribes to /user/queue/watchlist with a comma-separated symbols header,
+ * and may replace the symbols later by sending to /app/watchlist. On every flush the
+ * session gets one columnar frame holding only the watched symbols that changed since
+ * the previous flush, sent straight to the session rather than through the broker.
+ * Each price is encoded once per flush and copied into every frame that holds it.
+ * A new watchlist is first sent the cached prices of its symbols, under the same
+ * sequence rules as snapshot-on-subscribe. A reconnecting client resumes by listing
+ * SYMBOL:sequence pairs in a last-sequences header, and is sent only the symbols it
+ * missed updates for.
+ */
+@Component
+public class WatchlistManager implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchlistManager.class);
+
+    public static final String DESTINATION = "/user/queue/watchlist";
+    public static final String SYMBOLS_HEADER = "symbols";
+    public static final String LAST_SEQUENCES_HEADER = "last-sequences";
+
+    private static final Watchlist[] NONE = new Watchlist[0];
+
+    @Autowired
+    private PublishProperties publishProperties;
+
+    @Autowired
+    private LastValueCache lastValueCache;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Created by the broker configuration that registers this interceptor
+    @Lazy
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    // Session id -> subscription id -> watchlist; changed only holding the lock
+    private final ConcurrentHashMap<String, Map<String, Watchlist>> sessions = new ConcurrentHashMap<>();
+    // Symbol -> watchlists holding it; arrays are replaced, never changed, so the flusher reads without locking
+    private final ConcurrentHashMap<String, Watchlist[]> bySymbol = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private volatile int watchlistCount;
+    private volatile long frameCount;
+
+    // Only touched by the flushing thread
+    private final List<Watchlist> changed = new ArrayList<>();
+    private final PriceJsonEncoder.Fragments fragments = new PriceJsonEncoder.Fragments();
+
+    @PostConstruct
+    public void init() {
+        if (meterRegistry != null) {
+            Gauge.builder("market.watchlists", this, WatchlistManager::getWatchlistCount)
+                .description("Session watchlist subscriptions")
+                .register(meterRegistry);
+            Gauge.builder("market.watchlist.frames", this, WatchlistManager::getFrameCount)
+                .description("Watchlist frames sent")
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == null) {
+            return message;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        switch (type) {
+            case SUBSCRIBE -> {
+                if (DESTINATION.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+                    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+                    String symbols = accessor.getFirstNativeHeader(SYMBOLS_HEADER);
+                    subscribe(sessionId, SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()),
+                              symbols == null ? List.of() : Arrays.asList(symbols.split(",")),
+                              parseLastSequences(accessor.getFirstNativeHeader(LAST_SEQUENCES_HEADER)));
+                }
+            }
+            case UNSUBSCRIBE -> unsubscribe(sessionId, SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()));
+            case DISCONNECT -> disconnect(sessionId);
+            default -> { }
+        }
+        return message;
+    }
+
+    /**
+     * Replace the symbols of a session's watchlist, sending cached prices of the added symbols
+     * @param subscriptionId the watchlist subscription, or null for every watchlist of the session
+     * @return number of watchlists updated
+     */
+    public int update(String sessionId, String subscriptionId, Collection<String> symbols) {
+        Map<String, Watchlist> subscriptions = sessionId == null ? null : sessions.get(sessionId);
+        if (subscriptions == null) {
+            return 0;
+        }
+        Set<String> replacement = normalize(symbols);
+        int updated = 0;
+        synchronized (lock) {
+            for (Watchlist watchlist : subscriptions.values()) {
+                if (subscriptionId != null && !subscriptionId.equals(watchlist.subscriptionId)) {
+                    continue;
+                }
+                Set<String> added = new LinkedHashSet<>(replacement);
+                added.removeAll(watchlist.symbols);
+                unindex(watchlist);
+                watchlist.symbols = replacement;
+                index(watchlist);
+                sendSnapshot(watchlist, added, null);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    void subscribe(String sessionId, String subscriptionId, Collection<String> symbols) {
+        subscribe(sessionId, subscriptionId, symbols, null);
+    }
+
+    /**
+     * @param lastSequences sequence the resuming client last applied per symbol, or null for a new client
+     */
+    void subscribe(String sessionId, String subscriptionId, Collection<String> symbols, Map<String, Long> lastSequences) {
+        if (sessionId == null || subscriptionId == null) {
+            return;
+        }
+        Watchlist watchlist = new Watchlist(sessionId, subscriptionId, normalize(symbols));
+        synchronized (lock) {
+            Map<String, Watchlist> subscriptions = sessions.computeIfAbsent(sessionId, id -> new HashMap<>());
+            Watchlist previous = subscriptions.put(subscriptionId, watchlist);
+            if (previous != null) {
+                // Subscription id reused without an UNSUBSCRIBE
+                unindex(previous);
+            } else {
+                watchlistCount++;
+            }
+            index(watchlist);
+            sendSnapshot(watchlist, watchlist.symbols, lastSequences);
+        }
+        logger.debug("Session {} watching {} symbols on subscription {}", sessionId, watchlist.symbols.size(), subscriptionId);
+    }
+
+    void unsubscribe(String sessionId, String subscriptionId) {
+        if (sessionId == null || subscriptionId == null) {
+            return;
+        }
+        synchronized (lock) {
+            Map<String, Watchlist> subscriptions = sessions.get(sessionId);
+            Watchlist watchlist = subscriptions == null ? null : subscriptions.remove(subscriptionId);
+            if (watchlist == null) {
+                return;
+            }
+            if (subscriptions.isEmpty()) {
+                sessions.remove(sessionId);
+            }
+            unindex(watchlist);
+            watchlistCount--;
+        }
+    }
+
+    void disconnect(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        synchronized (lock) {
+            Map<String, Watchlist> subscriptions = sessions.remove(sessionId);
+            if (subscriptions == null) {
+                return;
+            }
+            for (Watchlist watchlist : subscriptions.values()) {
+                unindex(watchlist);
+                watchlistCount--;
+            }
+        }
+    }
+
+    /**
+     * @return true while any session holds a watchlist
+     */
+    public boolean hasWatchlists() {
+        return watchlistCount > 0;
+    }
+
+    /**
+     * Send each watchlist one frame with those of the flushed prices it watches.
+     * Called from one thread at a time, once per flush.
+     * @param prices conflated prices, at most one per symbol
+     */
+    public void publish(List<WebSocketClientService.PriceData> prices) {
+        if (watchlistCount == 0 || prices.isEmpty()) {
+            return;
+        }
+        try {
+            for (WebSocketClientService.PriceData price : prices) {
+                Watchlist[] watching = bySymbol.getOrDefault(price.getSymbol(), NONE);
+                if (watching.length == 0) {
+                    continue;
+                }
+                // Encoded once, however many watchlists hold the symbol
+                int fragment = fragments.add(price.getSymbol(), price.getPrice(), price.getTimestamp(), price.getSequence());
+                for (Watchlist watchlist : watching) {
+                    if (watchlist.pendingCount == 0) {
+                        changed.add(watchlist);
+                    }
+                    watchlist.addPending(fragment);
+                }
+            }
+            long publishTimestamp = System.currentTimeMillis();
+            for (Watchlist watchlist : changed) {
+                send(watchlist, fragments.batch(watchlist.pending, watchlist.pendingCount, publishTimestamp));
+            }
+        } catch (Exception e) {
+            logger.error("Error publishing watchlists for {} prices: {}", prices.size(), e.getMessage(), e);
+        } finally {
+            for (Watchlist watchlist : changed) {
+                watchlist.pendingCount = 0;
+            }
+            changed.clear();
+            fragments.clear();
+        }
+    }
+
+    /**
+     * @return session watchlist subscriptions
+     */
+    public int getWatchlistCount() {
+        return watchlistCount;
+    }
+
+    /**
+     * @return watchlist frames sent, including snapshots
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    private void index(Watchlist watchlist) {
+        for (String symbol : watchlist.symbols) {
+            bySymbol.compute(symbol, (key, watching) -> {
+                if (watching == null) {
+                    return new Watchlist[] {watchlist};
+                }
+                Watchlist[] grown = Arrays.copyOf(watching, watching.length + 1);
+                grown[watching.length] = watchlist;
+                return grown;
+            });
+        }
+    }
+
+    private void unindex(Watchlist watchlist) {
+        for (String symbol : watchlist.symbols) {
+            bySymbol.computeIfPresent(symbol, (key, watching) -> {
+                Watchlist[] remaining = new Watchlist[watching.length];
+                int count = 0;
+                for (Watchlist other : watching) {
+                    if (other != watchlist) {
+                        remaining[count++] = other;
+                    }
+                }
+                return count == 0 ? null : Arrays.copyOf(remaining, count);
+            });
+        }
+    }
+
+    /**
+     * @return distinct, trimmed, non-empty symbols up to the configured limit
+     */
+    private Set<String> normalize(Collection<String> symbols) {
+        Set<String> normalized = new LinkedHashSet<>();
+        int limit = publishProperties.getMaxWatchlistSymbols();
+        for (String symbol : symbols) {
+            if (symbol == null) {
+                continue;
+            }
+            String trimmed = symbol.trim();
+            if (!trimmed.isEmpty()) {
+                if (normalized.size() == limit) {
+                    logger.warn("Watchlist truncated to {} symbols", limit);
+                    break;
+                }
+                normalized.add(trimmed);
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Parse a last-sequences header of comma-separated SYMBOL:sequence pairs
+     * @return sequence per symbol, or null if the header is missing
+     */
+    static Map<String, Long> parseLastSequences(String header) {
+        if (header == null) {
+            return null;
+        }
+        Map<String, Long> lastSequences = new HashMap<>();
+        for (String pair : header.split(",")) {
+            int colon = pair.lastIndexOf(':');
+            Long sequence = colon < 0 ? null : SnapshotOnSubscribeInterceptor.parseSequence(pair.substring(colon + 1));
+            if (sequence != null) {
+                lastSequences.put(pair.substring(0, colon).trim(), sequence);
+            }
+        }
+        return lastSequences;
+    }
+
+    /**
+     * Send the cached prices of the given symbols, if snapshots are enabled or the client
+     * is resuming. A resuming client is sent only symbols whose sequence it has not applied.
+     * @param lastSequences sequence the resuming client last applied per symbol, or null
+     */
+    private void sendSnapshot(Watchlist watchlist, Collection<String> symbols, Map<String, Long> lastSequences) {
+        if ((lastSequences == null && !publishProperties.isSnapshotOnSubscribe()) || symbols.isEmpty()) {
+            return;
+        }
+        List<WebSocketClientService.PriceData> prices = new ArrayList<>();
+        LastValueCache.Entry entry = new LastValueCache.Entry();
+        for (String symbol : symbols) {
+            Long lastSequence = lastSequences == null ? null : lastSequences.get(symbol);
+            boolean missed = lastSequence == null
+                ? lastValueCache.read(symbol, entry)
+                : lastValueCache.readChanged(symbol, lastSequence, entry);
+            if (missed) {
+                prices.add(new WebSocketClientService.PriceData(
+                    symbol, -1, entry.getPrice(), entry.getMarketTimestamp(), entry.getSequence()));
+            }
+        }
+        if (!prices.isEmpty()) {
+            try {
+                send(watchlist, PriceJsonEncoder.encode(PricePublisher.PriceBatchMessage.of(prices, System.currentTimeMillis())));
+            } catch (Exception e) {
+                logger.error("Error sending watchlist snapshot to session {}: {}", watchlist.sessionId, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Send a JSON frame to one watchlist subscription only, bypassing the broker
+     */
+    private void send(Watchlist watchlist, byte[] json) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(watchlist.sessionId);
+        headers.setSubscriptionId(watchlist.subscriptionId);
+        headers.setDestination(DESTINATION);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(json, headers.getMessageHeaders()));
+        frameCount++;
+    }
+
+    /**
+     * One watchlist subscription of a session
+     */
+    private static final class Watchlist {
+        private final String sessionId;
+        private final String subscriptionId;
+        // Replaced, never changed, while holding the lock
+        private volatile Set<String> symbols;
+        // Fragment indexes of the flush in progress; only touched by the flushing thread
+        private int[] pending = new int[16];
+        private int pendingCount;
+
+        Watchlist(String sessionId, String subscriptionId, Set<String> symbols) {
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+            this.symbols = symbols;
+        }
+
+        void addPending(int fragment) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount++] = fragment;
+        }
+    }
+}
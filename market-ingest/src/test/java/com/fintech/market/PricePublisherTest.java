@@ -1,5 +1,7 @@
 package com.fintech.market;
 
+import com.fintech.market.config.PublishProperties;
+import com.fintech.market.subscription.SubscriptionTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,6 +11,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +28,12 @@ class PricePublisherTest {
     @Mock
     private SimpMessagingTemplate messagingTemplate;
     
+    @Mock
+    private PublishProperties publishProperties;
+    
+    @Mock
+    private SubscriptionTracker subscriptionTracker;
+    
     @InjectMocks
     private PricePublisher pricePublisher;
 
@@ -162,4 +173,72 @@ class PricePublisherTest {
         // Placeholder assertion
         assertTrue(true, "Concurrent publishing test placeholder - implement actual test");
     }
+
+    @Test
+    @DisplayName("Should pack all flushed prices into one batch frame and one frame per watchlist")
+    void testPublishPriceBatch_WithWatchlists() {
+        when(publishProperties.getWatchlists()).thenReturn(Map.of("tech", List.of("AAPL", "MSFT")));
+        List<WebSocketClientService.PriceData> prices = List.of(
+            new WebSocketClientService.PriceData("AAPL", 150.25, 1L),
+            new WebSocketClientService.PriceData("TSLA", 250.50, 2L),
+            new WebSocketClientService.PriceData("MSFT", 410.00, 3L)
+        );
+
+        pricePublisher.publishPriceBatch(prices);
+
+        verify(messagingTemplate).convertAndSend(eq(PricePublisher.BATCH_TOPIC),
+            argThat((PricePublisher.PriceBatchMessage batch) -> batch.getSymbols().length == 3));
+        verify(messagingTemplate).convertAndSend(eq(PricePublisher.BATCH_TOPIC + "/tech"),
+            argThat((PricePublisher.PriceBatchMessage batch) ->
+                List.of(batch.getSymbols()).equals(List.of("AAPL", "MSFT"))));
+    }
+
+    @Test
+    @DisplayName("Should not publish an empty batch")
+    void testPublishPriceBatch_Empty() {
+        pricePublisher.publishPriceBatch(List.of());
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    @DisplayName("Should build columnar batch messages")
+    void testPriceBatchMessage_Of() {
+        PricePublisher.PriceBatchMessage batch = PricePublisher.PriceBatchMessage.of(List.of(
+            new WebSocketClientService.PriceData("AAPL", 150.25, 1L),
+            new WebSocketClientService.PriceData("TSLA", 250.50, 2L)
+        ), 99L);
+
+        assertArrayEquals(new String[] {"AAPL", "TSLA"}, batch.getSymbols());
+        assertArrayEquals(new double[] {150.25, 250.50}, batch.getPrices());
+        assertArrayEquals(new long[] {1L, 2L}, batch.getMarketTimestamps());
+        assertEquals(99L, batch.getPublishTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should publish bars to their interval and symbol topic")
+    void testPublishBar() {
+        PricePublisher.BarMessage bar = new PricePublisher.BarMessage(
+            "AAPL", "1m", 60_000L, 120_000L, 150.0, 151.0, 149.5, 150.5, 42L, true);
+
+        pricePublisher.publishBar(bar);
+
+        verify(messagingTemplate).convertAndSend("/topic/bars/1m/AAPL", bar);
+    }
+
+    @Test
+    @DisplayName("Should skip conversion and sending for topics without subscribers")
+    void testPublishPrice_SkipsUnsubscribedTopics() {
+        when(publishProperties.isSkipUnsubscribed()).thenReturn(true);
+        when(publishProperties.getBinary()).thenReturn(new PublishProperties.Binary());
+        when(subscriptionTracker.hasSubscribers(anyString()))
+            .thenAnswer(invocation -> "/topic/price/AAPL".equals(invocation.getArgument(0)));
+
+        pricePublisher.publishPrice(new WebSocketClientService.PriceData("AAPL", 150.25, 1L));
+        pricePublisher.publishPrice(new WebSocketClientService.PriceData("TSLA", 250.50, 2L));
+
+        verify(messagingTemplate).convertAndSend(eq("/topic/price/AAPL"), any(PricePublisher.PriceMessage.class));
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/price/TSLA"), any(Object.class));
+        assertEquals(1L, pricePublisher.getSkippedCount());
+    }
 }
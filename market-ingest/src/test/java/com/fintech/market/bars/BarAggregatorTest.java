@@ -0,0 +1,146 @@
+package com.fintech.market.bars;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.BarProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for BarAggregator and BarSeries
+ */
+class BarAggregatorTest {
+
+    private BarAggregator aggregator;
+    private final SymbolRegistry registry = new SymbolRegistry();
+    private final List<PricePublisher.BarMessage> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        BarProperties properties = new BarProperties();
+        properties.setIntervals(List.of(Duration.ofSeconds(1), Duration.ofMinutes(1)));
+        properties.setHistory(3);
+        // Bars are drained by the tests; keep the publisher thread out of the way
+        properties.setPublishInterval(Duration.ofHours(1));
+        aggregator = new BarAggregator();
+        ReflectionTestUtils.setField(aggregator, "barProperties", properties);
+        ReflectionTestUtils.setField(aggregator, "symbolRegistry", registry);
+        aggregator.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregator.stop();
+    }
+
+    private void tick(String symbol, double price, long timestamp) {
+        aggregator.onTick(registry.idOf(symbol), symbol, price, timestamp);
+    }
+
+    private List<PricePublisher.BarMessage> drain() {
+        published.clear();
+        aggregator.drain(published::add);
+        return published;
+    }
+
+    @Test
+    @DisplayName("Should build OHLCV and close the bar when a tick starts the next one")
+    void testCloseOnNextBar() {
+        tick("AAPL", 100.0, 1000L);
+        tick("AAPL", 103.0, 1200L);
+        tick("AAPL", 99.0, 1500L);
+        tick("AAPL", 101.0, 1999L);
+        tick("AAPL", 102.0, 2000L);
+
+        List<PricePublisher.BarMessage> bars = drain();
+
+        PricePublisher.BarMessage closed = bars.get(0);
+        assertTrue(closed.isClosed());
+        assertEquals("1s", closed.getInterval());
+        assertEquals(1000L, closed.getOpenTime());
+        assertEquals(2000L, closed.getCloseTime());
+        assertEquals(100.0, closed.getOpen());
+        assertEquals(103.0, closed.getHigh());
+        assertEquals(99.0, closed.getLow());
+        assertEquals(101.0, closed.getClose());
+        assertEquals(4L, closed.getVolume());
+
+        // Then the in-progress 1s and 1m bars
+        assertEquals(3, bars.size());
+        assertFalse(bars.get(1).isClosed());
+        assertEquals(5L, bars.get(2).getVolume());
+        assertEquals("1m", bars.get(2).getInterval());
+
+        // Nothing changed since, so nothing is republished
+        assertTrue(drain().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should close a quiet symbol's bar once another symbol's ticks pass its end")
+    void testCloseByWatermark() {
+        tick("AAPL", 100.0, 1000L);
+        tick("MSFT", 400.0, 2500L);
+
+        List<PricePublisher.BarMessage> bars = drain();
+
+        assertTrue(bars.get(0).isClosed());
+        assertEquals("AAPL", bars.get(0).getSymbol());
+        assertEquals(1000L, bars.get(0).getOpenTime());
+    }
+
+    @Test
+    @DisplayName("Should ignore ticks for bars that already closed")
+    void testLateTick() {
+        tick("AAPL", 100.0, 1000L);
+        tick("AAPL", 101.0, 2000L);
+        tick("AAPL", 500.0, 1500L);
+
+        // Late for the 1s bars; still inside the 1m bar
+        assertEquals(1L, aggregator.getLateTickCount());
+        List<PricePublisher.BarMessage> bars = aggregator.getBars("AAPL", "1s", 10, false);
+        assertEquals(1, bars.size());
+        assertEquals(100.0, bars.get(0).getHigh());
+    }
+
+    @Test
+    @DisplayName("Should return the last N closed bars oldest first, then the bar in progress")
+    void testGetBars() {
+        for (int second = 1; second <= 6; second++) {
+            tick("AAPL", second, second * 1000L);
+        }
+
+        List<PricePublisher.BarMessage> bars = aggregator.getBars("AAPL", "1s", 2, true);
+        assertEquals(3, bars.size());
+        assertEquals(4000L, bars.get(0).getOpenTime());
+        assertEquals(5000L, bars.get(1).getOpenTime());
+        assertEquals(6000L, bars.get(2).getOpenTime());
+        assertFalse(bars.get(2).isClosed());
+
+        // History of 3 keeps bars 3, 4 and 5
+        List<PricePublisher.BarMessage> all = aggregator.getBars("AAPL", "1s", 100, false);
+        assertEquals(3, all.size());
+        assertEquals(3000L, all.get(0).getOpenTime());
+
+        assertNull(aggregator.getBars("AAPL", "5m", 10, true));
+        assertTrue(aggregator.getBars("TSLA", "1s", 10, true).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should name intervals the way topics use them")
+    void testIntervalName() {
+        assertEquals("1s", BarAggregator.intervalName(Duration.ofSeconds(1)));
+        assertEquals("5m", BarAggregator.intervalName(Duration.ofMinutes(5)));
+        assertEquals("1h", BarAggregator.intervalName(Duration.ofHours(1)));
+        assertEquals("90s", BarAggregator.intervalName(Duration.ofSeconds(90)));
+        assertEquals("250ms", BarAggregator.intervalName(Duration.ofMillis(250)));
+    }
+}
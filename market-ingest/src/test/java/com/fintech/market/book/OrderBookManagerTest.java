@@ -0,0 +1,175 @@
+package com.fintech.market.book;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.codec.BookDecoder;
+import com.fintech.market.codec.MutableBookUpdate;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.BookProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for OrderBookManager, OrderBook and BookDecoder
+ */
+class OrderBookManagerTest {
+
+    private OrderBookManager manager;
+    private final SymbolRegistry registry = new SymbolRegistry();
+    private final BookDecoder decoder = new BookDecoder(registry);
+    private final MutableBookUpdate update = new MutableBookUpdate();
+
+    @BeforeEach
+    void setUp() {
+        BookProperties properties = new BookProperties();
+        properties.setDepth(3);
+        properties.setMaxLevels(50);
+        // Books are drained by the tests; keep the publisher thread out of the way
+        properties.setPublishInterval(Duration.ofHours(1));
+        manager = new OrderBookManager();
+        ReflectionTestUtils.setField(manager, "bookProperties", properties);
+        ReflectionTestUtils.setField(manager, "symbolRegistry", registry);
+        manager.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.stop();
+    }
+
+    private void apply(String json) {
+        assertTrue(decoder.decode(json, update), decoder.getLastError());
+        manager.apply(update);
+    }
+
+    private List<PricePublisher.BookMessage> drain() {
+        List<PricePublisher.BookMessage> books = new ArrayList<>();
+        manager.drain(books::add);
+        return books;
+    }
+
+    @Test
+    @DisplayName("Should recognize book messages by their leading type field only")
+    void testIsBook() {
+        assertTrue(BookDecoder.isBook("{\"type\":\"book\",\"symbol\":\"AAPL\"}"));
+        assertTrue(BookDecoder.isBook(" { \"type\" : \"book\" }"));
+        assertFalse(BookDecoder.isBook("{\"symbol\":\"AAPL\",\"price\":150.25,\"ts\":1703123456789}"));
+        assertFalse(BookDecoder.isBook("{\"type\":\"trade\"}"));
+        assertFalse(BookDecoder.isBook(""));
+
+        assertFalse(decoder.decode("{\"type\":\"book\",\"symbol\":\"AAPL\",\"bids\":[[150.0]]}", update));
+        assertEquals(BookDecoder.ERROR_MALFORMED_LEVEL, decoder.getLastError());
+        assertFalse(decoder.decode("{\"type\":\"book\",\"bids\":[]}", update));
+        assertEquals(BookDecoder.ERROR_MISSING_SYMBOL, decoder.getLastError());
+    }
+
+    @Test
+    @DisplayName("Should build a book from a snapshot and change only the levels an update lists")
+    void testSnapshotAndUpdates() {
+        apply("{\"type\":\"book\",\"symbol\":\"AAPL\",\"ts\":1000,\"snapshot\":true,"
+            + "\"bids\":[[150.23,100],[150.24,300],[150.20,50],[150.22,10]],\"asks\":[[150.27,5],[\"150.26\",\"200\"]]}");
+        PricePublisher.BookMessage book = manager.getBook("AAPL", 10);
+        assertArrayEquals(new double[][] {{150.24, 300}, {150.23, 100}, {150.22, 10}, {150.20, 50}}, book.getBids());
+        assertArrayEquals(new double[][] {{150.26, 200}, {150.27, 5}}, book.getAsks());
+
+        // Change one level, remove one, add a new best ask
+        apply("{\"type\":\"book\",\"symbol\":\"AAPL\",\"ts\":1010,\"bids\":[[150.23,120],[150.24,0]],\"asks\":[[150.25,7]]}");
+        apply("{\"type\":\"book\",\"symbol\":\"AAPL\",\"ts\":1020,\"bids\":[[150.10,0]]}");
+        List<PricePublisher.BookMessage> published = drain();
+        assertEquals(1, published.size());
+        book = published.get(0);
+        assertEquals("AAPL", book.getSymbol());
+        assertEquals(3, book.getVersion());
+        assertEquals(1020, book.getMarketTimestamp());
+        assertArrayEquals(new double[][] {{150.23, 120}, {150.22, 10}, {150.20, 50}}, book.getBids());
+        assertArrayEquals(new double[][] {{150.25, 7}, {150.26, 200}, {150.27, 5}}, book.getAsks());
+        assertTrue(drain().isEmpty());
+
+        // A new snapshot replaces everything
+        apply("{\"type\":\"book\",\"symbol\":\"AAPL\",\"ts\":2000,\"snapshot\":true,\"bids\":[[149.0,1]],\"asks\":[]}");
+        book = manager.getBook("AAPL", 10);
+        assertArrayEquals(new double[][] {{149.0, 1}}, book.getBids());
+        assertEquals(0, book.getAsks().length);
+        assertNull(manager.getBook("MSFT", 10));
+    }
+
+    @Test
+    @DisplayName("Should publish a book only when one of its published levels changes")
+    void testDeepChangesNotPublished() {
+        apply("{\"type\":\"book\",\"symbol\":\"AAPL\",\"ts\":1000,\"snapshot\":true,"
+            + "\"bids\":[[150.24,300],[150.23,100],[150.22,10],[150.20,50]],\"asks\":[[150.26,200]]}");
+        assertEquals(1, drain().size());
+
+        // Depth is 3: changing, adding or removing the fourth bid and beyond leaves the top alone
+        apply("{\"type\":\"book\",\"symbol\":\"AAPL\",\"ts\":1010,\"bids\":[[150.20,60],[150.10,5]]}");
+        apply("{\"type\":\"book\",\"symbol\":\"AAPL\",\"ts\":1020,\"bids\":[[150.10,0]]}");
+        // Re-sending an unchanged top level does not change it either
+        apply("{\"type\":\"book\",\"symbol\":\"AAPL\",\"ts\":1030,\"asks\":[[150.26,200]]}");
+        assertTrue(drain().isEmpty());
+        assertEquals(4, manager.getBook("AAPL", 10).getVersion());
+
+        // Removing a top level pulls a deeper one up, so the book is published
+        apply("{\"type\":\"book\",\"symbol\":\"AAPL\",\"ts\":1040,\"bids\":[[150.22,0]]}");
+        List<PricePublisher.BookMessage> published = drain();
+        assertEquals(1, published.size());
+        assertArrayEquals(new double[][] {{150.24, 300}, {150.23, 100}, {150.20, 60}}, published.get(0).getBids());
+        assertEquals(1040, published.get(0).getMarketTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should match a reference book under random updates, keeping the best max-levels")
+    void testMatchesReference() {
+        Random random = new Random(11);
+        TreeMap<Double, Double> bids = new TreeMap<>();
+        TreeMap<Double, Double> asks = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            boolean bid = random.nextBoolean();
+            // Bids 90-100, asks 100.01-110, in cents
+            double price = (bid ? 9000 + random.nextInt(1000) : 10001 + random.nextInt(1000)) / 100.0;
+            double size = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(500);
+            update.clear();
+            update.setSymbol("MSFT");
+            update.setSymbolId(registry.idOf("MSFT"));
+            if (bid) {
+                update.addBid(price, size);
+            } else {
+                update.addAsk(price, size);
+            }
+            manager.apply(update);
+            TreeMap<Double, Double> side = bid ? bids : asks;
+            if (size == 0) {
+                side.remove(price);
+            } else {
+                side.put(price, size);
+            }
+        }
+        PricePublisher.BookMessage book = manager.getBook("MSFT", 20);
+        // Levels dropped past max-levels never come back, so only the top can be compared
+        assertTop(bids.descendingMap(), book.getBids());
+        assertTop(asks, book.getAsks());
+    }
+
+    private static void assertTop(Map<Double, Double> expected, double[][] actual) {
+        assertEquals(20, actual.length);
+        int i = 0;
+        for (Map.Entry<Double, Double> level : expected.entrySet()) {
+            if (i == actual.length) {
+                break;
+            }
+            assertEquals(level.getKey(), actual[i][0]);
+            assertEquals(level.getValue(), actual[i][1]);
+            i++;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.fintech.market.codec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for BinaryTickCodec
+ */
+class BinaryTickCodecTest {
+
+    private BinaryTickCodec codec;
+    private MutableTick tick;
+
+    @BeforeEach
+    void setUp() {
+        codec = new BinaryTickCodec();
+        tick = new MutableTick();
+    }
+
+    @Test
+    @DisplayName("Should round-trip a tick after its symbol is declared")
+    void testDecode_RoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BinaryTickCodec.encodeSymbol(buffer, 7, "AAPL");
+        int symbolLength = buffer.position();
+        BinaryTickCodec.encodeTick(buffer, 7, 42L, 150.25, 4, 1703123456789L, 1703123456790L);
+        byte[] bytes = buffer.array();
+
+        assertEquals(symbolLength, BinaryTickCodec.frameLength(buffer, 0));
+        assertEquals(BinaryTickCodec.TICK_FRAME_LENGTH, BinaryTickCodec.frameLength(buffer, symbolLength));
+
+        assertFalse(codec.decode(bytes, 0, symbolLength, tick));
+        assertNull(codec.getLastError());
+
+        assertTrue(codec.decode(bytes, symbolLength, BinaryTickCodec.TICK_FRAME_LENGTH, tick));
+        assertEquals("AAPL", tick.getSymbol());
+        assertEquals(150.25, tick.getPrice());
+        assertEquals(1703123456789L, tick.getTimestamp());
+        assertEquals(42L, tick.getSequence());
+    }
+
+    @Test
+    @DisplayName("Should encode fixed-point price and publish delay")
+    void testEncodeTick_Layout() {
+        byte[] frame = BinaryTickCodec.encodeTick(3, 9L, 12.345678, 6, 1000L, 1250L);
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+
+        assertEquals(BinaryTickCodec.TICK_FRAME_LENGTH, frame.length);
+        assertEquals(BinaryTickCodec.TYPE_TICK, buffer.get(0));
+        assertEquals(6, buffer.get(1));
+        assertEquals(3, buffer.getInt(4));
+        assertEquals(9L, buffer.getLong(8));
+        assertEquals(12345678L, buffer.getLong(16));
+        assertEquals(1000L, buffer.getLong(24));
+        assertEquals(250, buffer.getInt(32));
+    }
+
+    @Test
+    @DisplayName("Should reject ticks for undeclared symbols and unknown frame types")
+    void testDecode_Errors() {
+        byte[] frame = BinaryTickCodec.encodeTick(5, 1L, 1.0, 2, 1L, 0L);
+        assertFalse(codec.decode(frame, 0, frame.length, tick));
+        assertEquals(BinaryTickCodec.ERROR_UNKNOWN_SYMBOL, codec.getLastError());
+
+        assertFalse(codec.decode(frame, 0, 10, tick));
+        assertEquals(BinaryTickCodec.ERROR_TRUNCATED, codec.getLastError());
+
+        byte[] unknown = {0x7F, 0, 0, 0};
+        assertFalse(codec.decode(unknown, 0, unknown.length, tick));
+        assertEquals(BinaryTickCodec.ERROR_UNKNOWN_TYPE, codec.getLastError());
+        assertEquals(-1, BinaryTickCodec.frameLength(ByteBuffer.wrap(unknown), 0));
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryTickCodec.encodeTick(1, 1L, 1.0, 19, 1L, 0L));
+    }
+
+    @Test
+    @DisplayName("Should assign stable dense symbol ids")
+    void testSymbolRegistry() {
+        SymbolRegistry registry = new SymbolRegistry();
+        assertEquals(0, registry.idOf("AAPL"));
+        assertEquals(1, registry.idOf("MSFT"));
+        assertEquals(0, registry.idOf("AAPL"));
+        assertEquals(-1, registry.find("TSLA"));
+        assertEquals("MSFT", registry.symbolOf(1));
+        assertNull(registry.symbolOf(2));
+        assertEquals(2, registry.size());
+
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i + 2, registry.idOf("SYM" + i));
+        }
+        assertEquals("SYM4999", registry.symbolOf(5001));
+    }
+}
@@ -0,0 +1,157 @@
+package com.fintech.market.codec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TickDecoder
+ */
+class TickDecoderTest {
+
+    private TickDecoder decoder;
+    private MutableTick tick;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new TickDecoder();
+        tick = new MutableTick();
+    }
+
+    @Test
+    @DisplayName("Should decode a valid tick")
+    void testDecode_ValidJson() {
+        assertTrue(decoder.decode("{\"symbol\":\"AAPL\",\"price\":150.25,\"ts\":1703123456789}", tick));
+        assertEquals("AAPL", tick.getSymbol());
+        assertEquals(150.25, tick.getPrice());
+        assertEquals(1703123456789L, tick.getTimestamp());
+        assertNull(decoder.getLastError());
+    }
+
+    @Test
+    @DisplayName("Should tolerate whitespace, field order and unknown fields")
+    void testDecode_FieldOrderAndExtras() {
+        String json = " { \"ts\" : 1703123456789 , \"venue\":\"XNAS\", \"size\": 100, \"halted\": false,"
+            + " \"price\" : 1.5e2 , \"symbol\" : \"BTC-USD\" } ";
+        assertTrue(decoder.decode(json, tick));
+        assertEquals("BTC-USD", tick.getSymbol());
+        assertEquals(150.0, tick.getPrice());
+        assertEquals(1703123456789L, tick.getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should accept quoted numeric values")
+    void testDecode_QuotedNumbers() {
+        assertTrue(decoder.decode("{\"symbol\":\"MSFT\",\"price\":\"412.07\",\"ts\":\"1703123456789\"}", tick));
+        assertEquals(412.07, tick.getPrice());
+        assertEquals(1703123456789L, tick.getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should parse prices exactly like Double.parseDouble")
+    void testDecode_PricePrecision() {
+        String[] prices = {"0.1", "0.0001234", "-42.5", "99999.99", "123456789012.345678", "1E-7", "3.141592653589793238"};
+        for (String price : prices) {
+            assertTrue(decoder.decode("{\"symbol\":\"X\",\"price\":" + price + ",\"ts\":1}", tick), price);
+            assertEquals(Double.parseDouble(price), tick.getPrice(), price);
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode from heap and direct byte buffers without moving position")
+    void testDecode_ByteBuffer() {
+        byte[] bytes = "{\"symbol\":\"TSLA\",\"price\":250.5,\"ts\":42}".getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer heap = ByteBuffer.wrap(bytes);
+        assertTrue(decoder.decode(heap, tick));
+        assertEquals("TSLA", tick.getSymbol());
+        assertEquals(0, heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        assertTrue(decoder.decode(direct, tick));
+        assertEquals(250.5, tick.getPrice());
+        assertEquals(42L, tick.getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should return the same symbol instance for repeated ticks")
+    void testDecode_InternsSymbols() {
+        assertTrue(decoder.decode("{\"symbol\":\"AMZN\",\"price\":1,\"ts\":1}", tick));
+        String first = tick.getSymbol();
+        assertTrue(decoder.decode("{\"symbol\":\"AMZN\",\"price\":2,\"ts\":2}", tick));
+        assertSame(first, tick.getSymbol());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the streaming parser for escapes and nested values")
+    void testDecode_Fallback() {
+        assertTrue(decoder.decode("{\"symbol\":\"BRK\\u002eB\",\"price\":1,\"ts\":1}", tick));
+        assertEquals("BRK.B", tick.getSymbol());
+
+        assertTrue(decoder.decode("{\"meta\":{\"a\":[1,2]},\"symbol\":\"GOOGL\",\"price\":2,\"ts\":3}", tick));
+        assertEquals("GOOGL", tick.getSymbol());
+
+        assertTrue(decoder.decode("{\"symbol\":\"\u00c4PPL\",\"price\":2,\"ts\":3}", tick));
+        assertEquals("\u00c4PPL", tick.getSymbol());
+    }
+
+    @Test
+    @DisplayName("Should report missing and malformed fields without throwing")
+    void testDecode_Errors() {
+        assertFalse(decoder.decode("", tick));
+        assertEquals(TickDecoder.ERROR_EMPTY, decoder.getLastError());
+
+        assertFalse(decoder.decode((String) null, tick));
+        assertEquals(TickDecoder.ERROR_EMPTY, decoder.getLastError());
+
+        assertFalse(decoder.decode("{\"price\":1,\"ts\":1}", tick));
+        assertEquals(TickDecoder.ERROR_MISSING_SYMBOL, decoder.getLastError());
+        assertNull(tick.getSymbol());
+
+        assertFalse(decoder.decode("{\"symbol\":\"AAPL\",\"ts\":1}", tick));
+        assertEquals(TickDecoder.ERROR_MISSING_PRICE, decoder.getLastError());
+
+        assertFalse(decoder.decode("{\"symbol\":\"AAPL\",\"price\":1}", tick));
+        assertEquals(TickDecoder.ERROR_MISSING_TIMESTAMP, decoder.getLastError());
+
+        assertFalse(decoder.decode("{\"symbol\":\"AAPL\",\"price\":\"abc\",\"ts\":1}", tick));
+        assertEquals(TickDecoder.ERROR_MISSING_PRICE, decoder.getLastError());
+
+        assertFalse(decoder.decode("{\"symbol\":\"AAPL\",\"price\":1,\"ts\":1", tick));
+        assertEquals(TickDecoder.ERROR_TRUNCATED, decoder.getLastError());
+
+        assertFalse(decoder.decode("[1,2,3]", tick));
+        assertEquals(TickDecoder.ERROR_MALFORMED, decoder.getLastError());
+
+        assertFalse(decoder.decode("ping", tick));
+        assertEquals(TickDecoder.ERROR_MALFORMED, decoder.getLastError());
+    }
+
+    @Test
+    @DisplayName("Should resolve registry ids for text and byte input")
+    void testDecode_ResolvesSymbolIds() {
+        SymbolRegistry registry = new SymbolRegistry();
+        int msft = registry.idOf("MSFT");
+        TickDecoder resolving = new TickDecoder(registry);
+
+        assertTrue(resolving.decode("{\"symbol\":\"AAPL\",\"price\":1,\"ts\":1}", tick));
+        int aapl = tick.getSymbolId();
+        assertEquals("AAPL", registry.symbolOf(aapl));
+
+        ByteBuffer bytes = ByteBuffer.wrap("{\"symbol\":\"MSFT\",\"price\":2,\"ts\":2}".getBytes(StandardCharsets.UTF_8));
+        assertTrue(resolving.decode(bytes, tick));
+        assertEquals(msft, tick.getSymbolId());
+
+        assertTrue(resolving.decode("{\"symbol\":\"AAPL\",\"price\":3,\"ts\":3}", tick));
+        assertEquals(aapl, tick.getSymbolId());
+
+        assertTrue(decoder.decode("{\"symbol\":\"AAPL\",\"price\":1,\"ts\":1}", tick));
+        assertEquals(-1, tick.getSymbolId());
+    }
+}
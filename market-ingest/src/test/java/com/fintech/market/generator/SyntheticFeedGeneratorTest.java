@@ -0,0 +1,132 @@
+package com.fintech.market.generator;
+
+import com.fintech.market.codec.BinaryTickCodec;
+import com.fintech.market.codec.MutableTick;
+import com.fintech.market.codec.TickDecoder;
+import com.fintech.market.pipeline.TickSink;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SyntheticFeedGenerator and GbmPriceModel
+ */
+class SyntheticFeedGeneratorTest {
+
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "GOOGL", "SYN00000", "SYN00001", "SYN00002", "SYN00003"};
+
+    /**
+     * Records everything submitted, in submission order
+     */
+    private static class RecordingSink implements TickSink {
+        final List<String> text = new ArrayList<>();
+        final List<byte[]> binary = new ArrayList<>();
+
+        @Override
+        public synchronized boolean submit(String payload) {
+            text.add(payload);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean submit(ByteBuffer payload) {
+            byte[] copy = new byte[payload.remaining()];
+            payload.duplicate().get(copy);
+            binary.add(copy);
+            return true;
+        }
+    }
+
+    private static GbmPriceModel model() {
+        double[] prices = new double[SYMBOLS.length];
+        Arrays.fill(prices, 100.0);
+        return new GbmPriceModel(prices, 0.05, 0.3, 1.0);
+    }
+
+    private static void runFor(SyntheticFeedGenerator generator, long millis) throws InterruptedException {
+        generator.start();
+        Thread.sleep(millis);
+        generator.stop();
+    }
+
+    @Test
+    @DisplayName("Should declare every symbol before its first binary tick and number ticks per symbol")
+    void testBinaryFeed() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        SyntheticFeedGenerator generator = new SyntheticFeedGenerator(SYMBOLS, model(), 20_000, 3, 16,
+                                                                      SyntheticFeedGenerator.Format.BINARY, sink);
+        runFor(generator, 200);
+
+        BinaryTickCodec codec = new BinaryTickCodec();
+        MutableTick tick = new MutableTick();
+        Map<String, Long> lastSequence = new HashMap<>();
+        long ticks = 0;
+        for (byte[] message : sink.binary) {
+            int offset = 0;
+            while (offset < message.length) {
+                int length = BinaryTickCodec.frameLength(ByteBuffer.wrap(message), offset);
+                boolean decoded = codec.decode(message, offset, length, tick);
+                assertNull(codec.getLastError(), codec.getLastError());
+                if (decoded) {
+                    ticks++;
+                    assertTrue(tick.getPrice() > 0.0);
+                    long previous = lastSequence.getOrDefault(tick.getSymbol(), 0L);
+                    assertEquals(previous + 1, tick.getSequence(), "sequence gap for " + tick.getSymbol());
+                    lastSequence.put(tick.getSymbol(), tick.getSequence());
+                }
+                offset += length;
+            }
+        }
+        assertEquals(generator.getGeneratedCount(), ticks);
+        assertTrue(ticks > 0);
+        // 200ms at 20k/s is 4000 ticks; allow for scheduling slack but catch an unpaced loop
+        assertTrue(ticks < 20_000, "generated " + ticks + " ticks");
+    }
+
+    @Test
+    @DisplayName("Should generate decodable JSON ticks")
+    void testJsonFeed() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        SyntheticFeedGenerator generator = new SyntheticFeedGenerator(SYMBOLS, model(), 5_000, 2, 8,
+                                                                      SyntheticFeedGenerator.Format.JSON, sink);
+        runFor(generator, 100);
+
+        TickDecoder decoder = new TickDecoder();
+        MutableTick tick = new MutableTick();
+        assertFalse(sink.text.isEmpty());
+        for (String json : sink.text) {
+            assertTrue(decoder.decode(json, tick), json);
+            assertTrue(List.of(SYMBOLS).contains(tick.getSymbol()));
+            assertTrue(tick.getTimestamp() > 0L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should format fixed-point prices")
+    void testWriteCents() {
+        byte[] out = new byte[32];
+        assertEquals("150.05", new String(out, 0, SyntheticFeedGenerator.writeCents(out, 0, 15005)));
+        assertEquals("0.10", new String(out, 0, SyntheticFeedGenerator.writeCents(out, 0, 10)));
+    }
+
+    @Test
+    @DisplayName("Should follow the drift exactly when volatility is zero")
+    void testGbmWithoutVolatility() {
+        double stepSeconds = GbmPriceModel.SECONDS_PER_TRADING_YEAR / 100;
+        GbmPriceModel model = new GbmPriceModel(new double[] {100.0}, 0.10, 0.0, stepSeconds);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100; i++) {
+            model.step(0, random);
+        }
+        assertEquals(100.0 * Math.exp(0.10), model.getPrice(0), 1e-9);
+    }
+}
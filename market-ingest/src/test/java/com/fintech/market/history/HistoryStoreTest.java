@@ -0,0 +1,153 @@
+package com.fintech.market.history;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.HistoryProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for HistoryStore, GorillaChunk and the history endpoint's JSON writer
+ */
+class HistoryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<HistoryStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(HistoryStore::stop);
+    }
+
+    private HistoryStore open() throws Exception {
+        HistoryProperties properties = new HistoryProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setChunkPoints(100);
+        HistoryStore store = new HistoryStore();
+        ReflectionTestUtils.setField(store, "historyProperties", properties);
+        ReflectionTestUtils.setField(store, "symbolRegistry", new SymbolRegistry());
+        store.start();
+        opened.add(store);
+        return store;
+    }
+
+    private static List<double[]> query(HistoryStore store, String symbol, long from, long to) throws Exception {
+        List<double[]> points = new ArrayList<>();
+        store.query(symbol, from, to, (timestamp, price) -> points.add(new double[] {timestamp, price}));
+        return points;
+    }
+
+    @Test
+    @DisplayName("Should decode exactly what was compressed, including irregular and unusual values")
+    void testChunkRoundTrip() throws Exception {
+        Random random = new Random(7);
+        long[] timestamps = new long[5000];
+        double[] prices = new double[5000];
+        long timestamp = 1703123456789L;
+        double price = 150.25;
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamp += i % 50 == 0 ? -random.nextInt(1000) : random.nextInt(i % 7 == 0 ? 100_000 : 200);
+            price = Math.round((price + random.nextGaussian() * 0.05) * 100) / 100.0;
+            timestamps[i] = timestamp;
+            prices[i] = i == 100 ? Double.NaN : i == 101 ? -0.0 : i == 102 ? 1e300 : price;
+        }
+        GorillaChunk chunk = new GorillaChunk();
+        for (int i = 0; i < timestamps.length; i++) {
+            chunk.add(timestamps[i], prices[i]);
+        }
+
+        int[] index = {0};
+        GorillaChunk.decode(chunk.toByteArray(), chunk.count(), (t, p) -> {
+            assertEquals(timestamps[index[0]], t);
+            assertEquals(Double.doubleToRawLongBits(prices[index[0]]), Double.doubleToRawLongBits(p));
+            index[0]++;
+        });
+        assertEquals(timestamps.length, index[0]);
+    }
+
+    @Test
+    @DisplayName("Should compress regular ticks with small moves to a few bytes each")
+    void testCompression() {
+        GorillaChunk chunk = new GorillaChunk();
+        double price = 150.25;
+        for (int i = 0; i < 1000; i++) {
+            price += (i % 3 - 1) * 0.01;
+            chunk.add(1703123456000L + i * 100L, price);
+        }
+        assertTrue(chunk.toByteArray().length < 4 * 1000, "compressed to " + chunk.toByteArray().length + " bytes");
+    }
+
+    @Test
+    @DisplayName("Should answer range queries across sealed and open chunks and after reopening")
+    void testQueryAndRecover() throws Exception {
+        HistoryStore store = open();
+        for (int i = 0; i < 250; i++) {
+            store.append(-1, "AAPL", 100.0 + i, 1000L + i * 10L);
+            store.append(-1, "MSFT", 400.0 + i, 1000L + i * 10L);
+        }
+        assertEquals(4, store.getChunkCount());
+
+        List<double[]> range = query(store, "AAPL", 1995L, 2500L);
+        assertEquals(50, range.size());
+        assertEquals(2000.0, range.get(0)[0]);
+        assertEquals(200.0, range.get(0)[1]);
+        assertEquals(2490.0, range.get(49)[0]);
+        // Reaches into the open chunk
+        assertEquals(250, query(store, "MSFT", 0L, Long.MAX_VALUE).size());
+        assertTrue(query(store, "TSLA", 0L, Long.MAX_VALUE).isEmpty());
+
+        store.stop();
+        opened.clear();
+        // A chunk cut short by a crash is dropped on recovery
+        Path file = directory.resolve(HistoryStore.fileName(LocalDate.now(ZoneOffset.UTC)));
+        Files.write(file, new byte[] {40, 0, 0, 0, 4, 0}, StandardOpenOption.APPEND);
+
+        HistoryStore reopened = open();
+        assertEquals(6, reopened.getChunkCount());
+        assertEquals(250, query(reopened, "AAPL", 0L, Long.MAX_VALUE).size());
+        reopened.append(-1, "AAPL", 1.0, 5000L);
+        assertEquals(151, query(reopened, "AAPL", 1995L, 6000L).size());
+    }
+
+    @Test
+    @DisplayName("Should stream points and keep the last tick of each step")
+    void testWriteHistory() throws Exception {
+        HistoryStore store = open();
+        for (int i = 0; i < 10; i++) {
+            store.append(-1, "AAPL", 100.0 + i, 1000L + i * 250L);
+        }
+        HistoryController controller = new HistoryController();
+        ReflectionTestUtils.setField(controller, "historyStore", store);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        controller.writeHistory("AAPL", 1000L, 2000L, 0L, out);
+        JsonNode all = objectMapper.readTree(out.toByteArray());
+        assertEquals("[[1000,100.0],[1250,101.0],[1500,102.0],[1750,103.0]]", all.get("points").toString());
+
+        out.reset();
+        controller.writeHistory("AAPL", 1000L, 4000L, 1000L, out);
+        JsonNode stepped = objectMapper.readTree(out.toByteArray());
+        assertEquals("[[1000,103.0],[2000,107.0],[3000,109.0]]", stepped.get("points").toString());
+        assertEquals(1000L, stepped.get("step").asLong());
+    }
+}
@@ -0,0 +1,115 @@
+package com.fintech.market.indicators;
+
+import com.fintech.market.PricePublisher;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.IndicatorProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for IndicatorEngine and IndicatorWindow
+ */
+class IndicatorEngineTest {
+
+    private IndicatorEngine engine;
+    private final SymbolRegistry registry = new SymbolRegistry();
+
+    @BeforeEach
+    void setUp() {
+        IndicatorProperties properties = new IndicatorProperties();
+        properties.setWindows(List.of(1, 5));
+        // Indicators are drained by the tests; keep the publisher thread out of the way
+        properties.setPublishInterval(Duration.ofHours(1));
+        engine = new IndicatorEngine();
+        ReflectionTestUtils.setField(engine, "indicatorProperties", properties);
+        ReflectionTestUtils.setField(engine, "symbolRegistry", registry);
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    private void tick(String symbol, double price, long timestamp) {
+        engine.onTick(registry.idOf(symbol), symbol, price, timestamp);
+    }
+
+    @Test
+    @DisplayName("Should match indicators recomputed from the raw ticks of each window")
+    void testMatchesRecomputation() {
+        Random random = new Random(42);
+        List<Double> prices = new ArrayList<>();
+        double price = 10_000.0;
+        double ema = price;
+        for (int i = 0; i < 1003; i++) {
+            price += random.nextGaussian();
+            ema = i == 0 ? price : ema + (2.0 / 6) * (price - ema);
+            prices.add(price);
+            tick("AAPL", price, i);
+        }
+
+        List<PricePublisher.IndicatorMessage> indicators = engine.getIndicators("AAPL");
+        assertEquals(2, indicators.size());
+        PricePublisher.IndicatorMessage single = indicators.get(0);
+        assertEquals(1, single.getWindow());
+        assertEquals(price, single.getEma());
+        assertEquals(price, single.getVwap(), 1e-9);
+        assertEquals(0.0, single.getStddev(), 1e-6);
+
+        PricePublisher.IndicatorMessage five = indicators.get(1);
+        List<Double> last = prices.subList(prices.size() - 5, prices.size());
+        double mean = last.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+        double variance = last.stream().mapToDouble(p -> (p - mean) * (p - mean)).sum() / 5;
+        assertEquals(5, five.getCount());
+        assertEquals(ema, five.getEma(), 1e-9);
+        assertEquals(mean, five.getVwap(), 1e-9);
+        assertEquals(Math.sqrt(variance), five.getStddev(), 1e-6);
+        assertEquals(last.stream().mapToDouble(Double::doubleValue).min().orElseThrow(), five.getMin());
+        assertEquals(last.stream().mapToDouble(Double::doubleValue).max().orElseThrow(), five.getMax());
+        assertEquals(1002L, five.getMarketTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should track min and max as old extremes leave a partly filled window")
+    void testMinMaxEviction() {
+        double[] prices = {5, 1, 4, 3, 2, 6, 7};
+        for (int i = 0; i < prices.length; i++) {
+            tick("MSFT", prices[i], i);
+        }
+        // Window of 5 holds 4, 3, 2, 6, 7
+        PricePublisher.IndicatorMessage five = engine.getIndicators("MSFT").get(1);
+        assertEquals(2.0, five.getMin());
+        assertEquals(7.0, five.getMax());
+        assertEquals(4.4, five.getVwap(), 1e-9);
+
+        assertTrue(engine.getIndicators("TSLA").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drain only windows that changed since the last drain")
+    void testDrainChanged() {
+        tick("AAPL", 150.0, 1L);
+        tick("MSFT", 410.0, 1L);
+        List<PricePublisher.IndicatorMessage> drained = new ArrayList<>();
+        engine.drain(drained::add);
+        assertEquals(4, drained.size());
+
+        drained.clear();
+        tick("MSFT", 411.0, 2L);
+        engine.drain(drained::add);
+        assertEquals(2, drained.size());
+        assertEquals("MSFT", drained.get(0).getSymbol());
+        assertEquals(2, drained.get(1).getCount());
+    }
+}
@@ -0,0 +1,140 @@
+package com.fintech.market.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TickJournal and JournalReader
+ */
+class TickJournalTest {
+
+    private static final long SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private TickJournal open(long retentionBytes) throws Exception {
+        return new TickJournal(directory, SEGMENT_SIZE, Duration.ofHours(1), retentionBytes, Duration.ofDays(1));
+    }
+
+    private List<JournalRecord> readAll() throws Exception {
+        List<JournalRecord> records = new ArrayList<>();
+        try (JournalReader reader = new JournalReader(directory)) {
+            JournalRecord record = new JournalRecord();
+            while (reader.next(record)) {
+                JournalRecord copy = new JournalRecord();
+                copy.set(record.getSymbol(), record.getSequence(), record.getPrice(),
+                         record.getMarketTimestamp(), record.getRecordedTimestamp());
+                records.add(copy);
+            }
+        }
+        return records;
+    }
+
+    @Test
+    @DisplayName("Should write records with per-symbol sequence numbers and read them back in order")
+    void testAppendAndRead() throws Exception {
+        try (TickJournal journal = open(Long.MAX_VALUE)) {
+            assertEquals(1L, journal.append("AAPL", 150.25, 1000L));
+            assertEquals(1L, journal.append("MSFT", 410.00, 1001L));
+            assertEquals(2L, journal.append("AAPL", 150.30, 1002L));
+        }
+
+        List<JournalRecord> records = readAll();
+        assertEquals(3, records.size());
+        assertEquals("AAPL", records.get(0).getSymbol());
+        assertEquals(150.25, records.get(0).getPrice());
+        assertEquals(1000L, records.get(0).getMarketTimestamp());
+        assertEquals("MSFT", records.get(1).getSymbol());
+        assertEquals(1L, records.get(1).getSequence());
+        assertEquals(2L, records.get(2).getSequence());
+        assertTrue(records.get(2).getRecordedTimestamp() > 0);
+    }
+
+    @Test
+    @DisplayName("Should roll to new segments when full and read across them")
+    void testRollAcrossSegments() throws Exception {
+        int count = 500;
+        try (TickJournal journal = open(Long.MAX_VALUE)) {
+            for (int i = 0; i < count; i++) {
+                journal.append("SYM" + (i % 7), i, i);
+            }
+            assertTrue(journal.getSegmentCount() > 1);
+        }
+
+        List<JournalRecord> records = readAll();
+        assertEquals(count, records.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, records.get(i).getMarketTimestamp());
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue per-symbol sequences after reopening")
+    void testRecoverSequences() throws Exception {
+        try (TickJournal journal = open(Long.MAX_VALUE)) {
+            journal.append("AAPL", 1.0, 1L);
+            journal.append("AAPL", 2.0, 2L);
+        }
+        try (TickJournal journal = open(Long.MAX_VALUE)) {
+            assertEquals(2L, journal.getLastSequence("AAPL"));
+            assertEquals(3L, journal.append("AAPL", 3.0, 3L));
+            // Sequences assigned upstream are recorded as given
+            journal.append("MSFT", 41L, 4.0, 4L);
+            assertEquals(Map.of("AAPL", 3L, "MSFT", 41L), journal.getLastSequences());
+        }
+        List<JournalRecord> records = readAll();
+        assertEquals(4, records.size());
+        assertEquals(41L, records.get(3).getSequence());
+    }
+
+    @Test
+    @DisplayName("Should delete the oldest segments beyond the retention size")
+    void testRetentionBySize() throws Exception {
+        try (TickJournal journal = open(3 * SEGMENT_SIZE)) {
+            for (int i = 0; i < 2000; i++) {
+                journal.append("AAPL", i, i);
+            }
+            assertEquals(3, journal.getSegmentCount());
+        }
+
+        List<JournalRecord> records = readAll();
+        assertFalse(records.isEmpty());
+        assertTrue(records.get(0).getMarketTimestamp() > 0);
+        assertEquals(1999L, records.get(records.size() - 1).getMarketTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should let a reader follow the journal while it is written")
+    void testTailWhileWriting() throws Exception {
+        try (TickJournal journal = open(Long.MAX_VALUE);
+             JournalReader reader = new JournalReader(directory)) {
+            JournalRecord record = new JournalRecord();
+            assertFalse(reader.next(record));
+
+            journal.append("AAPL", 1.0, 1L);
+            assertTrue(reader.next(record));
+            assertEquals(1L, record.getMarketTimestamp());
+            assertFalse(reader.next(record));
+
+            for (int i = 2; i <= 300; i++) {
+                journal.append("AAPL", i, i);
+            }
+            int read = 0;
+            while (reader.next(record)) {
+                read++;
+            }
+            assertEquals(299, read);
+            assertEquals(300L, record.getMarketTimestamp());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.fintech.market.outbound;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.market.PricePublisher;
+import com.fintech.market.WebSocketClientService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PriceJsonEncoder, against the JSON Jackson writes for the same messages
+ */
+class PriceJsonEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should encode every supported message exactly as Jackson does")
+    void testMatchesJackson() throws Exception {
+        assertSameJson(new PricePublisher.PriceMessage("AAPL", 150.25, 1703123456789L, 1703123456790L, 42L));
+        assertSameJson(new PricePublisher.PriceMessage("BRK.B", 1.0E-7, -1L, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertSameJson(new PricePublisher.PriceMessage(null, Double.NaN, 0L, 0L, 0L));
+        assertSameJson(new PricePublisher.ErrorMessage("AAPL", "Bad \"tick\"\\\n\t\u0001 für €5 😀", 1L));
+        assertSameJson(new PricePublisher.StatusMessage("connected", null, 1703123456789L));
+        assertSameJson(PricePublisher.PriceBatchMessage.of(List.of(
+            new WebSocketClientService.PriceData("AAPL", 0, 150.25, 1L, 7L),
+            new WebSocketClientService.PriceData("MSFT", 1, 410.0, 2L, 8L),
+            new WebSocketClientService.PriceData("TINY", 2, 12345678.9, 3L, 9L)), 4L));
+        assertSameJson(new PricePublisher.PriceBatchMessage(null, null, null, 5L));
+        assertSameJson(PricePublisher.PriceBatchMessage.of(List.of(), 6L));
+    }
+
+    @Test
+    @DisplayName("Should assemble batches from fragments encoded once")
+    void testFragments() {
+        WebSocketClientService.PriceData aapl = new WebSocketClientService.PriceData("AAPL", 0, 150.25, 1L, 7L);
+        WebSocketClientService.PriceData msft = new WebSocketClientService.PriceData("MSFT", 1, 410.0, 2L, 8L);
+        PriceJsonEncoder.Fragments fragments = new PriceJsonEncoder.Fragments();
+        int first = fragments.add(aapl.getSymbol(), aapl.getPrice(), aapl.getTimestamp(), aapl.getSequence());
+        int second = fragments.add(msft.getSymbol(), msft.getPrice(), msft.getTimestamp(), msft.getSequence());
+
+        assertArrayEquals(PriceJsonEncoder.encode(PricePublisher.PriceBatchMessage.of(List.of(msft, aapl), 9L)),
+                          fragments.batch(new int[] {second, first}, 2, 9L));
+        assertArrayEquals(PriceJsonEncoder.encode(PricePublisher.PriceBatchMessage.of(List.of(aapl), 9L)),
+                          fragments.batch(new int[] {first, second}, 1, 9L));
+
+        fragments.clear();
+        assertEquals(0, fragments.add(msft.getSymbol(), msft.getPrice(), msft.getTimestamp(), msft.getSequence()));
+    }
+
+    private void assertSameJson(Object message) throws Exception {
+        assertTrue(PriceJsonEncoder.supports(message.getClass()));
+        assertEquals(objectMapper.writeValueAsString(message),
+                     new String(PriceJsonEncoder.encode(message), StandardCharsets.UTF_8));
+    }
+}
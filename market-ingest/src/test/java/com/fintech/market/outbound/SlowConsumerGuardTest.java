@@ -0,0 +1,95 @@
+package com.fintech.market.outbound;
+
+import com.fintech.market.config.OutboundProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for SlowConsumerGuard conflation and release
+ */
+class SlowConsumerGuardTest {
+
+    private final OutboundProperties properties = new OutboundProperties();
+    private final List<Message<?>> released = new ArrayList<>();
+    private final MessageChannel outbound = (message, timeout) -> released.add(message);
+    private SlowConsumerGuard guard;
+    private WebSocketSession guarded;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties.setMaxBacklog(2);
+        properties.setLaggardTimeout(Duration.ZERO);
+        guard = new SlowConsumerGuard();
+        ReflectionTestUtils.setField(guard, "outboundProperties", properties);
+        ReflectionTestUtils.setField(guard, "clientOutboundChannel", outbound);
+        guard.start();
+
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        guard.decorate(handler).afterConnectionEstablished(session);
+
+        ArgumentCaptor<WebSocketSession> captor = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(captor.capture());
+        guarded = captor.getValue();
+    }
+
+    @Test
+    @DisplayName("Should hold only the latest price per subscription once the backlog is full")
+    void testConflatesWhileLagging() throws Exception {
+        assertNotNull(guard.preSend(price("sub-0", "/topic/price/AAPL", "1"), outbound));
+        assertNotNull(guard.preSend(price("sub-0", "/topic/price/AAPL", "2"), outbound));
+
+        assertNull(guard.preSend(price("sub-0", "/topic/price/AAPL", "3"), outbound));
+        assertNull(guard.preSend(price("sub-1", "/topic/price/MSFT", "4"), outbound));
+        assertNull(guard.preSend(price("sub-0", "/topic/price/AAPL", "5"), outbound));
+        assertEquals(1, guard.getLaggingCount());
+        assertEquals(1, guard.getConflatedCount());
+
+        // One write leaves the backlog at the resume level, the second drops below it
+        guarded.sendMessage(new TextMessage("1"));
+        assertTrue(released.isEmpty());
+        guarded.sendMessage(new TextMessage("2"));
+
+        assertEquals(2, released.size());
+        assertEquals("5", new String((byte[]) released.get(0).getPayload()));
+        assertEquals("4", new String((byte[]) released.get(1).getPayload()));
+        assertEquals(0, guard.getLaggingCount());
+    }
+
+    @Test
+    @DisplayName("Should pass messages on other destinations while lagging")
+    void testPassesOtherDestinations() {
+        guard.preSend(price("sub-0", "/topic/price/AAPL", "1"), outbound);
+        guard.preSend(price("sub-0", "/topic/price/AAPL", "2"), outbound);
+
+        assertNotNull(guard.preSend(price("sub-2", "/topic/prices/batch", "3"), outbound));
+        assertNull(guard.preSend(price("sub-0", "/topic/price/AAPL", "4"), outbound));
+    }
+
+    private static Message<byte[]> price(String subscriptionId, String destination, String payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId("s1");
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(payload.getBytes(), accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,121 @@
+package com.fintech.market.pipeline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ConflationEngine
+ */
+class ConflationEngineTest {
+
+    private ConflationEngine engine;
+    private Map<String, Double> flushed;
+    private Map<String, Long> sequences;
+
+    @BeforeEach
+    void setUp() {
+        engine = new ConflationEngine();
+        flushed = new LinkedHashMap<>();
+        sequences = new LinkedHashMap<>();
+    }
+
+    @Test
+    @DisplayName("Should publish only the last price of a burst")
+    void testFlush_KeepsLatestValue() {
+        assertFalse(engine.update(0, "AAPL", 150.00, 1L, 1L));
+        assertTrue(engine.update(0, "AAPL", 150.10, 2L, 2L));
+        assertTrue(engine.update(0, "AAPL", 150.25, 3L, 3L));
+        assertFalse(engine.update(1, "MSFT", 410.00, 3L, 3L));
+
+        int count = engine.flush((symbolId, symbol, price, timestamp, sequence) -> {
+            flushed.put(symbol, price);
+            sequences.put(symbol, sequence);
+        });
+
+        assertEquals(2, count);
+        assertEquals(150.25, flushed.get("AAPL"), 0.0);
+        assertEquals(410.00, flushed.get("MSFT"), 0.0);
+        assertEquals(3L, sequences.get("AAPL"));
+        assertEquals(4, engine.getUpdateCount());
+        assertEquals(2, engine.getConflatedCount());
+    }
+
+    @Test
+    @DisplayName("Should not re-publish symbols that did not change since the last flush")
+    void testFlush_OnlyDirtySymbols() {
+        engine.update(0, "AAPL", 150.00, 1L, 1L);
+        engine.flush((symbolId, symbol, price, timestamp, sequence) -> { });
+        assertEquals(0, engine.getDirtyCount());
+
+        engine.update(2, "TSLA", 250.00, 2L, 2L);
+        engine.flush((symbolId, symbol, price, timestamp, sequence) -> flushed.put(symbol, price));
+
+        assertEquals(1, flushed.size());
+        assertTrue(flushed.containsKey("TSLA"));
+    }
+
+    @Test
+    @DisplayName("Should re-queue a symbol updated after it was flushed")
+    void testUpdate_AfterFlushIsPublishedAgain() {
+        engine.update(0, "AAPL", 150.00, 1L, 1L);
+        engine.flush((symbolId, symbol, price, timestamp, sequence) -> engine.update(0, "AAPL", 151.00, 2L, 2L));
+
+        engine.flush((symbolId, symbol, price, timestamp, sequence) -> flushed.put(symbol, price));
+
+        assertEquals(151.00, flushed.get("AAPL"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should grow the slot array for ids beyond its initial size")
+    void testUpdate_LargeSymbolId() {
+        engine.update(5000, "ZZZZ", 1.00, 1L, 1L);
+        engine.flush((symbolId, symbol, price, timestamp, sequence) -> {
+            assertEquals(5000, symbolId);
+            flushed.put(symbol, price);
+        });
+
+        assertEquals(1.00, flushed.get("ZZZZ"), 0.0);
+    }
+
+    @Test
+    @DisplayName("Should publish an update landing between a flush's poll and its read exactly once")
+    void testFlush_UpdateDuringFlushNotDuplicated() throws Exception {
+        engine.update(0, "AAPL", 150.00, 1L, 1L);
+        List<Long> published = new ArrayList<>();
+        Object slot = ((Object[]) ReflectionTestUtils.getField(engine, "slots"))[0];
+
+        Thread flusher;
+        synchronized (slot) {
+            // The flusher polls the slot, then blocks on the read until the update below is stored
+            flusher = new Thread(() -> engine.flush((symbolId, symbol, price, timestamp, sequence) -> {
+                synchronized (published) {
+                    published.add(sequence);
+                }
+            }));
+            flusher.start();
+            while (flusher.getState() != Thread.State.BLOCKED) {
+                assertTrue(flusher.isAlive());
+                Thread.onSpinWait();
+            }
+            assertTrue(engine.update(0, "AAPL", 150.10, 2L, 2L));
+        }
+        flusher.join();
+        engine.flush((symbolId, symbol, price, timestamp, sequence) -> {
+            synchronized (published) {
+                published.add(sequence);
+            }
+        });
+
+        assertEquals(List.of(2L), published);
+        assertEquals(0, engine.getDirtyCount());
+    }
+}
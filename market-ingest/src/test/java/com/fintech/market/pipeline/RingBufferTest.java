@@ -0,0 +1,106 @@
+package com.fintech.market.pipeline;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for RingBuffer and StageProcessor hand-off
+ */
+class RingBufferTest {
+
+    @Test
+    @DisplayName("Should reject non power-of-two buffer sizes")
+    void testConstructor_InvalidSize() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new RingBuffer<>(1000, TickEvent::new, new WaitStrategy.BusySpinWaitStrategy()));
+    }
+
+    @Test
+    @DisplayName("Should refuse to claim when the slowest consumer is a full lap behind")
+    void testTryNext_FullBuffer() {
+        RingBuffer<TickEvent> ringBuffer = new RingBuffer<>(4, TickEvent::new, new WaitStrategy.BusySpinWaitStrategy());
+        Sequence consumer = new Sequence();
+        ringBuffer.addGatingSequences(consumer);
+
+        for (int i = 0; i < 4; i++) {
+            long sequence = ringBuffer.tryNext();
+            assertEquals(i, sequence);
+            ringBuffer.publish(sequence);
+        }
+        assertEquals(-1L, ringBuffer.tryNext());
+        assertEquals(4, ringBuffer.getDepth());
+
+        consumer.set(1);
+        assertEquals(4L, ringBuffer.tryNext());
+    }
+
+    @Test
+    @DisplayName("Should reuse pre-allocated slots")
+    void testGet_ReusesSlots() {
+        RingBuffer<TickEvent> ringBuffer = new RingBuffer<>(4, TickEvent::new, new WaitStrategy.BusySpinWaitStrategy());
+        assertSame(ringBuffer.get(1), ringBuffer.get(5));
+    }
+
+    @Test
+    @DisplayName("Should resolve wait strategies by name")
+    void testWaitStrategy_FromName() {
+        assertTrue(WaitStrategy.fromName("busy-spin") instanceof WaitStrategy.BusySpinWaitStrategy);
+        assertTrue(WaitStrategy.fromName("Yielding") instanceof WaitStrategy.YieldingWaitStrategy);
+        assertTrue(WaitStrategy.fromName("sleeping") instanceof WaitStrategy.SleepingWaitStrategy);
+        assertTrue(WaitStrategy.fromName("blocking") instanceof WaitStrategy.BlockingWaitStrategy);
+        assertThrows(IllegalArgumentException.class, () -> WaitStrategy.fromName("unknown"));
+    }
+
+    @Test
+    @DisplayName("Should deliver every event to chained stages in order")
+    void testStages_DeliverInOrder() throws Exception {
+        for (String strategy : new String[] {"busy-spin", "yielding", "sleeping", "blocking"}) {
+            RingBuffer<TickEvent> ringBuffer = new RingBuffer<>(8, TickEvent::new, WaitStrategy.fromName(strategy));
+            List<String> decoded = Collections.synchronizedList(new ArrayList<>());
+            List<String> published = Collections.synchronizedList(new ArrayList<>());
+
+            StageProcessor<TickEvent> first = new StageProcessor<>("first", ringBuffer, ringBuffer.getCursor(),
+                (event, sequence, endOfBatch) -> decoded.add(event.getPayload()));
+            StageProcessor<TickEvent> second = new StageProcessor<>("second", ringBuffer, first.getSequence(),
+                (event, sequence, endOfBatch) -> published.add(event.getPayload()));
+            ringBuffer.addGatingSequences(second.getSequence());
+
+            Thread firstThread = new Thread(first);
+            Thread secondThread = new Thread(second);
+            firstThread.start();
+            secondThread.start();
+
+            int count = 1000;
+            for (int i = 0; i < count; i++) {
+                long sequence;
+                while ((sequence = ringBuffer.tryNext()) < 0) {
+                    Thread.onSpinWait();
+                }
+                ringBuffer.get(sequence).reset("tick-" + i, System.nanoTime());
+                ringBuffer.publish(sequence);
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (second.getSequence().get() < count - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            first.halt();
+            second.halt();
+            firstThread.join(1000);
+            secondThread.join(1000);
+
+            assertEquals(count, published.size(), strategy);
+            for (int i = 0; i < count; i++) {
+                assertEquals("tick-" + i, decoded.get(i));
+                assertEquals("tick-" + i, published.get(i));
+            }
+        }
+    }
+}
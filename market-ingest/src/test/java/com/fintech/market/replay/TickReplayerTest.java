@@ -0,0 +1,94 @@
+package com.fintech.market.replay;
+
+import com.fintech.market.journal.TickJournal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TickReplayer and ReplaySpeed
+ */
+class TickReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    private Path writeLines(String... lines) throws Exception {
+        Path file = directory.resolve("ticks.jsonl");
+        Files.write(file, List.of(lines));
+        return file;
+    }
+
+    @Test
+    @DisplayName("Should replay a JSON lines file in order, skipping blank lines")
+    void testReplayJsonLines() throws Exception {
+        Path file = writeLines(
+            "{\"symbol\":\"AAPL\",\"price\":150.25,\"ts\":1000}",
+            "",
+            "{\"symbol\":\"MSFT\",\"price\":410.0,\"ts\":1001}");
+        List<String> ticks = new ArrayList<>();
+
+        TickReplayer replayer = new TickReplayer(file, ReplaySpeed.MAX, false, ticks::add);
+        replayer.run();
+
+        assertEquals(2, ticks.size());
+        assertTrue(ticks.get(0).contains("AAPL"));
+        assertTrue(ticks.get(1).contains("MSFT"));
+        assertEquals(2L, replayer.getReplayedCount());
+    }
+
+    @Test
+    @DisplayName("Should replay a tick journal directory as JSON ticks")
+    void testReplayJournal() throws Exception {
+        Path journalDir = directory.resolve("journal");
+        try (TickJournal journal = new TickJournal(journalDir, 4096, Duration.ofHours(1),
+                                                   Long.MAX_VALUE, Duration.ofDays(1))) {
+            journal.append("AAPL", 150.25, 1000L);
+            journal.append("GOOGL", 2800.5, 1001L);
+        }
+        List<String> ticks = new ArrayList<>();
+
+        new TickReplayer(journalDir, ReplaySpeed.MAX, false, ticks::add).run();
+
+        assertEquals(2, ticks.size());
+        assertEquals("{\"symbol\":\"AAPL\",\"price\":150.25,\"ts\":1000}", ticks.get(0));
+        assertEquals("{\"symbol\":\"GOOGL\",\"price\":2800.5,\"ts\":1001}", ticks.get(1));
+    }
+
+    @Test
+    @DisplayName("Should pace ticks by recorded timestamps divided by the speed factor")
+    void testAcceleratedPacing() throws Exception {
+        Path file = writeLines(
+            "{\"symbol\":\"AAPL\",\"price\":1.0,\"ts\":0}",
+            "{\"symbol\":\"AAPL\",\"price\":2.0,\"ts\":1000}");
+        List<String> ticks = new ArrayList<>();
+
+        long start = System.nanoTime();
+        new TickReplayer(file, ReplaySpeed.parse("10x"), false, ticks::add).run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        assertEquals(2, ticks.size());
+        assertTrue(elapsedMillis >= 100, "replay finished after " + elapsedMillis + " ms");
+        assertTrue(elapsedMillis < 1000, "replay finished after " + elapsedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("Should parse realtime, max and factor speeds")
+    void testParseSpeed() {
+        assertSame(ReplaySpeed.REALTIME, ReplaySpeed.parse("realtime"));
+        assertSame(ReplaySpeed.MAX, ReplaySpeed.parse("MAX"));
+        assertTrue(ReplaySpeed.MAX.isUnbounded());
+        assertEquals(10.0, ReplaySpeed.parse("10x").getFactor());
+        assertEquals(0.5, ReplaySpeed.parse("0.5").getFactor());
+        assertThrows(IllegalArgumentException.class, () -> ReplaySpeed.parse("fast"));
+        assertThrows(IllegalArgumentException.class, () -> ReplaySpeed.parse("0x"));
+    }
+}
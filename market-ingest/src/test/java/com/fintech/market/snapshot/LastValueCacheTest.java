@@ -0,0 +1,149 @@
+package com.fintech.market.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.market.codec.SymbolRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LastValueCache and the snapshot endpoint's JSON writer
+ */
+class LastValueCacheTest {
+
+    private final SymbolRegistry registry = new SymbolRegistry();
+    private LastValueCache cache;
+    private final LastValueCache.Entry entry = new LastValueCache.Entry();
+
+    @BeforeEach
+    void setUp() {
+        cache = new LastValueCache();
+        ReflectionTestUtils.setField(cache, "symbolRegistry", registry);
+    }
+
+    @Test
+    @DisplayName("Should return the latest value and report symbols never published")
+    void testUpdateAndRead() {
+        int aapl = registry.idOf("AAPL");
+        registry.idOf("MSFT");
+        cache.update(aapl, "AAPL", 150.00, 1L, 1L);
+        cache.update(aapl, "AAPL", 150.25, 2L, 2L);
+        cache.update(-1, "TSLA", 250.00, 3L, 3L);
+
+        assertTrue(cache.read("AAPL", entry));
+        assertEquals("AAPL", entry.getSymbol());
+        assertEquals(150.25, entry.getPrice());
+        assertEquals(2L, entry.getMarketTimestamp());
+        assertEquals(2L, entry.getSequence());
+
+        assertTrue(cache.read("TSLA", entry));
+        assertEquals(250.00, entry.getPrice());
+
+        assertFalse(cache.read("MSFT", entry));
+        assertFalse(cache.read("NVDA", entry));
+    }
+
+    @Test
+    @DisplayName("Should hold slots for ids beyond the first chunk")
+    void testLargeSymbolIds() {
+        cache.update(70000, "FAR", 1.5, 10L, 11L);
+
+        assertTrue(cache.read(70000, "FAR", entry));
+        assertEquals(1.5, entry.getPrice());
+        assertFalse(cache.read(69999, "NEAR", entry));
+    }
+
+    @Test
+    @DisplayName("Should never expose a half-written slot to a concurrent reader")
+    void testConcurrentReadsAreConsistent() throws Exception {
+        int id = registry.idOf("AAPL");
+        cache.update(id, "AAPL", 0, 0L, 0L);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            LastValueCache.Entry seen = new LastValueCache.Entry();
+            while (running.get()) {
+                cache.read(id, "AAPL", seen);
+                // The writer keeps all three fields equal
+                if (seen.getPrice() != seen.getMarketTimestamp() || seen.getSequence() != seen.getMarketTimestamp()) {
+                    failure.compareAndSet(null, seen.getPrice() + "/" + seen.getMarketTimestamp() + "/" + seen.getSequence());
+                }
+            }
+        });
+        reader.start();
+        for (long i = 1; i <= 2_000_000; i++) {
+            cache.update(id, "AAPL", i, i, i);
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(failure.get());
+    }
+
+    @Test
+    @DisplayName("Should stream requested prices and list symbols without a price")
+    void testWriteSnapshot() throws Exception {
+        cache.update(registry.idOf("AAPL"), "AAPL", 150.25, 5L, 7L);
+        cache.update(registry.idOf("MSFT"), "MSFT", 410.00, 6L, 8L);
+        PriceSnapshotController controller = new PriceSnapshotController();
+        ReflectionTestUtils.setField(controller, "lastValueCache", cache);
+        ReflectionTestUtils.setField(controller, "symbolRegistry", registry);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        controller.writeSnapshot(List.of("AAPL", " NVDA ", ""), out);
+        JsonNode requested = objectMapper.readTree(out.toByteArray());
+        assertEquals(1, requested.get("prices").size());
+        assertEquals("AAPL", requested.get("prices").get(0).get("symbol").asText());
+        assertEquals(150.25, requested.get("prices").get(0).get("price").asDouble());
+        assertEquals(7L, requested.get("prices").get(0).get("sequence").asLong());
+        assertEquals("NVDA", requested.get("missing").get(0).asText());
+        assertEquals(1, requested.get("missing").size());
+
+        out.reset();
+        controller.writeSnapshot(null, out);
+        JsonNode all = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, all.get("prices").size());
+        assertNull(all.get("missing"));
+    }
+
+    @Test
+    @DisplayName("Should send a resuming client only the symbols it missed updates for")
+    void testWriteResume() throws Exception {
+        cache.update(registry.idOf("AAPL"), "AAPL", 150.25, 5L, 7L);
+        cache.update(registry.idOf("MSFT"), "MSFT", 410.00, 6L, 8L);
+        cache.update(registry.idOf("TSLA"), "TSLA", 250.00, 7L, 2L);
+        assertFalse(cache.readChanged("AAPL", 7L, entry));
+        assertTrue(cache.readChanged("AAPL", 6L, entry));
+        PriceSnapshotController controller = new PriceSnapshotController();
+        ReflectionTestUtils.setField(controller, "lastValueCache", cache);
+
+        Map<String, Long> lastSequences = new LinkedHashMap<>();
+        lastSequences.put("AAPL", 7L);
+        lastSequences.put("MSFT", 3L);
+        // Ahead of the cache: sequences restarted, so the client's value is stale too
+        lastSequences.put("TSLA", 40L);
+        lastSequences.put("NVDA", 1L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        controller.writeResume(lastSequences, out);
+
+        JsonNode resumed = new ObjectMapper().readTree(out.toByteArray());
+        assertEquals(2, resumed.get("prices").size());
+        assertEquals("MSFT", resumed.get("prices").get(0).get("symbol").asText());
+        assertEquals(8L, resumed.get("prices").get(0).get("sequence").asLong());
+        assertEquals("TSLA", resumed.get("prices").get(1).get("symbol").asText());
+        assertEquals("[\"NVDA\"]", resumed.get("missing").toString());
+    }
+}
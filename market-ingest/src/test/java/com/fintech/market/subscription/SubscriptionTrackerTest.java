@@ -0,0 +1,78 @@
+package com.fintech.market.subscription;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SubscriptionTracker
+ */
+class SubscriptionTrackerTest {
+
+    private static final String AAPL = "/topic/price/AAPL";
+    private static final String MSFT = "/topic/price/MSFT";
+
+    private SubscriptionTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new SubscriptionTracker();
+    }
+
+    @Test
+    @DisplayName("Should count subscriptions per destination and release them on unsubscribe")
+    void testSubscribeAndUnsubscribe() {
+        tracker.subscribe("s1", "sub-0", AAPL);
+        tracker.subscribe("s2", "sub-0", AAPL);
+        tracker.subscribe("s2", "sub-1", MSFT);
+
+        assertEquals(2, tracker.getSubscriberCount(AAPL));
+        assertTrue(tracker.hasSubscribers(MSFT));
+        assertFalse(tracker.hasSubscribers("/topic/price/TSLA"));
+
+        tracker.unsubscribe("s1", "sub-0");
+        assertEquals(1, tracker.getSubscriberCount(AAPL));
+        tracker.unsubscribe("s2", "sub-0");
+        assertFalse(tracker.hasSubscribers(AAPL));
+
+        // Unknown subscription ids are ignored
+        tracker.unsubscribe("s2", "sub-9");
+        assertEquals(1, tracker.getDestinationCount());
+    }
+
+    @Test
+    @DisplayName("Should release every subscription of a session on disconnect, once")
+    void testDisconnect() {
+        tracker.subscribe("s1", "sub-0", AAPL);
+        tracker.subscribe("s1", "sub-1", MSFT);
+        tracker.subscribe("s2", "sub-0", AAPL);
+
+        tracker.disconnect("s1");
+        tracker.disconnect("s1");
+
+        assertEquals(1, tracker.getSubscriberCount(AAPL));
+        assertFalse(tracker.hasSubscribers(MSFT));
+    }
+
+    @Test
+    @DisplayName("Should report subscribers everywhere while a pattern subscription exists")
+    void testPatternSubscription() {
+        tracker.subscribe("s1", "sub-0", "/topic/price/*");
+        assertTrue(tracker.hasSubscribers("/topic/price/TSLA"));
+
+        tracker.unsubscribe("s1", "sub-0");
+        assertFalse(tracker.hasSubscribers("/topic/price/TSLA"));
+    }
+
+    @Test
+    @DisplayName("Should replace the destination when a subscription id is reused")
+    void testSubscriptionIdReused() {
+        tracker.subscribe("s1", "sub-0", AAPL);
+        tracker.subscribe("s1", "sub-0", MSFT);
+
+        assertFalse(tracker.hasSubscribers(AAPL));
+        assertEquals(1, tracker.getSubscriberCount(MSFT));
+    }
+}
@@ -0,0 +1,91 @@
+package com.fintech.market.subscription;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MultiValueMap;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TrieSubscriptionRegistry
+ */
+class TrieSubscriptionRegistryTest {
+
+    private static final String AAPL = "/topic/price/AAPL";
+    private static final String MSFT = "/topic/price/MSFT";
+
+    private TrieSubscriptionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new TrieSubscriptionRegistry();
+    }
+
+    @Test
+    @DisplayName("Should find exact subscriptions and reuse the resolved subscribers until they change")
+    void testExactDestinations() {
+        registry.addSubscriptionInternal("s1", "sub-0", AAPL, null);
+        registry.addSubscriptionInternal("s2", "sub-0", AAPL, null);
+        registry.addSubscriptionInternal("s2", "sub-1", MSFT, null);
+
+        MultiValueMap<String, String> subscribers = find(AAPL);
+        assertEquals(List.of("sub-0"), subscribers.get("s1"));
+        assertEquals(List.of("sub-0"), subscribers.get("s2"));
+        assertSame(subscribers, find(AAPL));
+        assertTrue(find("/topic/price/TSLA").isEmpty());
+
+        registry.removeSubscriptionInternal("s1", "sub-0", null);
+        assertNull(find(AAPL).get("s1"));
+        assertEquals(List.of("sub-1"), find(MSFT).get("s2"));
+
+        registry.unregisterAllSubscriptions("s2");
+        assertTrue(find(AAPL).isEmpty());
+        assertTrue(find(MSFT).isEmpty());
+        assertEquals(0, registry.getDestinationCount());
+    }
+
+    @Test
+    @DisplayName("Should match pattern subscriptions through the trie")
+    void testPatterns() {
+        registry.addSubscriptionInternal("s1", "all", "/topic/price/*", null);
+        registry.addSubscriptionInternal("s2", "deep", "/topic/**", null);
+        registry.addSubscriptionInternal("s3", "var", "/topic/{kind}/AAPL", null);
+        registry.addSubscriptionInternal("s4", "exact", AAPL, null);
+
+        MultiValueMap<String, String> aapl = find(AAPL);
+        assertEquals(4, aapl.size());
+        assertEquals(List.of("all"), aapl.get("s1"));
+        assertEquals(List.of("var"), aapl.get("s3"));
+
+        MultiValueMap<String, String> bars = find("/topic/bars/1m/MSFT");
+        assertEquals(1, bars.size());
+        assertEquals(List.of("deep"), bars.get("s2"));
+
+        // Removing a pattern discards resolved subscribers it was part of
+        registry.removeSubscriptionInternal("s2", "deep", null);
+        assertNull(find(AAPL).get("s2"));
+        assertTrue(find("/topic/bars/1m/MSFT").isEmpty());
+        assertEquals(2, registry.getPatternCount());
+    }
+
+    @Test
+    @DisplayName("Should replace a subscription whose id is reused without an unsubscribe")
+    void testReusedSubscriptionId() {
+        registry.addSubscriptionInternal("s1", "sub-0", AAPL, null);
+        registry.addSubscriptionInternal("s1", "sub-0", "/topic/price/*", null);
+
+        assertEquals(0, registry.getDestinationCount());
+        assertEquals(List.of("sub-0"), find(MSFT).get("s1"));
+
+        registry.removeSubscriptionInternal("s1", "sub-0", null);
+        assertTrue(find(AAPL).isEmpty());
+        assertEquals(0, registry.getPatternCount());
+    }
+
+    private MultiValueMap<String, String> find(String destination) {
+        return registry.findSubscriptionsInternal(destination, null);
+    }
+}
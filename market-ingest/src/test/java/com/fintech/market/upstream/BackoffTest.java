@@ -0,0 +1,63 @@
+package com.fintech.market.upstream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for Backoff
+ */
+class BackoffTest {
+
+    // Always draws the given value
+    private static RandomGenerator fixed(double value) {
+        return new RandomGenerator() {
+            @Override
+            public long nextLong() {
+                return 0L;
+            }
+
+            @Override
+            public double nextDouble() {
+                return value;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should grow the delay by the multiplier up to the maximum")
+    void testExponentialGrowthCapped() {
+        Backoff backoff = new Backoff(5000, 30000, 2.0, 0.5, fixed(0.0));
+
+        assertEquals(5000, backoff.delayMillis(0));
+        assertEquals(10000, backoff.delayMillis(1));
+        assertEquals(20000, backoff.delayMillis(2));
+        assertEquals(30000, backoff.delayMillis(3));
+        assertEquals(30000, backoff.delayMillis(1000));
+    }
+
+    @Test
+    @DisplayName("Should take up to the jitter share off every delay")
+    void testJitter() {
+        assertEquals(5000, new Backoff(10000, 30000, 2.0, 0.5, fixed(0.999999)).delayMillis(0), 1);
+        assertEquals(7500, new Backoff(10000, 30000, 2.0, 0.5, fixed(0.5)).delayMillis(0));
+
+        Backoff random = new Backoff(10000, 30000, 2.0, 0.25, new Random(42));
+        for (int i = 0; i < 1000; i++) {
+            long delay = random.delayMillis(1);
+            assertTrue(delay > 15000 && delay <= 20000, "delay " + delay);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject settings that cannot produce a sane delay")
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new Backoff(5000, 1000, 2.0, 0.5, fixed(0)));
+        assertThrows(IllegalArgumentException.class, () -> new Backoff(5000, 30000, 0.5, 0.5, fixed(0)));
+        assertThrows(IllegalArgumentException.class, () -> new Backoff(5000, 30000, 2.0, 1.5, fixed(0)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.fintech.market.upstream;
+
+import com.fintech.market.codec.MutableTick;
+import com.fintech.market.config.UpstreamProperties;
+import com.fintech.market.pipeline.TickPipeline;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for FeedArbiter first-arrival merging of several sources
+ */
+class FeedArbiterTest {
+
+    /**
+     * Records the ticks passed on instead of running the pipeline
+     */
+    private static class RecordingPipeline extends TickPipeline {
+        final List<String> passed = new ArrayList<>();
+
+        @Override
+        public synchronized boolean submit(MutableTick tick) {
+            passed.add(tick.getSymbol() + "@" + tick.getTimestamp() + "=" + tick.getPrice());
+            return true;
+        }
+    }
+
+    private static MutableTick tick(int symbolId, String symbol, double price, long timestamp) {
+        MutableTick tick = new MutableTick();
+        tick.set(symbol, price, timestamp);
+        tick.setSymbolId(symbolId);
+        return tick;
+    }
+
+    @Test
+    @DisplayName("Should pass each update once, from whichever source delivers it first")
+    void testFirstArrivalWins() {
+        RecordingPipeline pipeline = new RecordingPipeline();
+        FeedArbiter arbiter = new FeedArbiter(pipeline, List.of("a", "b"), 60_000, null);
+
+        assertTrue(arbiter.submit(0, tick(0, "AAPL", 150.0, 1000)));
+        assertFalse(arbiter.submit(1, tick(0, "AAPL", 150.0, 1000)));
+        // b is first with the next update, and a's copy is dropped
+        assertTrue(arbiter.submit(1, tick(0, "AAPL", 150.1, 1010)));
+        assertFalse(arbiter.submit(0, tick(0, "AAPL", 150.1, 1010)));
+        // An update older than one already passed is dropped
+        assertFalse(arbiter.submit(0, tick(0, "AAPL", 149.9, 1005)));
+        // Same-millisecond updates from the winning source all pass
+        assertTrue(arbiter.submit(1, tick(0, "AAPL", 150.2, 1010)));
+        // Symbols are arbitrated independently
+        assertTrue(arbiter.submit(0, tick(1, "MSFT", 400.0, 900)));
+
+        assertEquals(List.of("AAPL@1000=150.0", "AAPL@1010=150.1", "AAPL@1010=150.2", "MSFT@900=400.0"), pipeline.passed);
+        List<FeedArbiter.SourceStats> stats = arbiter.getStats();
+        assertEquals("a", stats.get(0).getSource());
+        assertEquals(2, stats.get(0).getWins());
+        assertEquals(1, stats.get(0).getDuplicates());
+        assertEquals(1, stats.get(0).getStale());
+        assertEquals(2, stats.get(1).getWins());
+        assertEquals(1, stats.get(1).getDuplicates());
+        assertEquals(0.5, stats.get(1).getWinShare(), 1e-9);
+        assertTrue(stats.get(1).getMaxBehindMillis() >= stats.get(1).getMeanBehindMillis());
+    }
+
+    @Test
+    @DisplayName("Should count taking a symbol over from a silent source as a failover")
+    void testFailoverOnStaleness() throws Exception {
+        RecordingPipeline pipeline = new RecordingPipeline();
+        FeedArbiter arbiter = new FeedArbiter(pipeline, List.of("a", "b"), 20, null);
+
+        assertTrue(arbiter.submit(0, tick(0, "AAPL", 150.0, 1000)));
+        Thread.sleep(50);
+        // a has sent nothing since, so b's next update takes the symbol over
+        assertTrue(arbiter.submit(1, tick(0, "AAPL", 150.5, 1100)));
+        // and b's same-millisecond updates pass as the symbol's source
+        assertTrue(arbiter.submit(1, tick(0, "AAPL", 150.6, 1100)));
+
+        assertEquals(List.of("AAPL@1000=150.0", "AAPL@1100=150.5", "AAPL@1100=150.6"), pipeline.passed);
+        assertEquals(1, arbiter.getFailovers(1));
+        assertEquals(1, arbiter.getWins(1));
+    }
+
+    @Test
+    @DisplayName("Should drop a lagging source's late copy after a quiet spell, never moving the price back")
+    void testLateCopyAfterQuietSymbol() throws Exception {
+        RecordingPipeline pipeline = new RecordingPipeline();
+        FeedArbiter arbiter = new FeedArbiter(pipeline, List.of("a", "b"), 20, null);
+
+        assertTrue(arbiter.submit(0, tick(0, "AAPL", 150.0, 1000)));
+        assertTrue(arbiter.submit(0, tick(0, "AAPL", 150.1, 1010)));
+        Thread.sleep(50);
+        // b is only lagging: its copy of the first update arrives after the quiet spell
+        assertFalse(arbiter.submit(1, tick(0, "AAPL", 150.0, 1000)));
+        assertFalse(arbiter.submit(1, tick(0, "AAPL", 150.1, 1010)));
+
+        assertEquals(List.of("AAPL@1000=150.0", "AAPL@1010=150.1"), pipeline.passed);
+        assertEquals(0, arbiter.getFailovers(1));
+        assertEquals(0, arbiter.getWins(1));
+        assertEquals(1, arbiter.getStats().get(1).getStale());
+        assertEquals(1, arbiter.getDuplicates(1));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the single feed at market.ws.url and name unnamed sources")
+    void testSources() {
+        UpstreamProperties properties = new UpstreamProperties();
+        properties.setUrl("wss://feed.example.com/ws");
+        properties.setKey("k");
+        List<UpstreamProperties.Source> single = UpstreamConnectionManager.sources(properties);
+        assertEquals(1, single.size());
+        assertEquals("default", single.get(0).getName());
+        assertEquals("wss://feed.example.com/ws", single.get(0).getUrl());
+
+        properties.setSources(List.of(new UpstreamProperties.Source("fast", "wss://a", ""),
+                                      new UpstreamProperties.Source(null, "wss://b", "")));
+        List<UpstreamProperties.Source> merged = UpstreamConnectionManager.sources(properties);
+        assertEquals("fast", merged.get(0).getName());
+        assertEquals("source-1", merged.get(1).getName());
+    }
+}
@@ -0,0 +1,49 @@
+package com.fintech.market.upstream;
+
+import com.fintech.market.WebSocketClientService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for UpstreamConnectionManager symbol sharding
+ */
+class UpstreamConnectionManagerTest {
+
+    @Test
+    @DisplayName("Should deal symbols evenly across connections, each symbol once")
+    void testShardBalanced() {
+        List<List<String>> shards = UpstreamConnectionManager.shard(
+            List.of("AAPL", "MSFT", "GOOGL", "TSLA", "AMZN", "AAPL"), 2);
+
+        assertEquals(2, shards.size());
+        assertEquals(List.of("AAPL", "GOOGL", "AMZN"), shards.get(0));
+        assertEquals(List.of("MSFT", "TSLA"), shards.get(1));
+    }
+
+    @Test
+    @DisplayName("Should never open an empty shard")
+    void testShardNeverEmpty() {
+        assertEquals(List.of(List.of("AAPL"), List.of("MSFT")),
+                     UpstreamConnectionManager.shard(List.of("AAPL", "MSFT"), 8));
+        assertEquals(List.of(List.of("AAPL", "MSFT")),
+                     UpstreamConnectionManager.shard(List.of("AAPL", "MSFT"), 0));
+
+        // Without a symbol list one unfiltered session takes the whole feed
+        assertEquals(List.of(List.of()), UpstreamConnectionManager.shard(List.of(), 4));
+    }
+
+    @Test
+    @DisplayName("Should send the configured subscribe template, or nothing without one")
+    void testSubscribeMessage() {
+        WebSocketClientService.ProviderMarketAdapter adapter = new WebSocketClientService.ProviderMarketAdapter(
+            "key", "{\"op\":\"sub\",\"args\":{symbols}}");
+        assertEquals("{\"op\":\"sub\",\"args\":[\"AAPL\",\"BRK\\\"B\"]}",
+                     adapter.subscribeMessage(List.of("AAPL", "BRK\"B")));
+        assertNull(adapter.subscribeMessage(List.of()));
+        assertNull(new WebSocketClientService.ProviderMarketAdapter("key").subscribeMessage(List.of("AAPL")));
+    }
+}
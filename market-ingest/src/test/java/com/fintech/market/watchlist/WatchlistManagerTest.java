@@ -0,0 +1,116 @@
+package com.fintech.market.watchlist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.market.WebSocketClientService;
+import com.fintech.market.codec.SymbolRegistry;
+import com.fintech.market.config.PublishProperties;
+import com.fintech.market.snapshot.LastValueCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for WatchlistManager
+ */
+class WatchlistManagerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final MessageChannel outbound = (message, timeout) -> sent.add(message);
+    private WatchlistManager manager;
+
+    @BeforeEach
+    void setUp() {
+        PublishProperties properties = new PublishProperties();
+        properties.setSnapshotOnSubscribe(false);
+        manager = new WatchlistManager();
+        ReflectionTestUtils.setField(manager, "publishProperties", properties);
+        ReflectionTestUtils.setField(manager, "clientOutboundChannel", outbound);
+    }
+
+    @Test
+    @DisplayName("Should send each watchlist one frame with only its changed symbols")
+    void testPublishChangedSymbols() throws Exception {
+        manager.subscribe("s1", "sub-0", List.of("AAPL", " MSFT", "AAPL"));
+        manager.subscribe("s2", "sub-0", List.of("TSLA"));
+        manager.subscribe("s3", "sub-0", List.of("NVDA"));
+
+        manager.publish(List.of(price("AAPL", 150.0), price("MSFT", 410.0), price("TSLA", 250.0), price("GOOGL", 140.0)));
+
+        assertEquals(2, sent.size());
+        assertEquals("s1", SimpMessageHeaderAccessor.getSessionId(sent.get(0).getHeaders()));
+        assertEquals(WatchlistManager.DESTINATION, SimpMessageHeaderAccessor.getDestination(sent.get(0).getHeaders()));
+        JsonNode first = payload(0);
+        assertEquals("[\"AAPL\",\"MSFT\"]", first.get("symbols").toString());
+        assertEquals("[150.0,410.0]", first.get("prices").toString());
+        assertEquals("[1,1]", first.get("sequences").toString());
+        assertEquals("[\"TSLA\"]", payload(1).get("symbols").toString());
+
+        // Nothing pending is carried into the next flush
+        sent.clear();
+        manager.publish(List.of(price("MSFT", 411.0)));
+        assertEquals(1, sent.size());
+        assertEquals("[\"MSFT\"]", payload(0).get("symbols").toString());
+    }
+
+    @Test
+    @DisplayName("Should replace symbols on update and drop watchlists on unsubscribe and disconnect")
+    void testUpdateAndRemove() throws Exception {
+        manager.subscribe("s1", "sub-0", List.of("AAPL"));
+        manager.subscribe("s1", "sub-1", List.of("MSFT"));
+        manager.subscribe("s2", "sub-0", List.of("AAPL"));
+        assertEquals(3, manager.getWatchlistCount());
+
+        assertEquals(1, manager.update("s1", "sub-0", List.of("TSLA")));
+        manager.publish(List.of(price("TSLA", 250.0), price("AAPL", 150.0)));
+        assertEquals(2, sent.size());
+        assertEquals("s1", SimpMessageHeaderAccessor.getSessionId(sent.get(0).getHeaders()));
+        assertEquals("[\"TSLA\"]", payload(0).get("symbols").toString());
+
+        manager.unsubscribe("s2", "sub-0");
+        manager.disconnect("s1");
+        assertFalse(manager.hasWatchlists());
+        assertEquals(0, manager.update("s1", null, List.of("AAPL")));
+
+        sent.clear();
+        manager.publish(List.of(price("AAPL", 151.0), price("TSLA", 251.0)));
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should send a resuming watchlist only the cached prices it missed")
+    void testResume() throws Exception {
+        LastValueCache cache = new LastValueCache();
+        ReflectionTestUtils.setField(cache, "symbolRegistry", new SymbolRegistry());
+        cache.update(-1, "AAPL", 150.0, 1L, 7L);
+        cache.update(-1, "MSFT", 410.0, 1L, 9L);
+        ReflectionTestUtils.setField(manager, "lastValueCache", cache);
+
+        Map<String, Long> lastSequences = WatchlistManager.parseLastSequences("AAPL:7, MSFT:8,bad,TSLA:x");
+        assertEquals(Map.of("AAPL", 7L, "MSFT", 8L), lastSequences);
+        manager.subscribe("s1", "sub-0", List.of("AAPL", "MSFT", "TSLA"), lastSequences);
+
+        assertEquals(1, sent.size());
+        assertEquals("[\"MSFT\"]", payload(0).get("symbols").toString());
+        assertEquals("[9]", payload(0).get("sequences").toString());
+    }
+
+    private JsonNode payload(int index) throws Exception {
+        return objectMapper.readTree((byte[]) sent.get(index).getPayload());
+    }
+
+    private static WebSocketClientService.PriceData price(String symbol, double price) {
+        return new WebSocketClientService.PriceData(symbol, -1, price, 1L, 1L);
+    }
+}